@@ -0,0 +1,57 @@
+package org.springdataapi.springdemojpa.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.springdataapi.springdemojpa.instrumentacion.ConsultasLentas;
+import org.springdataapi.springdemojpa.instrumentacion.EventosHibernate;
+import org.springdataapi.springdemojpa.instrumentacion.JdbcInstrumentado;
+import org.springdataapi.springdemojpa.instrumentacion.SerializacionRespuesta;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+// Instrumentacion por peticion (paquete instrumentacion): DataSource que mide cada sentencia, listener de
+// Hibernate para las entidades cargadas y el interceptor que mide la serializacion de la respuesta
+@Configuration
+public class InstrumentacionConfig implements WebMvcConfigurer {
+
+    private final SerializacionRespuesta serializacionRespuesta;
+
+    public InstrumentacionConfig(SerializacionRespuesta serializacionRespuesta) {
+        this.serializacionRespuesta = serializacionRespuesta;
+    }
+
+    // static: los BeanPostProcessor se crean antes que el resto. ConsultasLentas se resuelve con la primera
+    // sentencia, no al envolver el DataSource
+    @Bean
+    public static BeanPostProcessor dataSourceInstrumentado(ObjectProvider<ConsultasLentas> consultasLentas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        ? JdbcInstrumentado.envolver(dataSource, SingletonSupplier.of(consultasLentas::getObject))
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public EventosHibernate eventosHibernate(EntityManagerFactory entityManagerFactory) {
+        EventosHibernate eventos = new EventosHibernate();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getEventListenerRegistry()
+                .appendListeners(EventType.POST_LOAD, eventos);
+        return eventos;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(serializacionRespuesta);
+    }
+}
@@ -1,7 +1,10 @@
 package org.springdataapi.springdemojpa.config;
 
+import org.springdataapi.springdemojpa.security.HashingOcupadoFilter;
 import org.springdataapi.springdemojpa.security.JwtAuthenticationEntryPoint;
 import org.springdataapi.springdemojpa.security.JwtAuthenticationFilter;
+import org.springdataapi.springdemojpa.security.PasswordHashingService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,7 +17,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -49,11 +51,16 @@ public class SecurityConfig {
     }
 
     // [SPRING SECURITY] Bean que define como se codifican las contraseñas
+    // BCrypt calculado en un pool acotado (ver PasswordHashingService); las passwords antiguas
+    // en texto plano se re-hashean en el primer login correcto
     @Bean
-    @SuppressWarnings("deprecation")
-    public static PasswordEncoder passwordEncoder() {
-        // TODO: Cambiar a BCryptPasswordEncoder cuando las contraseñas en BD esten encriptadas
-        return NoOpPasswordEncoder.getInstance();
+    public static PasswordEncoder passwordEncoder(
+            @Value("${app.security.password-hashing.strength:10}") int strength,
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password-hashing.max-wait-ms:2000}") long maxWaitMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashingService(strength, poolSize, queueCapacity, maxWaitMs);
     }
 
     // [SPRING SECURITY] Bean que gestiona la autenticacion (valida credenciales)
@@ -73,10 +80,14 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         // [SPRING SECURITY] Reglas de autorizacion por URL y rol
                         .requestMatchers("/api/auth/**").permitAll()  // Publico: login sin token
+                        // Segundo dispatch de una respuesta async (StreamingResponseBody de las exportaciones):
+                        // el acceso ya se comprobo en el REQUEST original y aqui el filtro JWT no vuelve a pasar
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/empleados/**").hasRole("ADMIN") // Solo ADMIN
                         .requestMatchers("/api/clientes/**").hasAnyRole("ADMIN", "EMPLEADO", "CLIENTE")
                         .requestMatchers("/api/productos/**").hasAnyRole("ADMIN", "EMPLEADO", "CLIENTE")
                         .requestMatchers("/api/consultas/**").hasAnyRole("ADMIN", "EMPLEADO")
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN") // Solo ADMIN: operacion y metricas
                         .anyRequest().authenticated() // El resto requiere autenticacion
                 )
                 .exceptionHandling(exception -> exception
@@ -103,6 +114,8 @@ public class SecurityConfig {
                         // [SPRING SECURITY] Reglas de autorizacion por URL y rol para la web
                         .requestMatchers("/css/**", "/login", "/error").permitAll() // Recursos publicos
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // Metricas: solo ADMIN
                         .requestMatchers("/empleados/**").hasRole("ADMIN") // Solo ADMIN
                         .requestMatchers("/clientes/**").hasAnyRole("ADMIN", "EMPLEADO", "CLIENTE")
                         .requestMatchers("/productos/**").hasAnyRole("ADMIN", "EMPLEADO", "CLIENTE")
@@ -122,6 +135,8 @@ public class SecurityConfig {
                         .permitAll()
                 );
 
+        // [SPRING SECURITY] Pool de hashing saturado durante el form login: 503 + Retry-After en vez de un 500
+        http.addFilterBefore(new HashingOcupadoFilter(), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
@@ -130,8 +145,9 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
-        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "If-Match", "If-None-Match"));
+        config.setExposedHeaders(List.of("X-Next-Cursor", "ETag")); // Cursor de los listados y version para If-Match
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
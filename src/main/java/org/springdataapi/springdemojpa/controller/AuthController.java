@@ -3,10 +3,11 @@ package org.springdataapi.springdemojpa.controller;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springdataapi.springdemojpa.models.LoginDto;
-import org.springdataapi.springdemojpa.repository.ClientesRepository;
-import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
 import org.springdataapi.springdemojpa.security.JwtTokenProvider;
 import org.springdataapi.springdemojpa.security.LoginRateLimiter;
+import org.springdataapi.springdemojpa.security.PasswordHashingBusyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,19 +28,13 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final LoginRateLimiter loginRateLimiter;
-    private final ClientesRepository clientesRepository;
-    private final EmpleadosRepository empleadosRepository;
 
     public AuthController(AuthenticationManager authenticationManager,
                           JwtTokenProvider jwtTokenProvider,
-                          LoginRateLimiter loginRateLimiter,
-                          ClientesRepository clientesRepository,
-                          EmpleadosRepository empleadosRepository) {
+                          LoginRateLimiter loginRateLimiter) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.loginRateLimiter = loginRateLimiter;
-        this.clientesRepository = clientesRepository;
-        this.empleadosRepository = empleadosRepository;
     }
 
     @PostMapping("/login")
@@ -78,19 +73,12 @@ public class AuthController {
             response.put("role", role);
             response.put("email", authentication.getName());
 
-            // Incluir nombre e id del usuario
-            empleadosRepository.findByEmail(authentication.getName())
-                    .ifPresentOrElse(
-                            empleado -> {
-                                response.put("nombre", empleado.getNombre());
-                                response.put("userId", empleado.getId());
-                            },
-                            () -> clientesRepository.findByEmail(authentication.getName())
-                                    .ifPresent(cliente -> {
-                                        response.put("nombre", cliente.getNombre());
-                                        response.put("userId", cliente.getId());
-                                    })
-                    );
+            // Incluir nombre e id del usuario: ya vienen en el principal resuelto por
+            // CustomUserDetailsService, asi el login completo es una sola consulta
+            if (authentication.getPrincipal() instanceof CustomUserDetails user) {
+                response.put("nombre", user.getNombre());
+                response.put("userId", user.getUserId());
+            }
 
             return ResponseEntity.ok(response);
         // [SPRING SECURITY] BadCredentialsException: excepcion de Spring Security cuando el password es incorrecto
@@ -98,6 +86,13 @@ public class AuthController {
             loginRateLimiter.registerFailedAttempt(key);
             loginRateLimiter.registerFailedAttempt(ip);
             throw e;
+        } catch (PasswordHashingBusyException e) {
+            // El pool de hashing esta saturado: 503 inmediato para que el cliente reintente
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, PasswordHashingBusyException.RETRY_AFTER_SEGUNDOS)
+                    .body(error);
         }
     }
 }
@@ -0,0 +1,34 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.springdataapi.springdemojpa.models.EstadisticasRegionCache;
+import org.springdataapi.springdemojpa.service.CacheSegundoNivelService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')") // [SPRING SECURITY] Solo ADMIN
+public class CacheController {
+
+    private final CacheSegundoNivelService cacheSegundoNivelService;
+
+    public CacheController(CacheSegundoNivelService cacheSegundoNivelService) {
+        this.cacheSegundoNivelService = cacheSegundoNivelService;
+    }
+
+    // Aciertos/fallos por region (productos, roles-empleado y sus consultas)
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticasRegionCache>> estadisticas() {
+        return ResponseEntity.ok(cacheSegundoNivelService.estadisticas());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, String>> vaciar() {
+        cacheSegundoNivelService.vaciar();
+        return ResponseEntity.ok(Map.of("message", "Cache de segundo nivel vaciada"));
+    }
+}
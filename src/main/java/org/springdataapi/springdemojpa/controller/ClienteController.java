@@ -1,16 +1,26 @@
 package org.springdataapi.springdemojpa.controller;
 
 import jakarta.validation.Valid;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
 import org.springdataapi.springdemojpa.models.Clientes;
 import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.ClientesParcialDTO;
+import org.springdataapi.springdemojpa.models.ResultadoImportacion;
 import org.springdataapi.springdemojpa.security.CustomUserDetails;
 import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.ExportacionService;
+import org.springdataapi.springdemojpa.service.FormatoFichero;
+import org.springdataapi.springdemojpa.service.ImportacionService;
+import org.springdataapi.springdemojpa.service.VersionesTablas;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -19,29 +29,46 @@ import java.util.Map;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final VersionesTablas versionesTablas;
+    private final ImportacionService importacionService;
+    private final ExportacionService exportacionService;
 
-    public ClienteController(ClienteService clienteService) {
+    public ClienteController(ClienteService clienteService, VersionesTablas versionesTablas,
+                             ImportacionService importacionService,
+                             ExportacionService exportacionService) {
         this.clienteService = clienteService;
+        this.versionesTablas = versionesTablas;
+        this.importacionService = importacionService;
+        this.exportacionService = exportacionService;
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')") // [SPRING SECURITY] Solo ADMIN y EMPLEADO pueden listar clientes
-    public ResponseEntity<List<Clientes>> listar() {
-        return ResponseEntity.ok(clienteService.findAll());
+    public ResponseEntity<List<ClienteResumen>> listar(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limite) {
+        return RespuestaPaginada.ok(clienteService.listarPagina(cursor, limite));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
     public ResponseEntity<Clientes> obtenerPorId(@PathVariable Integer id) {
-        return ResponseEntity.ok(clienteService.findById(id));
+        Clientes cliente = clienteService.findById(id);
+        return RespuestaCondicional.okConVersion(cliente, cliente.getVersion());
     }
 
     @GetMapping("/mi-perfil")
     @PreAuthorize("hasRole('CLIENTE')") // [SPRING SECURITY] Solo CLIENTE puede ver su propio perfil
-    public ResponseEntity<Clientes> miPerfil(Authentication authentication) {
+    public ResponseEntity<Clientes> miPerfil(Authentication authentication,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         // [SPRING SECURITY] Obtiene los datos del usuario autenticado desde el contexto de seguridad
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        return ResponseEntity.ok(clienteService.findById(userDetails.getUserId()));
+        // Perfil propio: ETag por cliente y cache solo privada
+        String etag = versionesTablas.etagCliente(userDetails.getUserId());
+        if (RespuestaCondicional.noModificado(ifNoneMatch, etag)) {
+            return RespuestaCondicional.noModificada(etag, RespuestaCondicional.PRIVADA);
+        }
+        return RespuestaCondicional.ok(etag, RespuestaCondicional.PRIVADA)
+                .body(clienteService.findById(userDetails.getUserId()));
     }
 
     @PostMapping
@@ -52,16 +79,47 @@ public class ClienteController {
                 .body(Map.of("message", "Cliente creado correctamente"));
     }
 
+    // Alta masiva: CSV con cabecera o NDJSON, leido en streaming. Responde 200 con el informe por filas
+    // aunque alguna se rechace (ver ImportacionService)
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<ResultadoImportacion> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         InputStream cuerpo) {
+        return ResponseEntity.ok(importacionService.importarClientes(
+                cuerpo, FormatoFichero.desde(contentType)));
+    }
+
+    // Exportacion completa en streaming (CSV o NDJSON): memoria constante sea cual sea el numero de filas
+    @GetMapping("/exportar")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "csv") String formato) {
+        FormatoFichero f = FormatoFichero.desde(formato);
+        return RespuestaExportacion.ok("clientes", f, salida -> exportacionService.exportarClientes(salida, f));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
-    public ResponseEntity<Clientes> actualizar(@PathVariable Integer id, @Valid @RequestBody ClientesDTO dto) {
-        return ResponseEntity.ok(clienteService.actualizar(id, dto));
+    public ResponseEntity<Clientes> actualizar(@PathVariable Integer id, @Valid @RequestBody ClientesDTO dto,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Clientes guardado = clienteService.actualizar(id, dto, RespuestaCondicional.versionIfMatch(ifMatch));
+        return RespuestaCondicional.okConVersion(guardado, guardado.getVersion());
+    }
+
+    // Cambio parcial: solo los campos enviados (ver ClientesParcialDTO)
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<Clientes> actualizarParcial(@PathVariable Integer id,
+                                                      @Valid @RequestBody ClientesParcialDTO dto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Clientes guardado = clienteService.actualizarParcial(id, dto, RespuestaCondicional.versionIfMatch(ifMatch));
+        return RespuestaCondicional.okConVersion(guardado, guardado.getVersion());
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
-    public ResponseEntity<Map<String, String>> eliminar(@PathVariable Integer id) {
-        clienteService.eliminar(id);
+    public ResponseEntity<Map<String, String>> eliminar(@PathVariable Integer id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        clienteService.eliminar(id, RespuestaCondicional.versionIfMatch(ifMatch));
         return ResponseEntity.ok(Map.of("message", "Cliente eliminado correctamente"));
     }
 }
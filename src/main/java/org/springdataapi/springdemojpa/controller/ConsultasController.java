@@ -1,8 +1,9 @@
 package org.springdataapi.springdemojpa.controller;
 
-import org.springdataapi.springdemojpa.models.Clientes;
-import org.springdataapi.springdemojpa.models.Empleados;
-import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
 import org.springdataapi.springdemojpa.service.ClienteService;
 import org.springdataapi.springdemojpa.service.EmpleadosService;
 import org.springdataapi.springdemojpa.service.ProductosService;
@@ -32,42 +33,48 @@ public class ConsultasController {
     }
 
     @GetMapping("/clientes")
-    public ResponseEntity<List<Clientes>> consultarClientes(
+    public ResponseEntity<List<ClienteResumen>> consultarClientes(
             @RequestParam(required = false) String telefono,
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String tipoCliente,
             @RequestParam(required = false) Integer idEmpleado,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
 
-        List<Clientes> clientes = clienteService.buscarClientesFiltrados(
-                telefono, email, tipoCliente, idEmpleado, fechaDesde);
-        return ResponseEntity.ok(clientes);
+        Pagina<ClienteResumen> clientes = clienteService.buscarClientesFiltrados(
+                telefono, email, tipoCliente, idEmpleado, fechaDesde, cursor, limite);
+        return RespuestaPaginada.ok(clientes);
     }
 
     @GetMapping("/productos")
-    public ResponseEntity<List<Productos>> consultarProductos(
+    public ResponseEntity<List<ProductoResumen>> consultarProductos(
             @RequestParam(required = false) String nombre,
             @RequestParam(required = false) String categoria,
             @RequestParam(required = false) Double precioMin,
             @RequestParam(required = false) Double precioMax,
-            @RequestParam(required = false) Boolean activo) {
+            @RequestParam(required = false) Boolean activo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
 
-        List<Productos> productos = productosService.buscarProductosFiltrados(
-                nombre, categoria, precioMin, precioMax, activo);
-        return ResponseEntity.ok(productos);
+        Pagina<ProductoResumen> productos = productosService.buscarProductosFiltrados(
+                nombre, categoria, precioMin, precioMax, activo, cursor, limite);
+        return RespuestaPaginada.ok(productos);
     }
 
     @GetMapping("/empleados")
-    public ResponseEntity<List<Empleados>> consultarEmpleados(
+    public ResponseEntity<List<EmpleadoResumen>> consultarEmpleados(
             @RequestParam(required = false) String telefono,
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String estado,
             @RequestParam(required = false) Integer idRol,
             @RequestParam(required = false) Boolean tieneClientes,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaIngreso) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaIngreso,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
 
-        List<Empleados> empleados = empleadosService.buscarEmpleadosFiltrados(
-                telefono, email, estado, idRol, tieneClientes, fechaIngreso);
-        return ResponseEntity.ok(empleados);
+        Pagina<EmpleadoResumen> empleados = empleadosService.buscarEmpleadosFiltrados(
+                telefono, email, estado, idRol, tieneClientes, fechaIngreso, cursor, limite);
+        return RespuestaPaginada.ok(empleados);
     }
 }
@@ -1,13 +1,19 @@
 package org.springdataapi.springdemojpa.controller;
 
 import jakarta.validation.Valid;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
 import org.springdataapi.springdemojpa.models.Empleados;
 import org.springdataapi.springdemojpa.models.EmpleadosDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosParcialDTO;
 import org.springdataapi.springdemojpa.service.EmpleadosService;
+import org.springdataapi.springdemojpa.service.ExportacionService;
+import org.springdataapi.springdemojpa.service.FormatoFichero;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -18,19 +24,30 @@ import java.util.Map;
 public class EmpleadosController {
 
     private final EmpleadosService empleadosService;
+    private final ExportacionService exportacionService;
 
-    public EmpleadosController(EmpleadosService empleadosService) {
+    public EmpleadosController(EmpleadosService empleadosService, ExportacionService exportacionService) {
         this.empleadosService = empleadosService;
+        this.exportacionService = exportacionService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Empleados>> listar() {
-        return ResponseEntity.ok(empleadosService.findAll());
+    public ResponseEntity<List<EmpleadoResumen>> listar(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limite) {
+        return RespuestaPaginada.ok(empleadosService.listarPagina(cursor, limite));
+    }
+
+    // Exportacion completa en streaming (CSV o NDJSON): memoria constante sea cual sea el numero de filas
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "csv") String formato) {
+        FormatoFichero f = FormatoFichero.desde(formato);
+        return RespuestaExportacion.ok("empleados", f, salida -> exportacionService.exportarEmpleados(salida, f));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Empleados> obtenerPorId(@PathVariable Integer id) {
-        return ResponseEntity.ok(empleadosService.findById(id));
+        Empleados empleado = empleadosService.findById(id);
+        return RespuestaCondicional.okConVersion(empleado, empleado.getVersion());
     }
 
     @PostMapping
@@ -41,13 +58,24 @@ public class EmpleadosController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Empleados> actualizar(@PathVariable Integer id, @Valid @RequestBody EmpleadosDTO dto) {
-        return ResponseEntity.ok(empleadosService.actualizar(id, dto));
+    public ResponseEntity<Empleados> actualizar(@PathVariable Integer id, @Valid @RequestBody EmpleadosDTO dto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Empleados guardado = empleadosService.actualizar(id, dto, RespuestaCondicional.versionIfMatch(ifMatch));
+        return RespuestaCondicional.okConVersion(guardado, guardado.getVersion());
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Empleados> actualizarParcial(@PathVariable Integer id,
+                                                       @Valid @RequestBody EmpleadosParcialDTO dto,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Empleados guardado = empleadosService.actualizarParcial(id, dto, RespuestaCondicional.versionIfMatch(ifMatch));
+        return RespuestaCondicional.okConVersion(guardado, guardado.getVersion());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, String>> eliminar(@PathVariable Integer id) {
-        empleadosService.eliminar(id);
+    public ResponseEntity<Map<String, String>> eliminar(@PathVariable Integer id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        empleadosService.eliminar(id, RespuestaCondicional.versionIfMatch(ifMatch));
         return ResponseEntity.ok(Map.of("message", "Empleado eliminado correctamente"));
     }
 }
@@ -0,0 +1,34 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.springdataapi.springdemojpa.instrumentacion.MetricasPeticiones;
+import org.springdataapi.springdemojpa.models.EstadisticasEndpoint;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metricas")
+@PreAuthorize("hasRole('ADMIN')") // [SPRING SECURITY] Solo ADMIN
+public class MetricasController {
+
+    private final MetricasPeticiones metricasPeticiones;
+
+    public MetricasController(MetricasPeticiones metricasPeticiones) {
+        this.metricasPeticiones = metricasPeticiones;
+    }
+
+    // Sentencias, filas, entidades, flushes y tiempos (JDBC, serializacion) por peticion de cada endpoint
+    @GetMapping("/peticiones")
+    public ResponseEntity<List<EstadisticasEndpoint>> peticiones() {
+        return ResponseEntity.ok(metricasPeticiones.estadisticas());
+    }
+
+    @DeleteMapping("/peticiones")
+    public ResponseEntity<Map<String, String>> vaciar() {
+        metricasPeticiones.vaciar();
+        return ResponseEntity.ok(Map.of("message", "Metricas por peticion vaciadas"));
+    }
+}
@@ -1,14 +1,25 @@
 package org.springdataapi.springdemojpa.controller;
 
 import jakarta.validation.Valid;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
 import org.springdataapi.springdemojpa.models.Productos;
 import org.springdataapi.springdemojpa.models.ProductosDTO;
+import org.springdataapi.springdemojpa.models.ProductosParcialDTO;
+import org.springdataapi.springdemojpa.models.ResultadoEliminacion;
+import org.springdataapi.springdemojpa.models.ResultadoImportacion;
+import org.springdataapi.springdemojpa.service.ExportacionService;
+import org.springdataapi.springdemojpa.service.FormatoFichero;
+import org.springdataapi.springdemojpa.service.ImportacionService;
 import org.springdataapi.springdemojpa.service.ProductosService;
+import org.springdataapi.springdemojpa.service.VersionesTablas;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -17,27 +28,50 @@ import java.util.Map;
 public class ProductosController {
 
     private final ProductosService productosService;
+    private final VersionesTablas versionesTablas;
+    private final ImportacionService importacionService;
+    private final ExportacionService exportacionService;
 
-    public ProductosController(ProductosService productosService) {
+    public ProductosController(ProductosService productosService, VersionesTablas versionesTablas,
+                               ImportacionService importacionService,
+                               ExportacionService exportacionService) {
         this.productosService = productosService;
+        this.versionesTablas = versionesTablas;
+        this.importacionService = importacionService;
+        this.exportacionService = exportacionService;
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO', 'CLIENTE')") // [SPRING SECURITY] Todos los roles pueden leer productos
-    public ResponseEntity<List<Productos>> listar() {
-        return ResponseEntity.ok(productosService.findAll());
+    public ResponseEntity<List<ProductoResumen>> listar(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limite,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Version leida antes de consultar (ver VersionesTablas)
+        String etag = versionesTablas.etagProductos();
+        if (RespuestaCondicional.noModificado(ifNoneMatch, etag)) {
+            return RespuestaCondicional.noModificada(etag, RespuestaCondicional.COMPARTIDA);
+        }
+        return RespuestaPaginada.ok(RespuestaCondicional.ok(etag, RespuestaCondicional.COMPARTIDA),
+                productosService.listarPagina(cursor, limite));
     }
 
     @GetMapping("/activos")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO', 'CLIENTE')")
-    public ResponseEntity<List<Productos>> listarActivos() {
-        return ResponseEntity.ok(productosService.findProductosActivos());
+    public ResponseEntity<List<Productos>> listarActivos(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versionesTablas.etagProductos();
+        if (RespuestaCondicional.noModificado(ifNoneMatch, etag)) {
+            return RespuestaCondicional.noModificada(etag, RespuestaCondicional.COMPARTIDA);
+        }
+        return RespuestaCondicional.ok(etag, RespuestaCondicional.COMPARTIDA)
+                .body(productosService.findProductosActivos());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO', 'CLIENTE')")
     public ResponseEntity<Productos> obtenerPorId(@PathVariable Integer id) {
-        return ResponseEntity.ok(productosService.findById(id));
+        Productos producto = productosService.findById(id);
+        return RespuestaCondicional.okConVersion(producto, producto.getVersion());
     }
 
     @GetMapping("/precio")
@@ -54,16 +88,53 @@ public class ProductosController {
                 .body(Map.of("message", "Producto creado correctamente"));
     }
 
+    // Alta masiva: CSV con cabecera o NDJSON, leido en streaming. Responde 200 con el informe por filas
+    // aunque alguna se rechace (ver ImportacionService)
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<ResultadoImportacion> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         InputStream cuerpo) {
+        return ResponseEntity.ok(importacionService.importarProductos(
+                cuerpo, FormatoFichero.desde(contentType)));
+    }
+
+    // Exportacion completa en streaming (CSV o NDJSON): memoria constante sea cual sea el numero de filas
+    @GetMapping("/exportar")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "csv") String formato) {
+        FormatoFichero f = FormatoFichero.desde(formato);
+        return RespuestaExportacion.ok("productos", f, salida -> exportacionService.exportarProductos(salida, f));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
-    public ResponseEntity<Productos> actualizar(@PathVariable Integer id, @Valid @RequestBody ProductosDTO dto) {
-        return ResponseEntity.ok(productosService.actualizar(id, dto));
+    public ResponseEntity<Productos> actualizar(@PathVariable Integer id, @Valid @RequestBody ProductosDTO dto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Productos guardado = productosService.actualizar(id, dto, RespuestaCondicional.versionIfMatch(ifMatch));
+        return RespuestaCondicional.okConVersion(guardado, guardado.getVersion());
+    }
+
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<Productos> actualizarParcial(@PathVariable Integer id,
+                                                       @Valid @RequestBody ProductosParcialDTO dto,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Productos guardado = productosService.actualizarParcial(id, dto, RespuestaCondicional.versionIfMatch(ifMatch));
+        return RespuestaCondicional.okConVersion(guardado, guardado.getVersion());
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
-    public ResponseEntity<Map<String, String>> eliminar(@PathVariable Integer id) {
-        productosService.eliminar(id);
+    public ResponseEntity<Map<String, String>> eliminar(@PathVariable Integer id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productosService.eliminar(id, RespuestaCondicional.versionIfMatch(ifMatch));
         return ResponseEntity.ok(Map.of("message", "Producto eliminado correctamente"));
     }
+
+    // Borrado por lotes: DELETE /api/productos?ids=1,2,3. Responde 200 con el estado de cada id
+    @DeleteMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
+    public ResponseEntity<ResultadoEliminacion> eliminarVarios(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(productosService.eliminarVarios(ids));
+    }
 }
@@ -0,0 +1,61 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.springdataapi.springdemojpa.service.ConflictoVersionException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// GET condicional con ETag fuerte sacado de VersionesTablas: si el If-None-Match del cliente coincide
+// se responde 304 sin cuerpo y sin consultar la base de datos. no-cache = guardar, pero revalidar siempre
+final class RespuestaCondicional {
+
+    static final CacheControl COMPARTIDA = CacheControl.noCache();
+    static final CacheControl PRIVADA = CacheControl.noCache().cachePrivate();
+
+    private RespuestaCondicional() {
+    }
+
+    // If-None-Match admite una lista de ETags, "*" y etiquetas debiles (W/"...")
+    static boolean noModificado(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) valor = valor.substring(2);
+            if (valor.equals("*") || valor.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> noModificada(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag, CacheControl cacheControl) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl);
+    }
+
+    // ETag de un registro concreto (cliente, empleado, producto): su columna @Version
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static <T> ResponseEntity<T> okConVersion(T cuerpo, Long version) {
+        return ResponseEntity.ok().eTag(etag(version)).body(cuerpo);
+    }
+
+    // Version exigida por el If-Match de un PUT/PATCH/DELETE, o null si no viene o es "*" (sin control).
+    // If-Match compara en fuerte: una etiqueta debil o que no es una version nuestra no puede coincidir -> 412
+    static Long versionIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) return null;
+        String valor = ifMatch.trim();
+        if (valor.equals("*")) return null;
+        if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            try {
+                return Long.parseLong(valor.substring(1, valor.length() - 1));
+            } catch (NumberFormatException e) {
+                // cae al 412
+            }
+        }
+        throw new ConflictoVersionException();
+    }
+}
@@ -0,0 +1,23 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.springdataapi.springdemojpa.service.FormatoFichero;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Descarga de una exportacion (GET .../exportar?formato=csv|ndjson): el cuerpo se escribe en streaming
+// desde el hilo async de Spring MVC mientras se lee la base de datos, sin montar la respuesta en memoria
+final class RespuestaExportacion {
+
+    private RespuestaExportacion() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> ok(String nombre, FormatoFichero formato, StreamingResponseBody cuerpo) {
+        return ResponseEntity.ok()
+                .contentType(formato.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(nombre + "." + formato.extension()).build().toString())
+                .body(cuerpo);
+    }
+}
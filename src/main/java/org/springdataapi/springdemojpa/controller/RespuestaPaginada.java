@@ -0,0 +1,28 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+// El cuerpo sigue siendo la lista de siempre; el cursor de la pagina siguiente va en la cabecera
+// X-Next-Cursor (ausente en la ultima pagina). Se pide con ?cursor=...&limite=...
+final class RespuestaPaginada {
+
+    static final String CABECERA_CURSOR = "X-Next-Cursor";
+
+    private RespuestaPaginada() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(Pagina<T> pagina) {
+        return ok(ResponseEntity.ok(), pagina);
+    }
+
+    // Igual, sobre una respuesta con cabeceras ya puestas (p. ej. ETag)
+    static <T> ResponseEntity<List<T>> ok(ResponseEntity.BodyBuilder respuesta, Pagina<T> pagina) {
+        if (pagina.hayMas()) {
+            respuesta.header(CABECERA_CURSOR, pagina.siguienteCursor());
+        }
+        return respuesta.body(pagina.contenido());
+    }
+}
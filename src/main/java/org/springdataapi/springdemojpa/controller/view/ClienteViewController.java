@@ -1,8 +1,10 @@
 package org.springdataapi.springdemojpa.controller.view;
 
 import jakarta.validation.Valid;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
 import org.springdataapi.springdemojpa.models.Clientes;
 import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.Pagina;
 import org.springdataapi.springdemojpa.security.CustomUserDetails;
 import org.springdataapi.springdemojpa.service.ClienteService;
 import org.springdataapi.springdemojpa.service.EmpleadosService;
@@ -28,12 +30,15 @@ public class ClienteViewController {
     }
 
     @GetMapping
-    public String listar(Authentication authentication, Model model) {
+    public String listar(@RequestParam(required = false) String cursor,
+                         Authentication authentication, Model model) {
         if (authentication != null &&
             authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_CLIENTE"))) {
             return "redirect:/clientes/mi-perfil";
         }
-        model.addAttribute("clientes", clienteService.findAll());
+        Pagina<ClienteResumen> pagina = clienteService.listarPagina(cursor, null);
+        model.addAttribute("clientes", pagina.contenido());
+        model.addAttribute("siguienteCursor", pagina.siguienteCursor());
         return "clientes/list";
     }
 
@@ -65,6 +70,7 @@ public class ClienteViewController {
         dto.setTipo_cliente(cliente.getTipoCliente());
         dto.setPassword(null);
         dto.setFecha_alta(cliente.getFechaAlta());
+        dto.setVersion(cliente.getVersion());
         if (cliente.getIdEmpleadoResponsable() != null) {
             dto.setId_empleadoresponsable(cliente.getIdEmpleadoResponsable().getId());
         }
@@ -86,7 +92,7 @@ public class ClienteViewController {
                 clienteService.crear(dto);
                 redirectAttributes.addFlashAttribute("success", "Cliente añadido correctamente");
             } else {
-                clienteService.actualizar(dto.getId(), dto);
+                clienteService.actualizar(dto.getId(), dto, dto.getVersion());
                 redirectAttributes.addFlashAttribute("success", "Cliente modificado correctamente");
             }
         } catch (RuntimeException e) {
@@ -101,11 +107,13 @@ public class ClienteViewController {
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
     public String eliminar(@PathVariable Integer id, Model model, RedirectAttributes redirectAttributes) {
         try {
-            clienteService.eliminar(id);
+            clienteService.eliminar(id, null);
             redirectAttributes.addFlashAttribute("success", "Cliente eliminado correctamente");
         } catch (RuntimeException e) {
             model.addAttribute("error", e.getMessage());
-            model.addAttribute("clientes", clienteService.findAll());
+            Pagina<ClienteResumen> pagina = clienteService.listarPagina(null, null);
+            model.addAttribute("clientes", pagina.contenido());
+            model.addAttribute("siguienteCursor", pagina.siguienteCursor());
             return "clientes/list";
         }
         return "redirect:/clientes";
@@ -1,5 +1,9 @@
 package org.springdataapi.springdemojpa.controller.view;
 
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
 import org.springdataapi.springdemojpa.service.ClienteService;
 import org.springdataapi.springdemojpa.service.EmpleadosService;
 import org.springdataapi.springdemojpa.service.ProductosService;
@@ -41,11 +45,14 @@ public class ConsultasViewController {
                            @RequestParam(required = false) String tipoCliente,
                            @RequestParam(required = false) Integer idEmpleado,
                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde,
+                           @RequestParam(required = false) String cursor,
                            Model model) {
         model.addAttribute("empleados", empleadosService.findAll());
         String telNorm = norm(telefono), emailNorm = norm(email), tipoNorm = norm(tipoCliente);
         if (telNorm != null || emailNorm != null || tipoNorm != null || idEmpleado != null || fechaDesde != null) {
-            model.addAttribute("clientes", clienteService.buscarClientesFiltrados(telNorm, emailNorm, tipoNorm, idEmpleado, fechaDesde));
+            Pagina<ClienteResumen> pagina = clienteService.buscarClientesFiltrados(telNorm, emailNorm, tipoNorm, idEmpleado, fechaDesde, cursor, null);
+            model.addAttribute("clientes", pagina.contenido());
+            model.addAttribute("siguienteCursor", pagina.siguienteCursor());
         }
         model.addAttribute("telefono", telefono);
         model.addAttribute("email", email);
@@ -61,11 +68,14 @@ public class ConsultasViewController {
                             @RequestParam(required = false) Double precioMin,
                             @RequestParam(required = false) Double precioMax,
                             @RequestParam(required = false) String activo,
+                            @RequestParam(required = false) String cursor,
                             Model model) {
         String nomNorm = norm(nombre), catNorm = norm(categoria);
         Boolean activoBool = (activo != null && !activo.isBlank()) ? Boolean.parseBoolean(activo) : null;
         if (nomNorm != null || catNorm != null || precioMin != null || precioMax != null || activoBool != null) {
-            model.addAttribute("productos", productosService.buscarProductosFiltrados(nomNorm, catNorm, precioMin, precioMax, activoBool));
+            Pagina<ProductoResumen> pagina = productosService.buscarProductosFiltrados(nomNorm, catNorm, precioMin, precioMax, activoBool, cursor, null);
+            model.addAttribute("productos", pagina.contenido());
+            model.addAttribute("siguienteCursor", pagina.siguienteCursor());
         }
         model.addAttribute("nombre", nombre);
         model.addAttribute("categoria", categoria);
@@ -82,12 +92,15 @@ public class ConsultasViewController {
                             @RequestParam(required = false) Integer idRol,
                             @RequestParam(required = false) String tieneClientes,
                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaIngreso,
+                            @RequestParam(required = false) String cursor,
                             Model model) {
         model.addAttribute("roles", rolesEmpleadoService.findAll());
         String telNorm = norm(telefono), emailNorm = norm(email), estNorm = norm(estado);
         Boolean tieneClientesBool = (tieneClientes != null && !tieneClientes.isBlank()) ? Boolean.parseBoolean(tieneClientes) : null;
         if (telNorm != null || emailNorm != null || estNorm != null || idRol != null || tieneClientesBool != null || fechaIngreso != null) {
-            model.addAttribute("empleados", empleadosService.buscarEmpleadosFiltrados(telNorm, emailNorm, estNorm, idRol, tieneClientesBool, fechaIngreso));
+            Pagina<EmpleadoResumen> pagina = empleadosService.buscarEmpleadosFiltrados(telNorm, emailNorm, estNorm, idRol, tieneClientesBool, fechaIngreso, cursor, null);
+            model.addAttribute("empleados", pagina.contenido());
+            model.addAttribute("siguienteCursor", pagina.siguienteCursor());
         }
         model.addAttribute("telefono", telefono);
         model.addAttribute("email", email);
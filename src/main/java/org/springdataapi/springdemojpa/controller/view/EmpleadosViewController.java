@@ -1,8 +1,10 @@
 package org.springdataapi.springdemojpa.controller.view;
 
 import jakarta.validation.Valid;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
 import org.springdataapi.springdemojpa.models.Empleados;
 import org.springdataapi.springdemojpa.models.EmpleadosDTO;
+import org.springdataapi.springdemojpa.models.Pagina;
 import org.springdataapi.springdemojpa.service.EmpleadosService;
 import org.springdataapi.springdemojpa.service.RolesEmpleadoService;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,8 +28,10 @@ public class EmpleadosViewController {
     }
 
     @GetMapping
-    public String listar(Model model) {
-        model.addAttribute("empleados", empleadosService.findAll());
+    public String listar(@RequestParam(required = false) String cursor, Model model) {
+        Pagina<EmpleadoResumen> pagina = empleadosService.listarPagina(cursor, null);
+        model.addAttribute("empleados", pagina.contenido());
+        model.addAttribute("siguienteCursor", pagina.siguienteCursor());
         return "empleados/list";
     }
 
@@ -48,6 +52,7 @@ public class EmpleadosViewController {
         dto.setTelefono(emp.getTelefono());
         dto.setEstado(emp.getEstado());
         dto.setFechaIngreso(emp.getFechaIngreso());
+        dto.setVersion(emp.getVersion());
         if (emp.getIdRol() != null) dto.setIdRol(emp.getIdRol().getId());
         model.addAttribute("empleadosDTO", dto);
         model.addAttribute("roles", rolesEmpleadoService.findAll());
@@ -66,7 +71,7 @@ public class EmpleadosViewController {
                 empleadosService.crear(dto);
                 redirectAttributes.addFlashAttribute("success", "Empleado añadido correctamente");
             } else {
-                empleadosService.actualizar(dto.getId(), dto);
+                empleadosService.actualizar(dto.getId(), dto, dto.getVersion());
                 redirectAttributes.addFlashAttribute("success", "Empleado modificado correctamente");
             }
         } catch (RuntimeException e) {
@@ -80,11 +85,13 @@ public class EmpleadosViewController {
     @GetMapping("/{id}/eliminar")
     public String eliminar(@PathVariable Integer id, Model model, RedirectAttributes redirectAttributes) {
         try {
-            empleadosService.eliminar(id);
+            empleadosService.eliminar(id, null);
             redirectAttributes.addFlashAttribute("success", "Empleado eliminado correctamente");
         } catch (RuntimeException e) {
             model.addAttribute("error", e.getMessage());
-            model.addAttribute("empleados", empleadosService.findAll());
+            Pagina<EmpleadoResumen> pagina = empleadosService.listarPagina(null, null);
+            model.addAttribute("empleados", pagina.contenido());
+            model.addAttribute("siguienteCursor", pagina.siguienteCursor());
             return "empleados/list";
         }
         return "redirect:/empleados";
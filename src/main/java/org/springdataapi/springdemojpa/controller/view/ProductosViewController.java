@@ -1,6 +1,8 @@
 package org.springdataapi.springdemojpa.controller.view;
 
 import jakarta.validation.Valid;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
 import org.springdataapi.springdemojpa.models.Productos;
 import org.springdataapi.springdemojpa.models.ProductosDTO;
 import org.springdataapi.springdemojpa.service.ProductosService;
@@ -24,15 +26,19 @@ public class ProductosViewController {
     }
 
     @GetMapping
-    public String listar(Authentication authentication, Model model) {
+    public String listar(@RequestParam(required = false) String cursor,
+                         Authentication authentication, Model model) {
+        Pagina<ProductoResumen> pagina;
         if (authentication != null &&
             authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_CLIENTE"))) {
-            model.addAttribute("productos", productosService.findProductosActivos());
+            pagina = productosService.listarActivosPagina(cursor, null);
             model.addAttribute("soloLectura", true);
         } else {
-            model.addAttribute("productos", productosService.findAll());
+            pagina = productosService.listarPagina(cursor, null);
             model.addAttribute("soloLectura", false);
         }
+        model.addAttribute("productos", pagina.contenido());
+        model.addAttribute("siguienteCursor", pagina.siguienteCursor());
         return "productos/list";
     }
 
@@ -56,6 +62,7 @@ public class ProductosViewController {
         dto.setCategoria(p.getCategoria());
         dto.setPrecio(p.getPrecio());
         dto.setActivo(p.getActivo());
+        dto.setVersion(p.getVersion());
         model.addAttribute("productosDTO", dto);
         return "productos/form";
     }
@@ -70,7 +77,7 @@ public class ProductosViewController {
                 productosService.crear(dto);
                 redirectAttributes.addFlashAttribute("success", "Producto añadido correctamente");
             } else {
-                productosService.actualizar(dto.getId(), dto);
+                productosService.actualizar(dto.getId(), dto, dto.getVersion());
                 redirectAttributes.addFlashAttribute("success", "Producto modificado correctamente");
             }
             return "redirect:/productos";
@@ -84,11 +91,13 @@ public class ProductosViewController {
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLEADO')")
     public String eliminar(@PathVariable Integer id, Model model, RedirectAttributes redirectAttributes) {
         try {
-            productosService.eliminar(id);
+            productosService.eliminar(id, null);
             redirectAttributes.addFlashAttribute("success", "Producto eliminado correctamente");
         } catch (RuntimeException e) {
             model.addAttribute("error", e.getMessage());
-            model.addAttribute("productos", productosService.findAll());
+            Pagina<ProductoResumen> pagina = productosService.listarPagina(null, null);
+            model.addAttribute("productos", pagina.contenido());
+            model.addAttribute("siguienteCursor", pagina.siguienteCursor());
             return "productos/list";
         }
         return "redirect:/productos";
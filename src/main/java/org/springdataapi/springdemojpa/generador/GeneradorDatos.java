@@ -0,0 +1,400 @@
+package org.springdataapi.springdemojpa.generador;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Dataset sintetico para pruebas de carga y benchmarks: roles, empleados, clientes y catalogo de productos con
+ * distribuciones parecidas a las de produccion, escrito con INSERT multi-fila ({@code filasPorSentencia} filas
+ * por sentencia, una transaccion por sentencia) sobre la BD configurada, MySQL o H2 en modo MySQL.
+ * <ul>
+ *     <li>Clientes repartidos entre los empleados con una ley de Zipf (unos pocos comerciales llevan la mayoria
+ *     de la cartera); un 2% sin responsable</li>
+ *     <li>tipo_cliente 80% PARTICULAR / 20% EMPRESA; fecha_alta en los ultimos 10 anos, con mas altas cuanto mas
+ *     recientes (densidad que crece lineal hacia hoy)</li>
+ *     <li>Productos en 60 categorias y cuatro bandas de precio (la mitad por debajo de 20, un 3% por encima
+ *     de 2000), precio log-uniforme dentro de la banda; un 8% inactivos</li>
+ * </ul>
+ * Determinista: misma semilla y tamanos, mismas filas. Emails y telefonos cumplen lo que exige ClienteService
+ * (telefono de 9 digitos) y las restricciones UNIQUE sin consultar la BD: dependen solo de la semilla y de la
+ * posicion de la fila ({@link #emailCliente}, {@link #telefonoCliente}...), asi que los benchmarks y las
+ * pruebas de carga pueden calcular que usuarios existen. Empleados y clientes usan dominios y prefijos de
+ * telefono distintos.
+ * <p>
+ * Por seguridad no escribe en tablas con datos: o estan vacias o se pide {@code vaciar} (DELETE de las cuatro
+ * tablas). Las filas nuevas entran por JDBC, asi que una instancia ya arrancada no las ve en sus caches ni
+ * indices en memoria hasta reiniciarla; lo normal es generar antes de arrancar (ver GeneradorDatosRunner).
+ */
+@Component
+public class GeneradorDatos {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatos.class);
+
+    private static final String[] NOMBRES = {"antonio", "maria", "manuel", "carmen", "jose", "ana", "francisco",
+            "laura", "david", "isabel", "javier", "lucia", "daniel", "marta", "carlos", "elena", "miguel", "sara",
+            "rafael", "paula", "pedro", "cristina", "pablo", "raquel", "angel", "rosa", "sergio", "silvia",
+            "fernando", "pilar", "jorge", "teresa"};
+    private static final String[] APELLIDOS = {"garcia", "rodriguez", "gonzalez", "fernandez", "lopez", "martinez",
+            "sanchez", "perez", "gomez", "martin", "jimenez", "ruiz", "hernandez", "diaz", "moreno", "munoz",
+            "alvarez", "romero", "alonso", "gutierrez", "navarro", "torres", "dominguez", "vazquez", "ramos", "gil",
+            "ramirez", "serrano", "blanco", "molina", "morales", "suarez"};
+    private static final String[] DOMINIOS = {"gmail.com", "hotmail.com", "yahoo.es", "outlook.es", "telefonica.net",
+            "icloud.com", "movistar.es", "orange.es"};
+    private static final String DOMINIO_EMPLEADOS = "crm-xtart.es";
+    private static final String[] SOCIEDADES = {"S.L.", "S.A.", "S.L.U.", "y Asociados", "Consultores", "Servicios"};
+    private static final String[] FAMILIAS = {"hardware", "software", "servicios", "formacion", "licencias", "redes",
+            "almacenamiento", "impresion", "movilidad", "seguridad"};
+    private static final String[] GAMAS = {"basica", "estandar", "profesional", "empresa", "premium", "outlet"};
+    // Bandas de precio: {peso acumulado, minimo, maximo}
+    private static final double[][] BANDAS = {{0.50, 1, 20}, {0.85, 20, 200}, {0.97, 200, 2_000}, {1.0, 2_000, 20_000}};
+    private static final String[] ROLES = {"ADMIN", "comercial", "soporte"};
+
+    private static final int DIAS_HISTORIA = 3650;
+    private static final double EXPONENTE_ZIPF = 1.1;
+    // Multiplicador coprimo con 10^8: i -> (i * M + s) mod 10^8 es biyectiva, telefonos unicos sin comprobar
+    private static final long MULTIPLICADOR_TELEFONO = 2_654_435_761L;
+    private static final long TELEFONOS_POR_PREFIJO = 100_000_000L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GeneradorDatos(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // passwordHash: el mismo para todos los usuarios (ya codificado con el PasswordEncoder de la aplicacion)
+    public record Configuracion(long semilla, int empleados, int clientes, int productos, int filasPorSentencia,
+                                boolean vaciar, String passwordHash) {
+
+        public Configuracion conPasswordHash(String passwordHash) {
+            return new Configuracion(semilla, empleados, clientes, productos, filasPorSentencia, vaciar, passwordHash);
+        }
+    }
+
+    public record Resultado(int empleados, int clientes, int productos, long milis) {
+    }
+
+    public Resultado generar(Configuracion cfg) {
+        if (cfg.clientes() > 0 && cfg.empleados() == 0) {
+            throw new IllegalArgumentException("Hace falta al menos un empleado para repartir los clientes");
+        }
+        if (Math.max(cfg.clientes(), cfg.empleados()) > 2 * TELEFONOS_POR_PREFIJO) {
+            throw new IllegalArgumentException("Como mucho " + 2 * TELEFONOS_POR_PREFIJO + " filas por tabla");
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Resultado>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                return generar(con, cfg);
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private Resultado generar(Connection con, Configuracion cfg) throws SQLException {
+        long inicio = System.nanoTime();
+        prepararTablas(con, cfg.vaciar());
+        Random random = new Random(cfg.semilla());
+
+        int[] roles = insertarRoles(con);
+        int[] empleados = insertarEmpleados(con, cfg, random, roles);
+        insertarClientes(con, cfg, random, empleados);
+        insertarProductos(con, cfg, random);
+
+        long milis = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("Dataset generado (semilla {}): {} empleados, {} clientes, {} productos en {} ms",
+                cfg.semilla(), cfg.empleados(), cfg.clientes(), cfg.productos(), milis);
+        return new Resultado(cfg.empleados(), cfg.clientes(), cfg.productos(), milis);
+    }
+
+    // ==========================
+    // Valores deterministas por fila
+    // ==========================
+
+    public static String emailCliente(long semilla, int i) {
+        long h = mezclar(semilla, i);
+        return NOMBRES[indice(h, 0, NOMBRES.length)] + "." + APELLIDOS[indice(h, 8, APELLIDOS.length)] + i
+                + "@" + DOMINIOS[indice(h, 16, DOMINIOS.length)];
+    }
+
+    public static String emailEmpleado(long semilla, int i) {
+        long h = mezclar(~semilla, i);
+        return NOMBRES[indice(h, 0, NOMBRES.length)] + "." + APELLIDOS[indice(h, 8, APELLIDOS.length)] + ".e" + i
+                + "@" + DOMINIO_EMPLEADOS;
+    }
+
+    // Moviles 6xxxxxxxx y 7xxxxxxxx para clientes; 9xxxxxxxx (fijos) para empleados
+    public static String telefonoCliente(long semilla, int i) {
+        return telefono(i < TELEFONOS_POR_PREFIJO ? '6' : '7', semilla, i % TELEFONOS_POR_PREFIJO);
+    }
+
+    public static String telefonoEmpleado(long semilla, int i) {
+        return telefono('9', semilla, i);
+    }
+
+    private static String telefono(char prefijo, long semilla, long n) {
+        long desplazamiento = Math.floorMod(semilla, TELEFONOS_POR_PREFIJO);
+        long digitos = (n * MULTIPLICADOR_TELEFONO + desplazamiento) % TELEFONOS_POR_PREFIJO;
+        char[] t = new char[9];
+        t[0] = prefijo;
+        for (int k = 8; k > 0; k--) {
+            t[k] = (char) ('0' + digitos % 10);
+            digitos /= 10;
+        }
+        return new String(t);
+    }
+
+    private static String nombrePersona(long h) {
+        return capitalizar(NOMBRES[indice(h, 0, NOMBRES.length)]) + " " + capitalizar(APELLIDOS[indice(h, 8, APELLIDOS.length)])
+                + " " + capitalizar(APELLIDOS[indice(h, 24, APELLIDOS.length)]);
+    }
+
+    // ==========================
+    // Tablas
+    // ==========================
+
+    private void prepararTablas(Connection con, boolean vaciar) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            if (vaciar) {
+                for (String tabla : new String[]{"clientes", "empleados", "productos", "roles_empleado"}) {
+                    st.executeUpdate("DELETE FROM " + tabla);
+                    con.commit();
+                }
+                return;
+            }
+            for (String tabla : new String[]{"clientes", "empleados", "productos", "roles_empleado"}) {
+                try (ResultSet rs = st.executeQuery("SELECT 1 FROM " + tabla + " LIMIT 1")) {
+                    if (rs.next()) {
+                        throw new IllegalStateException("La tabla " + tabla
+                                + " ya tiene filas; el generador solo escribe en tablas vacias (o con vaciar=true)");
+                    }
+                }
+            }
+        }
+    }
+
+    private int[] insertarRoles(Connection con) throws SQLException {
+        try (InsercionMultiFila ins = new InsercionMultiFila(con, "roles_empleado", ROLES.length, "nombre_rol")) {
+            for (String rol : ROLES) ins.fila(rol);
+        }
+        return ids(con, "SELECT id_rol FROM roles_empleado ORDER BY id_rol", ROLES.length);
+    }
+
+    // Empleado 0: ADMIN; el resto comerciales (80%) y soporte. Un 10% dados de baja
+    private int[] insertarEmpleados(Connection con, Configuracion cfg, Random random, int[] roles) throws SQLException {
+        LocalDate hoy = LocalDate.now();
+        try (InsercionMultiFila ins = new InsercionMultiFila(con, "empleados", cfg.filasPorSentencia(),
+                "nombre", "email", "telefono", "password", "id_rol", "fecha_ingreso", "estado")) {
+            for (int i = 0; i < cfg.empleados(); i++) {
+                int rol = i == 0 ? roles[0] : random.nextInt(10) < 8 ? roles[1] : roles[2];
+                ins.fila(nombrePersona(mezclar(~cfg.semilla(), i)), emailEmpleado(cfg.semilla(), i),
+                        telefonoEmpleado(cfg.semilla(), i), cfg.passwordHash(), rol,
+                        Date.valueOf(hoy.minusDays(random.nextInt(2 * DIAS_HISTORIA))),
+                        i > 0 && random.nextInt(10) == 0 ? "inactivo" : "activo");
+            }
+        }
+        return ids(con, "SELECT id_empleado FROM empleados ORDER BY id_empleado", cfg.empleados());
+    }
+
+    private void insertarClientes(Connection con, Configuracion cfg, Random random, int[] empleados) throws SQLException {
+        if (cfg.clientes() == 0) return;
+        double[] acumulado = zipfAcumulado(empleados.length, random);
+        int[] carteras = new int[empleados.length];
+        LocalDate hoy = LocalDate.now();
+        long t0 = System.nanoTime();
+        try (InsercionMultiFila ins = new InsercionMultiFila(con, "clientes", cfg.filasPorSentencia(),
+                "nombre", "email", "telefono", "password", "tipo_cliente", "fecha_alta", "id_empleado_responsable")) {
+            for (int i = 0; i < cfg.clientes(); i++) {
+                long h = mezclar(cfg.semilla(), i);
+                boolean empresa = random.nextInt(5) == 0;
+                // 1 - sqrt(u): densidad 2(1 - x), el doble de altas recientes que la media
+                int diasAtras = (int) (DIAS_HISTORIA * (1 - Math.sqrt(random.nextDouble())));
+                Integer responsable = null;
+                if (random.nextInt(50) != 0) {
+                    int e = buscar(acumulado, random.nextDouble());
+                    carteras[e]++;
+                    responsable = empleados[e];
+                }
+                String nombre = empresa
+                        ? capitalizar(APELLIDOS[indice(h, 8, APELLIDOS.length)]) + " " + capitalizar(APELLIDOS[indice(h, 24, APELLIDOS.length)])
+                          + " " + SOCIEDADES[indice(h, 32, SOCIEDADES.length)]
+                        : nombrePersona(h);
+                ins.fila(nombre, emailCliente(cfg.semilla(), i), telefonoCliente(cfg.semilla(), i), cfg.passwordHash(),
+                        empresa ? "EMPRESA" : "PARTICULAR", Date.valueOf(hoy.minusDays(diasAtras)), responsable);
+            }
+        }
+        log.info("{} clientes en {} ms", cfg.clientes(), (System.nanoTime() - t0) / 1_000_000);
+
+        // num_clientes ya calculado al repartir: sin el UPDATE con subconsulta de la reconciliacion
+        try (PreparedStatement ps = con.prepareStatement("UPDATE empleados SET num_clientes = ? WHERE id_empleado = ?")) {
+            for (int e = 0; e < empleados.length; e++) {
+                if (carteras[e] == 0) continue;
+                ps.setInt(1, carteras[e]);
+                ps.setInt(2, empleados[e]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        con.commit();
+    }
+
+    private void insertarProductos(Connection con, Configuracion cfg, Random random) throws SQLException {
+        try (InsercionMultiFila ins = new InsercionMultiFila(con, "productos", cfg.filasPorSentencia(),
+                "nombre", "descripcion", "categoria", "precio", "activo")) {
+            for (int i = 0; i < cfg.productos(); i++) {
+                String familia = FAMILIAS[random.nextInt(FAMILIAS.length)];
+                String gama = GAMAS[random.nextInt(GAMAS.length)];
+                double u = random.nextDouble();
+                double[] banda = BANDAS[0];
+                for (double[] b : BANDAS) {
+                    if (u < b[0]) {
+                        banda = b;
+                        break;
+                    }
+                }
+                // Log-uniforme en la banda, en centimos
+                double precio = banda[1] * Math.pow(banda[2] / banda[1], random.nextDouble());
+                precio = Math.round(precio * 100) / 100.0;
+                ins.fila(capitalizar(familia) + " " + gama + " " + i, "Producto de " + familia + ", gama " + gama,
+                        familia + "-" + gama, precio, random.nextInt(100) >= 8);
+            }
+        }
+    }
+
+    // ==========================
+    // Utilidades
+    // ==========================
+
+    // Pesos 1/rango^s con los rangos barajados: el comercial con mas cartera no es siempre el primer id
+    private static double[] zipfAcumulado(int n, Random random) {
+        int[] rango = new int[n];
+        for (int i = 0; i < n; i++) rango[i] = i + 1;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = rango[i];
+            rango[i] = rango[j];
+            rango[j] = t;
+        }
+        double[] acumulado = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1.0 / Math.pow(rango[i], EXPONENTE_ZIPF);
+            acumulado[i] = total;
+        }
+        for (int i = 0; i < n; i++) acumulado[i] /= total;
+        return acumulado;
+    }
+
+    private static int buscar(double[] acumulado, double u) {
+        int i = Arrays.binarySearch(acumulado, u);
+        return Math.min(i >= 0 ? i : -i - 1, acumulado.length - 1);
+    }
+
+    private static int[] ids(Connection con, String sql, int esperados) throws SQLException {
+        int[] ids = new int[esperados];
+        int n = 0;
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next() && n < esperados) ids[n++] = rs.getInt(1);
+        }
+        return ids;
+    }
+
+    // SplitMix64: bits bien repartidos a partir de (semilla, fila) sin depender del orden de generacion
+    private static long mezclar(long semilla, long i) {
+        long z = semilla + (i + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int indice(long h, int desplazamiento, int n) {
+        return (int) ((h >>> desplazamiento) & 0xFF) % n;
+    }
+
+    private static String capitalizar(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    /**
+     * INSERT INTO t (c1, c2...) VALUES (?, ?...), (?, ?...)... con {@code filasPorSentencia} filas: la sentencia
+     * completa se prepara una vez y se reutiliza; el resto final va en una sentencia a su medida.
+     * Cada sentencia se confirma por separado para no acumular un deshacer enorme en MySQL
+     */
+    private static final class InsercionMultiFila implements AutoCloseable {
+
+        private final Connection con;
+        private final String prefijo;
+        private final String fila;
+        private final int columnas;
+        private final int filasPorSentencia;
+        private final Object[] valores;
+        private PreparedStatement completa;
+        private int filas;
+
+        InsercionMultiFila(Connection con, String tabla, int filasPorSentencia, String... columnas) {
+            this.con = con;
+            this.prefijo = "INSERT INTO " + tabla + " (" + String.join(", ", columnas) + ") VALUES ";
+            this.fila = "(" + String.join(", ", Collections.nCopies(columnas.length, "?")) + ")";
+            this.columnas = columnas.length;
+            this.filasPorSentencia = Math.max(1, filasPorSentencia);
+            this.valores = new Object[this.filasPorSentencia * columnas.length];
+        }
+
+        void fila(Object... fila) throws SQLException {
+            System.arraycopy(fila, 0, valores, filas * columnas, columnas);
+            if (++filas == filasPorSentencia) {
+                if (completa == null) completa = con.prepareStatement(sql(filasPorSentencia));
+                ejecutar(completa);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (filas > 0) {
+                    try (PreparedStatement resto = con.prepareStatement(sql(filas))) {
+                        ejecutar(resto);
+                    }
+                }
+            } finally {
+                if (completa != null) completa.close();
+            }
+        }
+
+        private void ejecutar(PreparedStatement ps) throws SQLException {
+            int n = filas * columnas;
+            for (int k = 0; k < n; k++) {
+                if (valores[k] == null) {
+                    ps.setNull(k + 1, Types.INTEGER);
+                } else {
+                    ps.setObject(k + 1, valores[k]);
+                }
+            }
+            ps.executeUpdate();
+            con.commit();
+            filas = 0;
+        }
+
+        private String sql(int n) {
+            return prefijo + String.join(", ", Collections.nCopies(n, fila));
+        }
+    }
+}
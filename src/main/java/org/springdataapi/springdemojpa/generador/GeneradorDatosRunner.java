@@ -0,0 +1,61 @@
+package org.springdataapi.springdemojpa.generador;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Genera el dataset sintetico contra la BD configurada y termina la aplicacion. Solo con el perfil "generador":
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=generador \
+ *     -Dspring-boot.run.arguments="--app.generador.clientes=2000000 --app.generador.vaciar=true"
+ * </pre>
+ * Todos los usuarios con la misma password (app.generador.password), codificada una vez con el PasswordEncoder
+ * de la aplicacion: los emails salen de GeneradorDatos.emailCliente/emailEmpleado con la misma semilla.
+ */
+@Component
+@Profile("generador")
+public class GeneradorDatosRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatosRunner.class);
+
+    private final GeneradorDatos generador;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+    private final GeneradorDatos.Configuracion configuracion;
+    private final String password;
+
+    public GeneradorDatosRunner(GeneradorDatos generador,
+                                PasswordEncoder passwordEncoder,
+                                ConfigurableApplicationContext context,
+                                @Value("${app.generador.semilla:42}") long semilla,
+                                @Value("${app.generador.empleados:500}") int empleados,
+                                @Value("${app.generador.clientes:1000000}") int clientes,
+                                @Value("${app.generador.productos:20000}") int productos,
+                                @Value("${app.generador.filas-por-sentencia:1000}") int filasPorSentencia,
+                                @Value("${app.generador.vaciar:false}") boolean vaciar,
+                                @Value("${app.generador.password:Password1234}") String password) {
+        this.generador = generador;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+        this.password = password;
+        this.configuracion = new GeneradorDatos.Configuracion(semilla, empleados, clientes, productos,
+                filasPorSentencia, vaciar, null);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        GeneradorDatos.Resultado r = generador.generar(configuracion.conPasswordHash(passwordEncoder.encode(password)));
+        long filas = (long) r.empleados() + r.clientes() + r.productos();
+        log.info("Generacion terminada: {} filas en {} ms ({} filas/s)", filas, r.milis(),
+                r.milis() == 0 ? filas : filas * 1000 / r.milis());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,93 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log de consultas lentas (sustituye a spring.jpa.show-sql, que escribia cada sentencia en stdout desde el hilo
+ * de la peticion). Solo las que superan {@code umbral-ms}, y de esas una muestra ({@code muestreo}, 0..1): si la
+ * BD se atasca y todo va lento, el log no se convierte en otro cuello de botella.
+ * <p>
+ * El hilo de la peticion solo deja la consulta en una cola acotada; la escribe un hilo aparte. Con la cola llena
+ * se descarta. El contador crm.consultas.lentas cuenta todas, con la etiqueta registro=log|muestreo|cola-llena
+ */
+@Component
+public class ConsultasLentas {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultasLentas.class);
+    private static final int MAX_SQL = 2000;
+
+    private final long umbralNanos;
+    private final double muestreo;
+    private final ArrayBlockingQueue<ConsultaLenta> cola;
+    private final Counter registradas;
+    private final Counter noMuestreadas;
+    private final Counter descartadas;
+    private final Thread escritor;
+
+    private record ConsultaLenta(String sql, long nanos, String peticion) {
+    }
+
+    public ConsultasLentas(MeterRegistry meterRegistry,
+                           @Value("${app.instrumentacion.consultas-lentas.umbral-ms:500}") long umbralMs,
+                           @Value("${app.instrumentacion.consultas-lentas.muestreo:1.0}") double muestreo,
+                           @Value("${app.instrumentacion.consultas-lentas.capacidad-cola:1000}") int capacidadCola) {
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.muestreo = muestreo;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.registradas = contador(meterRegistry, "log");
+        this.noMuestreadas = contador(meterRegistry, "muestreo");
+        this.descartadas = contador(meterRegistry, "cola-llena");
+        this.escritor = new Thread(this::escribir, "consultas-lentas");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    boolean esLenta(long nanos) {
+        return nanos >= umbralNanos;
+    }
+
+    void registrar(String sql, long nanos, String peticion) {
+        if (muestreo < 1.0 && ThreadLocalRandom.current().nextDouble() >= muestreo) {
+            noMuestreadas.increment();
+        } else if (cola.offer(new ConsultaLenta(sql, nanos, peticion))) {
+            registradas.increment();
+        } else {
+            descartadas.increment();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        escritor.interrupt();
+    }
+
+    private void escribir() {
+        try {
+            while (true) {
+                ConsultaLenta c = cola.take();
+                String sql = c.sql() == null || c.sql().length() <= MAX_SQL ? c.sql() : c.sql().substring(0, MAX_SQL) + "...";
+                log.warn("Consulta lenta ({} ms) en {}: {}", TimeUnit.NANOSECONDS.toMillis(c.nanos()),
+                        c.peticion() != null ? c.peticion() : "[fuera de peticion]", sql);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String registro) {
+        return Counter.builder("crm.consultas.lentas")
+                .description("Sentencias JDBC por encima del umbral de consulta lenta")
+                .tag("registro", registro)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Entidades cargadas y flushes de la peticion en curso. Como SessionEventListener lo crea Hibernate en cada
+ * sesion (hibernate.session.events.auto en application.properties); como PostLoadEventListener se registra una
+ * vez en el SessionFactory (ver InstrumentacionConfig). Las cargas desde la cache de segundo nivel tambien
+ * cuentan: son entidades que la peticion ha materializado, aunque no hayan costado una sentencia
+ */
+public class EventosHibernate implements SessionEventListener, PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        MedicionPeticion medicion = MedicionPeticion.actual();
+        if (medicion != null) medicion.entidadCargada();
+    }
+
+    // Solo flushes con algo que revisar en el contexto de persistencia (Hibernate no llama si esta vacio)
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        MedicionPeticion medicion = MedicionPeticion.actual();
+        if (medicion != null) medicion.flush();
+    }
+}
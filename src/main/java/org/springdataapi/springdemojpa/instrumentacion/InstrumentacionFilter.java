@@ -0,0 +1,47 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Abre la {@link MedicionPeticion} de cada peticion y al terminar la vuelca en {@link MetricasPeticiones}.
+ * Va el primero de la cadena para contar tambien lo que hacen los filtros de seguridad. Las peticiones sin
+ * handler (404, rechazadas antes de llegar a un controller) se agrupan bajo {@link #SIN_HANDLER}.
+ * En las respuestas async (exportaciones) solo se mide hasta que el controller devuelve el StreamingResponseBody
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InstrumentacionFilter extends OncePerRequestFilter {
+
+    static final String SIN_HANDLER = "SIN_HANDLER";
+
+    private final MetricasPeticiones metricasPeticiones;
+
+    public InstrumentacionFilter(MetricasPeticiones metricasPeticiones) {
+        this.metricasPeticiones = metricasPeticiones;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        MedicionPeticion medicion = MedicionPeticion.iniciar(request.getMethod() + " " + request.getRequestURI());
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MedicionPeticion.terminar();
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metricasPeticiones.registrar(request.getMethod(), patron != null ? patron.toString() : SIN_HANDLER,
+                    medicion, System.nanoTime() - inicio);
+        }
+    }
+}
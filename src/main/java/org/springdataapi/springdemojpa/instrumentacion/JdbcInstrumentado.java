@@ -0,0 +1,124 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que mide cada sentencia a nivel JDBC, por debajo de Hibernate y de JdbcTemplate (importaciones):
+ * cuenta las ejecuciones y su tiempo, las filas leidas de cada ResultSet, y pasa las que superan el umbral a
+ * {@link ConsultasLentas}. Un executeBatch cuenta como una sentencia (un viaje a la BD).
+ * <p>
+ * Los ResultSet solo se envuelven si hay una peticion midiendose: los recorridos largos fuera de una peticion
+ * (exportaciones en el hilo async) leen del ResultSet del driver sin intermediarios.
+ */
+public final class JdbcInstrumentado {
+
+    private JdbcInstrumentado() {
+    }
+
+    public static DataSource envolver(DataSource dataSource, Supplier<ConsultasLentas> consultasLentas) {
+        return new DataSourceInstrumentado(dataSource, consultasLentas);
+    }
+
+    static final class DataSourceInstrumentado extends DelegatingDataSource {
+
+        private final Supplier<ConsultasLentas> consultasLentas;
+
+        DataSourceInstrumentado(DataSource dataSource, Supplier<ConsultasLentas> consultasLentas) {
+            super(dataSource);
+            this.consultasLentas = consultasLentas;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conexion(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return conexion(super.getConnection(username, password));
+        }
+
+        private Connection conexion(Connection conexion) {
+            return proxy(Connection.class, (p, m, args) -> {
+                Object r = invocar(conexion, m, args);
+                if (r instanceof Statement s) {
+                    // prepareStatement/prepareCall(sql, ...): el SQL se conoce ya; createStatement lo trae en execute
+                    String sql = args != null && args.length > 0 && args[0] instanceof String t ? t : null;
+                    return proxy(interfazDe(s), new Sentencia(s, sql, consultasLentas));
+                }
+                return r;
+            });
+        }
+    }
+
+    private record Sentencia(Statement statement, String sql, Supplier<ConsultasLentas> consultasLentas)
+            implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            String nombre = m.getName();
+            if (nombre.startsWith("execute")) {
+                long inicio = System.nanoTime();
+                Object r = invocar(statement, m, args);
+                long nanos = System.nanoTime() - inicio;
+                MedicionPeticion medicion = MedicionPeticion.actual();
+                if (medicion != null) medicion.sentencia(nanos);
+                ConsultasLentas lentas = consultasLentas.get();
+                if (lentas.esLenta(nanos)) {
+                    String texto = args != null && args.length > 0 && args[0] instanceof String t ? t : sql;
+                    lentas.registrar(texto, nanos, medicion != null ? medicion.descripcion() : null);
+                }
+                return r instanceof ResultSet rs ? filas(rs, medicion) : r;
+            }
+            Object r = invocar(statement, m, args);
+            return nombre.equals("getResultSet") && r instanceof ResultSet rs ? filas(rs, MedicionPeticion.actual()) : r;
+        }
+    }
+
+    private static ResultSet filas(ResultSet rs, MedicionPeticion medicion) {
+        if (medicion == null) return rs;
+        return proxy(ResultSet.class, (p, m, args) -> {
+            if (!m.getName().equals("next")) return invocar(rs, m, args);
+            long inicio = System.nanoTime();
+            boolean hayFila = (Boolean) invocar(rs, m, args);
+            medicion.fila(hayFila, System.nanoTime() - inicio);
+            return hayFila;
+        });
+    }
+
+    private static Class<? extends Statement> interfazDe(Statement s) {
+        if (s instanceof CallableStatement) return CallableStatement.class;
+        if (s instanceof PreparedStatement) return PreparedStatement.class;
+        return Statement.class;
+    }
+
+    // equals por identidad del proxy: Hibernate guarda las sentencias abiertas en mapas para cerrarlas luego
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<? extends T> interfaz, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcInstrumentado.class.getClassLoader(), new Class<?>[]{interfaz},
+                (p, m, args) -> m.getName().equals("equals") && m.getParameterCount() == 1
+                        ? p == args[0] : handler.invoke(p, m, args));
+    }
+
+    // Propaga la SQLException (o lo que sea) del driver tal cual, sin el envoltorio de la reflexion
+    private static Object invocar(Object destino, Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+/**
+ * Coste de una peticion HTTP: sentencias JDBC, filas leidas, entidades cargadas, flushes y tiempo en JDBC y en
+ * serializar la respuesta. La abre {@link InstrumentacionFilter} al entrar y la alimentan el DataSource
+ * instrumentado ({@link JdbcInstrumentado}), los listeners de Hibernate ({@link EventosHibernate}) y
+ * {@link SerializacionRespuesta}; al salir se vuelca en {@link MetricasPeticiones}.
+ * <p>
+ * Va en un ThreadLocal y solo la toca el hilo de la peticion (campos sin sincronizar). Lo que corre en otros
+ * hilos no se cuenta: el volcado de las exportaciones (hilo async de Spring MVC), hilos de arranque, etc.
+ */
+public final class MedicionPeticion {
+
+    private static final ThreadLocal<MedicionPeticion> ACTUAL = new ThreadLocal<>();
+
+    // "GET /api/clientes/7": para el log de consultas lentas (las metricas usan el patron del endpoint)
+    private final String descripcion;
+
+    private int sentencias;
+    private long filas;
+    private int entidadesCargadas;
+    private int flushes;
+    private long nanosJdbc;
+    private long nanosSerializacion;
+    private long inicioSerializacion;
+
+    private MedicionPeticion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    static MedicionPeticion iniciar(String descripcion) {
+        MedicionPeticion m = new MedicionPeticion(descripcion);
+        ACTUAL.set(m);
+        return m;
+    }
+
+    static void terminar() {
+        ACTUAL.remove();
+    }
+
+    // null fuera de una peticion (o en un hilo que no es el de la peticion)
+    static MedicionPeticion actual() {
+        return ACTUAL.get();
+    }
+
+    void sentencia(long nanos) {
+        sentencias++;
+        nanosJdbc += nanos;
+    }
+
+    // Leer del ResultSet tambien es tiempo de BD: con fetch por tramos el driver va a buscar filas en next()
+    void fila(boolean hayFila, long nanos) {
+        if (hayFila) filas++;
+        nanosJdbc += nanos;
+    }
+
+    void entidadCargada() {
+        entidadesCargadas++;
+    }
+
+    void flush() {
+        flushes++;
+    }
+
+    // Se abre al empezar a escribir el cuerpo (o a pintar la vista) y se cierra al terminar. Si la escritura
+    // dispara cargas perezosas, su tiempo cuenta en JDBC y tambien aqui
+    void inicioSerializacion() {
+        if (inicioSerializacion == 0) inicioSerializacion = System.nanoTime();
+    }
+
+    void finSerializacion() {
+        if (inicioSerializacion != 0) {
+            nanosSerializacion += System.nanoTime() - inicioSerializacion;
+            inicioSerializacion = 0;
+        }
+    }
+
+    String descripcion() {
+        return descripcion;
+    }
+
+    int sentencias() {
+        return sentencias;
+    }
+
+    long filas() {
+        return filas;
+    }
+
+    int entidadesCargadas() {
+        return entidadesCargadas;
+    }
+
+    int flushes() {
+        return flushes;
+    }
+
+    long nanosJdbc() {
+        return nanosJdbc;
+    }
+
+    long nanosSerializacion() {
+        return nanosSerializacion;
+    }
+}
@@ -0,0 +1,124 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springdataapi.springdemojpa.models.EstadisticasEndpoint;
+import org.springdataapi.springdemojpa.models.EstadisticasEndpoint.Distribucion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogramas por endpoint (metodo + patron de la URL, no la URL con ids: numero de series acotado) de lo que
+ * mide {@link MedicionPeticion}. Son medidores de Micrometer (crm.peticion.*, etiquetas metodo y uri), asi que
+ * salen tambien en /actuator/metrics y en cualquier registry que se configure; {@link #estadisticas()} los
+ * resume para /api/admin/metricas/peticiones
+ */
+@Component
+public class MetricasPeticiones {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Medidores> porEndpoint = new ConcurrentHashMap<>();
+
+    private record Medidores(String metodo, String uri, Timer duracion, Timer jdbc, Timer serializacion,
+                             DistributionSummary sentencias, DistributionSummary filas,
+                             DistributionSummary entidadesCargadas, DistributionSummary flushes) {
+
+        List<Meter> todos() {
+            return List.of(duracion, jdbc, serializacion, sentencias, filas, entidadesCargadas, flushes);
+        }
+    }
+
+    public MetricasPeticiones(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void registrar(String metodo, String uri, MedicionPeticion m, long nanosTotal) {
+        Medidores medidores = porEndpoint.computeIfAbsent(metodo + ' ' + uri, k -> crear(metodo, uri));
+        medidores.duracion().record(nanosTotal, TimeUnit.NANOSECONDS);
+        medidores.jdbc().record(m.nanosJdbc(), TimeUnit.NANOSECONDS);
+        medidores.serializacion().record(m.nanosSerializacion(), TimeUnit.NANOSECONDS);
+        medidores.sentencias().record(m.sentencias());
+        medidores.filas().record(m.filas());
+        medidores.entidadesCargadas().record(m.entidadesCargadas());
+        medidores.flushes().record(m.flushes());
+    }
+
+    // Los endpoints que mas tiempo acumulan primero
+    public List<EstadisticasEndpoint> estadisticas() {
+        List<EstadisticasEndpoint> resultado = new ArrayList<>();
+        for (Medidores m : porEndpoint.values()) {
+            resultado.add(new EstadisticasEndpoint(m.metodo(), m.uri(), m.duracion().count(),
+                    distribucion(m.duracion()), distribucion(m.jdbc()), distribucion(m.serializacion()),
+                    distribucion(m.sentencias()), distribucion(m.filas()),
+                    distribucion(m.entidadesCargadas()), distribucion(m.flushes())));
+        }
+        resultado.sort(Comparator.comparingDouble((EstadisticasEndpoint e) -> e.peticiones() * e.duracionMs().media())
+                .reversed());
+        return resultado;
+    }
+
+    // Quita los medidores del registry: se vuelven a crear con la siguiente peticion a cada endpoint
+    public void vaciar() {
+        for (String clave : List.copyOf(porEndpoint.keySet())) {
+            Medidores m = porEndpoint.remove(clave);
+            if (m != null) m.todos().forEach(meterRegistry::remove);
+        }
+    }
+
+    private Medidores crear(String metodo, String uri) {
+        Tags tags = Tags.of("metodo", metodo, "uri", uri);
+        return new Medidores(metodo, uri,
+                timer("crm.peticion.duracion", "Duracion total de la peticion", tags),
+                timer("crm.peticion.jdbc", "Tiempo en JDBC (ejecucion y lectura de filas)", tags),
+                timer("crm.peticion.serializacion", "Tiempo escribiendo el cuerpo o pintando la vista", tags),
+                resumen("crm.peticion.sentencias", "Sentencias JDBC ejecutadas", tags),
+                resumen("crm.peticion.filas", "Filas leidas de los ResultSet", tags),
+                resumen("crm.peticion.entidades", "Entidades cargadas por Hibernate", tags),
+                resumen("crm.peticion.flushes", "Flushes de Hibernate", tags));
+    }
+
+    private Timer timer(String nombre, String descripcion, Tags tags) {
+        return Timer.builder(nombre)
+                .description(descripcion)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary resumen(String nombre, String descripcion, Tags tags) {
+        return DistributionSummary.builder(nombre)
+                .description(descripcion)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1_000_000.0)
+                .register(meterRegistry);
+    }
+
+    private static Distribucion distribucion(Timer t) {
+        HistogramSnapshot s = t.takeSnapshot();
+        ValueAtPercentile[] p = s.percentileValues();
+        TimeUnit ms = TimeUnit.MILLISECONDS;
+        return new Distribucion(s.mean(ms), p[0].value(ms), p[1].value(ms), p[2].value(ms), s.max(ms));
+    }
+
+    private static Distribucion distribucion(DistributionSummary d) {
+        HistogramSnapshot s = d.takeSnapshot();
+        ValueAtPercentile[] p = s.percentileValues();
+        return new Distribucion(s.mean(), p[0].value(), p[1].value(), p[2].value(), s.max());
+    }
+}
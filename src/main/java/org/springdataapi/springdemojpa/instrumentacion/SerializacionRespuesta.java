@@ -0,0 +1,52 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Tiempo de serializacion de la respuesta. En la API el cuerpo se escribe (Jackson) entre beforeBodyWrite y
+ * el postHandle del interceptor; en las pantallas Thymeleaf la vista se pinta entre postHandle y afterCompletion.
+ * Registrado como interceptor en InstrumentacionConfig
+ */
+@ControllerAdvice
+public class SerializacionRespuesta implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        MedicionPeticion medicion = MedicionPeticion.actual();
+        if (medicion != null) medicion.inicioSerializacion();
+        return body;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        MedicionPeticion medicion = MedicionPeticion.actual();
+        if (medicion == null) return;
+        medicion.finSerializacion();
+        if (modelAndView != null) medicion.inicioSerializacion();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        MedicionPeticion medicion = MedicionPeticion.actual();
+        if (medicion != null) medicion.finSerializacion();
+    }
+}
@@ -0,0 +1,16 @@
+package org.springdataapi.springdemojpa.models;
+
+import java.time.LocalDate;
+
+// Fila de listados y consultas de clientes: solo las columnas que se muestran (nunca la password).
+// Se construye en la propia consulta (SELECT new ...), asi que no pasa por el contexto de persistencia
+public record ClienteResumen(
+        Integer id,
+        String nombre,
+        String email,
+        String telefono,
+        String tipoCliente,
+        LocalDate fechaAlta,
+        Integer idEmpleadoResponsable,
+        String nombreEmpleadoResponsable) {
+}
@@ -1,15 +1,28 @@
 package org.springdataapi.springdemojpa.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "clientes")
+// UPDATE solo con las columnas modificadas (PATCH de un campo = SET de un campo)
+@DynamicUpdate
+@Table(name = "clientes", indexes = {
+        @Index(name = "idx_clientes_tipo_cliente", columnList = "tipo_cliente"),
+        @Index(name = "idx_clientes_fecha_alta", columnList = "fecha_alta")
+}, uniqueConstraints = {
+        // Unicidad garantizada por la BD (ver UnicidadContactos); su indice sirve tambien al login, a los
+        // exists de crear y a la comprobacion por lotes de la importacion
+        @UniqueConstraint(name = "uk_clientes_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_clientes_telefono", columnNames = "telefono")
+})
 public class Clientes {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +46,8 @@ public class Clientes {
     @Column(name = "tipo_cliente", length = 50)
     private String tipoCliente;
 
+    // Hash BCrypt: se puede recibir, nunca se devuelve en las respuestas JSON
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Size(max = 150)
     @NotNull
     @Column(name = "password", nullable = false, length = 150)
@@ -41,7 +56,22 @@ public class Clientes {
     @Column(name = "fecha_alta")
     private LocalDate fechaAlta;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Claim "ver" del JWT: sube con cada cambio de email o password (ver Empleados.versionCredenciales)
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "version_credenciales", nullable = false)
+    private Integer versionCredenciales = 0;
+
+    // Control optimista de concurrencia: cada UPDATE lleva "WHERE version = ?" y la incrementa. Se expone
+    // como ETag y los PUT/PATCH/DELETE con If-Match responden 412 si ya no coincide
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // LAZY: cada consulta que necesita el empleado (y su rol) lo trae con su propio plan de carga
+    // (entity graph o JOIN FETCH en ClientesRepository), sin selects sueltos por fila
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_empleado_responsable")
     private Empleados idEmpleadoResponsable;
     }
\ No newline at end of file
@@ -27,5 +27,8 @@ public class ClientesDTO {
 
     private Integer id_empleadoresponsable;
 
+    // Version leida al abrir el formulario de edicion (campo oculto); la API REST usa If-Match
+    private Long version;
+
 
 }
\ No newline at end of file
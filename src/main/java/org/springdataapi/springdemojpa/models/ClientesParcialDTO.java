@@ -0,0 +1,25 @@
+package org.springdataapi.springdemojpa.models;
+
+import jakarta.validation.constraints.Email;
+import lombok.Data;
+
+/**
+ * Cuerpo del PATCH de clientes: solo se tocan los campos que vienen (null = sin cambios).
+ * telefono o tipo_cliente vacios ("") los dejan sin valor; para quitar el empleado responsable, PUT.
+ */
+@Data
+public class ClientesParcialDTO {
+
+    private String nombre;
+
+    @Email(message = "Email inválido")
+    private String email;
+
+    private String telefono;
+
+    private String password;
+
+    private String tipo_cliente;
+
+    private Integer id_empleadoresponsable;
+}
@@ -0,0 +1,17 @@
+package org.springdataapi.springdemojpa.models;
+
+import java.time.LocalDate;
+
+// Fila de listados y consultas de empleados: solo las columnas que se muestran (nunca la password).
+// Se construye en la propia consulta (SELECT new ...), asi que no pasa por el contexto de persistencia
+public record EmpleadoResumen(
+        Integer id,
+        String nombre,
+        String email,
+        String telefono,
+        String estado,
+        LocalDate fechaIngreso,
+        Integer idRol,
+        String nombreRol,
+        Integer numClientes) {
+}
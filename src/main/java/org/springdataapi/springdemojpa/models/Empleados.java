@@ -1,15 +1,27 @@
 package org.springdataapi.springdemojpa.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "empleados")
+// Cambiar el estado o el rol no reescribe password, email... (ver EmpleadosService.actualizarParcial)
+@DynamicUpdate
+@Table(name = "empleados", indexes = {
+        @Index(name = "idx_empleados_estado", columnList = "estado"),
+        @Index(name = "idx_empleados_fecha_ingreso", columnList = "fecha_ingreso"),
+        @Index(name = "idx_empleados_num_clientes", columnList = "num_clientes")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_empleados_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_empleados_telefono", columnNames = "telefono")
+})
 public class Empleados {
 
     @Id
@@ -31,6 +43,8 @@ public class Empleados {
     @Column(name = "telefono", length = 20)
     private String telefono;
 
+    // Nunca sale en el JSON (ni embebido como responsable de un cliente)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Size(max = 150)
     @NotNull
     @Column(name = "password", nullable = false, length = 150)
@@ -49,4 +63,27 @@ public class Empleados {
     @Column(name = "estado", nullable = false, length = 150)
     private String estado;
 
+    // Numero de clientes asignados. Lo mantiene ClienteService con UPDATEs atomicos
+    // (EmpleadosRepository.sumarClientes) y lo repara EmpleadosService.reconciliarNumClientes;
+    // no es actualizable desde la entidad para que un save() no pise el contador con un valor viejo
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "num_clientes", nullable = false, updatable = false)
+    private Integer numClientes = 0;
+
+    // Version de las credenciales (email, password, rol o estado): va en el claim "ver" del JWT y se incrementa en el
+    // mismo UPDATE que las cambia. Un token con otra version (o de un usuario que ya no existe) deja de valer,
+    // tambien tras un reinicio o en otra instancia (ver TokenRevocationRegistry)
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "version_credenciales", nullable = false)
+    private Integer versionCredenciales = 0;
+
+    // Control optimista de concurrencia (ver Clientes.version). Los UPDATE masivos de num_clientes no la
+    // tocan: el contador no es editable y no debe invalidar la edicion de un formulario abierto
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
\ No newline at end of file
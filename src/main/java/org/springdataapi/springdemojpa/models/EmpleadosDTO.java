@@ -29,4 +29,7 @@ EmpleadosDTO {
 
     private String estado; // si viene null es "activo"
 
+    // Control de concurrencia del formulario (ver ClientesDTO.version)
+    private Long version;
+
 }
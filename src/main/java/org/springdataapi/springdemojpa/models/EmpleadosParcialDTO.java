@@ -0,0 +1,29 @@
+package org.springdataapi.springdemojpa.models;
+
+import jakarta.validation.constraints.Email;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Cuerpo del PATCH de empleados: solo se tocan los campos que vienen (null = sin cambios).
+ * telefono vacio ("") lo deja sin valor.
+ */
+@Data
+public class EmpleadosParcialDTO {
+
+    private String nombre;
+
+    @Email(message = "Email inválido")
+    private String email;
+
+    private String telefono;
+
+    private String password;
+
+    private Integer idRol;
+
+    private LocalDate fechaIngreso;
+
+    private String estado;
+}
@@ -0,0 +1,5 @@
+package org.springdataapi.springdemojpa.models;
+
+// Fila rechazada en una importacion masiva: numero de linea del fichero (la cabecera CSV es la 1) y motivo
+public record ErrorImportacion(int linea, String mensaje) {
+}
@@ -0,0 +1,20 @@
+package org.springdataapi.springdemojpa.models;
+
+// Coste por peticion de un endpoint (metodo + patron de la URL). Peticiones y media desde el arranque (o el
+// ultimo vaciado); percentiles y max de Micrometer sobre una ventana reciente (unos minutos).
+// Tiempos en ms; sentencias = ejecuciones JDBC (un batch cuenta una), filas = filas leidas de los ResultSet
+public record EstadisticasEndpoint(
+        String metodo,
+        String uri,
+        long peticiones,
+        Distribucion duracionMs,
+        Distribucion jdbcMs,
+        Distribucion serializacionMs,
+        Distribucion sentencias,
+        Distribucion filas,
+        Distribucion entidadesCargadas,
+        Distribucion flushes) {
+
+    public record Distribucion(double media, double p50, double p95, double p99, double max) {
+    }
+}
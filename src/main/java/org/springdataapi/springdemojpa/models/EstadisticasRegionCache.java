@@ -0,0 +1,14 @@
+package org.springdataapi.springdemojpa.models;
+
+// Aciertos/fallos de una region de la cache de segundo nivel desde el arranque (o el ultimo vaciado de estadisticas).
+// tipo: "entidad" (filas por id) o "consulta" (resultados de una consulta cacheada).
+// elementosEnMemoria es -1 si el proveedor de cache no lo informa
+public record EstadisticasRegionCache(
+        String region,
+        String tipo,
+        long aciertos,
+        long fallos,
+        long escrituras,
+        double ratioAciertos,
+        long elementosEnMemoria) {
+}
@@ -0,0 +1,6 @@
+package org.springdataapi.springdemojpa.models;
+
+// Resultado de un id en un borrado por lotes: ELIMINADO, NO_ENCONTRADO o CON_REGISTROS_RELACIONADOS
+// (una FK lo impide: lineas de pedido, facturas...)
+public record EstadoEliminacion(int id, String estado) {
+}
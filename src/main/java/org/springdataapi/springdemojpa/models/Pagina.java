@@ -0,0 +1,55 @@
+package org.springdataapi.springdemojpa.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pagina de resultados con paginacion por cursor (keyset).
+ * El cursor es opaco para el cliente: codifica el ultimo id devuelto y la siguiente pagina se pide
+ * con "id > ultimo id", asi el coste es el mismo en la pagina 1 que en la 10.000 (no hay OFFSET).
+ */
+public record Pagina<T>(List<T> contenido, String siguienteCursor) {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final String PREFIJO = "v1:";
+
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+
+    // Los repositorios piden limite + 1 filas: si llega la extra, hay pagina siguiente
+    public static <T> Pagina<T> desde(List<T> filas, int limite, Function<T, Integer> id) {
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> contenido = filas.subList(0, limite);
+        return new Pagina<>(contenido, codificarCursor(id.apply(contenido.get(limite - 1))));
+    }
+
+    public static int limite(Integer limite) {
+        if (limite == null) return LIMITE_POR_DEFECTO;
+        if (limite < 1) throw new PaginacionInvalidaException("El limite debe ser mayor que 0");
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    // Devuelve el id a partir del cual seguir; sin cursor se empieza desde el principio
+    public static int despuesDe(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0;
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO)) throw new IllegalArgumentException();
+            return Integer.parseInt(valor.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            throw new PaginacionInvalidaException("Cursor inválido");
+        }
+    }
+
+    public static String codificarCursor(int ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIJO + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+}
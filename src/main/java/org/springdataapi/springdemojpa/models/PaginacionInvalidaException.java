@@ -0,0 +1,13 @@
+package org.springdataapi.springdemojpa.models;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Cursor que no salio de Pagina o limite <= 0: es un error de la peticion, 400 y no 500
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class PaginacionInvalidaException extends RuntimeException {
+
+    public PaginacionInvalidaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,12 @@
+package org.springdataapi.springdemojpa.models;
+
+// Fila de listados y consultas de productos. Se construye en la propia consulta (SELECT new ...),
+// asi que no pasa por el contexto de persistencia ni guarda copia para el dirty checking
+public record ProductoResumen(
+        Integer id,
+        String nombre,
+        String descripcion,
+        String categoria,
+        Double precio,
+        Boolean activo) {
+}
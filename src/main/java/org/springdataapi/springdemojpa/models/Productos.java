@@ -5,11 +5,22 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Data
 @Entity
-@Table(name = "productos")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "productos")
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_categoria", columnList = "categoria"),
+        @Index(name = "idx_productos_precio", columnList = "precio"),
+        // exists de crear y comprobacion por lotes de la importacion
+        @Index(name = "idx_productos_nombre", columnList = "nombre")
+})
 public class Productos {
 
     @Id
@@ -37,4 +48,10 @@ public class Productos {
     @Column(name = "activo")
     private Boolean activo;
 
+    // Control optimista de concurrencia (ver Clientes.version)
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
\ No newline at end of file
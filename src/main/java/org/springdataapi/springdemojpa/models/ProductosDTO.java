@@ -22,4 +22,7 @@ public class ProductosDTO {
     private Double precio;
 
     private Boolean activo;
+
+    // Control de concurrencia del formulario (ver ClientesDTO.version)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package org.springdataapi.springdemojpa.models;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Cuerpo del PATCH de productos: solo se tocan los campos que vienen (null = sin cambios).
+ * descripcion o categoria vacias ("") las dejan sin valor.
+ */
+@Data
+public class ProductosParcialDTO {
+
+    @Size(max = 150, message = "Máx. 150 caracteres")
+    private String nombre;
+
+    @Size(max = 255, message = "Máx. 255 caracteres")
+    private String descripcion;
+
+    @Size(max = 255, message = "Máx. 255 caracteres")
+    private String categoria;
+
+    private Double precio;
+
+    private Boolean activo;
+}
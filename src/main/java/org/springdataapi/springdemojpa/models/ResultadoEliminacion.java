@@ -0,0 +1,7 @@
+package org.springdataapi.springdemojpa.models;
+
+import java.util.List;
+
+// Informe de un borrado por lotes: ids distintos pedidos, cuantos se borraron y el estado de cada uno, por id
+public record ResultadoEliminacion(int solicitados, int eliminados, List<EstadoEliminacion> resultados) {
+}
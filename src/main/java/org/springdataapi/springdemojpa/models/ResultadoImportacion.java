@@ -0,0 +1,8 @@
+package org.springdataapi.springdemojpa.models;
+
+import java.util.List;
+
+// Informe de una importacion masiva: filas leidas (sin contar cabecera ni lineas vacias),
+// filas insertadas y una entrada por cada fila rechazada, ordenadas por linea
+public record ResultadoImportacion(int filas, int importadas, List<ErrorImportacion> errores) {
+}
@@ -0,0 +1,24 @@
+package org.springdataapi.springdemojpa.models;
+
+/**
+ * Proyeccion de solo lectura con lo minimo para autenticar a un usuario,
+ * venga de la tabla empleados o de clientes.
+ * tipo: "E" (empleado) o "C" (cliente). rol: nombre del rol del empleado (null en clientes).
+ * versionCredenciales: la que se firma en el JWT (claim "ver").
+ */
+public interface UsuarioAuth {
+
+    String getTipo();
+
+    Integer getId();
+
+    String getEmail();
+
+    String getNombre();
+
+    String getPassword();
+
+    String getRol();
+
+    Integer getVersionCredenciales();
+}
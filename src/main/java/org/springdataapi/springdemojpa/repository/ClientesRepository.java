@@ -1,49 +1,100 @@
 package org.springdataapi.springdemojpa.repository;
 
+import org.springdataapi.springdemojpa.models.ClienteResumen;
 import org.springdataapi.springdemojpa.models.Clientes;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ClientesRepository extends JpaRepository<Clientes, Integer>
+public interface ClientesRepository extends JpaRepository<Clientes, Integer>, ClientesRepositoryCustom
 {
 
+    // Plan de carga de los endpoints: cliente + empleado responsable + rol del empleado en una sola consulta
+    @Override
+    @EntityGraph(attributePaths = {"idEmpleadoResponsable", "idEmpleadoResponsable.idRol"})
+    public List<Clientes> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"idEmpleadoResponsable", "idEmpleadoResponsable.idRol"})
+    public Optional<Clientes> findById(Integer id);
+
     public Optional<Clientes> findByEmail(String email);
     public Optional<Clientes> findByTelefono(String telefono);
 
     public boolean existsByTelefono(String telefono);
     public boolean existsByEmail(String email);
 
+    // Paginacion por cursor del listado: solo las columnas que se muestran, con el nombre del empleado
+    @Query("""
+        SELECT new org.springdataapi.springdemojpa.models.ClienteResumen(
+            c.id, c.nombre, c.email, c.telefono, c.tipoCliente, c.fechaAlta, e.id, e.nombre)
+        FROM Clientes c
+        LEFT JOIN c.idEmpleadoResponsable e
+        WHERE c.id > :despuesDe
+        ORDER BY c.id
+    """)
+    public List<ClienteResumen> listarResumen(@Param("despuesDe") Integer despuesDe, Limit limit);
 
+    // Exportacion completa en streaming (hay que consumirlo dentro de una transaccion y cerrarlo):
+    // filas de solo lectura leidas del cursor de fetch_size en fetch_size, nada se queda en el contexto de persistencia
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
     @Query("""
-        SELECT c
+        SELECT new org.springdataapi.springdemojpa.models.ClienteResumen(
+            c.id, c.nombre, c.email, c.telefono, c.tipoCliente, c.fechaAlta, e.id, e.nombre)
         FROM Clientes c
-        WHERE c.idEmpleadoResponsable.id = :idEmpleado
-          AND c.fechaAlta >= :fechaDesde
-        ORDER BY c.fechaAlta DESC
+        LEFT JOIN c.idEmpleadoResponsable e
+        ORDER BY c.id
     """)
-    public List<Clientes> BusacarClientePorEmpleadoyFecha(@Param("idEmpleado") Integer idEmpleado , @Param("fechaDesde")LocalDate fechaDesde);
+    public Stream<ClienteResumen> exportarResumen();
+
 
     @Query("""
         SELECT c
         FROM Clientes c
-        WHERE (:telefono IS NULL OR :telefono = '' OR c.telefono LIKE CONCAT('%', :telefono, '%'))
-          AND (:email IS NULL OR :email = '' OR c.email LIKE CONCAT('%', :email, '%'))
-          AND (:tipoCliente IS NULL OR :tipoCliente = '' OR c.tipoCliente = :tipoCliente)
-          AND (:idEmpleado IS NULL OR c.idEmpleadoResponsable.id = :idEmpleado)
-          AND (:fechaDesde IS NULL OR c.fechaAlta >= :fechaDesde)
-        ORDER BY c.id
+        JOIN FETCH c.idEmpleadoResponsable e
+        JOIN FETCH e.idRol
+        WHERE e.id = :idEmpleado
+          AND c.fechaAlta >= :fechaDesde
+        ORDER BY c.fechaAlta DESC
     """)
-    public List<Clientes> buscarClientesFiltrados(
-            @Param("telefono") String telefono,
-            @Param("email") String email,
-            @Param("tipoCliente") String tipoCliente,
-            @Param("idEmpleado") Integer idEmpleado,
-            @Param("fechaDesde") LocalDate fechaDesde);
+    public List<Clientes> BusacarClientePorEmpleadoyFecha(@Param("idEmpleado") Integer idEmpleado , @Param("fechaDesde")LocalDate fechaDesde);
+
+    // Re-hash de la password (p. ej. texto plano -> BCrypt tras un login correcto)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Clientes c SET c.password = :password WHERE c.id = :id")
+    public int actualizarPassword(@Param("id") Integer id, @Param("password") String password);
+
+    // Carga por tramos del indice de busqueda de texto (BusquedaTextoService)
+    @Query("SELECT c.id, c.telefono, c.email FROM Clientes c WHERE c.id > :despuesDe ORDER BY c.id")
+    public List<Object[]> camposBusqueda(@Param("despuesDe") Integer despuesDe, Limit limit);
+
+    // Importacion masiva: cuales de los emails/telefonos de un lote ya existen (una consulta por lote)
+    @Query("SELECT c.email FROM Clientes c WHERE c.email IN :emails")
+    public List<String> emailsRegistrados(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT c.telefono FROM Clientes c WHERE c.telefono IN :telefonos")
+    public List<String> telefonosRegistrados(@Param("telefonos") Collection<String> telefonos);
+
+    // Borrado en una sola sentencia: las filas afectadas (0 o 1) dicen si existia. Con version (If-Match)
+    // solo borra si no ha cambiado; 0 filas y el id existe = conflicto de version
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Clientes c WHERE c.id = :id AND (:version IS NULL OR c.version = :version)")
+    public int eliminarPorId(@Param("id") Integer id, @Param("version") Long version);
 }
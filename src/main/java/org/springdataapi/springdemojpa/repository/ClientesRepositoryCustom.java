@@ -0,0 +1,22 @@
+package org.springdataapi.springdemojpa.repository;
+
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Consultas con filtros opcionales: el SQL solo lleva las condiciones de los filtros informados.
+// Devuelven filas de solo lectura con las columnas de la pantalla de consulta
+public interface ClientesRepositoryCustom {
+
+    List<ClienteResumen> buscarClientesFiltrados(String telefono, String email, String tipoCliente,
+                                                 Integer idEmpleado, LocalDate fechaDesde,
+                                                 Integer despuesDe, Limit limit);
+
+    // Igual, pero restringido a los ids candidatos (ordenados) del indice de texto; el LIKE se sigue
+    // aplicando en SQL para descartar falsos positivos
+    List<ClienteResumen> buscarClientesFiltrados(String telefono, String email, String tipoCliente,
+                                                 Integer idEmpleado, LocalDate fechaDesde,
+                                                 int[] candidatos, Integer despuesDe, Limit limit);
+}
@@ -0,0 +1,90 @@
+package org.springdataapi.springdemojpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * En lugar del patron "(:x IS NULL OR ...)", que deja un unico plan generico sin indices,
+ * se genera un JPQL con solo los filtros informados. El texto de cada combinacion
+ * (mascara de bits de filtros) se construye una vez y se reutiliza; al ser siempre el mismo
+ * String, Hibernate reaprovecha tambien el plan compilado de su query plan cache.
+ */
+public class ClientesRepositoryImpl implements ClientesRepositoryCustom {
+
+    private static final int TELEFONO = 1, EMAIL = 2, TIPO = 4, EMPLEADO = 8, FECHA = 16, CANDIDATOS = 32;
+
+    private static final ConcurrentHashMap<Integer, String> CONSULTAS = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ClienteResumen> buscarClientesFiltrados(String telefono, String email, String tipoCliente,
+                                                        Integer idEmpleado, LocalDate fechaDesde,
+                                                        Integer despuesDe, Limit limit) {
+        return buscar(telefono, email, tipoCliente, idEmpleado, fechaDesde, null, despuesDe,
+                limit.isLimited() ? limit.max() : Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ClienteResumen> buscarClientesFiltrados(String telefono, String email, String tipoCliente,
+                                                        Integer idEmpleado, LocalDate fechaDesde,
+                                                        int[] candidatos, Integer despuesDe, Limit limit) {
+        int limite = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        if (candidatos == null) {
+            return buscar(telefono, email, tipoCliente, idEmpleado, fechaDesde, null, despuesDe, limite);
+        }
+        return TramosDeCandidatos.buscar(candidatos, despuesDe, limite, (tramo, restantes) ->
+                buscar(telefono, email, tipoCliente, idEmpleado, fechaDesde, tramo, despuesDe, restantes));
+    }
+
+    private List<ClienteResumen> buscar(String telefono, String email, String tipoCliente,
+                                        Integer idEmpleado, LocalDate fechaDesde,
+                                        List<Integer> candidatos, Integer despuesDe, int limite) {
+        int filtros = (informado(telefono) ? TELEFONO : 0)
+                | (informado(email) ? EMAIL : 0)
+                | (informado(tipoCliente) ? TIPO : 0)
+                | (idEmpleado != null ? EMPLEADO : 0)
+                | (fechaDesde != null ? FECHA : 0)
+                | (candidatos != null ? CANDIDATOS : 0);
+
+        TypedQuery<ClienteResumen> query = entityManager.createQuery(
+                CONSULTAS.computeIfAbsent(filtros, ClientesRepositoryImpl::construir), ClienteResumen.class);
+
+        if ((filtros & TELEFONO) != 0) query.setParameter("telefono", "%" + telefono + "%");
+        if ((filtros & EMAIL) != 0) query.setParameter("email", "%" + email + "%");
+        if ((filtros & TIPO) != 0) query.setParameter("tipoCliente", tipoCliente);
+        if ((filtros & EMPLEADO) != 0) query.setParameter("idEmpleado", idEmpleado);
+        if ((filtros & FECHA) != 0) query.setParameter("fechaDesde", fechaDesde);
+        if ((filtros & CANDIDATOS) != 0) query.setParameter("candidatos", candidatos);
+        query.setParameter("despuesDe", despuesDe);
+        if (limite != Integer.MAX_VALUE) query.setMaxResults(limite);
+
+        return query.getResultList();
+    }
+
+    private static String construir(int filtros) {
+        StringBuilder jpql = new StringBuilder("SELECT new " + ClienteResumen.class.getName()
+                + "(c.id, c.nombre, c.email, c.telefono, c.tipoCliente, c.fechaAlta, e.id, e.nombre)"
+                + " FROM Clientes c LEFT JOIN c.idEmpleadoResponsable e"
+                + " WHERE c.id > :despuesDe");
+        if ((filtros & TELEFONO) != 0) jpql.append(" AND c.telefono LIKE :telefono");
+        if ((filtros & EMAIL) != 0) jpql.append(" AND c.email LIKE :email");
+        if ((filtros & TIPO) != 0) jpql.append(" AND c.tipoCliente = :tipoCliente");
+        if ((filtros & EMPLEADO) != 0) jpql.append(" AND e.id = :idEmpleado");
+        if ((filtros & FECHA) != 0) jpql.append(" AND c.fechaAlta >= :fechaDesde");
+        if ((filtros & CANDIDATOS) != 0) jpql.append(" AND c.id IN :candidatos");
+        return jpql.append(" ORDER BY c.id").toString();
+    }
+
+    private static boolean informado(String valor) {
+        return valor != null && !valor.isEmpty();
+    }
+}
@@ -1,50 +1,127 @@
 package org.springdataapi.springdemojpa.repository;
 
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
 import org.springdataapi.springdemojpa.models.Empleados;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmpleadosRepository extends JpaRepository<Empleados, Integer> {
+public interface EmpleadosRepository extends JpaRepository<Empleados, Integer>, EmpleadosRepositoryCustom {
 
 
+    // Plan de carga de los endpoints: empleado + rol en una sola consulta
+    @Override
+    @EntityGraph(attributePaths = "idRol")
+    List<Empleados> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "idRol")
+    Optional<Empleados> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = "idRol")
+    List<Empleados> findAllById(Iterable<Integer> ids);
+
     Optional<Empleados> findByEmail(String email);
     Optional<Empleados> findByTelefono(String telefono);
 
     boolean existsByEmail(String email);
     boolean existsByTelefono(String telefono);
 
+    @EntityGraph(attributePaths = "idRol")
     List<Empleados> findByEstado(String estado);
+    @EntityGraph(attributePaths = "idRol")
     List<Empleados> findByFechaIngreso(LocalDate fechaIngreso);
 
-    @Query("SELECT e FROM Empleados e " +
-            "WHERE LOWER(e.nombre) LIKE CONCAT('%', LOWER(:letra), '%') ")
-    List<Empleados> buscarPorLetra(@Param("letra") String letra);
+    // Paginacion por cursor del listado: solo las columnas que se muestran, con el nombre del rol
+    @Query("""
+        SELECT new org.springdataapi.springdemojpa.models.EmpleadoResumen(
+            e.id, e.nombre, e.email, e.telefono, e.estado, e.fechaIngreso, r.id, r.nombreRol, e.numClientes)
+        FROM Empleados e
+        JOIN e.idRol r
+        WHERE e.id > :despuesDe
+        ORDER BY e.id
+    """)
+    List<EmpleadoResumen> listarResumen(@Param("despuesDe") Integer despuesDe, Limit limit);
 
+    // Exportacion completa en streaming (ver ClientesRepository.exportarResumen)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
     @Query("""
-        SELECT DISTINCT e
+        SELECT new org.springdataapi.springdemojpa.models.EmpleadoResumen(
+            e.id, e.nombre, e.email, e.telefono, e.estado, e.fechaIngreso, r.id, r.nombreRol, e.numClientes)
         FROM Empleados e
-        WHERE (:telefono IS NULL OR :telefono = '' OR e.telefono LIKE CONCAT('%', :telefono, '%'))
-          AND (:email IS NULL OR :email = '' OR e.email LIKE CONCAT('%', :email, '%'))
-          AND (:estado IS NULL OR :estado = '' OR e.estado = :estado)
-          AND (:idRol IS NULL OR e.idRol.id = :idRol)
-          AND (:fechaIngreso IS NULL OR e.fechaIngreso >= :fechaIngreso)
-          AND (:tieneClientes IS NULL OR 
-               (:tieneClientes = true AND (SELECT COUNT(c) FROM Clientes c WHERE c.idEmpleadoResponsable.id = e.id) > 0) OR
-               (:tieneClientes = false AND (SELECT COUNT(c) FROM Clientes c WHERE c.idEmpleadoResponsable.id = e.id) = 0))
+        JOIN e.idRol r
         ORDER BY e.id
     """)
-    List<Empleados> buscarEmpleadosFiltrados(
-            @Param("telefono") String telefono,
-            @Param("email") String email,
-            @Param("estado") String estado,
-            @Param("idRol") Integer idRol,
-            @Param("tieneClientes") Boolean tieneClientes,
-            @Param("fechaIngreso") LocalDate fechaIngreso);
+    Stream<EmpleadoResumen> exportarResumen();
+
+    @Query("SELECT e FROM Empleados e JOIN FETCH e.idRol " +
+            "WHERE LOWER(e.nombre) LIKE CONCAT('%', LOWER(:letra), '%') ")
+    List<Empleados> buscarPorLetra(@Param("letra") String letra);
+
+    // Re-hash de la password (p. ej. texto plano -> BCrypt tras un login correcto)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Empleados e SET e.password = :password WHERE e.id = :id")
+    int actualizarPassword(@Param("id") Integer id, @Param("password") String password);
+
+    // Contador de clientes asignados: incremento atomico en BD, sin leer-modificar-escribir
+    @Modifying
+    @Transactional
+    @Query("UPDATE Empleados e SET e.numClientes = e.numClientes + :delta WHERE e.id = :id")
+    int sumarClientes(@Param("id") Integer id, @Param("delta") int delta);
+
+    // Igual, para el responsable del cliente que se va a borrar (sin leer antes la fila del cliente)
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Empleados e SET e.numClientes = e.numClientes - 1
+        WHERE e.id = (SELECT c.idEmpleadoResponsable.id FROM Clientes c WHERE c.id = :idCliente)
+    """)
+    int restarClienteDe(@Param("idCliente") Integer idCliente);
+
+    // Recalcula el contador solo en las filas que se han desviado; devuelve cuantas se corrigieron.
+    // Declara la tabla que toca: si no, Hibernate vacia toda la cache de segundo nivel tras un UPDATE nativo
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "empleados"))
+    @Query(value = """
+        UPDATE empleados e
+        SET num_clientes = (SELECT COUNT(*) FROM clientes c WHERE c.id_empleado_responsable = e.id_empleado)
+        WHERE num_clientes <> (SELECT COUNT(*) FROM clientes c WHERE c.id_empleado_responsable = e.id_empleado)
+    """, nativeQuery = true)
+    int reconciliarNumClientes();
+
+    // Carga por tramos del indice de busqueda de texto (BusquedaTextoService)
+    @Query("SELECT e.id, e.nombre FROM Empleados e WHERE e.id > :despuesDe ORDER BY e.id")
+    List<Object[]> camposBusqueda(@Param("despuesDe") Integer despuesDe, Limit limit);
+
+    // Carga por tramos de los filtros de email/telefono ya registrados (UnicidadContactos)
+    @Query("SELECT e.id, e.email, e.telefono FROM Empleados e WHERE e.id > :despuesDe ORDER BY e.id")
+    List<Object[]> contactos(@Param("despuesDe") Integer despuesDe, Limit limit);
+
+    // Importacion masiva de clientes: cuales de los empleados responsables de un lote existen
+    @Query("SELECT e.id FROM Empleados e WHERE e.id IN :ids")
+    List<Integer> idsExistentes(@Param("ids") Collection<Integer> ids);
+
+    // Borrado en una sola sentencia (ver ClientesRepository.eliminarPorId)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Empleados e WHERE e.id = :id AND (:version IS NULL OR e.version = :version)")
+    int eliminarPorId(@Param("id") Integer id, @Param("version") Long version);
 }
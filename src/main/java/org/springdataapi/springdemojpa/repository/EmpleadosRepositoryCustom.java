@@ -0,0 +1,16 @@
+package org.springdataapi.springdemojpa.repository;
+
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Consultas con filtros opcionales: el SQL solo lleva las condiciones de los filtros informados.
+// Devuelven filas de solo lectura con las columnas de la pantalla de consulta
+public interface EmpleadosRepositoryCustom {
+
+    List<EmpleadoResumen> buscarEmpleadosFiltrados(String telefono, String email, String estado,
+                                                   Integer idRol, Boolean tieneClientes, LocalDate fechaIngreso,
+                                                   Integer despuesDe, Limit limit);
+}
@@ -0,0 +1,67 @@
+package org.springdataapi.springdemojpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mismo enfoque que ClientesRepositoryImpl: un JPQL por combinacion de filtros, construido una sola vez.
+// "tieneClientes" se resuelve con el contador num_clientes de la propia fila, sin subconsultas
+public class EmpleadosRepositoryImpl implements EmpleadosRepositoryCustom {
+
+    private static final int TELEFONO = 1, EMAIL = 2, ESTADO = 4, ROL = 8, FECHA = 16,
+            CON_CLIENTES = 32, SIN_CLIENTES = 64;
+
+    private static final ConcurrentHashMap<Integer, String> CONSULTAS = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EmpleadoResumen> buscarEmpleadosFiltrados(String telefono, String email, String estado,
+                                                          Integer idRol, Boolean tieneClientes, LocalDate fechaIngreso,
+                                                          Integer despuesDe, Limit limit) {
+        int filtros = (informado(telefono) ? TELEFONO : 0)
+                | (informado(email) ? EMAIL : 0)
+                | (informado(estado) ? ESTADO : 0)
+                | (idRol != null ? ROL : 0)
+                | (fechaIngreso != null ? FECHA : 0)
+                | (tieneClientes == null ? 0 : tieneClientes ? CON_CLIENTES : SIN_CLIENTES);
+
+        TypedQuery<EmpleadoResumen> query = entityManager.createQuery(
+                CONSULTAS.computeIfAbsent(filtros, EmpleadosRepositoryImpl::construir), EmpleadoResumen.class);
+
+        if ((filtros & TELEFONO) != 0) query.setParameter("telefono", "%" + telefono + "%");
+        if ((filtros & EMAIL) != 0) query.setParameter("email", "%" + email + "%");
+        if ((filtros & ESTADO) != 0) query.setParameter("estado", estado);
+        if ((filtros & ROL) != 0) query.setParameter("idRol", idRol);
+        if ((filtros & FECHA) != 0) query.setParameter("fechaIngreso", fechaIngreso);
+        query.setParameter("despuesDe", despuesDe);
+        if (limit.isLimited()) query.setMaxResults(limit.max());
+
+        return query.getResultList();
+    }
+
+    private static String construir(int filtros) {
+        StringBuilder jpql = new StringBuilder("SELECT new " + EmpleadoResumen.class.getName()
+                + "(e.id, e.nombre, e.email, e.telefono, e.estado, e.fechaIngreso, r.id, r.nombreRol, e.numClientes)"
+                + " FROM Empleados e JOIN e.idRol r WHERE e.id > :despuesDe");
+        if ((filtros & TELEFONO) != 0) jpql.append(" AND e.telefono LIKE :telefono");
+        if ((filtros & EMAIL) != 0) jpql.append(" AND e.email LIKE :email");
+        if ((filtros & ESTADO) != 0) jpql.append(" AND e.estado = :estado");
+        if ((filtros & ROL) != 0) jpql.append(" AND r.id = :idRol");
+        if ((filtros & FECHA) != 0) jpql.append(" AND e.fechaIngreso >= :fechaIngreso");
+        if ((filtros & CON_CLIENTES) != 0) jpql.append(" AND e.numClientes > 0");
+        if ((filtros & SIN_CLIENTES) != 0) jpql.append(" AND e.numClientes = 0");
+        return jpql.append(" ORDER BY e.id").toString();
+    }
+
+    private static boolean informado(String valor) {
+        return valor != null && !valor.isEmpty();
+    }
+}
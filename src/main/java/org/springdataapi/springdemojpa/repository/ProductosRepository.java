@@ -1,26 +1,78 @@
 package org.springdataapi.springdemojpa.repository;
 
+import org.springdataapi.springdemojpa.models.ProductoResumen;
 import org.springdataapi.springdemojpa.models.Productos;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductosRepository extends JpaRepository<Productos, Integer>
+public interface ProductosRepository extends JpaRepository<Productos, Integer>, ProductosRepositoryCustom
 {
 
     boolean existsByNombre(String nombre);
 
+    // Catalogo completo y activos desde la cache de consultas (ids) + la region "productos" (filas).
+    // Cualquier escritura sobre productos hecha con Hibernate invalida estas consultas
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "productos-consultas")
+    })
+    List<Productos> findAll();
+
     List<Productos> findByCategoria(String categoria);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "productos-consultas")
+    })
     List<Productos> findByActivo(Boolean activo);
 
     List<Productos> findByPrecio(Double precio);
 
+    // Paginacion por cursor de los listados, como filas de solo lectura
+    @Query("""
+        SELECT new org.springdataapi.springdemojpa.models.ProductoResumen(
+            p.id, p.nombre, p.descripcion, p.categoria, p.precio, p.activo)
+        FROM Productos p
+        WHERE p.id > :despuesDe
+        ORDER BY p.id
+    """)
+    List<ProductoResumen> listarResumen(@Param("despuesDe") Integer despuesDe, Limit limit);
+
+    // Exportacion completa en streaming (ver ClientesRepository.exportarResumen)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT new org.springdataapi.springdemojpa.models.ProductoResumen(
+            p.id, p.nombre, p.descripcion, p.categoria, p.precio, p.activo)
+        FROM Productos p
+        ORDER BY p.id
+    """)
+    Stream<ProductoResumen> exportarResumen();
+
+    @Query("""
+        SELECT new org.springdataapi.springdemojpa.models.ProductoResumen(
+            p.id, p.nombre, p.descripcion, p.categoria, p.precio, p.activo)
+        FROM Productos p
+        WHERE p.activo = :activo AND p.id > :despuesDe
+        ORDER BY p.id
+    """)
+    List<ProductoResumen> listarResumenPorActivo(@Param("activo") Boolean activo,
+                                                 @Param("despuesDe") Integer despuesDe, Limit limit);
+
     @Query("SELECT p FROM Productos p " +
             "WHERE p.activo = true " +
             "AND (:categoria IS NULL OR p.categoria = :categoria) " +
@@ -29,22 +81,28 @@ public interface ProductosRepository extends JpaRepository<Productos, Integer>
     List<Productos> buscarProductosFiltrados(@Param("categoria") String categoria,
                                     @Param("precioMin") Double precioMin);
 
-    @Query("""
-        SELECT p
-        FROM Productos p
-        WHERE (:nombre IS NULL OR :nombre = '' OR p.nombre LIKE CONCAT('%', :nombre, '%'))
-          AND (:categoria IS NULL OR :categoria = '' OR p.categoria = :categoria)
-          AND (:precioMin IS NULL OR p.precio >= :precioMin)
-          AND (:precioMax IS NULL OR p.precio <= :precioMax)
-          AND (:activo IS NULL OR p.activo = :activo)
-        ORDER BY p.id
-    """)
-    List<Productos> buscarProductosFiltradosCompleto(
-            @Param("nombre") String nombre,
-            @Param("categoria") String categoria,
-            @Param("precioMin") Double precioMin,
-            @Param("precioMax") Double precioMax,
-            @Param("activo") Boolean activo);
-
     Integer id(Integer id);
+
+    // Carga por tramos del indice de busqueda de texto (BusquedaTextoService)
+    @Query("SELECT p.id, p.nombre FROM Productos p WHERE p.id > :despuesDe ORDER BY p.id")
+    List<Object[]> camposBusqueda(@Param("despuesDe") Integer despuesDe, Limit limit);
+
+    // Importacion masiva: cuales de los nombres de un lote ya existen (una consulta por lote)
+    @Query("SELECT p.nombre FROM Productos p WHERE p.nombre IN :nombres")
+    List<String> nombresRegistrados(@Param("nombres") Collection<String> nombres);
+
+    // Borrados en una sola sentencia (las filas afectadas dicen cuantos existian). Como DML masivo,
+    // Hibernate vacia la region "productos" de la cache de segundo nivel
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Productos p WHERE p.id = :id AND (:version IS NULL OR p.version = :version)")
+    int eliminarPorId(@Param("id") Integer id, @Param("version") Long version);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Productos p WHERE p.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id FROM Productos p WHERE p.id IN :ids")
+    List<Integer> idsExistentes(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,21 @@
+package org.springdataapi.springdemojpa.repository;
+
+import org.springdataapi.springdemojpa.models.ProductoResumen;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+// Consultas con filtros opcionales: el SQL solo lleva las condiciones de los filtros informados.
+// Devuelven filas de solo lectura con las columnas de la pantalla de consulta
+public interface ProductosRepositoryCustom {
+
+    List<ProductoResumen> buscarProductosFiltradosCompleto(String nombre, String categoria,
+                                                           Double precioMin, Double precioMax, Boolean activo,
+                                                           Integer despuesDe, Limit limit);
+
+    // Igual, pero restringido a los ids candidatos (ordenados) del indice de texto; el LIKE se sigue
+    // aplicando en SQL para descartar falsos positivos
+    List<ProductoResumen> buscarProductosFiltradosCompleto(String nombre, String categoria,
+                                                           Double precioMin, Double precioMax, Boolean activo,
+                                                           int[] candidatos, Integer despuesDe, Limit limit);
+}
@@ -0,0 +1,83 @@
+package org.springdataapi.springdemojpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mismo enfoque que ClientesRepositoryImpl: un JPQL por combinacion de filtros, construido una sola vez
+public class ProductosRepositoryImpl implements ProductosRepositoryCustom {
+
+    private static final int NOMBRE = 1, CATEGORIA = 2, PRECIO_MIN = 4, PRECIO_MAX = 8, ACTIVO = 16, CANDIDATOS = 32;
+
+    private static final ConcurrentHashMap<Integer, String> CONSULTAS = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductoResumen> buscarProductosFiltradosCompleto(String nombre, String categoria,
+                                                                  Double precioMin, Double precioMax, Boolean activo,
+                                                                  Integer despuesDe, Limit limit) {
+        return buscar(nombre, categoria, precioMin, precioMax, activo, null, despuesDe,
+                limit.isLimited() ? limit.max() : Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ProductoResumen> buscarProductosFiltradosCompleto(String nombre, String categoria,
+                                                                  Double precioMin, Double precioMax, Boolean activo,
+                                                                  int[] candidatos, Integer despuesDe, Limit limit) {
+        int limite = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        if (candidatos == null) {
+            return buscar(nombre, categoria, precioMin, precioMax, activo, null, despuesDe, limite);
+        }
+        return TramosDeCandidatos.buscar(candidatos, despuesDe, limite, (tramo, restantes) ->
+                buscar(nombre, categoria, precioMin, precioMax, activo, tramo, despuesDe, restantes));
+    }
+
+    private List<ProductoResumen> buscar(String nombre, String categoria,
+                                         Double precioMin, Double precioMax, Boolean activo,
+                                         List<Integer> candidatos, Integer despuesDe, int limite) {
+        int filtros = (informado(nombre) ? NOMBRE : 0)
+                | (informado(categoria) ? CATEGORIA : 0)
+                | (precioMin != null ? PRECIO_MIN : 0)
+                | (precioMax != null ? PRECIO_MAX : 0)
+                | (activo != null ? ACTIVO : 0)
+                | (candidatos != null ? CANDIDATOS : 0);
+
+        TypedQuery<ProductoResumen> query = entityManager.createQuery(
+                CONSULTAS.computeIfAbsent(filtros, ProductosRepositoryImpl::construir), ProductoResumen.class);
+
+        if ((filtros & NOMBRE) != 0) query.setParameter("nombre", "%" + nombre + "%");
+        if ((filtros & CATEGORIA) != 0) query.setParameter("categoria", categoria);
+        if ((filtros & PRECIO_MIN) != 0) query.setParameter("precioMin", precioMin);
+        if ((filtros & PRECIO_MAX) != 0) query.setParameter("precioMax", precioMax);
+        if ((filtros & ACTIVO) != 0) query.setParameter("activo", activo);
+        if ((filtros & CANDIDATOS) != 0) query.setParameter("candidatos", candidatos);
+        query.setParameter("despuesDe", despuesDe);
+        if (limite != Integer.MAX_VALUE) query.setMaxResults(limite);
+
+        return query.getResultList();
+    }
+
+    private static String construir(int filtros) {
+        StringBuilder jpql = new StringBuilder("SELECT new " + ProductoResumen.class.getName()
+                + "(p.id, p.nombre, p.descripcion, p.categoria, p.precio, p.activo)"
+                + " FROM Productos p WHERE p.id > :despuesDe");
+        if ((filtros & NOMBRE) != 0) jpql.append(" AND p.nombre LIKE :nombre");
+        if ((filtros & CATEGORIA) != 0) jpql.append(" AND p.categoria = :categoria");
+        if ((filtros & PRECIO_MIN) != 0) jpql.append(" AND p.precio >= :precioMin");
+        if ((filtros & PRECIO_MAX) != 0) jpql.append(" AND p.precio <= :precioMax");
+        if ((filtros & ACTIVO) != 0) jpql.append(" AND p.activo = :activo");
+        if ((filtros & CANDIDATOS) != 0) jpql.append(" AND p.id IN :candidatos");
+        return jpql.append(" ORDER BY p.id").toString();
+    }
+
+    private static boolean informado(String valor) {
+        return valor != null && !valor.isEmpty();
+    }
+}
@@ -1,14 +1,27 @@
 package org.springdataapi.springdemojpa.repository;
 
 import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RolesEmpleadoRepository extends JpaRepository<RolesEmpleado, Integer> {
 
+    // Desplegables de roles: ids desde la cache de consultas, filas desde la region "roles-empleado"
+    // (findById tambien la usa, sin hint)
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "roles-empleado-consultas")
+    })
+    List<RolesEmpleado> findAll();
+
     Optional<RolesEmpleado> findByNombreRol(String nombreRol);
 
     boolean existsByNombreRol(String nombreRol);
@@ -0,0 +1,40 @@
+package org.springdataapi.springdemojpa.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+// Ejecuta una consulta "id IN (:candidatos)" por tramos de ids ascendentes a partir del cursor,
+// hasta reunir las filas pedidas. Como cada tramo va ordenado por id, el resultado tambien lo esta.
+// Con demasiados candidatos (un trigrama comun junto a otro filtro selectivo) serian muchas consultas
+// seguidas: entonces va una sola sin IN (tramo null), el LIKE de siempre
+final class TramosDeCandidatos {
+
+    static final int TAMANO_TRAMO = 1000;
+    static final int MAX_CANDIDATOS = 4 * TAMANO_TRAMO;
+
+    private TramosDeCandidatos() {
+    }
+
+    static <T> List<T> buscar(int[] candidatos, int despuesDe, int limite,
+                              BiFunction<List<Integer>, Integer, List<T>> consulta) {
+        int desde = Arrays.binarySearch(candidatos, despuesDe);
+        desde = desde >= 0 ? desde + 1 : -desde - 1;
+        if (candidatos.length - desde > MAX_CANDIDATOS) {
+            return consulta.apply(null, limite);
+        }
+
+        List<T> resultado = new ArrayList<>();
+        while (desde < candidatos.length && resultado.size() < limite) {
+            int hasta = Math.min(desde + TAMANO_TRAMO, candidatos.length);
+            List<Integer> tramo = new ArrayList<>(hasta - desde);
+            for (int i = desde; i < hasta; i++) {
+                tramo.add(candidatos[i]);
+            }
+            resultado.addAll(consulta.apply(tramo, limite - resultado.size()));
+            desde = hasta;
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,43 @@
+package org.springdataapi.springdemojpa.repository;
+
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.UsuarioAuth;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Modelo de lectura para la autenticacion: resuelve un email contra empleados y clientes
+ * en una sola consulta, trayendo ya el nombre del rol (sin carga lazy de RolesEmpleado).
+ * Los empleados van primero, igual que en la busqueda secuencial anterior.
+ */
+public interface UsuariosAuthRepository extends Repository<Empleados, Integer> {
+
+    @Query(value = """
+        SELECT u.tipo AS tipo, u.id AS id, u.email AS email, u.nombre AS nombre, u.password AS password, u.rol AS rol,
+               u.version_credenciales AS versionCredenciales
+        FROM (
+            SELECT 'E' AS tipo, e.id_empleado AS id, e.email AS email, e.nombre AS nombre, e.password AS password,
+                   r.nombre_rol AS rol, e.version_credenciales AS version_credenciales, 0 AS prioridad
+            FROM empleados e
+            JOIN roles_empleado r ON r.id_rol = e.id_rol
+            WHERE e.email = :email
+            UNION ALL
+            SELECT 'C', c.id_cliente, c.email, c.nombre, c.password, NULL, c.version_credenciales, 1
+            FROM clientes c
+            WHERE c.email = :email
+        ) u
+        ORDER BY u.prioridad
+    """, nativeQuery = true)
+    List<UsuarioAuth> buscarPorEmail(@Param("email") String email);
+
+    // Version de credenciales vigente para validar el claim "ver" del JWT; vacio si el usuario ya no existe
+    @Query(value = "SELECT version_credenciales FROM empleados WHERE id_empleado = :id", nativeQuery = true)
+    Optional<Integer> versionCredencialesEmpleado(@Param("id") Integer id);
+
+    @Query(value = "SELECT version_credenciales FROM clientes WHERE id_cliente = :id", nativeQuery = true)
+    Optional<Integer> versionCredencialesCliente(@Param("id") Integer id);
+}
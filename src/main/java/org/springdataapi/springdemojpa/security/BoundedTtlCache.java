@@ -0,0 +1,118 @@
+package org.springdataapi.springdemojpa.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Mapa acotado con caducidad por entrada, comun a UserDetailsCache, VerifiedTokenCache y TokenRevocationRegistry.
+ * <p>
+ * Una entrada caducada se borra al leerla. Al llenarse se quitan primero las caducadas y, si no basta, entradas
+ * cualesquiera hasta dejar un 10% de hueco, sin recorridos periodicos. maxEntries <= 0 la desactiva.
+ * La generacion es para los valores cargados de BD: se anota {@link #generation()} antes de consultar y
+ * {@link #put(Object, Object, long, long, long)} descarta lo cargado si entre medias hubo un {@link #invalidate}.
+ */
+final class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    // Se avisa de cada entrada que sale (caducada, descartada, invalidada o sustituida por otra)
+    private final BiConsumer<K, V> onRemoval;
+
+    BoundedTtlCache(int maxEntries) {
+        this(maxEntries, (key, value) -> {
+        });
+    }
+
+    BoundedTtlCache(int maxEntries, BiConsumer<K, V> onRemoval) {
+        this.maxEntries = maxEntries;
+        this.onRemoval = onRemoval;
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    V get(K key, long nowMillis) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (nowMillis >= entry.expiresAt) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    void put(K key, V value, long expiresAtMillis, long nowMillis) {
+        store(key, value, expiresAtMillis, nowMillis);
+    }
+
+    // true si el valor queda guardado: no lo esta si la cache esta desactivada o hubo un invalidate() tras la carga
+    boolean put(K key, V value, long expiresAtMillis, long nowMillis, long loadedAtGeneration) {
+        Entry<V> entry = store(key, value, expiresAtMillis, nowMillis);
+        if (entry == null) return false;
+        if (generation.get() != loadedAtGeneration) {
+            remove(key, entry);
+            return false;
+        }
+        return true;
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    // Olvida la clave y descarta las cargas que ya estuvieran en curso (con key null, solo esto ultimo)
+    void invalidate(K key) {
+        generation.incrementAndGet();
+        if (key == null) return;
+        Entry<V> old = entries.remove(key);
+        if (old != null) onRemoval.accept(key, old.value);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Entry<V> store(K key, V value, long expiresAtMillis, long nowMillis) {
+        if (!isEnabled()) return null;
+        if (entries.size() >= maxEntries) {
+            evict(nowMillis);
+        }
+        Entry<V> entry = new Entry<>(value, expiresAtMillis);
+        Entry<V> old = entries.put(key, entry);
+        if (old != null) onRemoval.accept(key, old.value);
+        return entry;
+    }
+
+    // Primero quita los caducados; si sigue llena descarta entradas hasta dejar un 10% de hueco
+    private void evict(long nowMillis) {
+        entries.forEach((key, entry) -> {
+            if (nowMillis >= entry.expiresAt) remove(key, entry);
+        });
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            remove(e.getKey(), e.getValue());
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        if (entries.remove(key, entry)) onRemoval.accept(key, entry.value);
+    }
+
+    // Sin equals(): remove(key, entry) solo quita esta misma entrada, no otra igual guardada despues
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -19,13 +19,27 @@ public class CustomUserDetails implements UserDetails {
     private String role;
     private Integer userId;
     private String userType; // "ADMIN", "EMPLEADO", "CLIENTE"
+    private String nombre;   // Nombre para mostrar; se resuelve en la misma consulta del login
+    private int credentialsVersion; // version_credenciales de la fila leida: el claim "ver" del JWT
 
     public CustomUserDetails(String username, String password, String role, Integer userId, String userType) {
+        this(username, password, role, userId, userType, null);
+    }
+
+    public CustomUserDetails(String username, String password, String role, Integer userId, String userType,
+                             String nombre) {
+        this(username, password, role, userId, userType, nombre, 0);
+    }
+
+    public CustomUserDetails(String username, String password, String role, Integer userId, String userType,
+                             String nombre, int credentialsVersion) {
         this.username = username;
         this.password = password;
         this.role = role;
         this.userId = userId;
         this.userType = userType;
+        this.nombre = nombre;
+        this.credentialsVersion = credentialsVersion;
     }
 
     // [SPRING SECURITY] Devuelve los permisos/roles del usuario (ej: ROLE_ADMIN)
@@ -78,4 +92,12 @@ public class CustomUserDetails implements UserDetails {
     public String getUserType() {
         return userType;
     }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getCredentialsVersion() {
+        return credentialsVersion;
+    }
 }
@@ -1,80 +1,90 @@
 package org.springdataapi.springdemojpa.security;
 
-import org.springdataapi.springdemojpa.models.Clientes;
-import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.UsuarioAuth;
 import org.springdataapi.springdemojpa.repository.ClientesRepository;
 import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.UsuariosAuthRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.List;
 
 
 @Service
 // [SPRING SECURITY] Implementa UserDetailsService, la interfaz de Spring Security
 // que conecta la autenticacion con nuestra base de datos.
-// Spring Security llama a loadUserByUsername() para verificar las credenciales del usuario
-public class CustomUserDetailsService implements UserDetailsService {
+// Spring Security llama a loadUserByUsername() para verificar las credenciales del usuario.
+// Tambien implementa UserDetailsPasswordService para guardar el re-hash de las passwords antiguas
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UsuariosAuthRepository usuariosAuthRepository;
     private final EmpleadosRepository empleadosRepository;
     private final ClientesRepository clientesRepository;
+    private final UserDetailsCache userDetailsCache;
 
-    public CustomUserDetailsService(EmpleadosRepository empleadosRepository,
-                                    ClientesRepository clientesRepository) {
+    public CustomUserDetailsService(UsuariosAuthRepository usuariosAuthRepository,
+                                    EmpleadosRepository empleadosRepository,
+                                    ClientesRepository clientesRepository,
+                                    UserDetailsCache userDetailsCache) {
+        this.usuariosAuthRepository = usuariosAuthRepository;
         this.empleadosRepository = empleadosRepository;
         this.clientesRepository = clientesRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     // [SPRING SECURITY] Metodo obligatorio de UserDetailsService
-    // Busca al usuario por email en BD y devuelve un UserDetails con sus roles
+    // Busca al usuario por email (primero en cache) y devuelve un UserDetails con sus roles.
+    // En BD es una sola consulta sobre empleados y clientes que ya trae el nombre del rol
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Primero busca en empleados
-        Optional<Empleados> empleadoOpt = empleadosRepository.findByEmail(username);
-        if (empleadoOpt.isPresent()) {
-            Empleados empleado = empleadoOpt.get();
-            // Acceder al rol dentro de la transacción para evitar LazyInitializationException
-            String role = empleado.getIdRol() != null ? 
-                empleado.getIdRol().getNombreRol().toUpperCase() : "EMPLEADO";
-            
-            // Si el rol es "ADMIN", se asigna ese rol
-            if (role.equals("ADMIN")) {
-                return new CustomUserDetails(
-                    empleado.getEmail(),
-                    empleado.getPassword(),
-                    "ADMIN",
-                    empleado.getId(),
-                    "ADMIN"
-                );
-            } else {
-                return new CustomUserDetails(
-                    empleado.getEmail(),
-                    empleado.getPassword(),
-                    "EMPLEADO",
-                    empleado.getId(),
-                    "EMPLEADO"
-                );
-            }
+        CustomUserDetails cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
         }
 
-        // Si no está en empleados, busca en clientes
-        Optional<Clientes> clienteOpt = clientesRepository.findByEmail(username);
-        if (clienteOpt.isPresent()) {
-            Clientes cliente = clienteOpt.get();
-            return new CustomUserDetails(
-                cliente.getEmail(),
-                cliente.getPassword(),
-                "CLIENTE",
-                cliente.getId(),
-                "CLIENTE"
-            );
+        long generation = userDetailsCache.generation();
+        List<UsuarioAuth> encontrados = usuariosAuthRepository.buscarPorEmail(username);
+        if (encontrados.isEmpty()) {
+            // [SPRING SECURITY] Excepcion de Spring Security cuando el usuario no existe
+            throw new UsernameNotFoundException("Usuario no encontrado: " + username);
         }
 
-        // [SPRING SECURITY] Excepcion de Spring Security cuando el usuario no existe
-        throw new UsernameNotFoundException("Usuario no encontrado: " + username);
+        // Si el email esta en las dos tablas, manda el empleado (viene primero)
+        UsuarioAuth usuario = encontrados.get(0);
+        CustomUserDetails userDetails;
+        if ("E".equals(usuario.getTipo())) {
+            // Si el rol es "ADMIN", se asigna ese rol; cualquier otro rol de empleado es EMPLEADO
+            String role = usuario.getRol() != null && usuario.getRol().toUpperCase().equals("ADMIN")
+                    ? "ADMIN" : "EMPLEADO";
+            userDetails = new CustomUserDetails(usuario.getEmail(), usuario.getPassword(), role, usuario.getId(), role,
+                    usuario.getNombre(), usuario.getVersionCredenciales());
+        } else {
+            userDetails = new CustomUserDetails(usuario.getEmail(), usuario.getPassword(), "CLIENTE", usuario.getId(), "CLIENTE",
+                    usuario.getNombre(), usuario.getVersionCredenciales());
+        }
+
+        userDetailsCache.put(username, userDetails, generation);
+        return userDetails;
+    }
+
+    // [SPRING SECURITY] Spring Security lo llama tras un login correcto cuando
+    // PasswordEncoder.upgradeEncoding() indica que la password guardada debe re-hashearse
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserDetails actual = (CustomUserDetails) user;
+        if ("CLIENTE".equals(actual.getUserType())) {
+            clientesRepository.actualizarPassword(actual.getUserId(), newPassword);
+        } else {
+            empleadosRepository.actualizarPassword(actual.getUserId(), newPassword);
+        }
+        userDetailsCache.invalidate(actual.getUsername());
+        return new CustomUserDetails(actual.getUsername(), newPassword, actual.getRole(),
+                actual.getUserId(), actual.getUserType(), actual.getNombre(), actual.getCredentialsVersion());
     }
 }
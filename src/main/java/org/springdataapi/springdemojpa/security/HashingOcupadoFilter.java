@@ -0,0 +1,34 @@
+package org.springdataapi.springdemojpa.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * [SPRING SECURITY] 503 con Retry-After para el login por formulario cuando el pool de hashing esta saturado.
+ * <p>
+ * El form login autentica dentro de UsernamePasswordAuthenticationFilter, antes del DispatcherServlet: la
+ * {@link PasswordHashingBusyException} que lanza el PasswordEncoder no es una AuthenticationException (no la
+ * trata el failure handler) y el @ResponseStatus de la excepcion no se aplica, asi que sin este filtro saldria
+ * un 500. En la API lo resuelve AuthController, que llama al AuthenticationManager desde el controller.
+ * No es un @Component: solo va en la cadena web (ver SecurityConfig), no como filtro global del servlet.
+ */
+public class HashingOcupadoFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (PasswordHashingBusyException e) {
+            if (response.isCommitted()) throw e;
+            response.setHeader(HttpHeaders.RETRY_AFTER, PasswordHashingBusyException.RETRY_AFTER_SEGUNDOS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.springdataapi.springdemojpa.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -21,12 +21,9 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    // [SPRING SECURITY] Servicio de Spring Security para cargar datos del usuario desde BD
-    private final UserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.userDetailsService = userDetailsService;
     }
 
     @Override
@@ -36,24 +33,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = getTokenFromRequest(request);
 
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.getUsername(token);
+        // [SPRING SECURITY] Verifica el token y extrae sus claims una sola vez (o desde la cache de tokens verificados)
+        Claims claims = StringUtils.hasText(token) ? jwtTokenProvider.parseClaims(token) : null;
 
-            // [SPRING SECURITY] Carga los datos del usuario (roles, password) desde BD
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (claims != null) {
+            // [SPRING SECURITY] Construye el usuario (rol, id, tipo) desde los claims firmados del token,
+            // sin consultar la BD. Si el token no trae claims o el usuario fue revocado, sigue sin autenticar
+            UserDetails userDetails = jwtTokenProvider.getUserDetails(claims);
 
-            // [SPRING SECURITY] Crea el objeto de autenticacion con el usuario y sus roles
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities()
-            );
+            if (userDetails != null) {
+                // [SPRING SECURITY] Crea el objeto de autenticacion con el usuario y sus roles
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
 
-            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            // [SPRING SECURITY] Registra la autenticacion en el contexto de seguridad
-            // A partir de aqui, Spring Security sabe quien es el usuario y que rol tiene
-            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                // [SPRING SECURITY] Registra la autenticacion en el contexto de seguridad
+                // A partir de aqui, Spring Security sabe quien es el usuario y que rol tiene
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            }
         }
 
         filterChain.doFilter(request, response);
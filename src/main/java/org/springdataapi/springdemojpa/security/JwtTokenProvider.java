@@ -2,6 +2,7 @@ package org.springdataapi.springdemojpa.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -15,50 +16,97 @@ import java.util.Date;
 // Se usa junto con JwtAuthenticationFilter para la autenticacion stateless de la API REST
 public class JwtTokenProvider {
 
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
+    private final long jwtExpirationMs;
+    private final TokenRevocationRegistry revocationRegistry;
 
-    @Value("${app.jwt-expiration-milliseconds}")
-    private long jwtExpirationMs;
+    // La clave HMAC y el parser son inmutables y thread-safe: se construyen una sola vez
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Autowired
+    public JwtTokenProvider(@Value("${app.jwt-secret}") String jwtSecret,
+                            @Value("${app.jwt-expiration-milliseconds}") long jwtExpirationMs,
+                            @Value("${app.jwt-cache-max-entries:10000}") int cacheMaxEntries,
+                            TokenRevocationRegistry revocationRegistry) {
+        this(jwtSecret, jwtExpirationMs, new VerifiedTokenCache(cacheMaxEntries), revocationRegistry);
+    }
+
+    JwtTokenProvider(String jwtSecret, long jwtExpirationMs, VerifiedTokenCache verifiedTokens,
+                     TokenRevocationRegistry revocationRegistry) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.revocationRegistry = revocationRegistry;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = verifiedTokens;
     }
 
     // [SPRING SECURITY] Genera un token JWT a partir del objeto Authentication de Spring Security
+    // Incluye rol, id y tipo de usuario como claims firmados para no tener que ir a BD en cada peticion
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
         Date now = new Date();
         Date expiry = new Date(now.getTime() + jwtExpirationMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
                 .issuedAt(now)
-                .expiration(expiry)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiry);
+
+        if (authentication.getPrincipal() instanceof CustomUserDetails user) {
+            builder.claim("role", user.getRole())
+                    .claim("userId", user.getUserId())
+                    .claim("userType", user.getUserType())
+                    .claim("ver", user.getCredentialsVersion());
+        }
+
+        return builder.signWith(signingKey).compact();
+    }
+
+    // [SPRING SECURITY] Verifica firma y expiracion y devuelve los claims en una sola pasada.
+    // Devuelve null si el token no es valido. Los tokens ya verificados se sirven desde cache
+    // (clave = digest del token) hasta que expiran, sin repetir la verificacion HMAC
+    public Claims parseClaims(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        Claims cached = verifiedTokens.get(token, System.currentTimeMillis());
+        if (cached != null) return cached;
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(token, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // [SPRING SECURITY] Reconstruye el usuario autenticado a partir de los claims del token.
+    // Devuelve null si el token no trae claims (tokens antiguos) o si el usuario ha sido revocado
+    public CustomUserDetails getUserDetails(Claims claims) {
+        String role = claims.get("role", String.class);
+        Integer userId = claims.get("userId", Integer.class);
+        String userType = claims.get("userType", String.class);
+        Integer version = claims.get("ver", Integer.class);
+        if (role == null || userId == null || userType == null || version == null) {
+            return null;
+        }
+        if (!revocationRegistry.isCurrent(userType, userId, version)) {
+            return null;
+        }
+        // La password no viaja en el token: el principal de la API no la necesita
+        return new CustomUserDetails(claims.getSubject(), null, role, userId, userType);
     }
 
     // [SPRING SECURITY] Extrae el nombre de usuario (email) del token JWT
     public String getUsername(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        Claims claims = parseClaims(token);
+        if (claims == null) throw new JwtException("Token JWT no valido");
+        return claims.getSubject();
     }
 
     // [SPRING SECURITY] Valida que el token JWT sea correcto y no haya expirado
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseClaims(token) != null;
     }
 }
@@ -1,11 +1,21 @@
 package org.springdataapi.springdemojpa.security;
 
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
+/**
+ * Limitador de intentos de login con memoria acotada.
+ * <p>
+ * En vez de un mapa que crece con cada clave ("email:ip" o ip), usa una tabla de tamaño fijo
+ * dividida en buckets de {@value #WAYS} huecos. Cada clave se reduce a una huella de 64 bits
+ * (no se guarda el String), asi que la tabla ocupa siempre lo mismo aunque lleguen millones de
+ * claves distintas. La caducidad va por segundos dentro de cada hueco: un hueco caducado se
+ * considera libre y se reutiliza al pasar por el, sin recorridos periodicos de limpieza.
+ * Si un bucket esta lleno se sustituye la entrada que antes caduca, respetando los bloqueos activos.
+ */
 @Component
 public class LoginRateLimiter {
 
@@ -13,62 +23,174 @@ public class LoginRateLimiter {
     private static final long BLOCK_DURATION_SECONDS = 300; // 5 minutos
     private static final long EXPIRY_SECONDS = 600; // 10 minutos
 
-    private final ConcurrentHashMap<String, LoginAttempt> attempts = new ConcurrentHashMap<>();
+    static final int WAYS = 16;
+    private static final int STRIPES = 64;
 
-    public boolean isBlocked(String key) {
-        LoginAttempt attempt = attempts.get(key);
-        if (attempt == null) {
-            return false;
-        }
-        if (attempt.blockedUntil != null && Instant.now().isBefore(attempt.blockedUntil)) {
-            return true;
+    private final int bucketMask;
+    private final long[] fingerprints;
+    private final int[] counts;
+    private final int[] expiresAt;     // segundo (relativo a baseMillis) en que caduca la entrada
+    private final int[] blockedUntil;  // 0 = no bloqueado
+    private final Object[] locks = new Object[STRIPES];
+
+    private final LongSupplier clock;
+    private final long baseMillis;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${app.login-rate-limiter.capacity:65536}") int capacity) {
+        this(capacity, System::currentTimeMillis);
+    }
+
+    LoginRateLimiter(int capacity, LongSupplier clock) {
+        int buckets = Integer.highestOneBit(Math.max(capacity / WAYS, 1));
+        this.bucketMask = buckets - 1;
+        int slots = buckets * WAYS;
+        this.fingerprints = new long[slots];
+        this.counts = new int[slots];
+        this.expiresAt = new int[slots];
+        this.blockedUntil = new int[slots];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
         }
-        if (attempt.blockedUntil != null && Instant.now().isAfter(attempt.blockedUntil)) {
-            attempts.remove(key);
+        this.clock = clock;
+        // Se resta 1 s para que ningun instante valido sea 0 (0 marca hueco vacio)
+        this.baseMillis = clock.getAsLong() - 1000;
+    }
+
+    public boolean isBlocked(String key) {
+        long fp = fingerprint(key);
+        int bucket = bucketOf(fp);
+        int now = nowSeconds();
+        synchronized (lockFor(bucket)) {
+            int slot = find(bucket, fp, now);
+            if (slot < 0) {
+                return false;
+            }
+            if (blockedUntil[slot] != 0 && now < blockedUntil[slot]) {
+                return true;
+            }
+            if (blockedUntil[slot] != 0) {
+                // El bloqueo ya paso: se olvida la clave y se empieza de cero
+                clear(slot);
+            }
             return false;
         }
-        return false;
     }
 
     public void registerFailedAttempt(String key) {
-        attempts.compute(key, (k, existing) -> {
-            if (existing == null) {
-                return new LoginAttempt(1, Instant.now(), null);
+        long fp = fingerprint(key);
+        int bucket = bucketOf(fp);
+        int now = nowSeconds();
+        synchronized (lockFor(bucket)) {
+            int slot = find(bucket, fp, now);
+            if (slot < 0) {
+                slot = claim(bucket, now);
+                fingerprints[slot] = fp;
+                counts[slot] = 0;
+                blockedUntil[slot] = 0;
             }
-            int newCount = existing.count + 1;
-            Instant blocked = null;
-            if (newCount >= MAX_ATTEMPTS) {
-                blocked = Instant.now().plusSeconds(BLOCK_DURATION_SECONDS);
+            counts[slot]++;
+            expiresAt[slot] = now + (int) EXPIRY_SECONDS;
+            if (counts[slot] >= MAX_ATTEMPTS) {
+                blockedUntil[slot] = now + (int) BLOCK_DURATION_SECONDS;
+                expiresAt[slot] = Math.max(expiresAt[slot], blockedUntil[slot]);
             }
-            return new LoginAttempt(newCount, Instant.now(), blocked);
-        });
+        }
     }
 
     public void registerSuccessfulLogin(String key) {
-        attempts.remove(key);
+        long fp = fingerprint(key);
+        int bucket = bucketOf(fp);
+        synchronized (lockFor(bucket)) {
+            int slot = find(bucket, fp, nowSeconds());
+            if (slot >= 0) {
+                clear(slot);
+            }
+        }
     }
 
-    @Scheduled(fixedRate = 600000) // cada 10 minutos
-    public void cleanup() {
-        Instant cutoff = Instant.now().minusSeconds(EXPIRY_SECONDS);
-        attempts.entrySet().removeIf(entry -> {
-            LoginAttempt attempt = entry.getValue();
-            if (attempt.blockedUntil != null) {
-                return Instant.now().isAfter(attempt.blockedUntil);
+    // Numero de claves vivas; recorre la tabla, solo para diagnostico y tests
+    int size() {
+        int now = nowSeconds();
+        int live = 0;
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (isLive(i, now)) live++;
+        }
+        return live;
+    }
+
+    int capacity() {
+        return fingerprints.length;
+    }
+
+    private int find(int bucket, long fp, int now) {
+        int start = bucket * WAYS;
+        for (int i = start; i < start + WAYS; i++) {
+            if (fingerprints[i] == fp && isLive(i, now)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Hueco libre o caducado; si no hay, el que antes caduca, dejando para el final los bloqueados
+    private int claim(int bucket, int now) {
+        int start = bucket * WAYS;
+        int victim = -1;
+        for (int i = start; i < start + WAYS; i++) {
+            if (!isLive(i, now)) {
+                return i;
             }
-            return attempt.lastAttempt.isBefore(cutoff);
-        });
+            if (victim < 0 || isPreferredVictim(i, victim, now)) {
+                victim = i;
+            }
+        }
+        return victim;
+    }
+
+    private boolean isPreferredVictim(int candidate, int current, int now) {
+        boolean candidateBlocked = blockedUntil[candidate] > now;
+        boolean currentBlocked = blockedUntil[current] > now;
+        if (candidateBlocked != currentBlocked) {
+            return !candidateBlocked;
+        }
+        return expiresAt[candidate] < expiresAt[current];
     }
 
-    private static class LoginAttempt {
-        final int count;
-        final Instant lastAttempt;
-        final Instant blockedUntil;
+    private boolean isLive(int slot, int now) {
+        return expiresAt[slot] > now;
+    }
+
+    private void clear(int slot) {
+        fingerprints[slot] = 0;
+        counts[slot] = 0;
+        expiresAt[slot] = 0;
+        blockedUntil[slot] = 0;
+    }
+
+    private int nowSeconds() {
+        return (int) ((clock.getAsLong() - baseMillis) / 1000);
+    }
+
+    private int bucketOf(long fp) {
+        return (int) (fp >>> 32) & bucketMask;
+    }
+
+    private Object lockFor(int bucket) {
+        return locks[bucket & (STRIPES - 1)];
+    }
 
-        LoginAttempt(int count, Instant lastAttempt, Instant blockedUntil) {
-            this.count = count;
-            this.lastAttempt = lastAttempt;
-            this.blockedUntil = blockedUntil;
+    // FNV-1a de 64 bits sobre los chars de la clave, sin crear objetos
+    private static long fingerprint(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
         }
+        // Mezcla final para repartir bien los bits altos (que eligen el bucket)
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
     }
 }
@@ -0,0 +1,16 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Se lanza cuando el pool de hashing de passwords esta saturado: mejor un 503 rapido que encolar sin limite
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingBusyException extends RuntimeException {
+
+    // Cabecera Retry-After de las respuestas 503 (AuthController y HashingOcupadoFilter)
+    public static final String RETRY_AFTER_SEGUNDOS = "1";
+
+    public PasswordHashingBusyException() {
+        super("Servidor ocupado procesando credenciales, intentelo de nuevo en unos segundos");
+    }
+}
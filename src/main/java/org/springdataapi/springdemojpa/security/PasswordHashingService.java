@@ -0,0 +1,108 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * [SPRING SECURITY] PasswordEncoder con BCrypt que calcula los hashes en un pool propio y acotado.
+ * <p>
+ * Un BCrypt con coste 10-12 tarda decenas de ms de CPU. Si cada hilo de Tomcat lo calculase por su
+ * cuenta, una avalancha de logins se comeria toda la CPU y el resto de peticiones se quedarian sin
+ * servir. Aqui como mucho {@code threads} hashes corren a la vez; si la cola esta llena o la espera
+ * supera {@code maxWaitMs} se lanza {@link PasswordHashingBusyException} (los controllers responden 503)
+ * en lugar de encolar sin limite.
+ * <p>
+ * Las passwords antiguas guardadas en texto plano se siguen aceptando y {@link #upgradeEncoding}
+ * devuelve true para ellas, asi Spring Security las re-hashea al primer login correcto
+ * (ver {@link CustomUserDetailsService#updatePassword}).
+ */
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2(a|y|b)?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    public PasswordHashingService(int strength, int threads, int queueCapacity, long maxWaitMs) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.maxWaitMs = maxWaitMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        if (!isHashed(encodedPassword)) {
+            // Password antigua en texto plano: comparacion en tiempo constante, sin pasar por el pool
+            return MessageDigest.isEqual(
+                    rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    // Texto plano o BCrypt con un coste distinto al configurado => se vuelve a hashear
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encodedPassword != null && (!isHashed(encodedPassword) || bcrypt.upgradeEncoding(encodedPassword));
+    }
+
+    public static boolean isHashed(String encodedPassword) {
+        return BCRYPT.matcher(encodedPassword).matches();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandonar(future);
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonar(future);
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Una tarea cancelada sigue ocupando su hueco en la cola hasta que un hilo la saca: se quita ya,
+    // si no una avalancha de peticiones que se cansaron de esperar rechazaria a las que llegan despues
+    private void abandonar(Future<?> future) {
+        future.cancel(true);
+        executor.remove((Runnable) future);
+    }
+}
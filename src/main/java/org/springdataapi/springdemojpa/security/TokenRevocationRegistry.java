@@ -0,0 +1,79 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.springdataapi.springdemojpa.repository.UsuariosAuthRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+// [SPRING SECURITY] Comprueba que el claim "ver" de un JWT sigue siendo la version de credenciales del usuario.
+// La version vive en BD (columna version_credenciales de empleados/clientes) y los servicios la incrementan en
+// la misma transaccion que cambia el rol, el estado, el email o la password; un usuario eliminado no tiene
+// version. Asi la revocacion sobrevive a reinicios y vale en todas las instancias.
+// Para no ir a BD en cada peticion, las versiones leidas se guardan unos segundos (ttl-seconds): es lo que
+// puede tardar otra instancia en rechazar un token revocado. En esta instancia los servicios llaman a
+// revoke*() tras el commit y el siguiente uso del token ya consulta la BD.
+public class TokenRevocationRegistry {
+
+    // Usuario eliminado: se cachea tambien, para no consultar en cada peticion con un token huerfano
+    private static final int SIN_USUARIO = -1;
+
+    private final UsuariosAuthRepository usuariosAuthRepository;
+    private final long ttlMillis;
+    // Con generacion, como UserDetailsCache: una lectura de BD que empezo antes de una revocacion no se guarda
+    private final BoundedTtlCache<String, Integer> versions;
+
+    public TokenRevocationRegistry(UsuariosAuthRepository usuariosAuthRepository,
+                                   @Value("${app.security.token-version-cache.max-entries:10000}") int maxEntries,
+                                   @Value("${app.security.token-version-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.usuariosAuthRepository = usuariosAuthRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.versions = new BoundedTtlCache<>(maxEntries);
+    }
+
+    public boolean isCurrent(String userType, Integer userId, int tokenVersion) {
+        if (userId == null) return false;
+        return currentVersion(userType, userId) == tokenVersion;
+    }
+
+    private int currentVersion(String userType, Integer userId) {
+        String key = key(userType, userId);
+        long now = System.currentTimeMillis();
+        Integer cached = versions.get(key, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = versions.generation();
+        Optional<Integer> version = isCliente(userType)
+                ? usuariosAuthRepository.versionCredencialesCliente(userId)
+                : usuariosAuthRepository.versionCredencialesEmpleado(userId);
+        int current = version.orElse(SIN_USUARIO);
+        versions.put(key, current, now + ttlMillis, now, loadedAt);
+        return current;
+    }
+
+    // Olvida la version cacheada (llamar tras confirmar el cambio en BD)
+    public void revoke(String userType, Integer userId) {
+        if (userId == null) return;
+        versions.invalidate(key(userType, userId));
+    }
+
+    public void revokeEmpleado(Integer id) {
+        revoke("EMPLEADO", id);
+    }
+
+    public void revokeCliente(Integer id) {
+        revoke("CLIENTE", id);
+    }
+
+    private static boolean isCliente(String userType) {
+        return "CLIENTE".equals(userType);
+    }
+
+    // ADMIN y EMPLEADO salen de la misma tabla, asi que comparten la clave por id de empleado
+    private static String key(String userType, Integer userId) {
+        return (isCliente(userType) ? "C:" : "E:") + userId;
+    }
+}
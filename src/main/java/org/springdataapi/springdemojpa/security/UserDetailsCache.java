@@ -0,0 +1,66 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+// [SPRING SECURITY] Cache acotada con TTL de los usuarios resueltos por CustomUserDetailsService.
+// EmpleadosService y ClienteService la invalidan al crear, actualizar o eliminar usuarios,
+// asi un cambio de password o de rol nunca se sirve desde cache.
+public class UserDetailsCache {
+
+    private final long ttlMillis;
+    // Por email; cada invalidacion avanza la generacion: una carga que empezo antes no puede guardar datos viejos
+    private final BoundedTtlCache<String, CustomUserDetails> users;
+    // (tipo, id) -> email de la entrada cacheada, para los borrados, que solo conocen el id. Sale de aqui con la
+    // entrada; si una carrera deja alguna de mas apunta a un usuario que existe y solo cuesta una invalidacion extra
+    private final ConcurrentHashMap<String, String> emailsById = new ConcurrentHashMap<>();
+
+    public UserDetailsCache(@Value("${app.security.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${app.security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.users = new BoundedTtlCache<>(maxEntries,
+                (email, user) -> emailsById.remove(idKey(user.getUserType(), user.getUserId()), email));
+    }
+
+    public CustomUserDetails get(String email) {
+        if (email == null) return null;
+        return users.get(key(email), System.currentTimeMillis());
+    }
+
+    // Se llama antes de ir a BD; el valor se pasa luego a put()
+    public long generation() {
+        return users.generation();
+    }
+
+    public void put(String email, CustomUserDetails user, long loadedAtGeneration) {
+        if (email == null) return;
+        String key = key(email);
+        long now = System.currentTimeMillis();
+        // Si hubo una invalidacion mientras se consultaba la BD, se descarta lo recien cargado
+        if (users.put(key, user, now + ttlMillis, now, loadedAtGeneration)) {
+            emailsById.put(idKey(user.getUserType(), user.getUserId()), key);
+        }
+    }
+
+    public void invalidate(String email) {
+        users.invalidate(email != null ? key(email) : null);
+    }
+
+    // Para borrados, donde solo se conoce el id. userType: "EMPLEADO" (incluye ADMIN) o "CLIENTE"
+    public void invalidate(String userType, Integer userId) {
+        String email = emailsById.remove(idKey(userType, userId));
+        users.invalidate(email);
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String idKey(String userType, Integer userId) {
+        return ("CLIENTE".equals(userType) ? "C:" : "E:") + userId;
+    }
+}
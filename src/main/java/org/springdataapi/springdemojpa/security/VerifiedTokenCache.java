@@ -0,0 +1,47 @@
+package org.springdataapi.springdemojpa.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+// Cache acotada de tokens JWT ya verificados. La clave es el SHA-256 del token (no se guarda el token en claro)
+// y cada entrada caduca a la vez que el propio token, asi una peticion repetida con el mismo
+// Bearer se ahorra la verificacion HMAC y el parseo del JSON hasta que el token expira.
+class VerifiedTokenCache {
+
+    private final BoundedTtlCache<String, Claims> entries;
+
+    VerifiedTokenCache(int maxEntries) {
+        this.entries = new BoundedTtlCache<>(maxEntries);
+    }
+
+    boolean isEnabled() {
+        return entries.isEnabled();
+    }
+
+    Claims get(String token, long nowMillis) {
+        if (!isEnabled()) return null;
+        return entries.get(digest(token), nowMillis);
+    }
+
+    void put(String token, Claims claims) {
+        if (!isEnabled() || claims.getExpiration() == null) return;
+        entries.put(digest(token), claims, claims.getExpiration().getTime(), System.currentTimeMillis());
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Indices de trigramas en memoria para las busquedas "contiene" de las consultas:
+ * telefono/email de clientes, nombre de productos y nombre de empleados (buscar por letra).
+ * <p>
+ * Se construyen al arrancar en un hilo aparte; hasta que estan listos (o si el texto tiene menos
+ * de 3 caracteres) los metodos candidatos* devuelven null y las consultas van por el LIKE de siempre.
+ * Los services avisan de cada alta/cambio/baja; los cambios se aplican al confirmar la transaccion.
+ */
+@Service
+public class BusquedaTextoService {
+
+    private static final int TRAMO_CARGA = 10_000;
+
+    private final ClientesRepository clientesRepository;
+    private final ProductosRepository productosRepository;
+    private final EmpleadosRepository empleadosRepository;
+    private final boolean habilitado;
+
+    private final IndiceTrigramas telefonoClientes = new IndiceTrigramas();
+    private final IndiceTrigramas emailClientes = new IndiceTrigramas();
+    private final IndiceTrigramas nombreProductos = new IndiceTrigramas();
+    private final IndiceTrigramas nombreEmpleados = new IndiceTrigramas();
+
+    private volatile boolean listo;
+
+    public BusquedaTextoService(ClientesRepository clientesRepository,
+                                ProductosRepository productosRepository,
+                                EmpleadosRepository empleadosRepository,
+                                @Value("${app.busqueda.indice-trigramas.enabled:true}") boolean habilitado) {
+        this.clientesRepository = clientesRepository;
+        this.productosRepository = productosRepository;
+        this.empleadosRepository = empleadosRepository;
+        this.habilitado = habilitado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlArrancar() {
+        if (!habilitado) return;
+        Thread t = new Thread(this::reconstruir, "indice-trigramas");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // Carga los tres indices por tramos de id. Las escrituras concurrentes tambien se aplican
+    // (anadir es idempotente), como mucho queda algun candidato de mas que la consulta descarta
+    public void reconstruir() {
+        listo = false;
+        telefonoClientes.vaciar();
+        emailClientes.vaciar();
+        nombreProductos.vaciar();
+        nombreEmpleados.vaciar();
+
+        cargar(despuesDe -> clientesRepository.camposBusqueda(despuesDe, Limit.of(TRAMO_CARGA)), fila -> {
+            telefonoClientes.anadir((Integer) fila[0], (String) fila[1]);
+            emailClientes.anadir((Integer) fila[0], (String) fila[2]);
+        });
+        cargar(despuesDe -> productosRepository.camposBusqueda(despuesDe, Limit.of(TRAMO_CARGA)),
+                fila -> nombreProductos.anadir((Integer) fila[0], (String) fila[1]));
+        cargar(despuesDe -> empleadosRepository.camposBusqueda(despuesDe, Limit.of(TRAMO_CARGA)),
+                fila -> nombreEmpleados.anadir((Integer) fila[0], (String) fila[1]));
+        listo = true;
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    // ==========================
+    // CONSULTAS (null = usar el camino SQL normal)
+    // ==========================
+
+    public int[] candidatosCliente(String telefono, String email) {
+        if (!listo) return null;
+        int[] porTelefono = telefonoClientes.candidatos(telefono);
+        int[] porEmail = emailClientes.candidatos(email);
+        if (porTelefono == null) return porEmail;
+        if (porEmail == null) return porTelefono;
+        return IndiceTrigramas.intersectar(porTelefono, porEmail);
+    }
+
+    public int[] candidatosProducto(String nombre) {
+        return listo ? nombreProductos.candidatos(nombre) : null;
+    }
+
+    public int[] candidatosEmpleado(String nombre) {
+        return listo ? nombreEmpleados.candidatos(nombre) : null;
+    }
+
+    // ==========================
+    // ESCRITURAS (desde los services)
+    // ==========================
+
+    public void clienteGuardado(Integer id, String telefonoAnterior, String emailAnterior,
+                                String telefono, String email) {
+        TrasCommit.ejecutar(() -> {
+            telefonoClientes.reemplazar(id, telefonoAnterior, telefono);
+            emailClientes.reemplazar(id, emailAnterior, email);
+        });
+    }
+
+    // Los borrados llegan solo con el id (DELETE directo, sin cargar la fila)
+    public void clienteEliminado(Integer id) {
+        TrasCommit.ejecutar(() -> {
+            telefonoClientes.quitarId(id);
+            emailClientes.quitarId(id);
+        });
+    }
+
+    public void productoGuardado(Integer id, String nombreAnterior, String nombre) {
+        TrasCommit.ejecutar(() -> nombreProductos.reemplazar(id, nombreAnterior, nombre));
+    }
+
+    public void productoEliminado(Integer id) {
+        TrasCommit.ejecutar(() -> nombreProductos.quitarId(id));
+    }
+
+    public void empleadoGuardado(Integer id, String nombreAnterior, String nombre) {
+        TrasCommit.ejecutar(() -> nombreEmpleados.reemplazar(id, nombreAnterior, nombre));
+    }
+
+    public void empleadoEliminado(Integer id) {
+        TrasCommit.ejecutar(() -> nombreEmpleados.quitarId(id));
+    }
+
+    private static void cargar(Function<Integer, List<Object[]>> tramo, Consumer<Object[]> alta) {
+        int despuesDe = 0;
+        List<Object[]> filas;
+        do {
+            filas = tramo.apply(despuesDe);
+            for (Object[] fila : filas) {
+                alta.accept(fila);
+            }
+            if (!filas.isEmpty()) {
+                despuesDe = (Integer) filas.get(filas.size() - 1)[0];
+            }
+        } while (filas.size() == TRAMO_CARGA);
+    }
+}
@@ -0,0 +1,64 @@
+package org.springdataapi.springdemojpa.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springdataapi.springdemojpa.models.EstadisticasRegionCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estadisticas y vaciado de la cache de segundo nivel de Hibernate (regiones en ehcache.xml).
+ * Las escrituras hechas con Hibernate ya mantienen la cache (READ_WRITE + invalidacion de consultas por tabla);
+ * vaciar solo hace falta tras cambios hechos fuera de la aplicacion (scripts, otra instancia...).
+ */
+@Service
+public class CacheSegundoNivelService {
+
+    // Regiones de ehcache.xml: filas por id (@Cache de la entidad) y resultados de consultas cacheadas
+    private static final List<String> REGIONES_ENTIDAD = List.of("productos", "roles-empleado");
+    private static final List<String> REGIONES_CONSULTA =
+            List.of("productos-consultas", "roles-empleado-consultas");
+
+    private final SessionFactory sessionFactory;
+
+    public CacheSegundoNivelService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<EstadisticasRegionCache> estadisticas() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<EstadisticasRegionCache> regiones = new ArrayList<>();
+        for (String region : REGIONES_ENTIDAD) {
+            regiones.add(convertir(region, "entidad", statistics.getDomainDataRegionStatistics(region)));
+        }
+        for (String region : REGIONES_CONSULTA) {
+            // null mientras no se haya ejecutado ninguna consulta de la region
+            CacheRegionStatistics s = statistics.getQueryRegionStatistics(region);
+            if (s != null) regiones.add(convertir(region, "consulta", s));
+        }
+        return regiones;
+    }
+
+    public void vaciar() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    // Para INSERT hechos con JDBC directo (importacion masiva): Hibernate no se entera y las consultas
+    // cacheadas del catalogo seguirian sin las filas nuevas hasta el TTL de la region
+    public void invalidarConsultasProductos() {
+        sessionFactory.getCache().evictQueryRegion("productos-consultas");
+    }
+
+    private static EstadisticasRegionCache convertir(String region, String tipo, CacheRegionStatistics s) {
+        long aciertos = s.getHitCount();
+        long fallos = s.getMissCount();
+        double ratio = aciertos + fallos == 0 ? 0.0 : (double) aciertos / (aciertos + fallos);
+        long elementos = s.getElementCountInMemory();
+        return new EstadisticasRegionCache(region, tipo, aciertos, fallos, s.getPutCount(), ratio,
+                elementos == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? -1 : elementos);
+    }
+}
@@ -1,14 +1,27 @@
 package org.springdataapi.springdemojpa.service;
 
+import org.springdataapi.springdemojpa.models.ClienteResumen;
 import org.springdataapi.springdemojpa.models.Clientes;
 import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.ClientesParcialDTO;
 import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.Pagina;
 import org.springdataapi.springdemojpa.repository.ClientesRepository;
 import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.security.TokenRevocationRegistry;
+import org.springdataapi.springdemojpa.security.UserDetailsCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -16,17 +29,44 @@ public class ClienteService {
 
     private final ClientesRepository clientesRepository;
     private final EmpleadosRepository empleadosRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final PasswordEncoder passwordEncoder;
+    private final BusquedaTextoService busquedaTextoService;
+    private final VersionesTablas versionesTablas;
+    private final UnicidadContactos unicidadContactos;
+    private final TransactionTemplate transactionTemplate;
 
     public ClienteService(ClientesRepository clientesRepository,
-                          EmpleadosRepository empleadosRepository) {
+                          EmpleadosRepository empleadosRepository,
+                          TokenRevocationRegistry tokenRevocationRegistry,
+                          UserDetailsCache userDetailsCache,
+                          PasswordEncoder passwordEncoder,
+                          BusquedaTextoService busquedaTextoService,
+                          VersionesTablas versionesTablas,
+                          UnicidadContactos unicidadContactos,
+                          PlatformTransactionManager transactionManager) {
         this.clientesRepository = clientesRepository;
         this.empleadosRepository = empleadosRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.userDetailsCache = userDetailsCache;
+        this.passwordEncoder = passwordEncoder;
+        this.busquedaTextoService = busquedaTextoService;
+        this.versionesTablas = versionesTablas;
+        this.unicidadContactos = unicidadContactos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public List<Clientes> findAll() {
         return clientesRepository.findAll();
     }
 
+    public Pagina<ClienteResumen> listarPagina(String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        List<ClienteResumen> filas = clientesRepository.listarResumen(Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, ClienteResumen::id);
+    }
+
     public Clientes findById(Integer id) {
         if (id == null) throw new RuntimeException("Id obligatorio");
         return clientesRepository.findById(id)
@@ -47,25 +87,33 @@ public class ClienteService {
     }
 
     public Optional<Clientes> findByTelefono(String telefono) {
-        String tel = normalizarYValidarTelefono(telefono);
+        String tel = ValidacionCampos.telefonoValido(telefono);
         if (tel == null) throw new RuntimeException("Teléfono obligatorio");
 
         return Optional.ofNullable(clientesRepository.findByTelefono(tel)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado por teléfono")));
     }
 
+    // crear/actualizar/eliminar son transaccionales para que el cliente y el contador
+    // num_clientes de su empleado responsable se confirmen (o deshagan) juntos. El BCrypt va antes de abrir
+    // la transaccion: esperando al pool de hashing (hasta max-wait-ms) no se retiene una conexion JDBC
     public void crear(ClientesDTO dto) {
-        validarCampos(dto);
+        validar(ValidacionCampos.cliente(dto));
+        String hash = passwordEncoder.encode(dto.getPassword());
+        transactionTemplate.executeWithoutResult(status -> insertar(dto, hash));
+    }
 
+    private void insertar(ClientesDTO dto, String hash) {
         String email = dto.getEmail().trim();
 
         String telefono = dto.getTelefono();
 
-        if (clientesRepository.existsByEmail(email)) {
+        // Solo se consulta la BD si el filtro de Bloom no descarta el valor; la garantia es la restriccion UNIQUE
+        if (unicidadContactos.emailClientePuedeExistir(email) && clientesRepository.existsByEmail(email)) {
             throw new RuntimeException("Email ya registrado");
         }
 
-        if (clientesRepository.existsByTelefono(telefono)) {
+        if (unicidadContactos.telefonoClientePuedeExistir(telefono) && clientesRepository.existsByTelefono(telefono)) {
             throw new RuntimeException("Teléfono ya registrado");
         }
 
@@ -73,7 +121,7 @@ public class ClienteService {
         cliente.setNombre(dto.getNombre().trim());
         cliente.setEmail(email);
         cliente.setTelefono(telefono);
-        cliente.setPassword(dto.getPassword());
+        cliente.setPassword(hash);
         cliente.setTipoCliente(dto.getTipo_cliente());
         cliente.setFechaAlta(LocalDate.now());
 
@@ -83,49 +131,83 @@ public class ClienteService {
             cliente.setIdEmpleadoResponsable(empleado);
         }
 
-        clientesRepository.save(cliente);
+        guardar(cliente);
+        unicidadContactos.clienteRegistrado(email, telefono);
+        if (cliente.getIdEmpleadoResponsable() != null) {
+            empleadosRepository.sumarClientes(cliente.getIdEmpleadoResponsable().getId(), 1);
+        }
+        busquedaTextoService.clienteGuardado(cliente.getId(), null, null, telefono, email);
+        versionesTablas.clientesModificados();
+        // La cache de usuarios tras el commit: antes, un login concurrente podria volver a cachear la fila vieja
+        TrasCommit.ejecutar(() -> userDetailsCache.invalidate(email));
     }
 
-    public void eliminar(Integer id) {
+    // version: la del If-Match (null = sin control de version)
+    @Transactional
+    public void eliminar(Integer id, Long version) {
         if (id == null) throw new RuntimeException("Id obligatorio");
-        if (!clientesRepository.existsById(id)) {
-            throw new RuntimeException("Cliente no existe");
-        }
         try {
-            clientesRepository.deleteById(id);
+            // Sin cargar el cliente: primero el contador de su responsable (lo localiza la propia sentencia)
+            // y luego el DELETE, cuyas filas afectadas dicen si existia. Si no, el rollback deshace el contador
+            empleadosRepository.restarClienteDe(id);
+            if (clientesRepository.eliminarPorId(id, version) == 0) {
+                if (version != null && clientesRepository.existsById(id)) throw new ConflictoVersionException();
+                throw new RuntimeException("Cliente no existe");
+            }
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new RuntimeException("No se puede eliminar el cliente porque tiene registros relacionados (facturas, presupuestos, etc.)");
         }
+        busquedaTextoService.clienteEliminado(id);
+        versionesTablas.clientesModificados();
+        TrasCommit.ejecutar(() -> {
+            tokenRevocationRegistry.revokeCliente(id);
+            userDetailsCache.invalidate("CLIENTE", id);
+        });
     }
 
-    public Clientes actualizar(Integer id, ClientesDTO dto) {
+    public Clientes actualizar(Integer id, ClientesDTO dto, Long version) {
         if (id == null) throw new RuntimeException("Id obligatorio");
+        validar(ValidacionCampos.clienteActualizar(dto));
+        String hash = hashSiViene(dto.getPassword());
+        return transactionTemplate.execute(status -> reemplazar(id, dto, version, hash));
+    }
 
+    private Clientes reemplazar(Integer id, ClientesDTO dto, Long version, String hash) {
         Clientes cliente = clientesRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
-
-        validarCamposActualizar(dto);
+        ConflictoVersionException.comprobar(version, cliente.getVersion());
 
         String nuevoEmail = dto.getEmail().trim();
-        String nuevoTelefono = normalizarYValidarTelefono(dto.getTelefono());
+        String nuevoTelefono = dto.getTelefono(); // ya normalizado (o null) por clienteActualizar
 
-        if (!cliente.getEmail().equals(nuevoEmail) && clientesRepository.existsByEmail(nuevoEmail)) {
+        if (!cliente.getEmail().equals(nuevoEmail)
+                && unicidadContactos.emailClientePuedeExistir(nuevoEmail)
+                && clientesRepository.existsByEmail(nuevoEmail)) {
             throw new RuntimeException("Email ya registrado");
         }
 
         if (nuevoTelefono != null
                 && (cliente.getTelefono() == null || !nuevoTelefono.equals(cliente.getTelefono()))
+                && unicidadContactos.telefonoClientePuedeExistir(nuevoTelefono)
                 && clientesRepository.existsByTelefono(nuevoTelefono)) {
             throw new RuntimeException("Teléfono ya registrado");
         }
 
+        String emailAnterior = cliente.getEmail();
+        String telefonoAnterior = cliente.getTelefono();
+        Integer empleadoAnterior = cliente.getIdEmpleadoResponsable() != null
+                ? cliente.getIdEmpleadoResponsable().getId() : null;
+        // Si cambian las credenciales (email o una password nueva), los JWT emitidos dejan de ser validos:
+        // sube version_credenciales en el mismo UPDATE
+        boolean credencialesCambiadas = !emailAnterior.equals(nuevoEmail) || hash != null;
+
         cliente.setNombre(dto.getNombre().trim());
         cliente.setEmail(nuevoEmail);
         cliente.setTelefono(nuevoTelefono);
         cliente.setTipoCliente(dto.getTipo_cliente());
 
-        if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
-            cliente.setPassword(dto.getPassword());
+        if (hash != null) {
+            cliente.setPassword(hash);
         }
 
         if (dto.getId_empleadoresponsable() != null) {
@@ -136,111 +218,162 @@ public class ClienteService {
             cliente.setIdEmpleadoResponsable(null);
         }
 
-        return clientesRepository.save(cliente);
-    }
-
-    public List<Clientes> BuscarClientePorEmpleadoyFecha(Integer idEmpleado, LocalDate fechaDesde) {
-        return clientesRepository.BusacarClientePorEmpleadoyFecha(idEmpleado, fechaDesde);
-    }
+        if (credencialesCambiadas) {
+            cliente.setVersionCredenciales(cliente.getVersionCredenciales() + 1);
+        }
 
-    public List<Clientes> buscarClientesFiltrados(
-            String telefono, String email, String tipoCliente,
-            Integer idEmpleado, LocalDate fechaDesde) {
-        return clientesRepository.buscarClientesFiltrados(
-                telefono, email, tipoCliente, idEmpleado, fechaDesde);
+        Clientes guardado = guardar(cliente);
+        unicidadContactos.clienteRegistrado(nuevoEmail, nuevoTelefono);
+        Integer empleadoNuevo = dto.getId_empleadoresponsable();
+        if (!Objects.equals(empleadoAnterior, empleadoNuevo)) {
+            if (empleadoAnterior != null) empleadosRepository.sumarClientes(empleadoAnterior, -1);
+            if (empleadoNuevo != null) empleadosRepository.sumarClientes(empleadoNuevo, 1);
+        }
+        busquedaTextoService.clienteGuardado(id, telefonoAnterior, emailAnterior, nuevoTelefono, nuevoEmail);
+        versionesTablas.clientesModificados();
+        TrasCommit.ejecutar(() -> {
+            userDetailsCache.invalidate(emailAnterior);
+            userDetailsCache.invalidate(nuevoEmail);
+            if (credencialesCambiadas) {
+                tokenRevocationRegistry.revokeCliente(id);
+            }
+        });
+        return guardado;
     }
 
-    private void validarCampos(ClientesDTO dto) {
+    // PATCH: solo los campos que vienen, validados uno a uno. Los exists solo si email/telefono cambian de
+    // verdad, y con @DynamicUpdate el UPDATE lleva unicamente las columnas modificadas (ninguno si nada cambia)
+    public Clientes actualizarParcial(Integer id, ClientesParcialDTO dto, Long version) {
+        if (id == null) throw new RuntimeException("Id obligatorio");
         if (dto == null) throw new RuntimeException("DTO obligatorio");
+        String hash = hashSiViene(dto.getPassword());
+        return transactionTemplate.execute(status -> modificar(id, dto, version, hash));
+    }
 
-        if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
-            throw new RuntimeException("Nombre obligatorio");
-        }
+    private Clientes modificar(Integer id, ClientesParcialDTO dto, Long version, String hash) {
+        Clientes cliente = clientesRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
+        ConflictoVersionException.comprobar(version, cliente.getVersion());
 
-        if (dto.getPassword() == null || dto.getPassword().trim().isEmpty()) {
-            throw new RuntimeException("La password pa otro día ¿no?");
-        }
+        String emailAnterior = cliente.getEmail();
+        String telefonoAnterior = cliente.getTelefono();
+        Integer empleadoAnterior = cliente.getIdEmpleadoResponsable() != null
+                ? cliente.getIdEmpleadoResponsable().getId() : null;
 
-        if (dto.getEmail() == null || dto.getEmail().trim().isEmpty() || !dto.getEmail().contains("@")) {
-            throw new RuntimeException("Email obligatorio");
+        if (dto.getNombre() != null) {
+            if (dto.getNombre().isBlank()) throw new RuntimeException("Nombre obligatorio");
+            cliente.setNombre(dto.getNombre().trim());
         }
 
-        String tel = normalizarYValidarTelefono(dto.getTelefono());
-        if (tel == null) {
-            throw new RuntimeException("¿Y tú teléfono olvidona?");
+        if (dto.getEmail() != null) {
+            String nuevoEmail = ValidacionCampos.emailValido(dto.getEmail());
+            if (!nuevoEmail.equals(emailAnterior)
+                    && unicidadContactos.emailClientePuedeExistir(nuevoEmail)
+                    && clientesRepository.existsByEmail(nuevoEmail)) {
+                throw new RuntimeException("Email ya registrado");
+            }
+            cliente.setEmail(nuevoEmail);
         }
-        dto.setTelefono(tel);
 
-        if (dto.getTipo_cliente() != null && !dto.getTipo_cliente().trim().isEmpty()) {
-            String tipo = dto.getTipo_cliente().trim().toUpperCase();
-            if (tipo.equals("PERSONA") || tipo.equals("PARTICULAR")) {
-                dto.setTipo_cliente("PARTICULAR");
-            } else if (tipo.equals("EMPRESA")) {
-                dto.setTipo_cliente("EMPRESA");
-            } else if (!tipo.equals("PARTICULAR") && !tipo.equals("EMPRESA")) {
-                throw new IllegalArgumentException(
-                        "Tipo de cliente inválido: " + dto.getTipo_cliente() +
-                                ". Valores válidos: PARTICULAR, EMPRESA"
-                );
-            } else {
-                dto.setTipo_cliente(tipo);
+        if (dto.getTelefono() != null) {
+            String nuevoTelefono = ValidacionCampos.telefonoValido(dto.getTelefono());
+            if (nuevoTelefono != null && !nuevoTelefono.equals(telefonoAnterior)
+                    && unicidadContactos.telefonoClientePuedeExistir(nuevoTelefono)
+                    && clientesRepository.existsByTelefono(nuevoTelefono)) {
+                throw new RuntimeException("Teléfono ya registrado");
             }
+            cliente.setTelefono(nuevoTelefono);
         }
-    }
-
-    private void validarCamposActualizar(ClientesDTO dto) {
-        if (dto == null) throw new RuntimeException("DTO obligatorio");
 
-        if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
-            throw new RuntimeException("Nombre obligatorio");
+        if (dto.getTipo_cliente() != null) {
+            cliente.setTipoCliente(dto.getTipo_cliente().isBlank() ? null : normalizarTipoCliente(dto.getTipo_cliente()));
         }
 
-        // Password: si viene vacío, se mantiene la actual
+        boolean passwordNueva = hash != null;
+        if (passwordNueva) {
+            cliente.setPassword(hash);
+        }
 
-        if (dto.getEmail() == null || dto.getEmail().trim().isEmpty() || !dto.getEmail().contains("@")) {
-            throw new RuntimeException("Email obligatorio");
+        Integer empleadoNuevo = dto.getId_empleadoresponsable();
+        if (empleadoNuevo != null && !empleadoNuevo.equals(empleadoAnterior)) {
+            Empleados empleado = empleadosRepository.findById(empleadoNuevo)
+                    .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
+            cliente.setIdEmpleadoResponsable(empleado);
         }
 
-        // Normaliza y valida teléfono (en UPDATE puede ser null)
-        dto.setTelefono(normalizarYValidarTelefono(dto.getTelefono()));
+        // Email o password nuevos: los JWT emitidos dejan de valer (la version sube en el mismo UPDATE)
+        boolean credencialesCambiadas = !cliente.getEmail().equals(emailAnterior) || passwordNueva;
+        if (credencialesCambiadas) {
+            cliente.setVersionCredenciales(cliente.getVersionCredenciales() + 1);
+        }
 
-        if (dto.getTipo_cliente() != null && !dto.getTipo_cliente().trim().isEmpty()) {
-            String tipo = dto.getTipo_cliente().trim().toUpperCase();
-            if (tipo.equals("PERSONA") || tipo.equals("PARTICULAR")) {
-                dto.setTipo_cliente("PARTICULAR");
-            } else if (tipo.equals("EMPRESA")) {
-                dto.setTipo_cliente("EMPRESA");
-            } else if (!tipo.equals("PARTICULAR") && !tipo.equals("EMPRESA")) {
-                throw new IllegalArgumentException(
-                        "Tipo de cliente inválido: " + dto.getTipo_cliente() +
-                                ". Valores válidos: PARTICULAR, EMPRESA"
-                );
-            } else {
-                dto.setTipo_cliente(tipo);
-            }
+        Clientes guardado = guardar(cliente);
+        if (empleadoNuevo != null && !empleadoNuevo.equals(empleadoAnterior)) {
+            if (empleadoAnterior != null) empleadosRepository.sumarClientes(empleadoAnterior, -1);
+            empleadosRepository.sumarClientes(empleadoNuevo, 1);
         }
+        String email = guardado.getEmail();
+        String telefono = guardado.getTelefono();
+        boolean contactoCambiado = !email.equals(emailAnterior) || !Objects.equals(telefono, telefonoAnterior);
+        if (contactoCambiado) {
+            unicidadContactos.clienteRegistrado(email, telefono);
+            busquedaTextoService.clienteGuardado(id, telefonoAnterior, emailAnterior, telefono, email);
+        }
+        versionesTablas.clientesModificados();
+        TrasCommit.ejecutar(() -> {
+            userDetailsCache.invalidate(emailAnterior);
+            userDetailsCache.invalidate(email);
+            if (credencialesCambiadas) {
+                tokenRevocationRegistry.revokeCliente(id);
+            }
+        });
+        return guardado;
     }
 
-    /**
-     * Devuelve null si viene vacío. Si viene informado, exige SOLO dígitos.
-     * Además elimina espacios internos ("600 123 123" -> "600123123").
-     */
-    private String normalizarYValidarTelefono(String telefono) {
-        if (telefono == null) return null;
+    // Password opcional de actualizar/PATCH: vacia = se mantiene la actual (null)
+    private String hashSiViene(String password) {
+        return password != null && !password.isBlank() ? passwordEncoder.encode(password) : null;
+    }
 
-        String t = telefono.trim();
-        if (t.isBlank()) return null;
+    // saveAndFlush: una violacion de uk_clientes_email/uk_clientes_telefono (alta simultanea, o un valor
+    // que el filtro no conocia) salta aqui y no al hacer commit, y se devuelve con el mensaje de siempre.
+    // Igual el UPDATE ... WHERE version = ? que no encuentra la fila: otro lo cambio entre la lectura y el flush
+    private Clientes guardar(Clientes cliente) {
+        try {
+            return clientesRepository.saveAndFlush(cliente);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ConflictoVersionException();
+        } catch (DataIntegrityViolationException e) {
+            String duplicado = UnicidadContactos.duplicado(e, "clientes");
+            if (duplicado == null) throw e;
+            throw new RuntimeException(duplicado);
+        }
+    }
 
-        t = t.replaceAll("\\s+", ""); // esto quita espacios
+    public List<Clientes> BuscarClientePorEmpleadoyFecha(Integer idEmpleado, LocalDate fechaDesde) {
+        return clientesRepository.BusacarClientePorEmpleadoyFecha(idEmpleado, fechaDesde);
+    }
 
-        if (!t.matches("\\d+")) {
-            throw new RuntimeException("El teléfono solo puede contener números (0-9)");
-        }
+    public Pagina<ClienteResumen> buscarClientesFiltrados(
+            String telefono, String email, String tipoCliente,
+            Integer idEmpleado, LocalDate fechaDesde, String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        // Con telefono/email de 3+ caracteres el indice de trigramas acota las filas candidatas
+        int[] candidatos = busquedaTextoService.candidatosCliente(telefono, email);
+        List<ClienteResumen> filas = clientesRepository.buscarClientesFiltrados(
+                telefono, email, tipoCliente, idEmpleado, fechaDesde, candidatos,
+                Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, ClienteResumen::id);
+    }
 
-        if (t.length() != 9) {
-            throw new IllegalArgumentException("Pero que numero es ese payaso, ponme uno de verdad");
-        }
+    // Las reglas estan en ValidacionCampos (las comparte la importacion); aqui el error se convierte en excepcion
+    private static void validar(String error) {
+        if (error != null) throw new RuntimeException(error);
+    }
 
-        return t;
+    private static String normalizarTipoCliente(String tipoCliente) {
+        String tipo = ValidacionCampos.normalizarTipoCliente(tipoCliente);
+        if (tipo == null) throw new IllegalArgumentException(ValidacionCampos.tipoClienteInvalido(tipoCliente));
+        return tipo;
     }
 }
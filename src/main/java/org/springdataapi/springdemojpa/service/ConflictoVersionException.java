@@ -0,0 +1,21 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Otro usuario modifico (o borro) el registro despues de que este lo leyera: la version del If-Match (o del
+// formulario) ya no es la de la fila. 412 para que el cliente recargue y decida, en vez de pisar el cambio
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ConflictoVersionException extends RuntimeException {
+
+    public ConflictoVersionException() {
+        super("El registro ha sido modificado por otro usuario; recárgalo y vuelve a intentarlo");
+    }
+
+    // versionEsperada null = sin control de version (peticion sin If-Match)
+    static void comprobar(Long versionEsperada, Long versionActual) {
+        if (versionEsperada != null && !versionEsperada.equals(versionActual)) {
+            throw new ConflictoVersionException();
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package org.springdataapi.springdemojpa.service;
 
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
 import org.springdataapi.springdemojpa.models.Empleados;
 import org.springdataapi.springdemojpa.models.EmpleadosDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosParcialDTO;
+import org.springdataapi.springdemojpa.models.Pagina;
 import org.springdataapi.springdemojpa.models.RolesEmpleado;
 import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
 import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springdataapi.springdemojpa.security.TokenRevocationRegistry;
+import org.springdataapi.springdemojpa.security.UserDetailsCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -16,17 +31,44 @@ public class EmpleadosService {
 
     private final EmpleadosRepository empleadosRepository;
     private final RolesEmpleadoRepository rolesEmpleadoRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final PasswordEncoder passwordEncoder;
+    private final BusquedaTextoService busquedaTextoService;
+    private final VersionesTablas versionesTablas;
+    private final UnicidadContactos unicidadContactos;
+    private final TransactionTemplate transactionTemplate;
 
     public EmpleadosService(EmpleadosRepository empleadosRepository,
-                            RolesEmpleadoRepository rolesEmpleadoRepository) {
+                            RolesEmpleadoRepository rolesEmpleadoRepository,
+                            TokenRevocationRegistry tokenRevocationRegistry,
+                            UserDetailsCache userDetailsCache,
+                            PasswordEncoder passwordEncoder,
+                            BusquedaTextoService busquedaTextoService,
+                            VersionesTablas versionesTablas,
+                            UnicidadContactos unicidadContactos,
+                            PlatformTransactionManager transactionManager) {
         this.empleadosRepository = empleadosRepository;
         this.rolesEmpleadoRepository = rolesEmpleadoRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.userDetailsCache = userDetailsCache;
+        this.passwordEncoder = passwordEncoder;
+        this.busquedaTextoService = busquedaTextoService;
+        this.versionesTablas = versionesTablas;
+        this.unicidadContactos = unicidadContactos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public List<Empleados> findAll() {
         return empleadosRepository.findAll();
     }
 
+    public Pagina<EmpleadoResumen> listarPagina(String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        List<EmpleadoResumen> filas = empleadosRepository.listarResumen(Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, EmpleadoResumen::id);
+    }
+
     public Empleados findById(Integer id) {
         if (id == null) throw new RuntimeException("Id obligatorio");
         return empleadosRepository.findById(id)
@@ -43,7 +85,7 @@ public class EmpleadosService {
 
     // Mantengo tu firma, pero nota: aquí se lanza excepción si no existe.
     public Optional<Empleados> findByTelefono(String telefono) {
-        String tel = normalizarYValidarTelefono(telefono);
+        String tel = ValidacionCampos.telefonoValido(telefono);
         if (tel == null) throw new RuntimeException("Teléfono obligatorio");
 
         return Optional.ofNullable(empleadosRepository.findByTelefono(tel)
@@ -60,16 +102,23 @@ public class EmpleadosService {
         return empleadosRepository.findByFechaIngreso(fechaIngreso);
     }
 
+    // Como en ClienteService: cada escritura en una transaccion, con el BCrypt calculado antes de abrirla
+    // (esperando al pool de hashing no se retiene una conexion JDBC). Caches y revocaciones, tras el commit
     public void crear(EmpleadosDTO dto) {
-        validarCamposCrear(dto);
+        validar(ValidacionCampos.empleado(dto));
+        String hash = passwordEncoder.encode(dto.getPassword());
+        transactionTemplate.executeWithoutResult(status -> insertar(dto, hash));
+    }
 
+    private void insertar(EmpleadosDTO dto, String hash) {
         String email = dto.getEmail().trim();
-        String telefono = dto.getTelefono(); // ya viene normalizado y validado en validarCamposCrear()
+        String telefono = dto.getTelefono(); // ya viene normalizado y validado por ValidacionCampos.empleado()
 
-        if (empleadosRepository.existsByEmail(email)) {
+        // Como en ClienteService: BD solo si el filtro de Bloom no descarta el valor, garantia en la restriccion UNIQUE
+        if (unicidadContactos.emailEmpleadoPuedeExistir(email) && empleadosRepository.existsByEmail(email)) {
             throw new RuntimeException("Email ya registrado");
         }
-        if (empleadosRepository.existsByTelefono(telefono)) {
+        if (unicidadContactos.telefonoEmpleadoPuedeExistir(telefono) && empleadosRepository.existsByTelefono(telefono)) {
             throw new RuntimeException("Teléfono ya registrado");
         }
 
@@ -80,48 +129,74 @@ public class EmpleadosService {
         e.setNombre(dto.getNombre().trim());
         e.setEmail(email);
         e.setTelefono(telefono);
-        e.setPassword(dto.getPassword()); // sin hash (igual que tu código actual)
+        e.setPassword(hash);
         e.setIdRol(rol);
 
         e.setFechaIngreso(dto.getFechaIngreso() != null ? dto.getFechaIngreso() : LocalDate.now());
         e.setEstado(normalizarEstado(dto.getEstado()));
 
-        empleadosRepository.save(e);
+        guardar(e);
+        unicidadContactos.empleadoRegistrado(email, telefono);
+        busquedaTextoService.empleadoGuardado(e.getId(), null, e.getNombre());
+        TrasCommit.ejecutar(() -> userDetailsCache.invalidate(email));
     }
 
-    public void eliminar(Integer id) {
+    @Transactional
+    public void eliminar(Integer id, Long version) {
         if (id == null) throw new RuntimeException("Id obligatorio");
-        if (!empleadosRepository.existsById(id)) {
-            throw new RuntimeException("Empleado no existe");
-        }
         try {
-            empleadosRepository.deleteById(id);
+            // Una sola sentencia; las filas afectadas dicen si existia (o, con version, si no ha cambiado)
+            if (empleadosRepository.eliminarPorId(id, version) == 0) {
+                if (version != null && empleadosRepository.existsById(id)) throw new ConflictoVersionException();
+                throw new RuntimeException("Empleado no existe");
+            }
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new RuntimeException("No se puede eliminar el empleado porque tiene registros relacionados (clientes asignados, facturas, etc.)");
         }
+        busquedaTextoService.empleadoEliminado(id);
+        // El empleado responsable sale en el perfil de sus clientes (ETag de mi-perfil)
+        versionesTablas.clientesModificados();
+        TrasCommit.ejecutar(() -> {
+            tokenRevocationRegistry.revokeEmpleado(id);
+            userDetailsCache.invalidate("EMPLEADO", id);
+        });
     }
 
-    public Empleados actualizar(Integer id, EmpleadosDTO dto) {
+    public Empleados actualizar(Integer id, EmpleadosDTO dto, Long version) {
         if (id == null) throw new RuntimeException("Id obligatorio");
+        validar(ValidacionCampos.empleadoActualizar(dto));
+        String hash = hashSiViene(dto.getPassword());
+        return transactionTemplate.execute(status -> reemplazar(id, dto, version, hash));
+    }
 
+    private Empleados reemplazar(Integer id, EmpleadosDTO dto, Long version, String hash) {
         Empleados e = empleadosRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
-
-        validarCamposActualizar(dto);
+        ConflictoVersionException.comprobar(version, e.getVersion());
 
         String nuevoEmail = dto.getEmail().trim();
-        String nuevoTelefono = dto.getTelefono(); // ya viene normalizado (o null) por validarCamposActualizar()
+        String nuevoTelefono = dto.getTelefono(); // ya viene normalizado (o null) por ValidacionCampos.empleadoActualizar()
 
-        if (!e.getEmail().equals(nuevoEmail) && empleadosRepository.existsByEmail(nuevoEmail)) {
+        if (!e.getEmail().equals(nuevoEmail)
+                && unicidadContactos.emailEmpleadoPuedeExistir(nuevoEmail)
+                && empleadosRepository.existsByEmail(nuevoEmail)) {
             throw new RuntimeException("Email ya registrado");
         }
 
         if (nuevoTelefono != null
                 && (e.getTelefono() == null || !nuevoTelefono.equals(e.getTelefono()))
+                && unicidadContactos.telefonoEmpleadoPuedeExistir(nuevoTelefono)
                 && empleadosRepository.existsByTelefono(nuevoTelefono)) {
             throw new RuntimeException("Teléfono ya registrado");
         }
 
+        // Datos que viajan en el JWT o que deben invalidarlo (rol, estado, credenciales)
+        String emailAnterior = e.getEmail();
+        String nombreAnterior = e.getNombre();
+        String passwordAnterior = e.getPassword();
+        String estadoAnterior = e.getEstado();
+        Integer rolAnterior = e.getIdRol() != null ? e.getIdRol().getId() : null;
+
         e.setNombre(dto.getNombre().trim());
         e.setEmail(nuevoEmail);
         e.setTelefono(nuevoTelefono);
@@ -134,8 +209,8 @@ public class EmpleadosService {
             e.setEstado(normalizarEstado(dto.getEstado()));
         }
 
-        if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
-            e.setPassword(dto.getPassword());
+        if (hash != null) {
+            e.setPassword(hash);
         }
 
         if (dto.getIdRol() != null) {
@@ -144,107 +219,183 @@ public class EmpleadosService {
             e.setIdRol(rol);
         }
 
-        return empleadosRepository.save(e);
-    }
-
-    public List<Empleados> BuscarPorLetras(String letra) {
-        return empleadosRepository.buscarPorLetra(letra);
-    }
+        boolean credencialesCambiadas = credencialesCambiadas(e, emailAnterior, passwordAnterior, estadoAnterior, rolAnterior);
+        if (credencialesCambiadas) {
+            e.setVersionCredenciales(e.getVersionCredenciales() + 1);
+        }
 
-    public List<Empleados> buscarEmpleadosFiltrados(
-            String telefono, String email, String estado,
-            Integer idRol, Boolean tieneClientes, LocalDate fechaIngreso) {
-        return empleadosRepository.buscarEmpleadosFiltrados(
-                telefono, email, estado, idRol, tieneClientes, fechaIngreso);
+        Empleados guardado = guardar(e);
+        unicidadContactos.empleadoRegistrado(nuevoEmail, nuevoTelefono);
+        busquedaTextoService.empleadoGuardado(id, nombreAnterior, guardado.getNombre());
+        versionesTablas.clientesModificados();
+        TrasCommit.ejecutar(() -> {
+            userDetailsCache.invalidate(emailAnterior);
+            userDetailsCache.invalidate(nuevoEmail);
+            if (credencialesCambiadas) {
+                tokenRevocationRegistry.revokeEmpleado(id);
+            }
+        });
+        return guardado;
     }
 
-    // ==========================
-    // VALIDACIONES (estilo ClienteService)
-    // ==========================
-
-    private void validarCamposCrear(EmpleadosDTO dto) {
+    // PATCH: como ClienteService.actualizarParcial, solo los campos que vienen y un UPDATE con lo que cambia
+    public Empleados actualizarParcial(Integer id, EmpleadosParcialDTO dto, Long version) {
+        if (id == null) throw new RuntimeException("Id obligatorio");
         if (dto == null) throw new RuntimeException("DTO obligatorio");
+        String hash = hashSiViene(dto.getPassword());
+        return transactionTemplate.execute(status -> modificar(id, dto, version, hash));
+    }
 
-        if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
-            throw new RuntimeException("Nombre obligatorio");
+    private Empleados modificar(Integer id, EmpleadosParcialDTO dto, Long version, String hash) {
+        Empleados e = empleadosRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
+        ConflictoVersionException.comprobar(version, e.getVersion());
+
+        String emailAnterior = e.getEmail();
+        String telefonoAnterior = e.getTelefono();
+        String nombreAnterior = e.getNombre();
+        String passwordAnterior = e.getPassword();
+        String estadoAnterior = e.getEstado();
+        Integer rolAnterior = e.getIdRol() != null ? e.getIdRol().getId() : null;
+
+        if (dto.getNombre() != null) {
+            if (dto.getNombre().isBlank()) throw new RuntimeException("Nombre obligatorio");
+            e.setNombre(dto.getNombre().trim());
         }
 
-        if (dto.getPassword() == null || dto.getPassword().trim().isEmpty()) {
-            throw new RuntimeException("La password pa otro día ¿no?");
+        if (dto.getEmail() != null) {
+            String nuevoEmail = ValidacionCampos.emailValido(dto.getEmail());
+            if (!nuevoEmail.equals(emailAnterior)
+                    && unicidadContactos.emailEmpleadoPuedeExistir(nuevoEmail)
+                    && empleadosRepository.existsByEmail(nuevoEmail)) {
+                throw new RuntimeException("Email ya registrado");
+            }
+            e.setEmail(nuevoEmail);
         }
 
-        if (dto.getEmail() == null || dto.getEmail().trim().isEmpty() || !dto.getEmail().contains("@")) {
-            throw new RuntimeException("Email obligatorio");
+        if (dto.getTelefono() != null) {
+            String nuevoTelefono = ValidacionCampos.telefonoValido(dto.getTelefono());
+            if (nuevoTelefono != null && !nuevoTelefono.equals(telefonoAnterior)
+                    && unicidadContactos.telefonoEmpleadoPuedeExistir(nuevoTelefono)
+                    && empleadosRepository.existsByTelefono(nuevoTelefono)) {
+                throw new RuntimeException("Teléfono ya registrado");
+            }
+            e.setTelefono(nuevoTelefono);
         }
 
-        if (dto.getIdRol() == null) {
-            throw new RuntimeException("Rol obligatorio");
+        if (dto.getFechaIngreso() != null) {
+            e.setFechaIngreso(dto.getFechaIngreso());
         }
 
-        String tel = normalizarYValidarTelefono(dto.getTelefono());
-        if (tel == null) {
-            throw new RuntimeException("¿Y tú teléfono olvidona?");
+        if (dto.getEstado() != null) {
+            e.setEstado(normalizarEstado(dto.getEstado()));
         }
-        // Requiere que EmpleadosDTO tenga setTelefono(...)
-        dto.setTelefono(tel);
-    }
 
-    private void validarCamposActualizar(EmpleadosDTO dto) {
-        if (dto == null) throw new RuntimeException("DTO obligatorio");
+        if (hash != null) {
+            e.setPassword(hash);
+        }
 
-        if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
-            throw new RuntimeException("Nombre obligatorio");
+        if (dto.getIdRol() != null && !dto.getIdRol().equals(rolAnterior)) {
+            RolesEmpleado rol = rolesEmpleadoRepository.findById(dto.getIdRol())
+                    .orElseThrow(() -> new RuntimeException("Rol no encontrado"));
+            e.setIdRol(rol);
         }
 
-        if (dto.getEmail() == null || dto.getEmail().trim().isEmpty() || !dto.getEmail().contains("@")) {
-            throw new RuntimeException("Email obligatorio");
+        boolean credencialesCambiadas = credencialesCambiadas(e, emailAnterior, passwordAnterior, estadoAnterior, rolAnterior);
+        if (credencialesCambiadas) {
+            e.setVersionCredenciales(e.getVersionCredenciales() + 1);
         }
 
-        dto.setTelefono(normalizarYValidarTelefono(dto.getTelefono()));
-        // password / rol / fechaIngreso / estado: opcionales en update
+        Empleados guardado = guardar(e);
+        if (!guardado.getEmail().equals(emailAnterior) || !Objects.equals(guardado.getTelefono(), telefonoAnterior)) {
+            unicidadContactos.empleadoRegistrado(guardado.getEmail(), guardado.getTelefono());
+        }
+        if (!guardado.getNombre().equals(nombreAnterior)) {
+            busquedaTextoService.empleadoGuardado(id, nombreAnterior, guardado.getNombre());
+        }
+        versionesTablas.clientesModificados();
+        String emailNuevo = guardado.getEmail();
+        TrasCommit.ejecutar(() -> {
+            userDetailsCache.invalidate(emailAnterior);
+            userDetailsCache.invalidate(emailNuevo);
+            if (credencialesCambiadas) {
+                tokenRevocationRegistry.revokeEmpleado(id);
+            }
+        });
+        return guardado;
     }
 
-    /**
-     * Normaliza el estado para soportar un <select> "Sí/No"
-     * - null o vacío => "activo"
-     * - "si"/"sí"/"true"/"1"/"activo" => "activo"
-     * - "no"/"false"/"0"/"inactivo" => "inactivo"
-     */
-    private String normalizarEstado(String estado) {
-        if (estado == null || estado.isBlank()) return "activo";
+    // Password opcional de actualizar/PATCH: vacia = se mantiene la actual (null)
+    private String hashSiViene(String password) {
+        return password != null && !password.isBlank() ? passwordEncoder.encode(password) : null;
+    }
 
-        String s = estado.trim().toLowerCase();
+    // Rol, estado, email o password distintos de los leidos: lo que va en el JWT o debe invalidarlo
+    private static boolean credencialesCambiadas(Empleados e, String emailAnterior, String passwordAnterior,
+                                                 String estadoAnterior, Integer rolAnterior) {
+        Integer rol = e.getIdRol() != null ? e.getIdRol().getId() : null;
+        return !emailAnterior.equals(e.getEmail())
+                || !passwordAnterior.equals(e.getPassword())
+                || !estadoAnterior.equals(e.getEstado())
+                || !Objects.equals(rolAnterior, rol);
+    }
 
-        return switch (s) {
-            case "activo", "si", "sí", "true", "1" -> "activo";
-            case "inactivo", "no", "false", "0" -> "inactivo";
-            default -> throw new RuntimeException("Estado inválido (use Sí/No o activo/inactivo)");
-        };
+    // Una violacion de uk_empleados_email/uk_empleados_telefono vuelve con el mensaje de siempre, y un
+    // UPDATE que ya no encuentra su version como 412 (ver ClienteService.guardar)
+    private Empleados guardar(Empleados e) {
+        try {
+            return empleadosRepository.saveAndFlush(e);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            throw new ConflictoVersionException();
+        } catch (DataIntegrityViolationException ex) {
+            String duplicado = UnicidadContactos.duplicado(ex, "empleados");
+            if (duplicado == null) throw ex;
+            throw new RuntimeException(duplicado);
+        }
     }
 
-    /**
-     * Igual que en tu ClienteService:
-     * - null/blank => null
-     * - quita espacios internos
-     * - solo dígitos
-     * - exige 9 dígitos
-     */
-    private String normalizarYValidarTelefono(String telefono) {
-        if (telefono == null) return null;
+    public List<Empleados> BuscarPorLetras(String letra) {
+        // Con 3+ caracteres: candidatos del indice de trigramas, una sola carga por id
+        // y la comprobacion real (contiene, sin mayusculas ni tildes, como el LIKE) en memoria
+        int[] candidatos = busquedaTextoService.candidatosEmpleado(letra);
+        if (candidatos == null) {
+            return empleadosRepository.buscarPorLetra(letra);
+        }
+        List<Integer> ids = new ArrayList<>(candidatos.length);
+        for (int id : candidatos) ids.add(id);
+        String buscado = IndiceTrigramas.normalizar(letra);
+        return empleadosRepository.findAllById(ids).stream()
+                .filter(e -> e.getNombre() != null && IndiceTrigramas.normalizar(e.getNombre()).contains(buscado))
+                .toList();
+    }
 
-        String t = telefono.trim();
-        if (t.isBlank()) return null;
+    public Pagina<EmpleadoResumen> buscarEmpleadosFiltrados(
+            String telefono, String email, String estado,
+            Integer idRol, Boolean tieneClientes, LocalDate fechaIngreso, String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        List<EmpleadoResumen> filas = empleadosRepository.buscarEmpleadosFiltrados(
+                telefono, email, estado, idRol, tieneClientes, fechaIngreso, Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, EmpleadoResumen::id);
+    }
 
-        t = t.replaceAll("\\s+", "");
+    // Repara el contador num_clientes si se ha desviado (cambios hechos directamente en BD,
+    // fallos a mitad de camino...). Se ejecuta al arrancar y luego periodicamente
+    @Scheduled(fixedDelayString = "${app.empleados.reconciliar-clientes-ms:3600000}")
+    public int reconciliarNumClientes() {
+        return empleadosRepository.reconciliarNumClientes();
+    }
 
-        if (!t.matches("\\d+")) {
-            throw new RuntimeException("El teléfono solo puede contener números (0-9)");
-        }
+    // ==========================
+    // VALIDACIONES (reglas compartidas en ValidacionCampos)
+    // ==========================
 
-        if (t.length() != 9) {
-            throw new IllegalArgumentException("Pero que numero es ese payaso, ponme uno de verdad");
-        }
+    private static void validar(String error) {
+        if (error != null) throw new RuntimeException(error);
+    }
 
-        return t;
+    private static String normalizarEstado(String estado) {
+        String s = ValidacionCampos.normalizarEstado(estado);
+        if (s == null) throw new RuntimeException(ValidacionCampos.ESTADO_INVALIDO);
+        return s;
     }
 }
@@ -0,0 +1,130 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exportacion completa de clientes, empleados y productos en CSV (con cabecera) o NDJSON, en streaming.
+ * <p>
+ * Cada fila se lee del cursor (fetch size 1000, ver exportarResumen de los repositorios), se escribe en un
+ * buffer de 64 KB que se va volcando a la respuesta y se descarta: la memoria usada no depende del numero de
+ * filas. Las filas son las proyecciones de solo lectura de los listados (XResumen), no entidades, asi que
+ * el contexto de persistencia no crece y no hay nada que ir desconectando.
+ * <p>
+ * La consulta necesita una transaccion abierta mientras se recorre el stream; como el volcado lo hace el
+ * hilo async de StreamingResponseBody (no el de la peticion), la abre aqui un TransactionTemplate de solo lectura.
+ */
+@Service
+public class ExportacionService {
+
+    private final ClientesRepository clientesRepository;
+    private final EmpleadosRepository empleadosRepository;
+    private final ProductosRepository productosRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportacionService(ClientesRepository clientesRepository,
+                              EmpleadosRepository empleadosRepository,
+                              ProductosRepository productosRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        this.clientesRepository = clientesRepository;
+        this.empleadosRepository = empleadosRepository;
+        this.productosRepository = productosRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public long exportarClientes(OutputStream salida, FormatoFichero formato) {
+        return exportar(salida, formato, ClienteResumen.class, clientesRepository::exportarResumen);
+    }
+
+    public long exportarEmpleados(OutputStream salida, FormatoFichero formato) {
+        return exportar(salida, formato, EmpleadoResumen.class, empleadosRepository::exportarResumen);
+    }
+
+    public long exportarProductos(OutputStream salida, FormatoFichero formato) {
+        return exportar(salida, formato, ProductoResumen.class, productosRepository::exportarResumen);
+    }
+
+    // Devuelve el numero de filas escritas. No cierra la salida (es de quien la abrio)
+    private <T extends Record> long exportar(OutputStream salida, FormatoFichero formato, Class<T> tipo,
+                                             Supplier<Stream<T>> consulta) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        Method[] columnas = Arrays.stream(tipo.getRecordComponents())
+                .map(RecordComponent::getAccessor).toArray(Method[]::new);
+        Long filas = transactionTemplate.execute(status -> {
+            long n = 0;
+            try (Stream<T> stream = consulta.get()) {
+                if (formato == FormatoFichero.CSV) {
+                    writer.write(Arrays.stream(tipo.getRecordComponents())
+                            .map(RecordComponent::getName).collect(Collectors.joining(",")));
+                    writer.write('\n');
+                }
+                for (T fila : (Iterable<T>) stream::iterator) {
+                    if (formato == FormatoFichero.CSV) {
+                        escribirCsv(writer, fila, columnas);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(fila));
+                    }
+                    writer.write('\n');
+                    n++;
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // Normalmente el cliente ha cortado la descarga
+                throw new UncheckedIOException("Error escribiendo la exportación", e);
+            }
+            return n;
+        });
+        return filas == null ? 0 : filas;
+    }
+
+    private static void escribirCsv(Writer writer, Record fila, Method[] columnas) throws IOException {
+        for (int i = 0; i < columnas.length; i++) {
+            if (i > 0) writer.write(',');
+            Object valor;
+            try {
+                valor = columnas[i].invoke(fila);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(e);
+            }
+            if (valor != null) writer.write(campoCsv(valor.toString()));
+        }
+    }
+
+    // Entre comillas solo si hace falta (separador, comillas o saltos de linea), con las comillas dobladas
+    private static String campoCsv(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + valor.replace("\"", "\"\"") + '"';
+            }
+        }
+        return valor;
+    }
+}
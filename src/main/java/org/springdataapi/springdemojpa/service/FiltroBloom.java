@@ -0,0 +1,76 @@
+package org.springdataapi.springdemojpa.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro entre hilos y sin bloqueos (bits en un AtomicLongArray).
+ * <p>
+ * {@link #puedeContener} nunca da un falso negativo: si devuelve false el valor no se ha anadido nunca.
+ * Si devuelve true puede ser un falso positivo (con la probabilidad configurada mientras no se supere el
+ * numero de elementos esperado) y hay que comprobarlo de verdad. No se pueden quitar valores: un borrado
+ * solo deja un falso positivo mas hasta la siguiente reconstruccion.
+ */
+public final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    public FiltroBloom(long elementosEsperados, double probabilidadFalsoPositivo) {
+        long n = Math.max(1, elementosEsperados);
+        // Tamano y numero de hashes optimos: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (m + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    public void anadir(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0) {
+                long visto = bits.compareAndExchange(palabra, actual, actual | mascara);
+                if (visto == actual) break;
+                actual = visto;
+            }
+        }
+    }
+
+    public boolean puedeContener(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long bytes() {
+        return numBits / 8;
+    }
+
+    // Doble hash (Kirsch-Mitzenmacher): h1 + i*h2 a partir de un hash de 64 bits de la cadena
+    private static long hash(String valor) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < valor.length(); i++) {
+            h = (h ^ valor.charAt(i)) * 0x100000001B3L;
+        }
+        return mezclar(h);
+    }
+
+    // Finalizador de MurmurHash3 (fmix64): reparte bien bits de entradas parecidas
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
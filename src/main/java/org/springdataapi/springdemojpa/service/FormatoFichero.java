@@ -0,0 +1,34 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+// Formatos de fichero de la importacion y la exportacion masivas: CSV con cabecera o NDJSON (un objeto JSON por linea)
+public enum FormatoFichero {
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv"),
+    NDJSON(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"), "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    FormatoFichero(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    // Por Content-Type (importacion) o por el parametro ?formato=csv|ndjson (exportacion)
+    public static FormatoFichero desde(String valor) {
+        if (valor != null && valor.toLowerCase(Locale.ROOT).contains("csv")) return CSV;
+        if (valor != null && valor.toLowerCase(Locale.ROOT).contains("json")) return NDJSON;
+        throw new RuntimeException("Formato no soportado: usa csv (text/csv) o ndjson (application/x-ndjson)");
+    }
+}
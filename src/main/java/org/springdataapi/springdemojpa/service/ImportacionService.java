@@ -0,0 +1,486 @@
+package org.springdataapi.springdemojpa.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.ErrorImportacion;
+import org.springdataapi.springdemojpa.models.ProductosDTO;
+import org.springdataapi.springdemojpa.models.ResultadoImportacion;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.PasswordHashingService;
+import org.springdataapi.springdemojpa.security.UserDetailsCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importacion masiva de clientes y productos desde CSV (cabecera con los nombres de campo del DTO:
+ * nombre,email,telefono,password,tipo_cliente,id_empleadoresponsable...) o NDJSON (un objeto JSON por linea,
+ * los mismos campos que el POST normal).
+ * <p>
+ * El fichero se lee en streaming por lotes de {@code app.importacion.tamano-lote} filas. Por cada lote:
+ * <ol>
+ *     <li>parseo y validacion en paralelo con las reglas de crear (bean validation del DTO +
+ *     ValidacionCampos, que devuelve el error de la fila sin lanzar excepciones)</li>
+ *     <li>repetidos dentro del fichero y contra la base de datos con una consulta IN por campo (no dos
+ *     exists por fila)</li>
+ *     <li>INSERT con batch JDBC en una transaccion por lote. Con IDENTITY Hibernate no puede agrupar los
+ *     INSERT; JdbcTemplate si (y en MySQL rewriteBatchedStatements los junta en un INSERT multi-fila)</li>
+ * </ol>
+ * Una fila con errores no frena al resto: sale en el informe con su numero de linea. Si falla el INSERT
+ * del lote entero (otro proceso metio el mismo email entre la comprobacion y el INSERT...), todas sus filas
+ * salen en el informe y se sigue con el siguiente lote; los lotes ya confirmados se quedan.
+ */
+@Service
+public class ImportacionService {
+
+    private static final String INSERT_CLIENTE = "INSERT INTO clientes "
+            + "(nombre, email, telefono, password, tipo_cliente, fecha_alta, id_empleado_responsable) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PRODUCTO = "INSERT INTO productos "
+            + "(nombre, descripcion, categoria, precio, activo) VALUES (?, ?, ?, ?, ?)";
+
+    private final ClientesRepository clientesRepository;
+    private final EmpleadosRepository empleadosRepository;
+    private final ProductosRepository productosRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    // BCrypt propio de la importacion: el pool de PasswordHashingService es para logins y altas sueltas
+    // (cola corta y espera maxima); un fichero de miles de filas lo llenaria y daria 503 en el login
+    private final BCryptPasswordEncoder bcrypt;
+    private final ExecutorService hashes;
+    private final BusquedaTextoService busquedaTextoService;
+    private final VersionesTablas versionesTablas;
+    private final CacheSegundoNivelService cacheSegundoNivelService;
+    private final UserDetailsCache userDetailsCache;
+    private final UnicidadContactos unicidadContactos;
+    private final int tamanoLote;
+
+    public ImportacionService(ClientesRepository clientesRepository,
+                              EmpleadosRepository empleadosRepository,
+                              ProductosRepository productosRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              @Value("${app.security.password-hashing.strength:10}") int bcryptStrength,
+                              @Value("${app.importacion.hilos-hash:0}") int hilosHash,
+                              BusquedaTextoService busquedaTextoService,
+                              VersionesTablas versionesTablas,
+                              CacheSegundoNivelService cacheSegundoNivelService,
+                              UserDetailsCache userDetailsCache,
+                              UnicidadContactos unicidadContactos,
+                              @Value("${app.importacion.tamano-lote:1000}") int tamanoLote) {
+        this.clientesRepository = clientesRepository;
+        this.empleadosRepository = empleadosRepository;
+        this.productosRepository = productosRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        // 0 = la mitad de las CPU: la otra mitad queda para los logins mientras dura la importacion
+        int hilos = hilosHash > 0 ? hilosHash : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        this.hashes = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "importacion-hash-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.busquedaTextoService = busquedaTextoService;
+        this.versionesTablas = versionesTablas;
+        this.cacheSegundoNivelService = cacheSegundoNivelService;
+        this.userDetailsCache = userDetailsCache;
+        this.unicidadContactos = unicidadContactos;
+        this.tamanoLote = tamanoLote;
+    }
+
+    // ==========================
+    // CLIENTES
+    // ==========================
+
+    public ResultadoImportacion importarClientes(InputStream entrada, FormatoFichero formato) {
+        // Claves ya vistas en lotes anteriores del mismo fichero
+        Set<String> emails = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        return importar(entrada, formato, ClientesDTO.class, ValidacionCampos::cliente,
+                lote -> insertarClientes(lote, emails, telefonos));
+    }
+
+    private int insertarClientes(List<Fila<ClientesDTO>> lote, Set<String> emailsVistos, Set<String> telefonosVistos) {
+        List<Fila<ClientesDTO>> filas = new ArrayList<>(lote.size());
+        for (Fila<ClientesDTO> f : validas(lote)) {
+            f.dto.setEmail(f.dto.getEmail().trim());
+            f.dto.setNombre(f.dto.getNombre().trim());
+            if (emailsVistos.contains(clave(f.dto.getEmail()))) {
+                f.error = "Email repetido en el fichero";
+            } else if (telefonosVistos.contains(f.dto.getTelefono())) {
+                f.error = "Teléfono repetido en el fichero";
+            } else {
+                emailsVistos.add(clave(f.dto.getEmail()));
+                telefonosVistos.add(f.dto.getTelefono());
+                filas.add(f);
+            }
+        }
+        if (filas.isEmpty()) return 0;
+
+        // Una consulta por campo para todo el lote
+        Set<String> emailsRegistrados = claves(clientesRepository.emailsRegistrados(
+                filas.stream().map(f -> f.dto.getEmail()).toList()));
+        Set<String> telefonosRegistrados = new HashSet<>(clientesRepository.telefonosRegistrados(
+                filas.stream().map(f -> f.dto.getTelefono()).toList()));
+        Set<Integer> idsEmpleado = filas.stream().map(f -> f.dto.getId_empleadoresponsable())
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Integer> empleadosExistentes = idsEmpleado.isEmpty()
+                ? Set.of() : new HashSet<>(empleadosRepository.idsExistentes(idsEmpleado));
+        for (Fila<ClientesDTO> f : filas) {
+            if (emailsRegistrados.contains(clave(f.dto.getEmail()))) {
+                f.error = "Email ya registrado";
+            } else if (telefonosRegistrados.contains(f.dto.getTelefono())) {
+                f.error = "Teléfono ya registrado";
+            } else if (f.dto.getId_empleadoresponsable() != null
+                    && !empleadosExistentes.contains(f.dto.getId_empleadoresponsable())) {
+                f.error = "Empleado no encontrado";
+            }
+        }
+
+        // BCrypt en paralelo en el pool de la importacion: sin limite de espera, ninguna fila valida se
+        // rechaza por carga. Un hash BCrypt ya calculado (migracion desde otro sistema) se guarda tal cual
+        List<Fila<ClientesDTO>> sinHash = validas(filas).stream()
+                .filter(f -> !PasswordHashingService.isHashed(f.dto.getPassword()))
+                .toList();
+        List<Future<String>> calculados = new ArrayList<>(sinHash.size());
+        for (Fila<ClientesDTO> f : sinHash) {
+            String password = f.dto.getPassword();
+            calculados.add(hashes.submit(() -> bcrypt.encode(password)));
+        }
+        for (int i = 0; i < sinHash.size(); i++) {
+            Fila<ClientesDTO> f = sinHash.get(i);
+            try {
+                f.dto.setPassword(calculados.get(i).get());
+            } catch (ExecutionException e) {
+                f.error = e.getCause() instanceof RuntimeException re ? mensaje(re) : e.getCause().toString();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                calculados.forEach(c -> c.cancel(true));
+                throw new IllegalStateException("Importacion interrumpida", e);
+            }
+        }
+
+        List<Fila<ClientesDTO>> aInsertar = validas(filas);
+        if (aInsertar.isEmpty()) return 0;
+        Date hoy = Date.valueOf(LocalDate.now());
+        boolean ok = enTransaccion(aInsertar, () -> {
+            int[] ids = insertar(INSERT_CLIENTE, aInsertar, (ps, d) -> {
+                ps.setString(1, d.getNombre());
+                ps.setString(2, d.getEmail());
+                ps.setString(3, d.getTelefono());
+                ps.setString(4, d.getPassword());
+                setNullable(ps, 5, d.getTipo_cliente(), Types.VARCHAR);
+                ps.setDate(6, hoy);
+                setNullable(ps, 7, d.getId_empleadoresponsable(), Types.INTEGER);
+            });
+            Map<Integer, Long> porEmpleado = aInsertar.stream()
+                    .map(f -> f.dto.getId_empleadoresponsable()).filter(Objects::nonNull)
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+            porEmpleado.forEach((idEmpleado, n) -> empleadosRepository.sumarClientes(idEmpleado, n.intValue()));
+            for (int i = 0; i < ids.length; i++) {
+                ClientesDTO d = aInsertar.get(i).dto;
+                busquedaTextoService.clienteGuardado(ids[i], null, null, d.getTelefono(), d.getEmail());
+            }
+            versionesTablas.clientesModificados();
+        });
+        if (!ok) return 0;
+        aInsertar.forEach(f -> {
+            userDetailsCache.invalidate(f.dto.getEmail());
+            unicidadContactos.clienteRegistrado(f.dto.getEmail(), f.dto.getTelefono());
+        });
+        return aInsertar.size();
+    }
+
+    // ==========================
+    // PRODUCTOS
+    // ==========================
+
+    public ResultadoImportacion importarProductos(InputStream entrada, FormatoFichero formato) {
+        Set<String> nombres = new HashSet<>();
+        return importar(entrada, formato, ProductosDTO.class, ValidacionCampos::producto,
+                lote -> insertarProductos(lote, nombres));
+    }
+
+    private int insertarProductos(List<Fila<ProductosDTO>> lote, Set<String> nombresVistos) {
+        List<Fila<ProductosDTO>> filas = new ArrayList<>(lote.size());
+        for (Fila<ProductosDTO> f : validas(lote)) {
+            f.dto.setNombre(f.dto.getNombre().trim());
+            if (!nombresVistos.add(clave(f.dto.getNombre()))) {
+                f.error = "Nombre repetido en el fichero";
+            } else {
+                filas.add(f);
+            }
+        }
+        if (filas.isEmpty()) return 0;
+
+        Set<String> registrados = claves(productosRepository.nombresRegistrados(
+                filas.stream().map(f -> f.dto.getNombre()).toList()));
+        for (Fila<ProductosDTO> f : filas) {
+            if (registrados.contains(clave(f.dto.getNombre()))) f.error = "Nombre ya registrado";
+        }
+
+        List<Fila<ProductosDTO>> aInsertar = validas(filas);
+        if (aInsertar.isEmpty()) return 0;
+        boolean ok = enTransaccion(aInsertar, () -> {
+            int[] ids = insertar(INSERT_PRODUCTO, aInsertar, (ps, d) -> {
+                ps.setString(1, d.getNombre());
+                setNullable(ps, 2, ProductosService.normalizarOptional(d.getDescripcion()), Types.VARCHAR);
+                setNullable(ps, 3, ProductosService.normalizarOptional(d.getCategoria()), Types.VARCHAR);
+                ps.setDouble(4, d.getPrecio());
+                ps.setBoolean(5, d.getActivo() == null || d.getActivo());
+            });
+            for (int i = 0; i < ids.length; i++) {
+                busquedaTextoService.productoGuardado(ids[i], null, aInsertar.get(i).dto.getNombre());
+            }
+            versionesTablas.productosModificados();
+        });
+        if (!ok) return 0;
+        // Ya confirmado: una lectura que empezo antes del commit aun podria volver a guardar el catalogo
+        // sin estas filas, pero solo hasta el TTL de productos-consultas (ehcache.xml)
+        cacheSegundoNivelService.invalidarConsultasProductos();
+        return aInsertar.size();
+    }
+
+    // ==========================
+    // LECTURA POR LOTES
+    // ==========================
+
+    private <T> ResultadoImportacion importar(InputStream entrada, FormatoFichero formato, Class<T> tipo,
+                                              Function<T, String> reglas, Function<List<Fila<T>>, Integer> insertarLote) {
+        int filas = 0;
+        int importadas = 0;
+        List<ErrorImportacion> errores = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            int linea = 0;
+            String[] cabecera = null;
+            if (formato == FormatoFichero.CSV) {
+                String primera = reader.readLine();
+                if (primera == null) return new ResultadoImportacion(0, 0, List.of());
+                linea = 1;
+                cabecera = campos(quitarBom(primera));
+                for (int i = 0; i < cabecera.length; i++) cabecera[i] = cabecera[i].trim();
+            }
+
+            List<String> textos = new ArrayList<>(tamanoLote);
+            List<Integer> lineas = new ArrayList<>(tamanoLote);
+            String texto;
+            while (true) {
+                texto = reader.readLine();
+                if (texto != null) {
+                    linea++;
+                    if (linea == 1) texto = quitarBom(texto);
+                    if (texto.isBlank()) continue;
+                    textos.add(texto);
+                    lineas.add(linea);
+                }
+                if (textos.size() == tamanoLote || (texto == null && !textos.isEmpty())) {
+                    List<Fila<T>> lote = parsear(textos, lineas, cabecera, tipo, reglas);
+                    filas += lote.size();
+                    importadas += insertarLote.apply(lote);
+                    for (Fila<T> f : lote) {
+                        if (f.error != null) errores.add(new ErrorImportacion(f.linea, f.error));
+                    }
+                    textos.clear();
+                    lineas.clear();
+                }
+                if (texto == null) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el fichero de importación", e);
+        }
+        return new ResultadoImportacion(filas, importadas, errores);
+    }
+
+    // Parseo + validacion de cada fila en paralelo: no tocan la base de datos ni estado compartido
+    private <T> List<Fila<T>> parsear(List<String> textos, List<Integer> lineas, String[] cabecera,
+                                      Class<T> tipo, Function<T, String> reglas) {
+        @SuppressWarnings("unchecked")
+        Fila<T>[] lote = new Fila[textos.size()];
+        Arrays.parallelSetAll(lote, i -> {
+            Fila<T> f = new Fila<>(lineas.get(i));
+            try {
+                f.dto = cabecera == null
+                        ? objectMapper.readValue(textos.get(i), tipo)
+                        : objectMapper.convertValue(fila(cabecera, campos(textos.get(i))), tipo);
+                Set<ConstraintViolation<T>> violaciones = validator.validate(f.dto);
+                if (!violaciones.isEmpty()) {
+                    f.error = violaciones.stream().map(ConstraintViolation::getMessage).sorted()
+                            .collect(Collectors.joining("; "));
+                } else {
+                    f.error = reglas.apply(f.dto);
+                }
+            } catch (JacksonException e) {
+                f.error = "Fila no válida: " + e.getOriginalMessage();
+            } catch (RuntimeException e) {
+                f.error = mensaje(e);
+            }
+            return f;
+        });
+        return Arrays.asList(lote);
+    }
+
+    private static Map<String, String> fila(String[] cabecera, String[] valores) {
+        if (valores.length != cabecera.length) {
+            throw new RuntimeException("La fila tiene " + valores.length + " columnas y la cabecera "
+                    + cabecera.length);
+        }
+        Map<String, String> campos = new HashMap<>();
+        for (int i = 0; i < cabecera.length; i++) {
+            // Celda vacia = campo sin informar (null en el DTO)
+            if (!valores[i].isBlank()) campos.put(cabecera[i], valores[i]);
+        }
+        return campos;
+    }
+
+    // CSV de una linea por registro: separador ',' y comillas dobles ("" dentro de un campo entre comillas)
+    private static String[] campos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos.toArray(String[]::new);
+    }
+
+    // ==========================
+    // AUXILIARES
+    // ==========================
+
+    private interface Parametros<T> {
+        void fijar(PreparedStatement ps, T dto) throws SQLException;
+    }
+
+    // Batch JDBC del lote; devuelve los ids generados en el orden de las filas
+    private <T> int[] insertar(String sql, List<Fila<T>> filas, Parametros<T> parametros) {
+        GeneratedKeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        parametros.fijar(ps, filas.get(i).dto);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return filas.size();
+                    }
+                }, claves);
+        return claves.getKeyList().stream()
+                .mapToInt(fila -> ((Number) fila.values().iterator().next()).intValue())
+                .toArray();
+    }
+
+    // Si el lote no se puede confirmar, todas sus filas van al informe con el motivo
+    private <T> boolean enTransaccion(List<Fila<T>> filas, Runnable trabajo) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> trabajo.run());
+            return true;
+        } catch (DataAccessException e) {
+            String motivo = "Lote no importado: " + e.getMostSpecificCause().getMessage();
+            filas.forEach(f -> f.error = motivo);
+            return false;
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int indice, Object valor, int tipoSql) throws SQLException {
+        if (valor == null) ps.setNull(indice, tipoSql);
+        else ps.setObject(indice, valor, tipoSql);
+    }
+
+    private static <T> List<Fila<T>> validas(List<Fila<T>> filas) {
+        return filas.stream().filter(f -> f.error == null).toList();
+    }
+
+    // Repetidos sin distinguir mayusculas/minusculas, como la collation por defecto de MySQL (contra la base
+    // de datos decide la collation de la columna, igual que el exists de crear)
+    private static String clave(String valor) {
+        return valor.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> claves(List<String> valores) {
+        return valores.stream().map(ImportacionService::clave).collect(Collectors.toSet());
+    }
+
+    private static String quitarBom(String linea) {
+        return !linea.isEmpty() && linea.charAt(0) == '\uFEFF' ? linea.substring(1) : linea;
+    }
+
+    @PreDestroy
+    public void detener() {
+        hashes.shutdownNow();
+    }
+
+    private static String mensaje(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static final class Fila<T> {
+        final int linea;
+        T dto;
+        String error;
+
+        Fila(int linea) {
+            this.linea = linea;
+        }
+    }
+}
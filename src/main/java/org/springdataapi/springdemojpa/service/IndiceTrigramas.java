@@ -0,0 +1,278 @@
+package org.springdataapi.springdemojpa.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Indice invertido de trigramas para busquedas "contiene" (LIKE '%x%') sobre un campo de texto.
+ * <p>
+ * Cada valor se pasa a minusculas y sin tildes ({@link #normalizar}, como compara utf8mb4_0900_ai_ci)
+ * y se trocea en trigramas; cada trigrama guarda la lista ordenada
+ * de ids que lo contienen en un int[] (sin Integer ni colecciones por fila). Una busqueda intersecta
+ * las listas de los trigramas del texto, empezando por la mas corta.
+ * <p>
+ * El resultado son CANDIDATOS: todos los ids que contienen el texto estan, pero puede colarse alguno
+ * que tenga los trigramas sin ser subcadena (o un valor que ya cambio). Quien lo usa debe comprobar
+ * la condicion real (en SQL o en memoria tras hidratar).
+ * <p>
+ * Las filas borradas con un DELETE directo (sin cargar su valor) se quitan con {@link #quitarId}: el id se
+ * marca como borrado, deja de salir en los candidatos y se purga de las listas cada {@value #PURGA_BORRADOS} marcas.
+ */
+public final class IndiceTrigramas {
+
+    // Un texto de menos de 3 caracteres no tiene trigramas: ahi no sirve el indice
+    public static final int LONGITUD_MINIMA = 3;
+
+    static final int PURGA_BORRADOS = 1024;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private final HashMap<Long, Postings> postings = new HashMap<>();
+    private final BitSet borrados = new BitSet();
+    private int numBorrados;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Idempotente: volver a anadir el mismo id/valor no duplica nada
+    public void anadir(int id, String valor) {
+        long[] trigramas = trigramas(valor);
+        if (trigramas.length == 0) return;
+        lock.writeLock().lock();
+        try {
+            if (numBorrados > 0 && borrados.get(id)) {
+                borrados.clear(id);
+                numBorrados--;
+            }
+            for (long t : trigramas) {
+                postings.computeIfAbsent(t, k -> new Postings()).anadir(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void quitar(int id, String valor) {
+        long[] trigramas = trigramas(valor);
+        if (trigramas.length == 0) return;
+        lock.writeLock().lock();
+        try {
+            for (long t : trigramas) {
+                Postings p = postings.get(t);
+                if (p != null && p.quitar(id) && p.size == 0) {
+                    postings.remove(t);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Borrado sin el valor: sus listas no se conocen, asi que se marca y se filtra hasta la siguiente purga
+    public void quitarId(int id) {
+        lock.writeLock().lock();
+        try {
+            if (borrados.get(id)) return;
+            borrados.set(id);
+            if (++numBorrados >= PURGA_BORRADOS) purgarBorrados();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void reemplazar(int id, String anterior, String nuevo) {
+        if (anterior != null && anterior.equalsIgnoreCase(nuevo != null ? nuevo : "")) return;
+        quitar(id, anterior);
+        anadir(id, nuevo);
+    }
+
+    /**
+     * Ids candidatos (ordenados ascendente) para "contiene texto", o null si el texto es demasiado
+     * corto para usar el indice y hay que ir por el camino normal.
+     */
+    public int[] candidatos(String texto) {
+        if (texto == null) return null;
+        String buscado = normalizar(texto);
+        // Lo que queda fuera de ASCII (ß, ø, æ...) la collation lo puede igualar a otras letras: mejor el LIKE
+        if (!ascii(buscado)) return null;
+        long[] trigramas = trigramasNormalizados(buscado);
+        if (trigramas.length == 0) return null;
+        lock.readLock().lock();
+        try {
+            Postings[] listas = new Postings[trigramas.length];
+            for (int i = 0; i < trigramas.length; i++) {
+                listas[i] = postings.get(trigramas[i]);
+                if (listas[i] == null) return new int[0];
+            }
+            Arrays.sort(listas, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] resultado = Arrays.copyOf(listas[0].ids, listas[0].size);
+            int n = resultado.length;
+            for (int i = 1; i < listas.length && n > 0; i++) {
+                n = intersectar(resultado, n, listas[i]);
+            }
+            if (numBorrados > 0) {
+                int m = 0;
+                for (int i = 0; i < n; i++) {
+                    if (!borrados.get(resultado[i])) resultado[m++] = resultado[i];
+                }
+                n = m;
+            }
+            return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Interseccion de dos int[] ordenados; ambos son ordenados, asi que basta con un avance en paralelo
+    public static int[] intersectar(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Numero de trigramas distintos; solo para diagnostico y tests
+    public int trigramasDistintos() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void vaciar() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            borrados.clear();
+            numBorrados = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Con el write lock: una pasada por todas las listas quitando los ids marcados
+    private void purgarBorrados() {
+        for (Iterator<Postings> it = postings.values().iterator(); it.hasNext(); ) {
+            Postings p = it.next();
+            if (p.quitarTodos(borrados) && p.size == 0) it.remove();
+        }
+        borrados.clear();
+        numBorrados = 0;
+    }
+
+    // Deja en 'actual' solo los ids presentes en 'lista'; devuelve cuantos quedan
+    private static int intersectar(int[] actual, int n, Postings lista) {
+        int m = 0, j = 0;
+        for (int i = 0; i < n && j < lista.size; i++) {
+            int id = actual[i];
+            // Busqueda binaria desde j: la lista puede ser mucho mas larga que el resultado parcial
+            int pos = Arrays.binarySearch(lista.ids, j, lista.size, id);
+            if (pos >= 0) {
+                actual[m++] = id;
+                j = pos + 1;
+            } else {
+                j = -pos - 1;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Minusculas y sin marcas diacriticas (NFD quitando las combinantes): "José", "JOSE" y "jose" quedan igual,
+     * como en el LIKE de MySQL con utf8mb4_0900_ai_ci. Quien compruebe los candidatos en memoria debe usarla.
+     */
+    public static String normalizar(String valor) {
+        String v = valor.toLowerCase(Locale.ROOT);
+        return ascii(v) ? v : MARCAS.matcher(Normalizer.normalize(v, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static boolean ascii(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            if (v.charAt(i) > 0x7F) return false;
+        }
+        return true;
+    }
+
+    // Trigramas distintos del valor normalizado, empaquetados en un long (3 chars de 16 bits)
+    static long[] trigramas(String valor) {
+        if (valor == null) return new long[0];
+        return trigramasNormalizados(normalizar(valor));
+    }
+
+    private static long[] trigramasNormalizados(String v) {
+        if (v.length() < LONGITUD_MINIMA) return new long[0];
+        long[] out = new long[v.length() - 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ((long) v.charAt(i) << 32) | ((long) v.charAt(i + 1) << 16) | v.charAt(i + 2);
+        }
+        Arrays.sort(out);
+        int n = 0;
+        for (int i = 0; i < out.length; i++) {
+            if (i == 0 || out[i] != out[i - 1]) out[n++] = out[i];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Lista de ids ordenada en un int[] que crece al doble; los ids nuevos casi siempre van al final
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void anadir(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                asegurarCapacidad();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            asegurarCapacidad();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean quitar(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            if (size > 16 && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        boolean quitarTodos(BitSet ids) {
+            int m = 0;
+            for (int i = 0; i < size; i++) {
+                if (!ids.get(this.ids[i])) this.ids[m++] = this.ids[i];
+            }
+            boolean cambia = m != size;
+            size = m;
+            return cambia;
+        }
+
+        private void asegurarCapacidad() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
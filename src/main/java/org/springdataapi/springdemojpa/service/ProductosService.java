@@ -1,19 +1,40 @@
 package org.springdataapi.springdemojpa.service;
 
+import org.springdataapi.springdemojpa.models.EstadoEliminacion;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
 import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.Pagina;
 import org.springdataapi.springdemojpa.models.ProductosDTO;
+import org.springdataapi.springdemojpa.models.ProductosParcialDTO;
+import org.springdataapi.springdemojpa.models.ResultadoEliminacion;
 import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class ProductosService {
 
+    static final int MAX_IDS_ELIMINAR = 1000;
+
     private final ProductosRepository productosRepository;
+    private final BusquedaTextoService busquedaTextoService;
+    private final VersionesTablas versionesTablas;
 
-    public ProductosService(ProductosRepository productosRepository) {
+    public ProductosService(ProductosRepository productosRepository,
+                            BusquedaTextoService busquedaTextoService,
+                            VersionesTablas versionesTablas) {
         this.productosRepository = productosRepository;
+        this.busquedaTextoService = busquedaTextoService;
+        this.versionesTablas = versionesTablas;
     }
 
     public List<Productos> findAll() {
@@ -24,6 +45,19 @@ public class ProductosService {
         return productosRepository.findByActivo(true);
     }
 
+    public Pagina<ProductoResumen> listarPagina(String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        List<ProductoResumen> filas = productosRepository.listarResumen(Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, ProductoResumen::id);
+    }
+
+    public Pagina<ProductoResumen> listarActivosPagina(String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        List<ProductoResumen> filas = productosRepository.listarResumenPorActivo(
+                true, Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, ProductoResumen::id);
+    }
+
     public Productos findById(Integer id) {
         if (id == null) throw new RuntimeException("Id obligatorio");
         return productosRepository.findById(id)
@@ -65,14 +99,17 @@ public class ProductosService {
         p.setActivo(dto.getActivo() == null ? Boolean.TRUE : dto.getActivo());
 
         productosRepository.save(p);
+        busquedaTextoService.productoGuardado(p.getId(), null, p.getNombre());
+        versionesTablas.productosModificados();
     }
 
-    public Productos actualizar(Integer id, ProductosDTO dto) {
+    public Productos actualizar(Integer id, ProductosDTO dto, Long version) {
         if (id == null) throw new RuntimeException("Id obligatorio");
         validarCamposActualizar(dto);
 
         Productos p = productosRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        ConflictoVersionException.comprobar(version, p.getVersion());
 
         String nuevoNombre = dto.getNombre().trim();
         if (!p.getNombre().equals(nuevoNombre) && productosRepository.existsByNombre(nuevoNombre)) {
@@ -83,6 +120,7 @@ public class ProductosService {
             throw new RuntimeException("El precio no puede ser negativo");
         }
 
+        String nombreAnterior = p.getNombre();
         p.setNombre(nuevoNombre);
         p.setDescripcion(normalizarOptional(dto.getDescripcion()));
         p.setCategoria(normalizarOptional(dto.getCategoria()));
@@ -92,44 +130,152 @@ public class ProductosService {
             p.setActivo(dto.getActivo());
         }
 
-        return productosRepository.save(p);
+        Productos guardado = guardar(p);
+        busquedaTextoService.productoGuardado(id, nombreAnterior, nuevoNombre);
+        versionesTablas.productosModificados();
+        return guardado;
     }
 
-    public void eliminar(Integer id) {
+    // PATCH: solo los campos que vienen; con @DynamicUpdate cambiar el precio es un UPDATE de la columna precio
+    // y el exists de nombre solo se hace si el nombre cambia
+    @Transactional
+    public Productos actualizarParcial(Integer id, ProductosParcialDTO dto, Long version) {
         if (id == null) throw new RuntimeException("Id obligatorio");
-        if (!productosRepository.existsById(id)) {
-            throw new RuntimeException("Producto no existe");
+        if (dto == null) throw new RuntimeException("DTO obligatorio");
+
+        Productos p = productosRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        ConflictoVersionException.comprobar(version, p.getVersion());
+        String nombreAnterior = p.getNombre();
+
+        if (dto.getNombre() != null) {
+            if (dto.getNombre().isBlank()) throw new RuntimeException("Nombre obligatorio");
+            String nuevoNombre = dto.getNombre().trim();
+            if (!nuevoNombre.equals(nombreAnterior) && productosRepository.existsByNombre(nuevoNombre)) {
+                throw new RuntimeException("Nombre ya registrado");
+            }
+            p.setNombre(nuevoNombre);
+        }
+        if (dto.getDescripcion() != null) {
+            p.setDescripcion(normalizarOptional(dto.getDescripcion()));
         }
+        if (dto.getCategoria() != null) {
+            p.setCategoria(normalizarOptional(dto.getCategoria()));
+        }
+        if (dto.getPrecio() != null) {
+            if (dto.getPrecio() < 0) throw new RuntimeException("El precio no puede ser negativo");
+            p.setPrecio(dto.getPrecio());
+        }
+        if (dto.getActivo() != null) {
+            p.setActivo(dto.getActivo());
+        }
+
+        Productos guardado = guardar(p);
+        if (!guardado.getNombre().equals(nombreAnterior)) {
+            busquedaTextoService.productoGuardado(id, nombreAnterior, guardado.getNombre());
+        }
+        versionesTablas.productosModificados();
+        return guardado;
+    }
+
+    public void eliminar(Integer id, Long version) {
+        if (id == null) throw new RuntimeException("Id obligatorio");
         try {
-            productosRepository.deleteById(id);
+            // Una sola sentencia; las filas afectadas dicen si existia (o, con version, si no ha cambiado)
+            if (productosRepository.eliminarPorId(id, version) == 0) {
+                if (version != null && productosRepository.existsById(id)) throw new ConflictoVersionException();
+                throw new RuntimeException("Producto no existe");
+            }
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new RuntimeException(
                     "No se puede eliminar el producto porque tiene registros relacionados (líneas de pedido, facturas, etc.)"
             );
         }
+        busquedaTextoService.productoEliminado(id);
+        versionesTablas.productosModificados();
+    }
+
+    /**
+     * Borrado por lotes (DELETE /api/productos?ids=...): una consulta para saber cuales existen y un unico
+     * DELETE ... IN para todos. Si una FK impide borrar alguno, la sentencia falla entera: el lote se parte en
+     * mitades (cada una en su propia transaccion) hasta aislar los ids bloqueados, y el resto se borra igual.
+     * No es atomico: el informe dice que paso con cada id.
+     */
+    public ResultadoEliminacion eliminarVarios(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) throw new RuntimeException("Ids obligatorios");
+        List<Integer> distintos = ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (distintos.isEmpty()) throw new RuntimeException("Ids obligatorios");
+        if (distintos.size() > MAX_IDS_ELIMINAR) {
+            throw new RuntimeException("Máximo " + MAX_IDS_ELIMINAR + " ids por petición");
+        }
+
+        Set<Integer> existentes = new HashSet<>(productosRepository.idsExistentes(distintos));
+        Set<Integer> bloqueados = new HashSet<>();
+        eliminarTramo(distintos.stream().filter(existentes::contains).toList(), bloqueados);
+
+        List<EstadoEliminacion> resultados = new ArrayList<>(distintos.size());
+        int eliminados = 0;
+        for (Integer id : distintos) {
+            String estado;
+            if (!existentes.contains(id)) {
+                estado = "NO_ENCONTRADO";
+            } else if (bloqueados.contains(id)) {
+                estado = "CON_REGISTROS_RELACIONADOS";
+            } else {
+                estado = "ELIMINADO";
+                eliminados++;
+                busquedaTextoService.productoEliminado(id);
+            }
+            resultados.add(new EstadoEliminacion(id, estado));
+        }
+        if (eliminados > 0) versionesTablas.productosModificados();
+        return new ResultadoEliminacion(distintos.size(), eliminados, resultados);
+    }
+
+    private void eliminarTramo(List<Integer> ids, Set<Integer> bloqueados) {
+        if (ids.isEmpty()) return;
+        try {
+            productosRepository.eliminarPorIds(ids);
+        } catch (org.springframework.dao.DataIntegrityViolationException e) {
+            if (ids.size() == 1) {
+                bloqueados.add(ids.get(0));
+                return;
+            }
+            int mitad = ids.size() / 2;
+            eliminarTramo(ids.subList(0, mitad), bloqueados);
+            eliminarTramo(ids.subList(mitad, ids.size()), bloqueados);
+        }
+    }
+
+    // saveAndFlush: si otro cambio el producto despues de leerlo, el UPDATE ... WHERE version = ? falla aqui
+    private Productos guardar(Productos p) {
+        try {
+            return productosRepository.saveAndFlush(p);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ConflictoVersionException();
+        }
     }
 
     public List<Productos> BuscarProductosFiltrados(String categoria, Double precioMin) {
         return productosRepository.buscarProductosFiltrados(categoria, precioMin);
     }
 
-    public List<Productos> buscarProductosFiltrados(
-            String nombre, String categoria, Double precioMin, Double precioMax, Boolean activo) {
-        return productosRepository.buscarProductosFiltradosCompleto(
-                nombre, categoria, precioMin, precioMax, activo);
+    public Pagina<ProductoResumen> buscarProductosFiltrados(
+            String nombre, String categoria, Double precioMin, Double precioMax, Boolean activo,
+            String cursor, Integer limite) {
+        int n = Pagina.limite(limite);
+        // Con nombre de 3+ caracteres el indice de trigramas acota las filas candidatas
+        int[] candidatos = busquedaTextoService.candidatosProducto(nombre);
+        List<ProductoResumen> filas = productosRepository.buscarProductosFiltradosCompleto(
+                nombre, categoria, precioMin, precioMax, activo, candidatos,
+                Pagina.despuesDe(cursor), Limit.of(n + 1));
+        return Pagina.desde(filas, n, ProductoResumen::id);
     }
 
-    private void validarCamposCrear(ProductosDTO dto) {
-        if (dto == null) throw new RuntimeException("DTO obligatorio");
-        if (dto.getNombre() == null || dto.getNombre().isBlank()) {
-            throw new RuntimeException("Nombre obligatorio");
-        }
-        if (dto.getPrecio() == null) {
-            throw new RuntimeException("Precio obligatorio");
-        }
-        if (dto.getPrecio() < 0) {
-            throw new RuntimeException("¿Lo de que pienses que le puedes poner un precio negativo a un producto, qué es?");
-        }
+    // Mismas reglas que la importacion (ValidacionCampos.producto)
+    private static void validarCamposCrear(ProductosDTO dto) {
+        String error = ValidacionCampos.producto(dto);
+        if (error != null) throw new RuntimeException(error);
     }
 
     private void validarCamposActualizar(ProductosDTO dto) {
@@ -139,7 +285,7 @@ public class ProductosService {
         }
     }
 
-    private String normalizarOptional(String s) {
+    static String normalizarOptional(String s) {
         return (s == null || s.isBlank()) ? null : s.trim();
     }
 }
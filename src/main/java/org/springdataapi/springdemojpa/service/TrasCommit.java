@@ -0,0 +1,28 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cambios en memoria (indices, caches, contadores de version, revocaciones) que solo deben verse con la
+ * escritura ya confirmada: dentro de una transaccion se aplican en afterCommit (un rollback no los toca);
+ * fuera de ella, al momento.
+ */
+final class TrasCommit {
+
+    private TrasCommit() {
+    }
+
+    static void ejecutar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+}
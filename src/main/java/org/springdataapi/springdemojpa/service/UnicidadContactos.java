@@ -0,0 +1,185 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtros de Bloom de los emails y telefonos ya registrados (clientes y empleados) para ahorrar los
+ * existsByEmail/existsByTelefono de crear/actualizar en el caso normal: un email o telefono nuevo.
+ * <p>
+ * Si el filtro dice que el valor no existe, el service inserta directamente; si dice que puede existir
+ * (ya registrado o falso positivo) hace la comprobacion en BD de siempre para devolver el mensaje de error.
+ * En ningun caso es el filtro quien garantiza la unicidad: lo hacen las restricciones UNIQUE de la tabla
+ * (uk_clientes_email, uk_empleados_telefono...), que tambien cubren las carreras entre dos altas a la vez y
+ * las altas hechas por otra instancia. {@link #duplicado} traduce su violacion al mensaje de siempre.
+ * <p>
+ * Se construyen al arrancar en un hilo aparte; hasta que estan listos todo "puede existir" (se consulta la BD).
+ * Las claves van en minusculas: la unicidad en BD sigue la collation de la columna (en MySQL no distingue
+ * mayusculas), y asi el filtro nunca dice "nuevo" para algo que la BD consideraria repetido.
+ */
+@Component
+public class UnicidadContactos {
+
+    private static final int TRAMO_CARGA = 10_000;
+
+    private final ClientesRepository clientesRepository;
+    private final EmpleadosRepository empleadosRepository;
+    private final boolean habilitado;
+    private final long clientesEsperados;
+    private final long empleadosEsperados;
+    private final double probabilidadFalsoPositivo;
+
+    private volatile Filtros actuales;
+    // Mientras se reconstruye, las altas van a los dos juegos de filtros para no perder ninguna
+    private volatile Filtros enConstruccion;
+    private volatile boolean listo;
+
+    public UnicidadContactos(ClientesRepository clientesRepository,
+                             EmpleadosRepository empleadosRepository,
+                             @Value("${app.unicidad.bloom.enabled:true}") boolean habilitado,
+                             @Value("${app.unicidad.bloom.clientes-esperados:1000000}") long clientesEsperados,
+                             @Value("${app.unicidad.bloom.empleados-esperados:10000}") long empleadosEsperados,
+                             @Value("${app.unicidad.bloom.fpp:0.01}") double probabilidadFalsoPositivo) {
+        this.clientesRepository = clientesRepository;
+        this.empleadosRepository = empleadosRepository;
+        this.habilitado = habilitado;
+        this.clientesEsperados = clientesEsperados;
+        this.empleadosEsperados = empleadosEsperados;
+        this.probabilidadFalsoPositivo = probabilidadFalsoPositivo;
+        this.actuales = new Filtros(1, 1, probabilidadFalsoPositivo);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlArrancar() {
+        if (!habilitado) return;
+        Thread t = new Thread(this::reconstruir, "filtros-unicidad");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // Filtros nuevos (al menos el doble de filas que hay ahora, para no pasarse de la fpp configurada)
+    // cargados por tramos de id; se cambian por los actuales al terminar
+    public void reconstruir() {
+        listo = false;
+        Filtros nuevos = new Filtros(Math.max(clientesEsperados, 2 * clientesRepository.count()),
+                Math.max(empleadosEsperados, 2 * empleadosRepository.count()), probabilidadFalsoPositivo);
+        enConstruccion = nuevos;
+
+        int despuesDe = 0;
+        List<Object[]> filas;
+        do {
+            filas = clientesRepository.camposBusqueda(despuesDe, Limit.of(TRAMO_CARGA));
+            for (Object[] fila : filas) {
+                nuevos.anadirCliente((String) fila[2], (String) fila[1]);
+                despuesDe = (Integer) fila[0];
+            }
+        } while (filas.size() == TRAMO_CARGA);
+
+        despuesDe = 0;
+        do {
+            filas = empleadosRepository.contactos(despuesDe, Limit.of(TRAMO_CARGA));
+            for (Object[] fila : filas) {
+                nuevos.anadirEmpleado((String) fila[1], (String) fila[2]);
+                despuesDe = (Integer) fila[0];
+            }
+        } while (filas.size() == TRAMO_CARGA);
+
+        actuales = nuevos;
+        enConstruccion = null;
+        listo = true;
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    // ==========================
+    // CONSULTAS (true = hay que comprobarlo en BD)
+    // ==========================
+
+    public boolean emailClientePuedeExistir(String email) {
+        return !listo || actuales.emailClientes.puedeContener(clave(email));
+    }
+
+    public boolean telefonoClientePuedeExistir(String telefono) {
+        return !listo || actuales.telefonoClientes.puedeContener(clave(telefono));
+    }
+
+    public boolean emailEmpleadoPuedeExistir(String email) {
+        return !listo || actuales.emailEmpleados.puedeContener(clave(email));
+    }
+
+    public boolean telefonoEmpleadoPuedeExistir(String telefono) {
+        return !listo || actuales.telefonoEmpleados.puedeContener(clave(telefono));
+    }
+
+    // ==========================
+    // ESCRITURAS (desde los services)
+    // ==========================
+
+    // ClienteService y EmpleadosService lo llaman justo despues del INSERT/UPDATE, sin esperar al commit:
+    // si la transaccion se deshace solo queda un falso positivo (una comprobacion en BD de mas)
+    public void clienteRegistrado(String email, String telefono) {
+        actuales.anadirCliente(email, telefono);
+        Filtros otros = enConstruccion;
+        if (otros != null) otros.anadirCliente(email, telefono);
+    }
+
+    public void empleadoRegistrado(String email, String telefono) {
+        actuales.anadirEmpleado(email, telefono);
+        Filtros otros = enConstruccion;
+        if (otros != null) otros.anadirEmpleado(email, telefono);
+    }
+
+    /**
+     * Mensaje de error de siempre si la violacion es de una de las restricciones UNIQUE de email/telefono
+     * de la tabla ("clientes" o "empleados"); null si es otra (FK, not null...).
+     */
+    public static String duplicado(DataIntegrityViolationException e, String tabla) {
+        // El nombre de la restriccion sale en el mensaje del driver (MySQL: "for key 'clientes.uk_clientes_email'",
+        // H2: "UK_CLIENTES_EMAIL_INDEX_...")
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            String mensaje = t.getMessage() == null ? "" : t.getMessage().toLowerCase(Locale.ROOT);
+            if (mensaje.contains("uk_" + tabla + "_email")) return "Email ya registrado";
+            if (mensaje.contains("uk_" + tabla + "_telefono")) return "Teléfono ya registrado";
+        }
+        return null;
+    }
+
+    private static String clave(String valor) {
+        return valor.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filtros {
+        final FiltroBloom emailClientes;
+        final FiltroBloom telefonoClientes;
+        final FiltroBloom emailEmpleados;
+        final FiltroBloom telefonoEmpleados;
+
+        Filtros(long clientes, long empleados, double fpp) {
+            emailClientes = new FiltroBloom(clientes, fpp);
+            telefonoClientes = new FiltroBloom(clientes, fpp);
+            emailEmpleados = new FiltroBloom(empleados, fpp);
+            telefonoEmpleados = new FiltroBloom(empleados, fpp);
+        }
+
+        void anadirCliente(String email, String telefono) {
+            if (email != null) emailClientes.anadir(clave(email));
+            if (telefono != null) telefonoClientes.anadir(clave(telefono));
+        }
+
+        void anadirEmpleado(String email, String telefono) {
+            if (email != null) emailEmpleados.anadir(clave(email));
+            if (telefono != null) telefonoEmpleados.anadir(clave(telefono));
+        }
+    }
+}
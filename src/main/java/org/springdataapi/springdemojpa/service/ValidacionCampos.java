@@ -0,0 +1,263 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosDTO;
+import org.springdataapi.springdemojpa.models.ProductosDTO;
+
+/**
+ * Reglas de validacion y normalizacion de los DTO de clientes, empleados y productos, compartidas por los
+ * servicios y por la importacion masiva.
+ * <p>
+ * Los metodos de DTO devuelven null si todo es correcto o el mensaje de error, y dejan normalizados en el
+ * propio DTO los campos que lo necesitan: asi la importacion anota el error de la fila sin crear y capturar
+ * una excepcion, y los servicios lanzan la suya con el mismo mensaje. En el camino correcto no se reserva
+ * memoria: el telefono se recorre caracter a caracter (sin regex) y solo se copia si trae espacios, y los
+ * alias de tipo de cliente y estado se buscan en tablas precalculadas sin trim() ni toUpperCase().
+ */
+public final class ValidacionCampos {
+
+    public static final int LONGITUD_TELEFONO = 9;
+
+    static final String TELEFONO_NO_NUMERICO = "El teléfono solo puede contener números (0-9)";
+    static final String TELEFONO_LONGITUD = "Pero que numero es ese payaso, ponme uno de verdad";
+    static final String EMAIL_OBLIGATORIO = "Email obligatorio";
+    static final String ESTADO_INVALIDO = "Estado inválido (use Sí/No o activo/inactivo)";
+
+    // Resultado del recorrido del telefono, empaquetado en un int: numero de digitos + marcas
+    private static final int DIGITOS = 0xFFFF;
+    private static final int CON_ESPACIOS = 1 << 16;
+    private static final int NO_NUMERICO = 1 << 17;
+
+    private static final Alias TIPOS_CLIENTE = new Alias(
+            "PERSONA", "PARTICULAR",
+            "PARTICULAR", "PARTICULAR",
+            "EMPRESA", "EMPRESA");
+
+    // Valores del <select> "Sí/No" del formulario de empleados
+    private static final Alias ESTADOS = new Alias(
+            "activo", "activo", "si", "activo", "sí", "activo", "true", "activo", "1", "activo",
+            "inactivo", "inactivo", "no", "inactivo", "false", "inactivo", "0", "inactivo");
+
+    private ValidacionCampos() {
+    }
+
+    // ==========================
+    // DTO
+    // ==========================
+
+    public static String cliente(ClientesDTO dto) {
+        if (dto == null) return "DTO obligatorio";
+        if (vacio(dto.getNombre())) return "Nombre obligatorio";
+        if (vacio(dto.getPassword())) return "La password pa otro día ¿no?";
+        if (errorEmail(dto.getEmail()) != null) return EMAIL_OBLIGATORIO;
+        String error = errorTelefono(dto.getTelefono());
+        if (error != null) return error;
+        String telefono = normalizarTelefono(dto.getTelefono());
+        if (telefono == null) return "¿Y tú teléfono olvidona?";
+        dto.setTelefono(telefono);
+        return tipoCliente(dto);
+    }
+
+    // En la actualizacion la password es opcional (vacia = se mantiene) y el telefono puede quitarse
+    public static String clienteActualizar(ClientesDTO dto) {
+        if (dto == null) return "DTO obligatorio";
+        if (vacio(dto.getNombre())) return "Nombre obligatorio";
+        if (errorEmail(dto.getEmail()) != null) return EMAIL_OBLIGATORIO;
+        String error = errorTelefono(dto.getTelefono());
+        if (error != null) return error;
+        dto.setTelefono(normalizarTelefono(dto.getTelefono()));
+        return tipoCliente(dto);
+    }
+
+    public static String empleado(EmpleadosDTO dto) {
+        if (dto == null) return "DTO obligatorio";
+        if (vacio(dto.getNombre())) return "Nombre obligatorio";
+        if (vacio(dto.getPassword())) return "La password pa otro día ¿no?";
+        if (errorEmail(dto.getEmail()) != null) return EMAIL_OBLIGATORIO;
+        if (dto.getIdRol() == null) return "Rol obligatorio";
+        String error = errorTelefono(dto.getTelefono());
+        if (error != null) return error;
+        String telefono = normalizarTelefono(dto.getTelefono());
+        if (telefono == null) return "¿Y tú teléfono olvidona?";
+        dto.setTelefono(telefono);
+        return null;
+    }
+
+    // password / rol / fechaIngreso / estado: opcionales en update
+    public static String empleadoActualizar(EmpleadosDTO dto) {
+        if (dto == null) return "DTO obligatorio";
+        if (vacio(dto.getNombre())) return "Nombre obligatorio";
+        if (errorEmail(dto.getEmail()) != null) return EMAIL_OBLIGATORIO;
+        String error = errorTelefono(dto.getTelefono());
+        if (error != null) return error;
+        dto.setTelefono(normalizarTelefono(dto.getTelefono()));
+        return null;
+    }
+
+    public static String producto(ProductosDTO dto) {
+        if (dto == null) return "DTO obligatorio";
+        if (dto.getNombre() == null || dto.getNombre().isBlank()) return "Nombre obligatorio";
+        if (dto.getPrecio() == null) return "Precio obligatorio";
+        if (dto.getPrecio() < 0) return "¿Lo de que pienses que le puedes poner un precio negativo a un producto, qué es?";
+        return null;
+    }
+
+    // ==========================
+    // EMAIL
+    // ==========================
+
+    // null si el email tiene algo mas que espacios y una '@'; si no, el mensaje de error
+    public static String errorEmail(String email) {
+        return !vacio(email) && email.indexOf('@') >= 0 ? null : EMAIL_OBLIGATORIO;
+    }
+
+    // Para los PATCH de los servicios: email sin espacios alrededor o RuntimeException con el mensaje de errorEmail
+    public static String emailValido(String email) {
+        String error = errorEmail(email);
+        if (error != null) throw new RuntimeException(error);
+        return email.trim();
+    }
+
+    // ==========================
+    // TELEFONO
+    // ==========================
+
+    /**
+     * null si el telefono es valido o viene vacio; si no, el mensaje de error.
+     * Valido = solo digitos y espacios, con exactamente {@value #LONGITUD_TELEFONO} digitos.
+     */
+    public static String errorTelefono(String telefono) {
+        if (telefono == null) return null;
+        int r = recorrerTelefono(telefono);
+        if ((r & NO_NUMERICO) != 0) return telefono.isBlank() ? null : TELEFONO_NO_NUMERICO;
+        int digitos = r & DIGITOS;
+        if (digitos == 0) return null;
+        return digitos == LONGITUD_TELEFONO ? null : TELEFONO_LONGITUD;
+    }
+
+    /**
+     * Telefono sin espacios ("600 123 123" -> "600123123"), o null si viene vacio. Solo para valores que
+     * {@link #errorTelefono} da por buenos. Si no hay nada que quitar devuelve la misma instancia.
+     */
+    public static String normalizarTelefono(String telefono) {
+        if (telefono == null) return null;
+        int r = recorrerTelefono(telefono);
+        if ((r & NO_NUMERICO) != 0) return telefono.isBlank() ? null : telefono;
+        int digitos = r & DIGITOS;
+        if (digitos == 0) return null;
+        if ((r & CON_ESPACIOS) == 0) return telefono;
+        char[] out = new char[digitos];
+        int n = 0;
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (c >= '0' && c <= '9') out[n++] = c;
+        }
+        return new String(out);
+    }
+
+    // Para los servicios: telefono normalizado o RuntimeException con el mensaje de errorTelefono
+    public static String telefonoValido(String telefono) {
+        String error = errorTelefono(telefono);
+        if (error != null) throw new RuntimeException(error);
+        return normalizarTelefono(telefono);
+    }
+
+    // Una pasada: cuenta digitos y marca si hay espacios (los de \s) u otros caracteres
+    private static int recorrerTelefono(String telefono) {
+        int digitos = 0;
+        int marcas = 0;
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digitos < DIGITOS) digitos++;
+            } else if (c == ' ' || (c >= '\t' && c <= '\r')) {
+                marcas |= CON_ESPACIOS;
+            } else {
+                marcas |= NO_NUMERICO;
+            }
+        }
+        return marcas | digitos;
+    }
+
+    // ==========================
+    // ALIAS
+    // ==========================
+
+    // PERSONA/PARTICULAR -> PARTICULAR, EMPRESA -> EMPRESA (sin mayusculas ni espacios); null si no es ninguno
+    public static String normalizarTipoCliente(String tipoCliente) {
+        return TIPOS_CLIENTE.buscar(tipoCliente);
+    }
+
+    // null o vacio -> "activo"; Sí/No, true/false, 1/0 o activo/inactivo; null si no es ninguno
+    public static String normalizarEstado(String estado) {
+        if (vacio(estado)) return "activo";
+        return ESTADOS.buscar(estado);
+    }
+
+    public static String tipoClienteInvalido(String tipoCliente) {
+        return "Tipo de cliente inválido: " + tipoCliente + ". Valores válidos: PARTICULAR, EMPRESA";
+    }
+
+    private static String tipoCliente(ClientesDTO dto) {
+        if (vacio(dto.getTipo_cliente())) return null;
+        String tipo = normalizarTipoCliente(dto.getTipo_cliente());
+        if (tipo == null) return tipoClienteInvalido(dto.getTipo_cliente());
+        dto.setTipo_cliente(tipo);
+        return null;
+    }
+
+    // ==========================
+    // AUXILIARES
+    // ==========================
+
+    // Igual que valor.trim().isEmpty(), sin crear el String recortado
+    static boolean vacio(String valor) {
+        if (valor == null) return true;
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Tabla de alias -> valor canonico agrupada por longitud. La busqueda recorta los espacios por indices
+     * y compara sin distinguir mayusculas (regionMatches) solo con los alias de la misma longitud.
+     */
+    private static final class Alias {
+        private final String[][] claves;
+        private final String[][] valores;
+
+        Alias(String... pares) {
+            int max = 0;
+            for (int i = 0; i < pares.length; i += 2) max = Math.max(max, pares[i].length());
+            int[] porLongitud = new int[max + 1];
+            for (int i = 0; i < pares.length; i += 2) porLongitud[pares[i].length()]++;
+            claves = new String[max + 1][];
+            valores = new String[max + 1][];
+            for (int len = 0; len <= max; len++) {
+                claves[len] = new String[porLongitud[len]];
+                valores[len] = new String[porLongitud[len]];
+                porLongitud[len] = 0;
+            }
+            for (int i = 0; i < pares.length; i += 2) {
+                int len = pares[i].length();
+                claves[len][porLongitud[len]] = pares[i];
+                valores[len][porLongitud[len]++] = pares[i + 1];
+            }
+        }
+
+        String buscar(String valor) {
+            if (valor == null) return null;
+            int ini = 0, fin = valor.length();
+            while (ini < fin && valor.charAt(ini) <= ' ') ini++;
+            while (fin > ini && valor.charAt(fin - 1) <= ' ') fin--;
+            int len = fin - ini;
+            if (len >= claves.length) return null;
+            String[] candidatas = claves[len];
+            for (int i = 0; i < candidatas.length; i++) {
+                if (valor.regionMatches(true, ini, candidatas[i], 0, len)) return valores[len][i];
+            }
+            return null;
+        }
+    }
+}
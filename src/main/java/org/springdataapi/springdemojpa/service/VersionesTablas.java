@@ -0,0 +1,40 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de modificacion por tabla para los ETag de los GET condicionales (catalogo y mi-perfil).
+ * <p>
+ * Cada escritura de ProductosService / ClienteService (y de EmpleadosService, que sale en el perfil del
+ * cliente) avanza el contador al confirmar la transaccion. El controller lee la version ANTES de consultar:
+ * si en medio entra una escritura, la respuesta lleva la version vieja y la siguiente peticion no coincide.
+ * <p>
+ * Los contadores viven en memoria de esta instancia; el instante de arranque va en el ETag para que
+ * un reinicio no reutilice versiones ya entregadas.
+ */
+@Component
+public class VersionesTablas {
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong productos = new AtomicLong();
+    private final AtomicLong clientes = new AtomicLong();
+
+    public String etagProductos() {
+        return "\"productos-" + arranque + "-" + productos.get() + "\"";
+    }
+
+    // El perfil depende del cliente autenticado: su id forma parte del ETag
+    public String etagCliente(Integer idCliente) {
+        return "\"cliente-" + idCliente + "-" + arranque + "-" + clientes.get() + "\"";
+    }
+
+    public void productosModificados() {
+        TrasCommit.ejecutar(productos::incrementAndGet);
+    }
+
+    public void clientesModificados() {
+        TrasCommit.ejecutar(clientes::incrementAndGet);
+    }
+}
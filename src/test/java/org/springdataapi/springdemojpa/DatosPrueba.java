@@ -0,0 +1,89 @@
+package org.springdataapi.springdemojpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.security.JwtTokenProvider;
+import org.springdataapi.springdemojpa.security.TokenRevocationRegistry;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.LocalDate;
+
+/**
+ * Datos comunes de los tests de integracion: BD vacia, la empleada "Ana" (ana@crm.es) con su rol y tokens JWT.
+ * Se importa con @Import(DatosPrueba.class).
+ */
+@TestComponent
+public class DatosPrueba {
+
+    public static final String EMAIL_ANA = "ana@crm.es";
+
+    private final ClientesRepository clientesRepository;
+    private final EmpleadosRepository empleadosRepository;
+    private final ProductosRepository productosRepository;
+    private final RolesEmpleadoRepository rolesEmpleadoRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public DatosPrueba(ClientesRepository clientesRepository, EmpleadosRepository empleadosRepository,
+                       ProductosRepository productosRepository, RolesEmpleadoRepository rolesEmpleadoRepository,
+                       JwtTokenProvider jwtTokenProvider, TokenRevocationRegistry tokenRevocationRegistry,
+                       EntityManagerFactory entityManagerFactory) {
+        this.clientesRepository = clientesRepository;
+        this.empleadosRepository = empleadosRepository;
+        this.productosRepository = productosRepository;
+        this.rolesEmpleadoRepository = rolesEmpleadoRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Statistics estadisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // En orden de FK: clientes -> empleados -> roles
+    public void vaciar() {
+        clientesRepository.deleteAll();
+        empleadosRepository.deleteAll();
+        productosRepository.deleteAll();
+        rolesEmpleadoRepository.deleteAll();
+    }
+
+    // Ana, activa y con password "x"
+    public Empleados ana(String nombreRol) {
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol(nombreRol);
+        rolesEmpleadoRepository.save(rol);
+
+        Empleados e = new Empleados();
+        e.setNombre("Ana");
+        e.setEmail(EMAIL_ANA);
+        e.setPassword("x");
+        e.setIdRol(rol);
+        e.setEstado("activo");
+        e.setFechaIngreso(LocalDate.of(2024, 1, 15));
+        return empleadosRepository.save(e);
+    }
+
+    public String token(CustomUserDetails user) {
+        return jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    /**
+     * Deja en la cache de TokenRevocationRegistry la version de credenciales del usuario, como tras su primera
+     * peticion: los tests que cuentan sentencias no ven la consulta de version_credenciales de la primera.
+     */
+    public void cachearVersion(CustomUserDetails user) {
+        tokenRevocationRegistry.isCurrent(user.getUserType(), user.getUserId(), user.getCredentialsVersion());
+    }
+}
@@ -0,0 +1,112 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.SpringDemoJpaApplication;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.service.BusquedaTextoService;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busqueda "contiene" de clientes por telefono/email sobre H2 (perfil test) con {@code filas} clientes:
+ * - likeSql: LIKE '%x%' en SQL, recorre la tabla entera
+ * - indice: candidatos del indice de trigramas + comprobacion del LIKE solo sobre esos ids
+ * En el setup se imprime el tiempo de construccion del indice y la memoria que ocupa (aprox.).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class BusquedaTextoBenchmark {
+
+    @Param({"1000000"})
+    public int filas;
+
+    @Param({"telefono", "email"})
+    public String campo;
+
+    private ConfigurableApplicationContext context;
+    private ClientesRepository clientesRepository;
+    private ClienteService clienteService;
+
+    private String telefono;
+    private String email;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringDemoJpaApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        clientesRepository = context.getBean(ClientesRepository.class);
+        clienteService = context.getBean(ClienteService.class);
+        sembrar(context.getBean(JdbcTemplate.class));
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long antes = rt.totalMemory() - rt.freeMemory();
+        long t0 = System.nanoTime();
+        context.getBean(BusquedaTextoService.class).reconstruir();
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+        System.gc();
+        long despues = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("%nIndice construido en %d ms, ~%d MB para %d clientes%n",
+                millis, (despues - antes) / (1024 * 1024), filas);
+
+        telefono = campo.equals("telefono") ? "4567123" : null;
+        email = campo.equals("email") ? "e98765@" : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ClienteResumen> likeSql() {
+        return clientesRepository.buscarClientesFiltrados(telefono, email, null, null, null, 0, Limit.of(51));
+    }
+
+    @Benchmark
+    public Pagina<ClienteResumen> indice() {
+        return clienteService.buscarClientesFiltrados(telefono, email, null, null, null, null, 50);
+    }
+
+    private void sembrar(JdbcTemplate jdbc) {
+        LocalDate hoy = LocalDate.now();
+        List<Object[]> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < filas; i++) {
+            // Telefonos "aleatorios" pero unicos (multiplicador impar modulo 10^8)
+            long tel = (i * 2_654_435_761L) % 100_000_000L;
+            lote.add(new Object[]{"Cliente " + i, "cliente" + i + "@crm.es", String.format("6%08d", tel),
+                    "x", Date.valueOf(hoy)});
+            if (lote.size() == 10_000 || i == filas - 1) {
+                jdbc.batchUpdate("INSERT INTO clientes (nombre, email, telefono, password, fecha_alta) "
+                        + "VALUES (?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BusquedaTextoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,170 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.SpringDemoJpaApplication;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busqueda filtrada de clientes sobre H2 (perfil test) con un dataset sembrado:
+ * - catchAll: la consulta anterior "(:x IS NULL OR ...)", un unico plan para todas las combinaciones
+ * - dinamica: ClientesRepository.buscarClientesFiltrados, con solo los filtros informados
+ * En el setup se imprime el EXPLAIN de H2 de ambas formas para cada combinacion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultasFiltradasBenchmark {
+
+    private static final int CLIENTES = 100_000;
+    private static final int EMPLEADOS = 200;
+    private static final String[] TIPOS = {"particular", "empresa", "autonomo", "publico"};
+
+    private static final String CATCH_ALL = """
+        SELECT c
+        FROM Clientes c
+        WHERE (:telefono IS NULL OR :telefono = '' OR c.telefono LIKE CONCAT('%', :telefono, '%'))
+          AND (:email IS NULL OR :email = '' OR c.email LIKE CONCAT('%', :email, '%'))
+          AND (:tipoCliente IS NULL OR :tipoCliente = '' OR c.tipoCliente = :tipoCliente)
+          AND (:idEmpleado IS NULL OR c.idEmpleadoResponsable.id = :idEmpleado)
+          AND (:fechaDesde IS NULL OR c.fechaAlta >= :fechaDesde)
+          AND c.id > :despuesDe
+        ORDER BY c.id
+    """;
+
+    @Param({"ninguno", "tipo", "empleado", "fecha", "tipo+empleado", "telefono"})
+    public String combinacion;
+
+    private ConfigurableApplicationContext context;
+    private ClientesRepository clientesRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    private String telefono;
+    private String tipoCliente;
+    private Integer idEmpleado;
+    private LocalDate fechaDesde;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringDemoJpaApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        clientesRepository = context.getBean(ClientesRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        sembrar(jdbc);
+
+        telefono = combinacion.contains("telefono") ? "6001234" : null;
+        tipoCliente = combinacion.contains("tipo") ? "publico" : null;
+        idEmpleado = combinacion.contains("empleado") ? 17 : null;
+        fechaDesde = combinacion.contains("fecha") ? LocalDate.now().minusDays(30) : null;
+
+        System.out.println("\n[" + combinacion + "] plan catch-all:\n"
+                + plan(jdbc, false));
+        System.out.println("[" + combinacion + "] plan dinamico:\n"
+                + plan(jdbc, true));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Clientes> catchAll() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return em.createQuery(CATCH_ALL, Clientes.class)
+                    .setParameter("telefono", telefono)
+                    .setParameter("email", null)
+                    .setParameter("tipoCliente", tipoCliente)
+                    .setParameter("idEmpleado", idEmpleado)
+                    .setParameter("fechaDesde", fechaDesde)
+                    .setParameter("despuesDe", 0)
+                    .setMaxResults(51)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<ClienteResumen> dinamica() {
+        return clientesRepository.buscarClientesFiltrados(
+                telefono, null, tipoCliente, idEmpleado, fechaDesde, 0, Limit.of(51));
+    }
+
+    private void sembrar(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO roles_empleado (nombre_rol) VALUES ('empleado')");
+        Integer idRol = jdbc.queryForObject("SELECT MAX(id_rol) FROM roles_empleado", Integer.class);
+
+        List<Object[]> empleados = new ArrayList<>(EMPLEADOS);
+        for (int i = 0; i < EMPLEADOS; i++) {
+            empleados.add(new Object[]{"Empleado " + i, "empleado" + i + "@crm.es", "x", idRol, "activo"});
+        }
+        jdbc.batchUpdate("INSERT INTO empleados (nombre, email, password, id_rol, estado) VALUES (?, ?, ?, ?, ?)",
+                empleados);
+
+        // Tipo "publico" muy poco frecuente: es donde mas se nota poder usar el indice
+        LocalDate hoy = LocalDate.now();
+        List<Object[]> clientes = new ArrayList<>(CLIENTES);
+        for (int i = 0; i < CLIENTES; i++) {
+            String tipo = i % 100 == 0 ? TIPOS[3] : TIPOS[i % 3];
+            clientes.add(new Object[]{"Cliente " + i, "cliente" + i + "@crm.es", String.format("6%08d", i),
+                    tipo, "x", Date.valueOf(hoy.minusDays(i % 3650)), 1 + i % EMPLEADOS});
+        }
+        jdbc.batchUpdate("INSERT INTO clientes (nombre, email, telefono, tipo_cliente, password, fecha_alta, "
+                + "id_empleado_responsable) VALUES (?, ?, ?, ?, ?, ?, ?)", clientes);
+        jdbc.execute("ANALYZE");
+    }
+
+    // SQL equivalente a cada forma, con parametros "?" como los que envia Hibernate, para pedirle el plan a H2
+    private String plan(JdbcTemplate jdbc, boolean dinamico) {
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT * FROM clientes c WHERE c.id_cliente > 0");
+        List<Object> args = new ArrayList<>();
+        if (dinamico) {
+            if (telefono != null) { sql.append(" AND c.telefono LIKE ?"); args.add("%" + telefono + "%"); }
+            if (tipoCliente != null) { sql.append(" AND c.tipo_cliente = ?"); args.add(tipoCliente); }
+            if (idEmpleado != null) { sql.append(" AND c.id_empleado_responsable = ?"); args.add(idEmpleado); }
+            if (fechaDesde != null) { sql.append(" AND c.fecha_alta >= ?"); args.add(Date.valueOf(fechaDesde)); }
+        } else {
+            sql.append(" AND (CAST(? AS VARCHAR) IS NULL OR c.telefono LIKE CONCAT('%', CAST(? AS VARCHAR), '%'))")
+                    .append(" AND (CAST(? AS VARCHAR) IS NULL OR c.tipo_cliente = CAST(? AS VARCHAR))")
+                    .append(" AND (CAST(? AS INT) IS NULL OR c.id_empleado_responsable = CAST(? AS INT))")
+                    .append(" AND (CAST(? AS DATE) IS NULL OR c.fecha_alta >= CAST(? AS DATE))");
+            Object fecha = fechaDesde != null ? Date.valueOf(fechaDesde) : null;
+            for (Object valor : new Object[]{telefono, tipoCliente, idEmpleado, fecha}) {
+                args.add(valor);
+                args.add(valor);
+            }
+        }
+        sql.append(" ORDER BY c.id_cliente LIMIT 51");
+        return jdbc.queryForObject(sql.toString(), String.class, args.toArray());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConsultasFiltradasBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
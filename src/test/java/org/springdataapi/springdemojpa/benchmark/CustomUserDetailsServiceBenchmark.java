@@ -0,0 +1,65 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.security.CustomUserDetailsService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolucion del usuario en el login (loadUserByUsername) sobre H2 sembrado con DatosBenchmark, rotando por
+ * 1000 emails de clientes y empleados:
+ * - activada: UserDetailsCache con hueco para todos (tras el calentamiento, todo aciertos)
+ * - desactivada: max-entries=0, cada llamada es la consulta unica sobre empleados + clientes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomUserDetailsServiceBenchmark {
+
+    private static final int EMPLEADOS = 200;
+    private static final int CLIENTES = 20_000;
+    private static final int EMAILS = 1000;
+
+    @Param({"activada", "desactivada"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailsService userDetailsService;
+    private final String[] emails = new String[EMAILS];
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = DatosBenchmark.arrancar(EMPLEADOS, CLIENTES, 0,
+                "app.security.user-cache.max-entries=" + (cache.equals("activada") ? 10_000 : 0));
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        for (int i = 0; i < EMAILS; i++) {
+            // 1 de cada 10 es empleado; el resto clientes repartidos por toda la tabla
+            emails[i] = i % 10 == 0 ? DatosBenchmark.emailEmpleado(i % EMPLEADOS) : DatosBenchmark.emailCliente(i * 17 % CLIENTES);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails resolver() {
+        return userDetailsService.loadUserByUsername(emails[siguiente++ % EMAILS]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomUserDetailsServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
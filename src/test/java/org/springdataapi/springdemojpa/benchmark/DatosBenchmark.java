@@ -0,0 +1,43 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.springdataapi.springdemojpa.SpringDemoJpaApplication;
+import org.springdataapi.springdemojpa.generador.GeneradorDatos;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Aplicacion completa sobre H2 (perfil test) con el dataset sintetico de GeneradorDatos para los benchmarks
+ * que necesitan BD. Siempre la misma semilla: dos ejecuciones miden sobre los mismos datos.
+ * Emails con {@link #emailEmpleado} (el 0 es ADMIN) y {@link #emailCliente}; todos con password {@link #PASSWORD}
+ */
+final class DatosBenchmark {
+
+    static final long SEMILLA = 42L;
+    static final String PASSWORD = "Password1234";
+    private static final int FILAS_POR_SENTENCIA = 1000;
+
+    private DatosBenchmark() {
+    }
+
+    static ConfigurableApplicationContext arrancar(int empleados, int clientes, int productos, String... propiedades) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringDemoJpaApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .properties(propiedades)
+                .run();
+        // Un solo hash para todos (coste BCrypt del perfil test)
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        context.getBean(GeneradorDatos.class).generar(new GeneradorDatos.Configuracion(SEMILLA, empleados, clientes,
+                productos, FILAS_POR_SENTENCIA, false, hash));
+        return context;
+    }
+
+    static String emailEmpleado(int i) {
+        return GeneradorDatos.emailEmpleado(SEMILLA, i);
+    }
+
+    static String emailCliente(int i) {
+        return GeneradorDatos.emailCliente(SEMILLA, i);
+    }
+}
@@ -0,0 +1,131 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.service.ExportacionService;
+import org.springdataapi.springdemojpa.service.FormatoFichero;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Exportacion de {@code filas} clientes (dataset de DatosBenchmark) sobre H2 a una salida que solo cuenta bytes:
+ * - csv / ndjson: ExportacionService, en streaming desde un cursor
+ * - listaCompleta: lo de antes, findAll() de entidades y un unico JSON con toda la lista
+ * Cada invocacion imprime filas/segundo y el pico de heap retenido (old gen) durante la exportacion: con
+ * streaming no depende del numero de filas, con la lista crece con la tabla. El H2 en memoria ya ocupa su
+ * parte del heap antes de empezar; se descuenta como base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx3g", "-XX:+UseG1GC"})
+public class ExportacionBenchmark {
+
+    private static final int EMPLEADOS = 200;
+
+    @Param({"10000", "1000000"})
+    public int filas;
+
+    private ConfigurableApplicationContext context;
+    private ExportacionService exportacionService;
+    private ClientesRepository clientesRepository;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Resultados leidos por tramos en lugar de materializados (como useCursorFetch en MySQL)
+        context = DatosBenchmark.arrancar(EMPLEADOS, filas, 0,
+                "spring.datasource.url=jdbc:h2:mem:crm_xtart;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                        + "DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1");
+        exportacionService = context.getBean(ExportacionService.class);
+        clientesRepository = context.getBean(ClientesRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long csv() {
+        return medir("csv", salida -> exportacionService.exportarClientes(salida, FormatoFichero.CSV));
+    }
+
+    @Benchmark
+    public long ndjson() {
+        return medir("ndjson", salida -> exportacionService.exportarClientes(salida, FormatoFichero.NDJSON));
+    }
+
+    @Benchmark
+    public long listaCompleta() {
+        return medir("lista", salida -> {
+            List<Clientes> todos = clientesRepository.findAll();
+            objectMapper.writeValue(salida, todos);
+            return todos.size();
+        });
+    }
+
+    private interface Exportacion {
+        long escribir(OutputStream salida) throws Exception;
+    }
+
+    private static long medir(String que, Exportacion exportacion) {
+        List<MemoryPoolMXBean> oldGen = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP && p.getName().contains("Old Gen")).toList();
+        LongSupplier retenido = () -> oldGen.stream().mapToLong(p -> p.getUsage().getUsed()).sum();
+        System.gc();
+        long base = retenido.getAsLong();
+        oldGen.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        Contador salida = new Contador();
+        long t0 = System.nanoTime();
+        long n;
+        try {
+            n = exportacion.escribir(salida);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        long nanos = System.nanoTime() - t0;
+        long pico = oldGen.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+        System.out.printf("%n%s: %d filas, %d MB en %d ms = %.0f filas/s, pico de heap retenido +%d MB%n",
+                que, n, salida.bytes / (1024 * 1024), nanos / 1_000_000, n * 1e9 / nanos,
+                Math.max(0, pico - base) / (1024 * 1024));
+        return salida.bytes;
+    }
+
+    // Descarta lo escrito: se mide la lectura + serializacion, no la red
+    private static final class Contador extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExportacionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
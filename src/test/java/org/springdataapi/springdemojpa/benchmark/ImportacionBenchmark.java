@@ -0,0 +1,151 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.SpringDemoJpaApplication;
+import org.springdataapi.springdemojpa.models.ProductosDTO;
+import org.springdataapi.springdemojpa.models.ResultadoImportacion;
+import org.springdataapi.springdemojpa.service.FormatoFichero;
+import org.springdataapi.springdemojpa.service.ImportacionService;
+import org.springdataapi.springdemojpa.service.ProductosService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Alta de {@value #FILAS} clientes / productos sobre H2 (perfil test, BCrypt coste 4):
+ * - importarClientes / importarProductos: ImportacionService (lotes de 1000, batch JDBC, validacion en paralelo)
+ * - crearProductosUnoPorUno: la alternativa de antes, ProductosService.crear fila a fila (una sola medida: es lento)
+ * En clientes manda BCrypt: password=texto hashea cada fila (en paralelo, tantos hilos como CPUs);
+ * password=bcrypt trae el hash hecho (migracion desde otro sistema) y mide solo la importacion.
+ * El resultado sale en us/fila; cada invocacion imprime ademas las filas/segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(ImportacionBenchmark.FILAS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class ImportacionBenchmark {
+
+    static final int FILAS = 100_000;
+
+    @Param({"csv", "ndjson"})
+    public String formato;
+
+    @Param({"texto", "bcrypt"})
+    public String password;
+
+    private ConfigurableApplicationContext context;
+    private ImportacionService importacionService;
+    private ProductosService productosService;
+    private JdbcTemplate jdbcTemplate;
+
+    private byte[] clientes;
+    private byte[] productos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringDemoJpaApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        importacionService = context.getBean(ImportacionService.class);
+        productosService = context.getBean(ProductosService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        String pw = password.equals("bcrypt") ? new BCryptPasswordEncoder(4).encode("1234") : "1234";
+        boolean csv = formato.equals("csv");
+        StringBuilder c = new StringBuilder(csv ? "nombre,email,telefono,password,tipo_cliente\n" : "");
+        StringBuilder p = new StringBuilder(csv ? "nombre,descripcion,categoria,precio\n" : "");
+        for (int i = 0; i < FILAS; i++) {
+            String telefono = String.format("6%08d", i);
+            String tipo = i % 3 == 0 ? "EMPRESA" : "PARTICULAR";
+            double precio = (i % 1000) + 0.99;
+            if (csv) {
+                c.append("Cliente ").append(i).append(",cliente").append(i).append("@crm.es,")
+                        .append(telefono).append(',').append(pw).append(',').append(tipo).append('\n');
+                p.append("Producto ").append(i).append(",\"Descripcion, del producto ").append(i)
+                        .append("\",Categoria ").append(i % 20).append(',').append(precio).append('\n');
+            } else {
+                c.append("{\"nombre\":\"Cliente ").append(i).append("\",\"email\":\"cliente").append(i)
+                        .append("@crm.es\",\"telefono\":\"").append(telefono).append("\",\"password\":\"")
+                        .append(pw).append("\",\"tipo_cliente\":\"").append(tipo).append("\"}\n");
+                p.append("{\"nombre\":\"Producto ").append(i).append("\",\"descripcion\":\"Descripcion ")
+                        .append(i).append("\",\"categoria\":\"Categoria ").append(i % 20)
+                        .append("\",\"precio\":").append(precio).append("}\n");
+            }
+        }
+        clientes = c.toString().getBytes(StandardCharsets.UTF_8);
+        productos = p.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Cada invocacion parte de tablas vacias (fuera de la medida)
+    @Setup(Level.Invocation)
+    public void vaciarTablas() {
+        jdbcTemplate.update("DELETE FROM clientes");
+        jdbcTemplate.update("DELETE FROM productos");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResultadoImportacion importarClientes() {
+        return medir("clientes", () -> importacionService.importarClientes(
+                new ByteArrayInputStream(clientes), FormatoFichero.desde(formato)));
+    }
+
+    @Benchmark
+    public ResultadoImportacion importarProductos() {
+        return medir("productos", () -> importacionService.importarProductos(
+                new ByteArrayInputStream(productos), FormatoFichero.desde(formato)));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public int crearProductosUnoPorUno() {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < FILAS; i++) {
+            ProductosDTO dto = new ProductosDTO();
+            dto.setNombre("Producto " + i);
+            dto.setDescripcion("Descripcion " + i);
+            dto.setCategoria("Categoria " + (i % 20));
+            dto.setPrecio((i % 1000) + 0.99);
+            productosService.crear(dto);
+        }
+        imprimir("productos uno a uno", FILAS, System.nanoTime() - t0);
+        return FILAS;
+    }
+
+    private static ResultadoImportacion medir(String que, Supplier<ResultadoImportacion> importar) {
+        long t0 = System.nanoTime();
+        ResultadoImportacion r = importar.get();
+        imprimir(que, r.importadas(), System.nanoTime() - t0);
+        if (r.importadas() != FILAS) throw new IllegalStateException("Importadas " + r.importadas() + ": " + r.errores());
+        return r;
+    }
+
+    private static void imprimir(String que, int filas, long nanos) {
+        System.out.printf("%n%d %s en %d ms = %.0f filas/s%n", filas, que, nanos / 1_000_000,
+                filas * 1e9 / nanos);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ImportacionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.security.JwtAuthenticationFilter;
+import org.springdataapi.springdemojpa.security.JwtTokenProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter completo para una peticion a la API: leer la cabecera, verificar el token (desde la
+ * cache de tokens verificados tras la primera vez), reconstruir el usuario desde los claims y dejarlo en el
+ * SecurityContext. Sin token y con un token de firma incorrecta como referencia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "9a4f2c8d3b7a1e6f45c8a0b3f267d8b1d4e6f3c8a9d2b5f8e3a9c8b5f6e4d1a2";
+
+    @Param({"valido", "sin-token", "firma-incorrecta"})
+    public String token;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setup() {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 3_600_000L, 10_000, JwtTokenProviderBenchmark.registroSinBd());
+        filter = new JwtAuthenticationFilter(provider);
+
+        CustomUserDetails user = new CustomUserDetails("empleado@crm.es", null, "EMPLEADO", 7, "EMPLEADO");
+        String jwt = provider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        request = new MockHttpServletRequest("GET", "/api/productos");
+        request.setRemoteAddr("10.0.0.1");
+        switch (token) {
+            case "valido" -> request.addHeader("Authorization", "Bearer " + jwt);
+            case "firma-incorrecta" -> request.addHeader("Authorization",
+                    "Bearer " + jwt.substring(0, jwt.length() - 4) + "AAAA");
+            default -> { }
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication filtrar() throws Exception {
+        filter.doFilter(request, response, chain);
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return autenticacion;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
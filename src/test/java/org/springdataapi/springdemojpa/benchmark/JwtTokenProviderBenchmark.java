@@ -0,0 +1,107 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.models.UsuarioAuth;
+import org.springdataapi.springdemojpa.repository.UsuariosAuthRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.security.JwtTokenProvider;
+import org.springdataapi.springdemojpa.security.TokenRevocationRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de generar un JWT (login) y de verificarlo (cada peticion a la API):
+ * - generar: claims + firma HMAC de un token nuevo
+ * - coldParse: como lo hacia antes JwtTokenProvider (clave HMAC y parser nuevos en cada llamada)
+ * - warmParse: parser reutilizado, sin cache
+ * - cacheHit: mismo token repetido servido desde la cache de tokens verificados
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "9a4f2c8d3b7a1e6f45c8a0b3f267d8b1d4e6f3c8a9d2b5f8e3a9c8b5f6e4d1a2";
+    private static final long EXPIRATION_MS = 3_600_000L;
+
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private UsernamePasswordAuthenticationToken autenticacion;
+    private String token;
+
+    @Setup
+    public void setup() {
+        TokenRevocationRegistry registry = registroSinBd();
+        uncachedProvider = new JwtTokenProvider(SECRET, EXPIRATION_MS, 0, registry);
+        cachedProvider = new JwtTokenProvider(SECRET, EXPIRATION_MS, 10_000, registry);
+
+        CustomUserDetails user = new CustomUserDetails("cliente@crm.es", null, "CLIENTE", 42, "CLIENTE");
+        autenticacion = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = cachedProvider.generateToken(autenticacion);
+        cachedProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public String generar() {
+        return cachedProvider.generateToken(autenticacion);
+    }
+
+    @Benchmark
+    public Claims coldParse() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims warmParse() {
+        return uncachedProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims cacheHit() {
+        return cachedProvider.parseClaims(token);
+    }
+
+    // Todos los usuarios existen con version 0 (la de un CustomUserDetails sin version): mide la firma, no la BD
+    static TokenRevocationRegistry registroSinBd() {
+        UsuariosAuthRepository repositorio = new UsuariosAuthRepository() {
+            @Override
+            public List<UsuarioAuth> buscarPorEmail(String email) {
+                return List.of();
+            }
+
+            @Override
+            public Optional<Integer> versionCredencialesEmpleado(Integer id) {
+                return Optional.of(0);
+            }
+
+            @Override
+            public Optional<Integer> versionCredencialesCliente(Integer id) {
+                return Optional.of(0);
+            }
+        };
+        return new TokenRevocationRegistry(repositorio, 10_000, 30);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
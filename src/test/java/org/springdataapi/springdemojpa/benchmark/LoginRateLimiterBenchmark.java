@@ -0,0 +1,97 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.security.LoginRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoginRateLimiter con 8 hilos haciendo logins a la vez, con la secuencia de AuthController: comprobar
+ * email:ip e ip, y registrar el resultado en las dos claves (1 de cada 10 intentos falla).
+ * - distintas: cada hilo con sus propios usuarios e IPs (el caso normal, reparto por franjas de locks)
+ * - misma-ip: todos detras de la misma IP (NAT de oficina o un ataque), todos compiten por la misma franja;
+ *   con los fallos acumulados la IP acaba bloqueada y se mide sobre todo isBlocked, como pasaria en produccion
+ * rafaga: un fallo por intento con claves siempre nuevas para la tabla (8 x 65536 claves sobre 65536 huecos),
+ * como un ataque con emails aleatorios. Con -prof gc (main lo activa) gc.alloc.rate.norm debe quedar en ~0 B/op:
+ * la tabla es de tamaño fijo y las claves estan creadas de antemano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoginRateLimiterBenchmark {
+
+    private static final int USUARIOS_POR_HILO = 1024;
+    private static final int CLAVES_RAFAGA_POR_HILO = 65_536;
+
+    @Param({"distintas", "misma-ip"})
+    public String claves;
+
+    private LoginRateLimiter limiter;
+
+    @State(Scope.Thread)
+    public static class Hilo {
+        String[] emails;
+        String[] ips;
+        String[] rafaga;
+        int siguiente;
+
+        @Setup
+        public void setup(LoginRateLimiterBenchmark b) {
+            long hilo = Thread.currentThread().getId();
+            emails = new String[USUARIOS_POR_HILO];
+            ips = new String[USUARIOS_POR_HILO];
+            for (int i = 0; i < USUARIOS_POR_HILO; i++) {
+                String ip = b.claves.equals("misma-ip") ? "10.0.0.1" : "10." + hilo % 256 + "." + (i >> 8) + "." + (i & 255);
+                ips[i] = ip;
+                emails[i] = "usuario" + hilo + "-" + i + "@crm.es:" + ip;
+            }
+            rafaga = new String[CLAVES_RAFAGA_POR_HILO];
+            for (int i = 0; i < CLAVES_RAFAGA_POR_HILO; i++) {
+                rafaga[i] = "random" + hilo + "-" + i + "@x.es:" + ips[i & (USUARIOS_POR_HILO - 1)];
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        limiter = new LoginRateLimiter(65_536);
+    }
+
+    @Benchmark
+    public boolean login(Hilo h) {
+        int i = h.siguiente++ & (USUARIOS_POR_HILO - 1);
+        String key = h.emails[i];
+        String ip = h.ips[i];
+        if (limiter.isBlocked(key) || limiter.isBlocked(ip)) {
+            return false;
+        }
+        if (h.siguiente % 10 == 0) {
+            limiter.registerFailedAttempt(key);
+            limiter.registerFailedAttempt(ip);
+            return false;
+        }
+        limiter.registerSuccessfulLogin(key);
+        limiter.registerSuccessfulLogin(ip);
+        return true;
+    }
+
+    @Benchmark
+    public void rafaga(Hilo h) {
+        limiter.registerFailedAttempt(h.rafaga[h.siguiente++ & (CLAVES_RAFAGA_POR_HILO - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginRateLimiterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.security.PasswordHashingBusyException;
+import org.springdataapi.springdemojpa.security.PasswordHashingService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins por segundo (verificacion BCrypt a traves del pool acotado) segun el coste configurado.
+ * 16 hilos simulan peticiones concurrentes de Tomcat contra un pool de un hilo por CPU;
+ * los rechazos por saturacion (503) se cuentan aparte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class PasswordHashingBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private PasswordHashingService service;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        service = new PasswordHashingService(strength, Runtime.getRuntime().availableProcessors(), 64, 10_000);
+        hash = service.encode("1234");
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Resultados {
+        public long rechazados;
+    }
+
+    @Benchmark
+    public boolean login(Resultados resultados) {
+        try {
+            return service.matches("1234", hash);
+        } catch (PasswordHashingBusyException e) {
+            resultados.rechazados++;
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PasswordHashingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
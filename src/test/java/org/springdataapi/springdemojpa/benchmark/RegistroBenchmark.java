@@ -0,0 +1,111 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.SpringDemoJpaApplication;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.UnicidadContactos;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Altas de clientes (ClienteService.crear) por segundo sobre H2 (perfil test, BCrypt coste 4) con
+ * {@value #EXISTENTES} clientes ya registrados:
+ * - bloom=false: existsByEmail + existsByTelefono en BD antes de cada INSERT (lo de antes)
+ * - bloom=true: los filtros de UnicidadContactos descartan los dos exists para un email/telefono nuevo
+ * Cada iteracion imprime las sentencias SQL por alta. Con H2 en memoria los exists cuestan poco;
+ * contra MySQL cada uno es un viaje de red mas. Para altas concurrentes: -t N.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class RegistroBenchmark {
+
+    static final int EXISTENTES = 200_000;
+
+    @Param({"false", "true"})
+    public boolean bloom;
+
+    private ConfigurableApplicationContext context;
+    private ClienteService clienteService;
+    private Statistics statistics;
+    private final AtomicInteger siguiente = new AtomicInteger(EXISTENTES);
+    private long altasAlEmpezar;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringDemoJpaApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        clienteService = context.getBean(ClienteService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        sembrar(context.getBean(JdbcTemplate.class));
+        if (bloom) context.getBean(UnicidadContactos.class).reconstruir();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void empezarIteracion() {
+        statistics.clear();
+        altasAlEmpezar = siguiente.get();
+    }
+
+    @TearDown(Level.Iteration)
+    public void terminarIteracion() {
+        long altas = siguiente.get() - altasAlEmpezar;
+        System.out.printf("%n%d altas, %.2f sentencias SQL por alta%n",
+                altas, (double) statistics.getPrepareStatementCount() / Math.max(1, altas));
+    }
+
+    @Benchmark
+    public void crear() {
+        int i = siguiente.getAndIncrement();
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre("Cliente " + i);
+        dto.setEmail("cliente" + i + "@crm.es");
+        dto.setTelefono(String.format("6%08d", i));
+        dto.setPassword("1234");
+        clienteService.crear(dto);
+    }
+
+    private static void sembrar(JdbcTemplate jdbc) {
+        Date hoy = Date.valueOf(LocalDate.now());
+        List<Object[]> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < EXISTENTES; i++) {
+            lote.add(new Object[]{"Cliente " + i, "cliente" + i + "@crm.es", String.format("6%08d", i), "x", hoy});
+            if (lote.size() == 10_000) {
+                jdbc.batchUpdate("INSERT INTO clientes (nombre, email, telefono, password, fecha_alta) "
+                        + "VALUES (?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RegistroBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
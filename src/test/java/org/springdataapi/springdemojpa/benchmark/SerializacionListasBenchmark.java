@@ -0,0 +1,83 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.EmpleadosService;
+import org.springdataapi.springdemojpa.service.ProductosService;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializacion con el ObjectMapper de la aplicacion de una pagina maxima (500) de cada listado, cargada
+ * de H2 sembrado con DatosBenchmark:
+ * - entidades: Clientes/Empleados/Productos con sus asociaciones (lo que devuelven findAll y los GET por id)
+ * - resumen: las proyecciones de los listados paginados de la API (ClienteResumen, EmpleadoResumen...)
+ * Solo se mide escribir el JSON; la consulta se hace una vez en el setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionListasBenchmark {
+
+    @Param({"clientes", "empleados", "productos"})
+    public String lista;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private List<?> entidades;
+    private List<?> resumen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = DatosBenchmark.arrancar(Pagina.LIMITE_MAXIMO, 5_000, 1_000);
+        objectMapper = context.getBean(ObjectMapper.class);
+        switch (lista) {
+            case "clientes" -> {
+                ClienteService s = context.getBean(ClienteService.class);
+                entidades = s.findAll().subList(0, Pagina.LIMITE_MAXIMO);
+                resumen = s.listarPagina(null, Pagina.LIMITE_MAXIMO).contenido();
+            }
+            case "empleados" -> {
+                EmpleadosService s = context.getBean(EmpleadosService.class);
+                entidades = s.findAll().subList(0, Pagina.LIMITE_MAXIMO);
+                resumen = s.listarPagina(null, Pagina.LIMITE_MAXIMO).contenido();
+            }
+            default -> {
+                ProductosService s = context.getBean(ProductosService.class);
+                entidades = s.findAll().subList(0, Pagina.LIMITE_MAXIMO);
+                resumen = s.listarPagina(null, Pagina.LIMITE_MAXIMO).contenido();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entidades() {
+        return objectMapper.writeValueAsBytes(entidades);
+    }
+
+    @Benchmark
+    public byte[] resumen() {
+        return objectMapper.writeValueAsBytes(resumen);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializacionListasBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+package org.springdataapi.springdemojpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.service.ValidacionCampos;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validacion + normalizacion de las filas de un alta o una importacion:
+ * - anterior: lo que hacian ClienteService/EmpleadosService (replaceAll/matches con regex por llamada,
+ *   trim().toUpperCase() y una excepcion por cada valor no valido)
+ * - compartida: ValidacionCampos (recorrido por caracteres, tablas de alias, error como valor devuelto)
+ * Las entradas mezclan telefonos limpios, con espacios y no validos. Con -prof gc se ve la memoria por operacion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private static final String[] TELEFONOS = {
+            "600123123", "611 222 333", " 622333444 ", "633444555", "6x4455566", "64455566", "655666777", ""};
+    private static final String[] TIPOS = {"PARTICULAR", " empresa", "Persona", "EMPRESA", "otro", "particular"};
+    private static final String[] ESTADOS = {"activo", "Sí", "no", " inactivo", "1", "tal vez"};
+
+    @Benchmark
+    public void telefonoAnterior(Blackhole bh) {
+        for (String t : TELEFONOS) {
+            try {
+                bh.consume(telefonoAnterior(t));
+            } catch (RuntimeException e) {
+                bh.consume(e.getMessage());
+            }
+        }
+    }
+
+    @Benchmark
+    public void telefonoCompartida(Blackhole bh) {
+        for (String t : TELEFONOS) {
+            String error = ValidacionCampos.errorTelefono(t);
+            bh.consume(error != null ? error : ValidacionCampos.normalizarTelefono(t));
+        }
+    }
+
+    @Benchmark
+    public void aliasAnterior(Blackhole bh) {
+        for (String t : TIPOS) {
+            try {
+                bh.consume(tipoClienteAnterior(t));
+            } catch (RuntimeException e) {
+                bh.consume(e.getMessage());
+            }
+        }
+        for (String e : ESTADOS) {
+            try {
+                bh.consume(estadoAnterior(e));
+            } catch (RuntimeException ex) {
+                bh.consume(ex.getMessage());
+            }
+        }
+    }
+
+    @Benchmark
+    public void aliasCompartida(Blackhole bh) {
+        for (String t : TIPOS) {
+            String tipo = ValidacionCampos.normalizarTipoCliente(t);
+            bh.consume(tipo != null ? tipo : ValidacionCampos.tipoClienteInvalido(t));
+        }
+        for (String e : ESTADOS) {
+            bh.consume(ValidacionCampos.normalizarEstado(e));
+        }
+    }
+
+    // Una fila valida de importacion de clientes
+    @Benchmark
+    public Object dtoAnterior() {
+        ClientesDTO dto = dto();
+        validarCamposAnterior(dto);
+        return dto;
+    }
+
+    @Benchmark
+    public Object dtoCompartida() {
+        ClientesDTO dto = dto();
+        String error = ValidacionCampos.cliente(dto);
+        return error != null ? error : dto;
+    }
+
+    private static ClientesDTO dto() {
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre("Luis Perez");
+        dto.setPassword("1234");
+        dto.setEmail("luis@crm.es");
+        dto.setTelefono("611 222 333");
+        dto.setTipo_cliente("empresa");
+        return dto;
+    }
+
+    // ==========================
+    // Implementacion anterior (copiada de los servicios)
+    // ==========================
+
+    private static void validarCamposAnterior(ClientesDTO dto) {
+        if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) throw new RuntimeException("Nombre obligatorio");
+        if (dto.getPassword() == null || dto.getPassword().trim().isEmpty()) throw new RuntimeException("Password");
+        if (dto.getEmail() == null || dto.getEmail().trim().isEmpty() || !dto.getEmail().contains("@")) {
+            throw new RuntimeException("Email obligatorio");
+        }
+        String tel = telefonoAnterior(dto.getTelefono());
+        if (tel == null) throw new RuntimeException("Telefono");
+        dto.setTelefono(tel);
+        if (dto.getTipo_cliente() != null && !dto.getTipo_cliente().trim().isEmpty()) {
+            dto.setTipo_cliente(tipoClienteAnterior(dto.getTipo_cliente()));
+        }
+    }
+
+    private static String telefonoAnterior(String telefono) {
+        if (telefono == null) return null;
+        String t = telefono.trim();
+        if (t.isBlank()) return null;
+        t = t.replaceAll("\\s+", "");
+        if (!t.matches("\\d+")) throw new RuntimeException("El teléfono solo puede contener números (0-9)");
+        if (t.length() != 9) throw new IllegalArgumentException("Pero que numero es ese payaso, ponme uno de verdad");
+        return t;
+    }
+
+    private static String tipoClienteAnterior(String tipoCliente) {
+        String tipo = tipoCliente.trim().toUpperCase();
+        if (tipo.equals("PERSONA") || tipo.equals("PARTICULAR")) return "PARTICULAR";
+        if (tipo.equals("EMPRESA")) return "EMPRESA";
+        throw new IllegalArgumentException("Tipo de cliente inválido: " + tipoCliente + ". Valores válidos: PARTICULAR, EMPRESA");
+    }
+
+    private static String estadoAnterior(String estado) {
+        if (estado == null || estado.isBlank()) return "activo";
+        return switch (estado.trim().toLowerCase()) {
+            case "activo", "si", "sí", "true", "1" -> "activo";
+            case "inactivo", "no", "false", "0" -> "inactivo";
+            default -> throw new RuntimeException("Estado inválido (use Sí/No o activo/inactivo)");
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidacionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
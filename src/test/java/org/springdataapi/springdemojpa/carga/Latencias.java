@@ -0,0 +1,83 @@
+package org.springdataapi.springdemojpa.carga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencias y errores por endpoint ("GET /api/clientes/mi-perfil"). Cada usuario virtual escribe en la suya
+ * (sin sincronizar) y al terminar se suman. Se guardan todas las muestras: percentiles exactos, y con
+ * unas decenas de miles de peticiones por segundo caben de sobra en memoria.
+ */
+final class Latencias {
+
+    static final String TOTAL = "TOTAL";
+
+    private final Map<String, Serie> series = new LinkedHashMap<>();
+
+    void registrar(String endpoint, long nanos, boolean error) {
+        series.computeIfAbsent(endpoint, e -> new Serie()).anadir(nanos, error);
+    }
+
+    void sumar(Latencias otra) {
+        otra.series.forEach((endpoint, serie) -> series.computeIfAbsent(endpoint, e -> new Serie()).anadir(serie));
+    }
+
+    // Un resumen por endpoint (por nombre) y el TOTAL al final; segundos = duracion de la medicion
+    List<Resumen> resumen(double segundos) {
+        List<Resumen> resumen = new ArrayList<>();
+        Serie total = new Serie();
+        series.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> {
+                    resumen.add(e.getValue().resumen(e.getKey(), segundos));
+                    total.anadir(e.getValue());
+                });
+        resumen.add(total.resumen(TOTAL, segundos));
+        return resumen;
+    }
+
+    record Resumen(String endpoint, long peticiones, long errores, double porSegundo,
+                   double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        double tasaErrores() {
+            return peticiones == 0 ? 0 : (double) errores / peticiones;
+        }
+    }
+
+    private static final class Serie {
+        private long[] nanos = new long[1024];
+        private int n;
+        private long errores;
+
+        void anadir(long muestra, boolean error) {
+            if (n == nanos.length) nanos = Arrays.copyOf(nanos, n * 2);
+            nanos[n++] = muestra;
+            if (error) errores++;
+        }
+
+        void anadir(Serie otra) {
+            if (n + otra.n > nanos.length) nanos = Arrays.copyOf(nanos, Math.max(n + otra.n, nanos.length * 2));
+            System.arraycopy(otra.nanos, 0, nanos, n, otra.n);
+            n += otra.n;
+            errores += otra.errores;
+        }
+
+        Resumen resumen(String endpoint, double segundos) {
+            long[] ordenadas = Arrays.copyOf(nanos, n);
+            Arrays.sort(ordenadas);
+            return new Resumen(endpoint, n, errores, segundos > 0 ? n / segundos : 0,
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999),
+                    n == 0 ? 0 : ordenadas[n - 1] / 1e6);
+        }
+
+        // Rango mas cercano: el menor valor con al menos p * n muestras por debajo o iguales
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) return 0;
+            int i = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(0, i)] / 1e6;
+        }
+    }
+}
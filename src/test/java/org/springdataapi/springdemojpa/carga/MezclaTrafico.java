@@ -0,0 +1,140 @@
+package org.springdataapi.springdemojpa.carga;
+
+import org.springdataapi.springdemojpa.generador.GeneradorDatos;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trafico de la prueba de carga: operaciones con su peso (sobre 100) y como se construye cada peticion.
+ * Parecido a un dia normal: sobre todo lecturas con JWT (catalogo, perfil del cliente, consultas de los
+ * comerciales), algun login y escrituras de clientes (altas y PATCH).
+ * Los usuarios salen del dataset de GeneradorDatos: los emails y la password se conocen sin ir a la BD.
+ */
+final class MezclaTrafico {
+
+    static final String LOGIN = "POST /api/auth/login";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // Datos del dataset que necesitan las peticiones
+    record Dataset(long semilla, String password, int empleados, int clientes, int primerIdCliente,
+                   int primerIdEmpleado, List<String> categorias) {
+    }
+
+    // Tokens de un usuario virtual: uno de cliente (mi-perfil, catalogo) y uno de comercial (consultas, escrituras)
+    record Sesion(int usuario, int usuarios, String tokenCliente, String tokenEmpleado) {
+    }
+
+    interface Peticion {
+        HttpRequest crear(Sesion sesion, Random random);
+    }
+
+    record Operacion(String endpoint, int peso, Peticion peticion) {
+    }
+
+    private final URI base;
+    private final ObjectMapper objectMapper;
+    private final Dataset dataset;
+    private final List<Operacion> operaciones;
+    private final int pesoTotal;
+    // Altas nuevas: indices a continuacion de los del dataset, emails y telefonos que aun no existen
+    private final AtomicInteger altas = new AtomicInteger();
+
+    MezclaTrafico(URI base, ObjectMapper objectMapper, Dataset dataset) {
+        this.base = base;
+        this.objectMapper = objectMapper;
+        this.dataset = dataset;
+        this.operaciones = List.of(
+                new Operacion(LOGIN, 5, (s, r) -> login(r.nextInt(5) == 0
+                        ? emailComercial(r.nextInt(dataset.empleados())) : emailCliente(r.nextInt(dataset.clientes())))),
+                new Operacion("GET /api/productos", 25, (s, r) -> get("/api/productos?limite=50", s.tokenCliente())),
+                new Operacion("GET /api/clientes/mi-perfil", 20, (s, r) -> get("/api/clientes/mi-perfil", s.tokenCliente())),
+                new Operacion("GET /api/consultas/clientes", 12, (s, r) -> get(r.nextBoolean()
+                        ? "/api/consultas/clientes?tipoCliente=EMPRESA&limite=50&idEmpleado="
+                          + (dataset.primerIdEmpleado() + r.nextInt(dataset.empleados()))
+                        : "/api/consultas/clientes?limite=20&email="
+                          + codificar(emailCliente(r.nextInt(dataset.clientes())).substring(0, 6)),
+                        s.tokenEmpleado())),
+                new Operacion("GET /api/consultas/productos", 10, (s, r) -> get("/api/consultas/productos?activo=true&limite=50"
+                        + "&categoria=" + codificar(dataset.categorias().get(r.nextInt(dataset.categorias().size()))),
+                        s.tokenEmpleado())),
+                new Operacion("GET /api/consultas/empleados", 5, (s, r) -> get("/api/consultas/empleados?estado=activo&limite=50",
+                        s.tokenEmpleado())),
+                new Operacion("POST /api/clientes", 8, (s, r) -> alta(s)),
+                new Operacion("PATCH /api/clientes/{id}", 15, this::cambio));
+        this.pesoTotal = operaciones.stream().mapToInt(Operacion::peso).sum();
+    }
+
+    // Operacion al azar segun los pesos
+    Operacion elegir(Random random) {
+        int x = random.nextInt(pesoTotal);
+        for (Operacion op : operaciones) {
+            x -= op.peso();
+            if (x < 0) return op;
+        }
+        throw new IllegalStateException("Pesos inconsistentes");
+    }
+
+    HttpRequest login(String email) {
+        return post("/api/auth/login", null, Map.of("email", email, "password", dataset.password()));
+    }
+
+    String emailCliente(int i) {
+        return GeneradorDatos.emailCliente(dataset.semilla(), i);
+    }
+
+    // Empleado 0 es ADMIN: los comerciales empiezan en el 1
+    String emailComercial(int i) {
+        return GeneradorDatos.emailEmpleado(dataset.semilla(), 1 + i % (dataset.empleados() - 1));
+    }
+
+    private HttpRequest alta(Sesion sesion) {
+        int i = dataset.clientes() + altas.getAndIncrement();
+        return post("/api/clientes", sesion.tokenEmpleado(), Map.of(
+                "nombre", "Alta carga " + i,
+                "email", GeneradorDatos.emailCliente(dataset.semilla(), i),
+                "telefono", GeneradorDatos.telefonoCliente(dataset.semilla(), i),
+                "password", dataset.password(),
+                "tipo_cliente", i % 5 == 0 ? "EMPRESA" : "PARTICULAR"));
+    }
+
+    // Cada usuario virtual solo cambia "sus" clientes (id con su mismo resto): sin conflictos de version
+    // provocados por la propia prueba
+    private HttpRequest cambio(Sesion sesion, Random random) {
+        int i = sesion.usuario() + sesion.usuarios() * random.nextInt(Math.max(1, dataset.clientes() / sesion.usuarios()));
+        byte[] cuerpo = objectMapper.writeValueAsBytes(Map.of("nombre", "Cliente revisado " + random.nextInt(1000)));
+        return peticion("/api/clientes/" + (dataset.primerIdCliente() + i), sesion.tokenEmpleado())
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(cuerpo))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+
+    private HttpRequest get(String ruta, String token) {
+        return peticion(ruta, token).GET().build();
+    }
+
+    private HttpRequest post(String ruta, String token, Map<String, ?> cuerpo) {
+        return peticion(ruta, token)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(cuerpo)))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+
+    private HttpRequest.Builder peticion(String ruta, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(base.resolve(ruta)).timeout(TIMEOUT);
+        return token == null ? b : b.header("Authorization", "Bearer " + token);
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package org.springdataapi.springdemojpa.carga;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Presupuesto de latencia y errores que tiene que cumplir cada endpoint para dar la prueba por buena.
+ * Limites generales (p99, p999 en ms y fraccion de errores) y excepciones por endpoint con el formato
+ * {@code "POST /api/auth/login=p99:800,p999:2000;GET /api/productos=p99:40"}. El TOTAL solo se comprueba
+ * contra la tasa de errores: sus percentiles mezclan endpoints con presupuestos distintos.
+ */
+final class Presupuesto {
+
+    private final double p99Ms;
+    private final double p999Ms;
+    private final double maxErrores;
+    private final Map<String, Map<String, Double>> porEndpoint;
+
+    Presupuesto(double p99Ms, double p999Ms, double maxErrores, String porEndpoint) {
+        this.p99Ms = p99Ms;
+        this.p999Ms = p999Ms;
+        this.maxErrores = maxErrores;
+        this.porEndpoint = parsear(porEndpoint);
+    }
+
+    // Un mensaje por limite superado; vacia si todo cumple
+    List<String> incumplimientos(List<Latencias.Resumen> resumen) {
+        List<String> fallos = new ArrayList<>();
+        for (Latencias.Resumen r : resumen) {
+            if (r.tasaErrores() > maxErrores) {
+                fallos.add(String.format(Locale.ROOT, "%s: %.2f%% de errores (maximo %.2f%%)", r.endpoint(),
+                        r.tasaErrores() * 100, maxErrores * 100));
+            }
+            if (Latencias.TOTAL.equals(r.endpoint())) continue;
+            Map<String, Double> propio = porEndpoint.getOrDefault(r.endpoint(), Map.of());
+            comprobar(fallos, r.endpoint(), "p99", r.p99Ms(), propio.getOrDefault("p99", p99Ms));
+            comprobar(fallos, r.endpoint(), "p999", r.p999Ms(), propio.getOrDefault("p999", p999Ms));
+        }
+        return fallos;
+    }
+
+    private static void comprobar(List<String> fallos, String endpoint, String percentil, double medido, double limite) {
+        if (medido > limite) {
+            fallos.add(String.format(Locale.ROOT, "%s: %s = %.1f ms (presupuesto %.0f ms)",
+                    endpoint, percentil, medido, limite));
+        }
+    }
+
+    private static Map<String, Map<String, Double>> parsear(String texto) {
+        Map<String, Map<String, Double>> limites = new HashMap<>();
+        if (texto == null || texto.isBlank()) return limites;
+        for (String entrada : texto.split(";")) {
+            if (entrada.isBlank()) continue;
+            int igual = entrada.lastIndexOf('=');
+            if (igual < 0) throw new IllegalArgumentException("Presupuesto sin '=': " + entrada);
+            Map<String, Double> propio = limites.computeIfAbsent(entrada.substring(0, igual).trim(), e -> new HashMap<>());
+            for (String limite : entrada.substring(igual + 1).split(",")) {
+                String[] partes = limite.split(":");
+                if (partes.length != 2 || !(partes[0].trim().equals("p99") || partes[0].trim().equals("p999"))) {
+                    throw new IllegalArgumentException("Limite no valido (p99:ms o p999:ms): " + limite);
+                }
+                propio.put(partes[0].trim(), Double.parseDouble(partes[1].trim()));
+            }
+        }
+        return limites;
+    }
+}
@@ -0,0 +1,72 @@
+package org.springdataapi.springdemojpa.carga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lo que decide si la prueba de carga pasa: percentiles de Latencias (rango mas cercano, por endpoint y TOTAL)
+ * y los limites generales y por endpoint del Presupuesto
+ */
+class PresupuestoTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static Latencias.Resumen buscar(List<Latencias.Resumen> resumen, String endpoint) {
+        return resumen.stream().filter(r -> r.endpoint().equals(endpoint)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void percentilesPorEndpointYTotal() {
+        Latencias a = new Latencias();
+        Latencias b = new Latencias();
+        // 1..1000 ms repartidos entre dos usuarios virtuales
+        for (int i = 1; i <= 1000; i++) (i % 2 == 0 ? a : b).registrar("GET /api/productos", i * MS, false);
+        b.registrar("POST /api/auth/login", 5 * MS, true);
+        a.sumar(b);
+
+        List<Latencias.Resumen> resumen = a.resumen(10);
+        Latencias.Resumen productos = buscar(resumen, "GET /api/productos");
+        assertEquals(1000, productos.peticiones());
+        assertEquals(100.0, productos.porSegundo());
+        assertEquals(500.0, productos.p50Ms());
+        assertEquals(990.0, productos.p99Ms());
+        assertEquals(999.0, productos.p999Ms());
+        assertEquals(1000.0, productos.maxMs());
+
+        Latencias.Resumen total = resumen.get(resumen.size() - 1);
+        assertEquals(Latencias.TOTAL, total.endpoint());
+        assertEquals(1001, total.peticiones());
+        assertEquals(1, total.errores());
+    }
+
+    @Test
+    void incumplimientosGeneralesYPorEndpoint() {
+        Latencias l = new Latencias();
+        for (int i = 0; i < 100; i++) {
+            l.registrar("GET /api/productos", 40 * MS, false);
+            l.registrar("POST /api/auth/login", 600 * MS, false);
+        }
+        l.registrar("GET /api/clientes/mi-perfil", MS, true);
+        List<Latencias.Resumen> resumen = l.resumen(1);
+
+        // Login con presupuesto propio; mi-perfil todo errores (y el TOTAL por encima del 0,1%)
+        List<String> fallos = new Presupuesto(250, 1000, 0.001, "POST /api/auth/login=p99:1000").incumplimientos(resumen);
+        assertEquals(2, fallos.size(), fallos.toString());
+        assertTrue(fallos.get(0).startsWith("GET /api/clientes/mi-perfil"));
+        assertTrue(fallos.get(1).startsWith(Latencias.TOTAL));
+
+        fallos = new Presupuesto(250, 1000, 1, "GET /api/productos=p99:30").incumplimientos(resumen);
+        assertEquals(List.of("GET /api/productos: p99 = 40.0 ms (presupuesto 30 ms)",
+                "POST /api/auth/login: p99 = 600.0 ms (presupuesto 250 ms)"), fallos);
+    }
+
+    @Test
+    void limiteDesconocido() {
+        assertThrows(IllegalArgumentException.class, () -> new Presupuesto(1, 1, 0, "GET /api/productos=p95:10"));
+    }
+}
@@ -0,0 +1,203 @@
+package org.springdataapi.springdemojpa.carga;
+
+import org.springdataapi.springdemojpa.SpringDemoJpaApplication;
+import org.springdataapi.springdemojpa.generador.GeneradorDatos;
+import org.springdataapi.springdemojpa.service.BusquedaTextoService;
+import org.springdataapi.springdemojpa.service.UnicidadContactos;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga HTTP de punta a punta: arranca la aplicacion completa en un puerto libre de 127.0.0.1
+ * sobre H2 en modo MySQL (perfil test) con el dataset de GeneradorDatos, y {@code carga.usuarios} usuarios
+ * virtuales lanzan la MezclaTrafico sin pausa entre peticiones (modelo cerrado) con un HttpClient con
+ * keep-alive. Tras el calentamiento mide {@code carga.duracion-s} segundos y saca por endpoint peticiones/s,
+ * p50/p99/p999, maximo y errores (status >= 400 o fallo de conexion) en consola y en {@code carga.resultado}.
+ * Termina con codigo 1 si algun endpoint se sale del Presupuesto (carga.presupuesto.*).
+ * <pre>
+ * mvn -Pcarga verify -Dcarga.usuarios=64 -Dcarga.presupuesto.endpoints="GET /api/productos=p99:30"
+ * </pre>
+ * Todo en la misma maquina y la misma JVM que el servidor: los numeros sirven para comparar versiones entre
+ * si, no como capacidad de produccion. Salvo la BD, la configuracion es la de produccion (coste BCrypt,
+ * indice de trigramas, filtros de unicidad, caches); cualquier app.* se puede cambiar con -D.
+ */
+public final class PruebaCarga {
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int usuarios = entero("carga.usuarios", 32);
+        int duracion = entero("carga.duracion-s", 30);
+        int calentamiento = entero("carga.calentamiento-s", 10);
+        long semilla = Long.parseLong(propiedad("carga.semilla", "42"));
+        int empleados = entero("carga.empleados", 200);
+        int clientes = entero("carga.clientes", 100_000);
+        int productos = entero("carga.productos", 5_000);
+        String password = propiedad("carga.password", "Password1234");
+        Presupuesto presupuesto = new Presupuesto(
+                Double.parseDouble(propiedad("carga.presupuesto.p99-ms", "250")),
+                Double.parseDouble(propiedad("carga.presupuesto.p999-ms", "1000")),
+                Double.parseDouble(propiedad("carga.presupuesto.max-errores", "0.001")),
+                // El login es BCrypt a proposito: presupuesto propio
+                propiedad("carga.presupuesto.endpoints", MezclaTrafico.LOGIN + "=p99:1000,p999:2000"));
+        Path resultado = Path.of(propiedad("carga.resultado", "target/carga-result.json"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringDemoJpaApplication.class)
+                .profiles("test")
+                .properties("server.address=127.0.0.1",
+                        "server.port=0",
+                        // Lo que el perfil test cambia para los tests unitarios, de vuelta a produccion
+                        "app.security.password-hashing.strength=10",
+                        "app.busqueda.indice-trigramas.enabled=true",
+                        "app.unicidad.bloom.enabled=true",
+                        "spring.jpa.properties.hibernate.generate_statistics=false")
+                .run();
+        List<String> incumplimientos;
+        try {
+            MezclaTrafico.Dataset dataset = preparar(context, semilla, empleados, clientes, productos, password);
+            URI base = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port"));
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            MezclaTrafico mezcla = new MezclaTrafico(base, objectMapper, dataset);
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            List<MezclaTrafico.Sesion> sesiones = new ArrayList<>(usuarios);
+            for (int u = 0; u < usuarios; u++) {
+                sesiones.add(new MezclaTrafico.Sesion(u, usuarios,
+                        token(http, objectMapper, mezcla.login(mezcla.emailCliente(u * (clientes / usuarios)))),
+                        token(http, objectMapper, mezcla.login(mezcla.emailComercial(u)))));
+            }
+
+            System.out.printf("%nCalentamiento: %d usuarios durante %d s%n", usuarios, calentamiento);
+            ejecutar(http, mezcla, sesiones, semilla, calentamiento);
+            System.out.printf("Medicion: %d usuarios durante %d s%n", usuarios, duracion);
+            long t0 = System.nanoTime();
+            Latencias latencias = ejecutar(http, mezcla, sesiones, semilla + 1, duracion);
+            List<Latencias.Resumen> resumen = latencias.resumen((System.nanoTime() - t0) / 1e9);
+
+            incumplimientos = presupuesto.incumplimientos(resumen);
+            imprimir(resumen, incumplimientos);
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("usuarios", usuarios);
+            json.put("duracionSegundos", duracion);
+            json.put("clientes", clientes);
+            json.put("endpoints", resumen);
+            json.put("incumplimientos", incumplimientos);
+            Files.createDirectories(resultado.toAbsolutePath().getParent());
+            Files.write(resultado, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(json));
+            System.out.println("Resultados en " + resultado.toAbsolutePath());
+        } finally {
+            context.close();
+        }
+        System.exit(incumplimientos.isEmpty() ? 0 : 1);
+    }
+
+    // Dataset y estructuras en memoria que en produccion se construyen al arrancar con los datos ya en BD
+    private static MezclaTrafico.Dataset preparar(ConfigurableApplicationContext context, long semilla, int empleados,
+                                                  int clientes, int productos, String password) {
+        String hash = context.getBean(PasswordEncoder.class).encode(password);
+        context.getBean(GeneradorDatos.class).generar(new GeneradorDatos.Configuracion(semilla, empleados, clientes,
+                productos, 1000, false, hash));
+        context.getBean(BusquedaTextoService.class).reconstruir();
+        context.getBean(UnicidadContactos.class).reconstruir();
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        return new MezclaTrafico.Dataset(semilla, password, empleados, clientes,
+                jdbc.queryForObject("SELECT MIN(id_cliente) FROM clientes", Integer.class),
+                jdbc.queryForObject("SELECT MIN(id_empleado) FROM empleados", Integer.class),
+                jdbc.queryForList("SELECT DISTINCT categoria FROM productos ORDER BY categoria", String.class));
+    }
+
+    // Un hilo por usuario virtual, cada uno con su Random y sus Latencias; se suman al terminar
+    private static Latencias ejecutar(HttpClient http, MezclaTrafico mezcla, List<MezclaTrafico.Sesion> sesiones,
+                                      long semilla, int segundos) throws Exception {
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        ExecutorService hilos = Executors.newFixedThreadPool(sesiones.size());
+        try {
+            List<Future<Latencias>> resultados = new ArrayList<>();
+            for (MezclaTrafico.Sesion sesion : sesiones) {
+                resultados.add(hilos.submit(() -> {
+                    Random random = new Random(semilla * 31 + sesion.usuario());
+                    Latencias propias = new Latencias();
+                    while (System.nanoTime() < fin) {
+                        MezclaTrafico.Operacion op = mezcla.elegir(random);
+                        HttpRequest peticion = op.peticion().crear(sesion, random);
+                        long t0 = System.nanoTime();
+                        boolean error;
+                        try {
+                            error = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                        } catch (IOException e) {
+                            error = true;
+                        }
+                        propias.registrar(op.endpoint(), System.nanoTime() - t0, error);
+                    }
+                    return propias;
+                }));
+            }
+            Latencias total = new Latencias();
+            for (Future<Latencias> r : resultados) total.sumar(r.get());
+            return total;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    private static String token(HttpClient http, ObjectMapper objectMapper, HttpRequest login)
+            throws IOException, InterruptedException {
+        HttpResponse<byte[]> respuesta = http.send(login, HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("Login de preparacion fallido: " + respuesta.statusCode());
+        }
+        JsonNode json = objectMapper.readTree(respuesta.body());
+        return json.get("accessToken").asString();
+    }
+
+    private static void imprimir(List<Latencias.Resumen> resumen, List<String> incumplimientos) {
+        System.out.printf("%n%-32s %10s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "peticiones", "errores", "pet/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Latencias.Resumen r : resumen) {
+            System.out.printf("%-32s %10d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", r.endpoint(), r.peticiones(),
+                    r.errores(), r.porSegundo(), r.p50Ms(), r.p99Ms(), r.p999Ms(), r.maxMs());
+        }
+        if (incumplimientos.isEmpty()) {
+            System.out.println("\nPresupuesto cumplido");
+        } else {
+            System.out.println("\nPresupuesto superado:");
+            incumplimientos.forEach(f -> System.out.println("  " + f));
+        }
+    }
+
+    // Propiedades de sistema; vacias cuentan como no puestas (el perfil Maven las pasa siempre)
+    private static String propiedad(String nombre, String defecto) {
+        String valor = System.getProperty(nombre);
+        return valor == null || valor.isBlank() ? defecto : valor;
+    }
+
+    private static int entero(String nombre, int defecto) {
+        return Integer.parseInt(propiedad(nombre, String.valueOf(defecto)));
+    }
+}
@@ -0,0 +1,197 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.ClientesParcialDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosParcialDTO;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.EmpleadosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH de clientes, empleados y productos: solo se validan y escriben los campos enviados, el UPDATE
+ * lleva solo las columnas que cambian y sin cambio de email/telefono no hay consultas de existencia
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.springdataapi.springdemojpa.controller.ActualizacionParcialTest$SentenciasSql")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ActualizacionParcialTest {
+
+    // Todas las sentencias SQL que prepara Hibernate
+    public static class SentenciasSql implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    private String tokenAdmin;
+    private Integer idEmpleado;
+    private Integer idCliente;
+    private Integer idProducto;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+        idEmpleado = datos.ana("comercial").getId();
+
+        idCliente = cliente("Luis", "luis@crm.es", "611111111");
+        cliente("Marta", "marta@crm.es", "622222222");
+
+        Productos p = new Productos();
+        p.setNombre("Raton");
+        p.setDescripcion("Inalambrico");
+        p.setPrecio(10.5);
+        p.setActivo(true);
+        idProducto = productosRepository.save(p).getId();
+
+        CustomUserDetails admin = new CustomUserDetails("ana@crm.es", null, "ADMIN", idEmpleado, "EMPLEADO");
+        tokenAdmin = datos.token(admin);
+        // Version del token ya en cache: solo cuentan las sentencias del PATCH
+        datos.cachearVersion(admin);
+        SentenciasSql.SQL.clear();
+    }
+
+    @Test
+    void cambiarElPrecioSoloEscribeElPrecio() throws Exception {
+        mockMvc.perform(patch("/api/productos/" + idProducto)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"precio\": 12.0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.precio").value(12.0))
+                .andExpect(jsonPath("$.nombre").value("Raton"))
+                .andExpect(jsonPath("$.descripcion").value("Inalambrico"));
+
+        assertEquals(List.of("update productos set precio=?,version=? where id_producto=? and version=?"), updates());
+        // Sin cambio de nombre no hay exists
+        assertTrue(SentenciasSql.SQL.stream().noneMatch(s -> s.contains("where p1_0.nombre")), SentenciasSql.SQL.toString());
+    }
+
+    @Test
+    void mismoEmailYTelefonoSinConsultasDeExistencia() throws Exception {
+        mockMvc.perform(patch("/api/clientes/" + idCliente)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Luis Perez\", \"email\": \"luis@crm.es\", \"telefono\": \"611 111 111\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Luis Perez"))
+                .andExpect(jsonPath("$.telefono").value("611111111"));
+
+        // El findById y el UPDATE del nombre (con la version); nada de existsByEmail/existsByTelefono
+        assertEquals(List.of("update clientes set nombre=?,version=? where id_cliente=? and version=?"), updates());
+        assertEquals(1, SentenciasSql.SQL.stream().filter(s -> s.startsWith("select")).count(), SentenciasSql.SQL.toString());
+
+        Clientes luis = clientesRepository.findById(idCliente).orElseThrow();
+        assertEquals("luis@crm.es", luis.getEmail());
+        assertEquals("x", luis.getPassword());
+    }
+
+    @Test
+    void cambiarElEstadoDeUnEmpleado() throws Exception {
+        mockMvc.perform(patch("/api/empleados/" + idEmpleado)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"no\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("inactivo"))
+                .andExpect(jsonPath("$.email").value("ana@crm.es"));
+
+        // El estado va con las credenciales: sube version_credenciales en el mismo UPDATE
+        assertEquals(List.of("update empleados set estado=?,version=?,version_credenciales=? where id_empleado=? and version=?"),
+                updates());
+    }
+
+    @Test
+    void soloSeValidanLosCamposEnviados() throws Exception {
+        // Email con formato invalido: 400 de la validacion del DTO
+        mockMvc.perform(patch("/api/clientes/" + idCliente)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"no-es-un-email\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals("Email ya registrado", assertThrows(RuntimeException.class,
+                () -> clienteService.actualizarParcial(idCliente, parcial(null, "marta@crm.es", null), null)).getMessage());
+        assertEquals("Teléfono ya registrado", assertThrows(RuntimeException.class,
+                () -> clienteService.actualizarParcial(idCliente, parcial(null, null, "622222222"), null)).getMessage());
+        assertEquals("Nombre obligatorio", assertThrows(RuntimeException.class,
+                () -> clienteService.actualizarParcial(idCliente, parcial(" ", null, null), null)).getMessage());
+        // Sin pasar por el @Valid del controller: la misma regla de email que el alta, en los dos PATCH
+        assertEquals("Email obligatorio", assertThrows(RuntimeException.class,
+                () -> clienteService.actualizarParcial(idCliente, parcial(null, "  ", null), null)).getMessage());
+        EmpleadosParcialDTO empleado = new EmpleadosParcialDTO();
+        empleado.setEmail("sin-arroba");
+        assertEquals("Email obligatorio", assertThrows(RuntimeException.class,
+                () -> empleadosService.actualizarParcial(idEmpleado, empleado, null)).getMessage());
+
+        // Telefono vacio: se quita; el resto queda igual
+        Clientes luis = clienteService.actualizarParcial(idCliente, parcial(null, null, ""), null);
+        assertNull(luis.getTelefono());
+        assertEquals("Luis", luis.getNombre());
+        assertEquals("luis@crm.es", luis.getEmail());
+    }
+
+    private static ClientesParcialDTO parcial(String nombre, String email, String telefono) {
+        ClientesParcialDTO dto = new ClientesParcialDTO();
+        dto.setNombre(nombre);
+        dto.setEmail(email);
+        dto.setTelefono(telefono);
+        return dto;
+    }
+
+    private static List<String> updates() {
+        return SentenciasSql.SQL.stream().filter(s -> s.startsWith("update") && !s.contains("num_clientes")).toList();
+    }
+
+    private Integer cliente(String nombre, String email, String telefono) {
+        Clientes c = new Clientes();
+        c.setNombre(nombre);
+        c.setEmail(email);
+        c.setTelefono(telefono);
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        return clientesRepository.save(c).getId();
+    }
+}
@@ -0,0 +1,166 @@
+package org.springdataapi.springdemojpa.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springdataapi.springdemojpa.security.JwtTokenProvider;
+import org.springdataapi.springdemojpa.security.UserDetailsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prueba de carga del login de la API contra H2: mide consultas por login y latencia p99.
+ * "antes" reproduce el flujo anterior (dos busquedas para autenticar + carga lazy del rol
+ * + otras dos busquedas para rellenar nombre/userId); "despues" es POST /api/auth/login.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerLoadTest {
+
+    private static final int USUARIOS = 50;
+    private static final int LOGINS = 1_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        clientesRepository.deleteAll();
+        empleadosRepository.deleteAll();
+        rolesEmpleadoRepository.deleteAll();
+
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol("empleado");
+        rolesEmpleadoRepository.save(rol);
+
+        // Ya hasheada para que ningun login de la medicion dispare el re-hash de passwords antiguas
+        String password = passwordEncoder.encode("1234");
+
+        for (int i = 0; i < USUARIOS; i++) {
+            Empleados e = new Empleados();
+            e.setNombre("Empleado " + i);
+            e.setEmail("empleado" + i + "@crm.es");
+            e.setPassword(password);
+            e.setIdRol(rol);
+            e.setEstado("activo");
+            e.setFechaIngreso(LocalDate.now());
+            empleadosRepository.save(e);
+
+            Clientes c = new Clientes();
+            c.setNombre("Cliente " + i);
+            c.setEmail("cliente" + i + "@crm.es");
+            c.setPassword(password);
+            c.setFechaAlta(LocalDate.now());
+            clientesRepository.save(c);
+        }
+    }
+
+    @Test
+    void loginEsUnaSolaConsulta() throws Exception {
+        Resultado antes = medir(this::loginAntiguo);
+        Resultado despues = medir(this::loginApi);
+
+        System.out.printf("Login antes:   %.2f consultas/login, p99 %.3f ms%n", antes.consultasPorLogin, antes.p99Millis);
+        System.out.printf("Login despues: %.2f consultas/login, p99 %.3f ms%n", despues.consultasPorLogin, despues.p99Millis);
+
+        // Clientes: antes 2 (autenticar) + 2 (nombre/userId); ahora una sola consulta UNION
+        assertEquals(1.0, despues.consultasPorLogin, 0.0001);
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"cliente7@crm.es\",\"password\":\"1234\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Cliente 7"))
+                .andExpect(jsonPath("$.role").value("ROLE_CLIENTE"));
+    }
+
+    private void loginApi(String email) throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"1234\"}"))
+                .andExpect(status().isOk());
+    }
+
+    // Flujo anterior reproducido con los repositorios: loadUserByUsername secuencial
+    // (empleados, rol lazy, clientes), generacion del token y busquedas para nombre/userId
+    private void loginAntiguo(String email) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            empleadosRepository.findByEmail(email).ifPresentOrElse(
+                    e -> e.getIdRol().getNombreRol(),
+                    () -> clientesRepository.findByEmail(email));
+        });
+        jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+        empleadosRepository.findByEmail(email).ifPresentOrElse(
+                e -> e.getNombre(),
+                () -> clientesRepository.findByEmail(email).ifPresent(Clientes::getNombre));
+    }
+
+    private Resultado medir(Login login) throws Exception {
+        long[] tiempos = new long[LOGINS];
+        long consultas = 0;
+        for (int i = 0; i < LOGINS; i++) {
+            String email = (i % 2 == 0 ? "cliente" : "empleado") + (i % USUARIOS) + "@crm.es";
+            // Cada login se mide en frio, sin la cache de usuarios
+            userDetailsCache.invalidate(email);
+            statistics.clear();
+            long t0 = System.nanoTime();
+            login.run(email);
+            tiempos[i] = System.nanoTime() - t0;
+            consultas += statistics.getPrepareStatementCount();
+        }
+        Arrays.sort(tiempos);
+        return new Resultado((double) consultas / LOGINS, tiempos[(int) (LOGINS * 0.99) - 1] / 1_000_000.0);
+    }
+
+    @FunctionalInterface
+    private interface Login {
+        void run(String email) throws Exception;
+    }
+
+    private record Resultado(double consultasPorLogin, double p99Millis) {
+    }
+}
@@ -0,0 +1,201 @@
+package org.springdataapi.springdemojpa.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.ConflictoVersionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Control optimista con @Version: el ETag de GET/PUT/PATCH es la version del registro y un If-Match viejo
+ * da 412 sin tocar la fila. Con muchos editores a la vez sobre el mismo producto no se pierde ninguna escritura
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ConcurrenciaOptimistaTest {
+
+    static final int EDITORES = 12;
+    static final int CAMBIOS_POR_EDITOR = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    private String token;
+    private Integer idProducto;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+        Integer idAna = datos.ana("comercial").getId();
+
+        Productos p = new Productos();
+        p.setNombre("Raton");
+        p.setPrecio(10.0);
+        p.setActivo(true);
+        idProducto = productosRepository.save(p).getId();
+
+        CustomUserDetails user = new CustomUserDetails("ana@crm.es", null, "EMPLEADO", idAna, "EMPLEADO");
+        token = datos.token(user);
+    }
+
+    @Test
+    void ifMatchViejoDa412YNoTocaLaFila() throws Exception {
+        mockMvc.perform(get("/api/productos/" + idProducto).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(put("/api/productos/" + idProducto)
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Raton\", \"precio\": 11.0}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // Otro editor con la version de antes: PATCH y DELETE rechazados
+        mockMvc.perform(patch("/api/productos/" + idProducto)
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"precio\": 99.0}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/productos/" + idProducto)
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        // If-Match compara en fuerte: una etiqueta debil no vale
+        mockMvc.perform(delete("/api/productos/" + idProducto)
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\""))
+                .andExpect(status().isPreconditionFailed());
+
+        Productos p = productosRepository.findById(idProducto).orElseThrow();
+        assertEquals(11.0, p.getPrecio());
+        assertEquals(1L, p.getVersion());
+
+        mockMvc.perform(delete("/api/productos/" + idProducto)
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isOk());
+        assertFalse(productosRepository.existsById(idProducto));
+    }
+
+    @Test
+    void formularioConVersionViejaNoPisaElCambio() {
+        Clientes c = new Clientes();
+        c.setNombre("Luis");
+        c.setEmail("luis@crm.es");
+        c.setTelefono("611111111");
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        Integer id = clientesRepository.save(c).getId();
+
+        // Dos agentes abren el formulario (version 0); el primero guarda, el segundo recibe el conflicto
+        clienteService.actualizar(id, dto("Luis Perez"), 0L);
+        ConflictoVersionException e = assertThrows(ConflictoVersionException.class,
+                () -> clienteService.actualizar(id, dto("Luis Garcia"), 0L));
+        assertTrue(e.getMessage().contains("modificado por otro usuario"));
+
+        Clientes guardado = clientesRepository.findById(id).orElseThrow();
+        assertEquals("Luis Perez", guardado.getNombre());
+        assertEquals(1L, guardado.getVersion());
+    }
+
+    @Test
+    void editoresConcurrentesNoPierdenEscrituras() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(EDITORES);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger conflictos = new AtomicInteger();
+        ConcurrentHashMap<Integer, AtomicInteger> estados = new ConcurrentHashMap<>();
+        try {
+            List<Future<?>> editores = new ArrayList<>();
+            for (int i = 0; i < EDITORES; i++) {
+                editores.add(pool.submit(() -> {
+                    salida.await();
+                    int hechos = 0;
+                    while (hechos < CAMBIOS_POR_EDITOR) {
+                        // Leer, sumar 1 al precio y escribir con la version leida; 412 = otro se adelanto, se reintenta
+                        MvcResult leido = mockMvc.perform(get("/api/productos/" + idProducto)
+                                .header("Authorization", "Bearer " + token)).andReturn();
+                        double precio = ((Number) JsonPath.read(leido.getResponse().getContentAsString(), "$.precio")).doubleValue();
+                        int status = mockMvc.perform(patch("/api/productos/" + idProducto)
+                                        .header("Authorization", "Bearer " + token)
+                                        .header(HttpHeaders.IF_MATCH, leido.getResponse().getHeader(HttpHeaders.ETAG))
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"precio\": " + (precio + 1) + "}"))
+                                .andReturn().getResponse().getStatus();
+                        estados.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+                        if (status == 200) hechos++;
+                        else if (status == 412) conflictos.incrementAndGet();
+                        else return null;
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> f : editores) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = EDITORES * CAMBIOS_POR_EDITOR;
+        // Solo 200 o 412: ningun error de BD ni escritura perdida
+        assertEquals(estados.keySet().stream().filter(s -> s != 200 && s != 412).toList(), List.of(), estados.toString());
+        Productos p = productosRepository.findById(idProducto).orElseThrow();
+        assertEquals(10.0 + total, p.getPrecio(), "conflictos: " + conflictos.get());
+        assertEquals(total, p.getVersion());
+    }
+
+    private static ClientesDTO dto(String nombre) {
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre(nombre);
+        dto.setEmail("luis@crm.es");
+        dto.setTelefono("611111111");
+        return dto;
+    }
+}
@@ -0,0 +1,228 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Numero de sentencias SQL por endpoint de lectura (API y pantallas). Cada endpoint trae sus asociaciones
+ * con un plan de carga explicito (entity graph / join fetch): el coste no depende de cuantos clientes,
+ * empleados o roles distintos haya en la respuesta. Si un cambio reintroduce un N+1, falla aqui.
+ * Productos y roles ya cargados salen de la cache de segundo nivel (0 sentencias).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ConsultasPorEndpointTest {
+
+    private static final int EMPLEADOS = 12;
+    private static final int CLIENTES = 40;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+
+    private Statistics statistics;
+    private String tokenAdmin;
+    private String tokenCliente;
+    private Integer idCliente;
+    private Integer idEmpleado;
+    private Integer idProducto;
+
+    @BeforeEach
+    void seed() {
+        statistics = datos.estadisticas();
+        datos.vaciar();
+
+        // Varios roles y empleados distintos: con carga perezosa sin plan serian N+1 consultas
+        RolesEmpleado[] roles = new RolesEmpleado[3];
+        for (int i = 0; i < roles.length; i++) {
+            roles[i] = new RolesEmpleado();
+            roles[i].setNombreRol("rol" + i);
+            rolesEmpleadoRepository.save(roles[i]);
+        }
+        Empleados[] empleados = new Empleados[EMPLEADOS];
+        for (int i = 0; i < EMPLEADOS; i++) {
+            Empleados e = new Empleados();
+            e.setNombre("Empleado " + i);
+            e.setEmail("empleado" + i + "@crm.es");
+            e.setTelefono(String.format("6%08d", i));
+            e.setPassword("x");
+            e.setIdRol(roles[i % roles.length]);
+            e.setEstado("activo");
+            e.setFechaIngreso(LocalDate.now());
+            empleados[i] = empleadosRepository.save(e);
+        }
+        for (int i = 0; i < CLIENTES; i++) {
+            Clientes c = new Clientes();
+            c.setNombre("Cliente " + i);
+            c.setEmail("cliente" + i + "@crm.es");
+            c.setTelefono(String.format("7%08d", i));
+            c.setTipoCliente("EMPRESA");
+            c.setPassword("x");
+            c.setFechaAlta(LocalDate.now());
+            c.setIdEmpleadoResponsable(empleados[i % EMPLEADOS]);
+            idCliente = clientesRepository.save(c).getId();
+        }
+        for (int i = 0; i < 5; i++) {
+            Productos p = new Productos();
+            p.setNombre("Producto " + i);
+            p.setCategoria("cat");
+            p.setPrecio(10.0);
+            p.setActivo(true);
+            idProducto = productosRepository.save(p).getId();
+        }
+        idEmpleado = empleados[0].getId();
+        empleadosRepository.reconciliarNumClientes();
+
+        CustomUserDetails admin = new CustomUserDetails("admin@crm.es", null, "ADMIN", idEmpleado, "EMPLEADO");
+        CustomUserDetails cliente = new CustomUserDetails("cliente@crm.es", null, "CLIENTE", idCliente, "CLIENTE");
+        tokenAdmin = datos.token(admin);
+        tokenCliente = datos.token(cliente);
+        // Versiones ya cacheadas, como en uso normal: sin la consulta de version_credenciales en cada URL
+        datos.cachearVersion(admin);
+        datos.cachearVersion(cliente);
+    }
+
+    @Test
+    void clientes() throws Exception {
+        assertConsultas(1, "/api/clientes", tokenAdmin);
+        assertConsultas(1, "/api/clientes/" + idCliente, tokenAdmin);
+        assertConsultas(1, "/api/clientes/mi-perfil", tokenCliente);
+    }
+
+    @Test
+    void empleados() throws Exception {
+        assertConsultas(1, "/api/empleados", tokenAdmin);
+        assertConsultas(1, "/api/empleados/" + idEmpleado, tokenAdmin);
+    }
+
+    @Test
+    void productos() throws Exception {
+        assertConsultas(1, "/api/productos", tokenAdmin);
+        assertConsultas(1, "/api/productos/activos", tokenAdmin);
+        assertConsultas(0, "/api/productos/" + idProducto, tokenAdmin); // cache de segundo nivel
+        assertConsultas(1, "/api/productos/precio?valor=10", tokenAdmin);
+    }
+
+    @Test
+    void consultas() throws Exception {
+        assertConsultas(1, "/api/consultas/clientes", tokenAdmin);
+        assertConsultas(1, "/api/consultas/clientes?tipoCliente=EMPRESA&idEmpleado=" + idEmpleado, tokenAdmin);
+        assertConsultas(1, "/api/consultas/empleados", tokenAdmin);
+        assertConsultas(1, "/api/consultas/empleados?tieneClientes=true", tokenAdmin);
+        assertConsultas(1, "/api/consultas/productos?categoria=cat", tokenAdmin);
+    }
+
+    // Los listados devuelven filas planas: sin password ni el grafo del empleado/rol
+    @Test
+    void listadosSinPasswordNiEntidadesAnidadas() throws Exception {
+        for (String url : new String[]{"/api/clientes", "/api/consultas/clientes", "/api/empleados",
+                "/api/consultas/empleados"}) {
+            mockMvc.perform(get(url).header("Authorization", "Bearer " + tokenAdmin))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].password").doesNotExist())
+                    .andExpect(jsonPath("$[0].idEmpleadoResponsable.password").doesNotExist())
+                    .andExpect(jsonPath("$[0].idRol.nombreRol").doesNotExist());
+        }
+        mockMvc.perform(get("/api/clientes").header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(jsonPath("$[0].nombreEmpleadoResponsable").value("Empleado 0"));
+        mockMvc.perform(get("/api/empleados").header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(jsonPath("$[0].nombreRol").value("rol0"));
+    }
+
+    // Los detalles si devuelven la entidad, pero el hash nunca sale (tampoco el del empleado embebido)
+    @Test
+    void detallesSinPassword() throws Exception {
+        mockMvc.perform(get("/api/clientes/" + idCliente).header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").exists())
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$.idEmpleadoResponsable.password").doesNotExist());
+        mockMvc.perform(get("/api/clientes/mi-perfil").header("Authorization", "Bearer " + tokenCliente))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idEmpleadoResponsable.email").exists())
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$.idEmpleadoResponsable.password").doesNotExist());
+        mockMvc.perform(get("/api/empleados/" + idEmpleado).header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").exists())
+                .andExpect(jsonPath("$.password").doesNotExist());
+        mockMvc.perform(patch("/api/clientes/" + idCliente)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Cliente nuevo\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$.idEmpleadoResponsable.password").doesNotExist());
+        mockMvc.perform(patch("/api/empleados/" + idEmpleado)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Empleado nuevo\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    // Pantallas Thymeleaf (sesion de formulario): la entidad o la lista mas, si hay, el desplegable
+    @Test
+    void vistas() throws Exception {
+        assertConsultasVista(1, "/clientes");
+        assertConsultasVista(1, "/empleados");
+        assertConsultasVista(1, "/productos");
+        assertConsultasVista(2, "/consultas/clientes?tipoCliente=EMPRESA");
+        assertConsultasVista(2, "/consultas/empleados?tieneClientes=true");
+        assertConsultasVista(1, "/consultas/productos?categoria=cat");
+        assertConsultasVista(2, "/clientes/" + idCliente + "/editar");
+        assertConsultasVista(1, "/empleados/" + idEmpleado + "/editar"); // roles desde la cache
+    }
+
+    private void assertConsultas(long esperadas, String url, String token) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertEquals(esperadas, statistics.getPrepareStatementCount(), url);
+    }
+
+    private void assertConsultasVista(long esperadas, String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).with(user("admin@crm.es").roles("ADMIN")))
+                .andExpect(status().isOk());
+        assertEquals(esperadas, statistics.getPrepareStatementCount(), url);
+    }
+}
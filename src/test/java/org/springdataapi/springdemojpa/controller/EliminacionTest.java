@@ -0,0 +1,176 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.EmpleadosService;
+import org.springdataapi.springdemojpa.service.ProductosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Borrados en una sola sentencia (las filas afectadas deciden "no existe") y borrado por lotes de productos
+ * con el estado de cada id, incluidos los que una FK impide borrar
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class EliminacionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Empleados ana;
+
+    @BeforeEach
+    void seed() {
+        statistics = datos.estadisticas();
+        datos.vaciar();
+        ana = datos.ana("comercial");
+    }
+
+    @AfterEach
+    void limpiar() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS lineas_prueba");
+    }
+
+    @Test
+    void productoEnUnaSentencia() {
+        Integer id = producto("Raton");
+        statistics.clear();
+        productosService.eliminar(id, null);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(productosRepository.existsById(id));
+
+        statistics.clear();
+        assertEquals("Producto no existe",
+                assertThrows(RuntimeException.class, () -> productosService.eliminar(id, null)).getMessage());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void clienteYContadorDeSuResponsable() {
+        Integer id = cliente("luis@crm.es", ana);
+        empleadosRepository.sumarClientes(ana.getId(), 1);
+
+        statistics.clear();
+        clienteService.eliminar(id, null);
+        // UPDATE del contador + DELETE, sin cargar el cliente
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, empleadosRepository.findById(ana.getId()).orElseThrow().getNumClientes());
+
+        assertEquals("Cliente no existe",
+                assertThrows(RuntimeException.class, () -> clienteService.eliminar(id, null)).getMessage());
+        assertEquals(0, empleadosRepository.findById(ana.getId()).orElseThrow().getNumClientes());
+    }
+
+    @Test
+    void empleadoConClientesNoSeBorra() {
+        cliente("luis@crm.es", ana);
+        assertEquals("No se puede eliminar el empleado porque tiene registros relacionados (clientes asignados, facturas, etc.)",
+                assertThrows(RuntimeException.class, () -> empleadosService.eliminar(ana.getId(), null)).getMessage());
+        assertTrue(empleadosRepository.existsById(ana.getId()));
+        assertEquals("Empleado no existe",
+                assertThrows(RuntimeException.class, () -> empleadosService.eliminar(-1, null)).getMessage());
+    }
+
+    @Test
+    void productosPorLotesConEstadoPorId() throws Exception {
+        Integer raton = producto("Raton");
+        Integer teclado = producto("Teclado");
+        Integer monitor = producto("Monitor");
+        Integer altavoz = producto("Altavoz");
+        // Tabla que referencia productos (como las lineas de pedido de la BD real): bloquea el borrado del teclado
+        jdbcTemplate.execute("CREATE TABLE lineas_prueba (id_producto INT REFERENCES productos(id_producto))");
+        jdbcTemplate.update("INSERT INTO lineas_prueba VALUES (?)", teclado);
+
+        String token = datos.token(new CustomUserDetails("ana@crm.es", null, "EMPLEADO", ana.getId(), "EMPLEADO"));
+
+        mockMvc.perform(delete("/api/productos")
+                        .param("ids", monitor + "," + teclado + "," + raton + ",999999," + raton)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solicitados").value(4))
+                .andExpect(jsonPath("$.eliminados").value(2))
+                .andExpect(jsonPath("$.resultados[0].id").value(raton))
+                .andExpect(jsonPath("$.resultados[0].estado").value("ELIMINADO"))
+                .andExpect(jsonPath("$.resultados[1].estado").value("CON_REGISTROS_RELACIONADOS"))
+                .andExpect(jsonPath("$.resultados[2].estado").value("ELIMINADO"))
+                .andExpect(jsonPath("$.resultados[3].id").value(999999))
+                .andExpect(jsonPath("$.resultados[3].estado").value("NO_ENCONTRADO"));
+
+        assertEquals(2, productosRepository.count());
+        assertTrue(productosRepository.existsById(teclado));
+        assertTrue(productosRepository.existsById(altavoz));
+    }
+
+    @Test
+    void loteSinBloqueosEnDosSentencias() {
+        Integer raton = producto("Raton");
+        Integer teclado = producto("Teclado");
+        statistics.clear();
+        assertEquals(2, productosService.eliminarVarios(java.util.List.of(raton, teclado)).eliminados());
+        // SELECT de los que existen + un DELETE ... IN
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, productosRepository.count());
+    }
+
+    private Integer producto(String nombre) {
+        Productos p = new Productos();
+        p.setNombre(nombre);
+        p.setPrecio(10.0);
+        p.setActivo(true);
+        return productosRepository.save(p).getId();
+    }
+
+    private Integer cliente(String email, Empleados responsable) {
+        Clientes c = new Clientes();
+        c.setNombre(email);
+        c.setEmail(email);
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        c.setIdEmpleadoResponsable(responsable);
+        return clientesRepository.save(c).getId();
+    }
+}
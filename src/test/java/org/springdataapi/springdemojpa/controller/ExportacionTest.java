@@ -0,0 +1,143 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exportaciones en streaming: CSV con cabecera y comillas donde hace falta, NDJSON de una fila por linea,
+ * una sola consulta y ninguna entidad cargada
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ExportacionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    private Statistics statistics;
+    private String tokenAdmin;
+    private String tokenEmpleado;
+    private Integer idEmpleado;
+
+    @BeforeEach
+    void seed() {
+        statistics = datos.estadisticas();
+        datos.vaciar();
+        Empleados ana = datos.ana("comercial");
+        idEmpleado = ana.getId();
+
+        cliente("Garcia, \"Luis\"", "luis@crm.es", "611111111", ana);
+        cliente("Marta", "marta@crm.es", null, null);
+
+        Productos p = new Productos();
+        p.setNombre("Raton");
+        p.setPrecio(10.5);
+        p.setActivo(true);
+        productosRepository.save(p);
+
+        CustomUserDetails admin = new CustomUserDetails("ana@crm.es", null, "ADMIN", idEmpleado, "EMPLEADO");
+        tokenAdmin = datos.token(admin);
+        tokenEmpleado = datos.token(new CustomUserDetails("ana@crm.es", null, "EMPLEADO", idEmpleado, "EMPLEADO"));
+        // Version ya cacheada (la misma para los dos tokens), como en uso normal: sin la consulta de
+        // version_credenciales en cada URL
+        datos.cachearVersion(admin);
+    }
+
+    @Test
+    void clientesEnCsv() throws Exception {
+        statistics.clear();
+        MvcResult resultado = descargar("/api/clientes/exportar", tokenEmpleado);
+        assertEquals("text/csv;charset=UTF-8", resultado.getResponse().getContentType());
+        assertEquals("attachment; filename=\"clientes.csv\"",
+                resultado.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION));
+
+        String[] lineas = resultado.getResponse().getContentAsString().split("\n");
+        assertEquals(3, lineas.length);
+        assertEquals("id,nombre,email,telefono,tipoCliente,fechaAlta,idEmpleadoResponsable,nombreEmpleadoResponsable",
+                lineas[0]);
+        assertTrue(lineas[1].matches("\\d+,\"Garcia, \"\"Luis\"\"\",luis@crm\\.es,611111111,,"
+                + LocalDate.now() + "," + idEmpleado + ",Ana"), lineas[1]);
+        assertTrue(lineas[2].matches("\\d+,Marta,marta@crm\\.es,,,\\d{4}-\\d\\d-\\d\\d,,"), lineas[2]);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void empleadosYProductosEnNdjson() throws Exception {
+        String empleados = descargar("/api/empleados/exportar?formato=ndjson", tokenAdmin)
+                .getResponse().getContentAsString();
+        JsonNode ana = objectMapper.readTree(empleados.strip());
+        assertEquals("Ana", ana.get("nombre").asString());
+        assertEquals("comercial", ana.get("nombreRol").asString());
+        assertEquals("2024-01-15", ana.get("fechaIngreso").asString());
+        assertFalse(ana.has("password"));
+
+        String productos = descargar("/api/productos/exportar?formato=ndjson", tokenEmpleado)
+                .getResponse().getContentAsString();
+        assertTrue(productos.endsWith("}\n"));
+        assertEquals(10.5, objectMapper.readTree(productos).get("precio").asDouble());
+    }
+
+    @Test
+    void empleadosSoloAdmin() throws Exception {
+        mockMvc.perform(get("/api/empleados/exportar").header("Authorization", "Bearer " + tokenEmpleado))
+                .andExpect(status().isForbidden());
+    }
+
+    private MvcResult descargar(String url, String token) throws Exception {
+        MvcResult iniciado = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(iniciado))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private void cliente(String nombre, String email, String telefono, Empleados responsable) {
+        Clientes c = new Clientes();
+        c.setNombre(nombre);
+        c.setEmail(email);
+        c.setTelefono(telefono);
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        c.setIdEmpleadoResponsable(responsable);
+        clientesRepository.save(c);
+    }
+}
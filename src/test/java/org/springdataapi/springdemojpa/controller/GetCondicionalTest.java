@@ -0,0 +1,157 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.ProductosDTO;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.ProductosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catalogo y mi-perfil responden 304 al If-None-Match de la version actual sin ir a la base de datos,
+ * y cualquier escritura de los services cambia el ETag
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class GetCondicionalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private ClientesRepository clientesRepository;
+
+    private Statistics statistics;
+    private String tokenCliente;
+    private Integer idCliente;
+    private Integer idOtroCliente;
+
+    @BeforeEach
+    void seed() {
+        statistics = datos.estadisticas();
+        datos.vaciar();
+
+        Productos p = new Productos();
+        p.setNombre("Raton");
+        p.setPrecio(10.0);
+        p.setActivo(true);
+        productosRepository.save(p);
+
+        idCliente = cliente("ana@crm.es", "611111111").getId();
+        idOtroCliente = cliente("luis@crm.es", "622222222").getId();
+        CustomUserDetails ana = new CustomUserDetails("ana@crm.es", null, "CLIENTE", idCliente, "CLIENTE");
+        tokenCliente = datos.token(ana);
+    }
+
+    @Test
+    void catalogoResponde304HastaQueCambiaUnProducto() throws Exception {
+        for (String url : new String[]{"/api/productos", "/api/productos/activos"}) {
+            String etag = etag(url, null);
+            assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+
+            statistics.clear();
+            mockMvc.perform(get(url).header("Authorization", "Bearer " + tokenCliente)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"otro\", " + etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            assertEquals(0, statistics.getPrepareStatementCount(), url);
+        }
+
+        String antes = etag("/api/productos", null);
+        ProductosDTO dto = new ProductosDTO();
+        dto.setNombre("Teclado");
+        dto.setPrecio(20.0);
+        productosService.crear(dto);
+        String despues = etag("/api/productos", antes);
+        assertNotEquals(antes, despues);
+
+        Integer idTeclado = productosRepository.findAll().stream()
+                .filter(p -> p.getNombre().equals("Teclado")).findFirst().orElseThrow().getId();
+        dto.setActivo(false);
+        productosService.actualizar(idTeclado, dto, null);
+        String trasActualizar = etag("/api/productos/activos", despues);
+        productosService.eliminar(idTeclado, null);
+        assertNotEquals(trasActualizar, etag("/api/productos/activos", trasActualizar));
+    }
+
+    @Test
+    void miPerfilPorClienteYPrivado() throws Exception {
+        MvcResult primera = mockMvc.perform(get("/api/clientes/mi-perfil")
+                        .header("Authorization", "Bearer " + tokenCliente))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+        String cacheControl = primera.getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+        assertTrue(cacheControl.contains("no-cache") && cacheControl.contains("private"), cacheControl);
+        assertFalse(cacheControl.contains("no-store"), cacheControl);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/clientes/mi-perfil")
+                        .header("Authorization", "Bearer " + tokenCliente)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Cualquier escritura de ClienteService (aunque sea de otro cliente) avanza la version
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre("Luis Garcia");
+        dto.setEmail("luis@crm.es");
+        dto.setTelefono("622222222");
+        clienteService.actualizar(idOtroCliente, dto, null);
+        mockMvc.perform(get("/api/clientes/mi-perfil")
+                        .header("Authorization", "Bearer " + tokenCliente)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    // GET con el ETag anterior: tiene que devolver 200 y el ETag nuevo
+    private String etag(String url, String anterior) throws Exception {
+        var peticion = get(url).header("Authorization", "Bearer " + tokenCliente);
+        if (anterior != null) peticion.header(HttpHeaders.IF_NONE_MATCH, anterior);
+        MvcResult resultado = mockMvc.perform(peticion).andExpect(status().isOk()).andReturn();
+        String cacheControl = resultado.getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+        assertEquals("no-cache", cacheControl, url);
+        return resultado.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private Clientes cliente(String email, String telefono) {
+        Clientes c = new Clientes();
+        c.setNombre(email);
+        c.setEmail(email);
+        c.setTelefono(telefono);
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        return clientesRepository.save(c);
+    }
+}
@@ -0,0 +1,165 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springdataapi.springdemojpa.security.PasswordHashingService;
+import org.springdataapi.springdemojpa.service.ProductosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Importacion masiva por lotes (de 3 filas aqui, para cruzar varios): mismas reglas que el alta normal,
+ * repetidos dentro del fichero y contra la base de datos, e informe de errores por linea.
+ * El pool de BCrypt del login esta siempre "ocupado" (espera maxima 0): la importacion no depende de el
+ */
+@SpringBootTest(properties = {"app.importacion.tamano-lote=3", "app.security.password-hashing.max-wait-ms=0"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ImportacionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    private Integer idEmpleado;
+    private String tokenEmpleado;
+    private String tokenCliente;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+        idEmpleado = datos.ana("empleado").getId();
+
+        Clientes existente = new Clientes();
+        existente.setNombre("Existente");
+        existente.setEmail("existente@crm.es");
+        existente.setTelefono("600000000");
+        existente.setPassword("x");
+        existente.setFechaAlta(LocalDate.now());
+        Integer idCliente = clientesRepository.save(existente).getId();
+
+        Productos raton = new Productos();
+        raton.setNombre("Raton");
+        raton.setPrecio(10.0);
+        raton.setActivo(true);
+        productosRepository.save(raton);
+
+        tokenEmpleado = datos.token(new CustomUserDetails("ana@crm.es", null, "EMPLEADO", idEmpleado, "EMPLEADO"));
+        tokenCliente = datos.token(new CustomUserDetails("existente@crm.es", null, "CLIENTE", idCliente, "CLIENTE"));
+    }
+
+    @Test
+    void clientesDesdeCsvConInformePorLinea() throws Exception {
+        String csv = """
+                nombre,email,telefono,password,tipo_cliente,id_empleadoresponsable
+                "Garcia, Luis",luis@crm.es,611 111 111,1234,persona,%1$d
+                Marta,marta@crm.es,622222222,1234,EMPRESA,
+
+                Sin Telefono,sin@crm.es,,1234,,
+                Repetida,MARTA@crm.es,633333333,1234,,
+                Ya Existe,existente@crm.es,644444444,1234,,
+                Otro Movil,otro@crm.es,600000000,1234,,
+                Sin Empleado,nadie@crm.es,655555555,1234,,999999
+                Pedro,pedro@crm.es,666666666,1234,,%1$d
+                """.formatted(idEmpleado);
+
+        mockMvc.perform(post("/api/clientes/importar")
+                        .header("Authorization", "Bearer " + tokenEmpleado)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas").value(8))
+                .andExpect(jsonPath("$.importadas").value(3))
+                .andExpect(jsonPath("$.errores", hasSize(5)))
+                .andExpect(jsonPath("$.errores[0].linea").value(5))
+                .andExpect(jsonPath("$.errores[0].mensaje").value("¿Y tú teléfono olvidona?"))
+                .andExpect(jsonPath("$.errores[1].linea").value(6))
+                .andExpect(jsonPath("$.errores[1].mensaje").value("Email repetido en el fichero"))
+                .andExpect(jsonPath("$.errores[2].mensaje").value("Email ya registrado"))
+                .andExpect(jsonPath("$.errores[3].mensaje").value("Teléfono ya registrado"))
+                .andExpect(jsonPath("$.errores[4].linea").value(9))
+                .andExpect(jsonPath("$.errores[4].mensaje").value("Empleado no encontrado"));
+
+        Clientes luis = clientesRepository.findByEmail("luis@crm.es").orElseThrow();
+        assertEquals("Garcia, Luis", luis.getNombre());
+        assertEquals("611111111", luis.getTelefono());
+        assertEquals("PARTICULAR", luis.getTipoCliente());
+        assertTrue(PasswordHashingService.isHashed(luis.getPassword()));
+        assertTrue(new BCryptPasswordEncoder().matches("1234", luis.getPassword()));
+        assertEquals(2, empleadosRepository.findById(idEmpleado).orElseThrow().getNumClientes());
+        assertEquals(4, clientesRepository.count());
+    }
+
+    @Test
+    void productosDesdeNdjsonVisiblesEnElCatalogoCacheado() throws Exception {
+        assertEquals(1, productosService.findAll().size());
+        String ndjson = """
+                {"nombre": "Teclado", "precio": 20.5, "categoria": "Perifericos"}
+                {"nombre": "Monitor", "precio": 150, "activo": false}
+                {"nombre": "Raton", "precio": 12}
+                {"nombre": "Negativo", "precio": -1}
+                {"nombre": "Sin precio"}
+                {"nombre": "Teclado", "precio": 25}
+                {"nombre": roto
+                """;
+
+        mockMvc.perform(post("/api/productos/importar")
+                        .header("Authorization", "Bearer " + tokenEmpleado)
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas").value(7))
+                .andExpect(jsonPath("$.importadas").value(2))
+                .andExpect(jsonPath("$.errores[0].linea").value(3))
+                .andExpect(jsonPath("$.errores[0].mensaje").value("Nombre ya registrado"))
+                .andExpect(jsonPath("$.errores[2].mensaje").value("Precio obligatorio"))
+                .andExpect(jsonPath("$.errores[3].mensaje").value("Nombre repetido en el fichero"))
+                .andExpect(jsonPath("$.errores[4].linea").value(7));
+
+        // El INSERT por JDBC invalida las consultas cacheadas del catalogo
+        List<String> nombres = productosService.findAll().stream().map(Productos::getNombre).sorted().toList();
+        assertEquals(List.of("Monitor", "Raton", "Teclado"), nombres);
+        assertEquals(2, productosService.findProductosActivos().size());
+    }
+
+    @Test
+    void soloAdminYEmpleado() throws Exception {
+        mockMvc.perform(post("/api/productos/importar")
+                        .header("Authorization", "Bearer " + tokenCliente)
+                        .contentType("text/csv")
+                        .content("nombre,precio\nTeclado,20\n"))
+                .andExpect(status().isForbidden());
+        assertEquals(1, productosRepository.count());
+    }
+}
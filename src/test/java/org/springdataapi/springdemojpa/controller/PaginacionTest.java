@@ -0,0 +1,212 @@
+package org.springdataapi.springdemojpa.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Paginacion por cursor (Pagina + RespuestaPaginada): recorrer la cabecera X-Next-Cursor devuelve cada fila
+ * una vez y en orden de id, el limite se acota, los parametros invalidos son 400 y las pantallas de consultas
+ * conservan los filtros en el enlace a la pagina siguiente
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class PaginacionTest {
+
+    // Mas que LIMITE_MAXIMO para poder comprobar el tope
+    private static final int CLIENTES = Pagina.LIMITE_MAXIMO + 5;
+    private static final Pattern SIGUIENTE = Pattern.compile("href=\"([^\"]*cursor=[^\"]*)\"");
+    private static final Pattern EMAIL_CLIENTE = Pattern.compile("cliente(\\d+)@crm\\.es");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    private String tokenAdmin;
+    private Integer idEmpleado;
+    private List<Integer> idsClientes;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+        Empleados ana = datos.ana("ADMIN");
+        idEmpleado = ana.getId();
+
+        // Pares EMPRESA, impares PARTICULAR
+        List<Clientes> clientes = new ArrayList<>(CLIENTES);
+        for (int i = 0; i < CLIENTES; i++) {
+            Clientes c = new Clientes();
+            c.setNombre("Cliente " + i);
+            c.setEmail("cliente" + i + "@crm.es");
+            c.setPassword("x");
+            c.setTipoCliente(i % 2 == 0 ? "EMPRESA" : "PARTICULAR");
+            c.setFechaAlta(LocalDate.now());
+            c.setIdEmpleadoResponsable(ana);
+            clientes.add(c);
+        }
+        idsClientes = clientesRepository.saveAll(clientes).stream().map(Clientes::getId).sorted().toList();
+
+        List<Productos> productos = new ArrayList<>();
+        // 60 "Raton": mas de una pagina por defecto
+        for (int i = 0; i < 90; i++) {
+            Productos p = new Productos();
+            p.setNombre((i % 3 == 0 ? "Teclado " : "Raton ") + i);
+            p.setCategoria("perifericos");
+            p.setPrecio(10.0);
+            p.setActivo(true);
+            productos.add(p);
+        }
+        productosRepository.saveAll(productos);
+
+        CustomUserDetails admin = new CustomUserDetails("ana@crm.es", null, "ADMIN", idEmpleado, "EMPLEADO");
+        tokenAdmin = datos.token(admin);
+    }
+
+    @Test
+    void recorrerLasPaginasDevuelveCadaFilaUnaVezEnOrden() throws Exception {
+        List<Integer> vistos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MvcResult r = mockMvc.perform(get("/api/clientes")
+                            .param("limite", "100")
+                            .param("cursor", cursor != null ? cursor : "")
+                            .header("Authorization", "Bearer " + tokenAdmin))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode filas = objectMapper.readTree(r.getResponse().getContentAsString());
+            filas.forEach(f -> vistos.add(f.get("id").asInt()));
+            cursor = r.getResponse().getHeader(RespuestaPaginada.CABECERA_CURSOR);
+            paginas++;
+            // Solo la ultima pagina (la de 5 filas) llega sin cabecera
+            assertEquals(cursor == null, filas.size() < 100);
+        } while (cursor != null);
+
+        assertEquals(6, paginas);
+        assertEquals(idsClientes, vistos);
+    }
+
+    @Test
+    void elLimiteSeAcotaAlMaximo() throws Exception {
+        MvcResult r = mockMvc.perform(get("/api/clientes")
+                        .param("limite", "10000")
+                        .header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(RespuestaPaginada.CABECERA_CURSOR))
+                .andReturn();
+        assertEquals(Pagina.LIMITE_MAXIMO, objectMapper.readTree(r.getResponse().getContentAsString()).size());
+
+        // Sin limite, el de por defecto
+        r = mockMvc.perform(get("/api/clientes").header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(Pagina.LIMITE_POR_DEFECTO, objectMapper.readTree(r.getResponse().getContentAsString()).size());
+    }
+
+    @Test
+    void cursorYLimiteInvalidosSon400() throws Exception {
+        String sinPrefijo = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("123".getBytes(StandardCharsets.UTF_8));
+        for (String cursor : new String[]{"no-es-base64!", sinPrefijo, Pagina.codificarCursor(1) + "x"}) {
+            mockMvc.perform(get("/api/clientes").param("cursor", cursor)
+                            .header("Authorization", "Bearer " + tokenAdmin))
+                    .andExpect(status().isBadRequest());
+        }
+        for (String limite : new String[]{"0", "-1"}) {
+            mockMvc.perform(get("/api/clientes").param("limite", limite)
+                            .header("Authorization", "Bearer " + tokenAdmin))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/consultas/clientes").param("tipoCliente", "EMPRESA").param("cursor", "x")
+                        .header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void laPantallaDeClientesConservaLosFiltrosEnLaPaginaSiguiente() throws Exception {
+        String url = "/consultas/clientes?tipoCliente=EMPRESA&idEmpleado=" + idEmpleado;
+        List<Integer> vistos = new ArrayList<>();
+        int paginas = 0;
+        while (url != null) {
+            String html = vista(url);
+            Matcher emails = EMAIL_CLIENTE.matcher(html);
+            while (emails.find()) vistos.add(Integer.parseInt(emails.group(1)));
+            url = enlaceSiguiente(html);
+            if (url != null) {
+                assertTrue(url.contains("tipoCliente=EMPRESA"), url);
+                assertTrue(url.contains("idEmpleado=" + idEmpleado), url);
+            }
+            paginas++;
+        }
+
+        // Los 253 pares, cada uno una vez, en paginas de LIMITE_POR_DEFECTO
+        assertEquals(6, paginas);
+        assertEquals((CLIENTES + 1) / 2, vistos.size());
+        for (int i = 0; i < vistos.size(); i++) assertEquals(2 * i, vistos.get(i));
+    }
+
+    @Test
+    void laPantallaDeProductosConservaLosFiltrosEnLaPaginaSiguiente() throws Exception {
+        String html = vista("/consultas/productos?nombre=Raton&categoria=perifericos");
+        String siguiente = enlaceSiguiente(html);
+        assertNotNull(siguiente);
+        assertTrue(siguiente.contains("nombre=Raton"), siguiente);
+        assertTrue(siguiente.contains("categoria=perifericos"), siguiente);
+
+        html = vista(siguiente);
+        assertNull(enlaceSiguiente(html));
+        assertTrue(html.contains("Raton"));
+        assertFalse(html.contains("Teclado "));
+    }
+
+    private String vista(String url) throws Exception {
+        return mockMvc.perform(get(url).with(user("ana@crm.es").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    // Enlace "Pagina siguiente" (el unico con cursor); null si es la ultima
+    private static String enlaceSiguiente(String html) {
+        Matcher m = SIGUIENTE.matcher(html);
+        return m.find() ? m.group(1).replace("&amp;", "&") : null;
+    }
+}
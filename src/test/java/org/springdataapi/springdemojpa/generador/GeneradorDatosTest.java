@@ -0,0 +1,145 @@
+package org.springdataapi.springdemojpa.generador;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springdataapi.springdemojpa.service.ValidacionCampos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dataset sintetico: tamanos pedidos, emails/telefonos unicos y validos (los de ClienteService), las
+ * distribuciones sesgadas y el mismo contenido con la misma semilla.
+ * 137 filas por sentencia para pasar tambien por la sentencia del resto
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GeneradorDatosTest {
+
+    private static final int EMPLEADOS = 40;
+    private static final int CLIENTES = 4000;
+    private static final int PRODUCTOS = 600;
+
+    @Autowired
+    private GeneradorDatos generador;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+
+    @BeforeEach
+    @AfterEach
+    void limpiar() {
+        clientesRepository.deleteAllInBatch();
+        empleadosRepository.deleteAllInBatch();
+        productosRepository.deleteAllInBatch();
+        rolesEmpleadoRepository.deleteAllInBatch();
+    }
+
+    private GeneradorDatos.Resultado generar(long semilla, boolean vaciar) {
+        return generador.generar(new GeneradorDatos.Configuracion(semilla, EMPLEADOS, CLIENTES, PRODUCTOS, 137,
+                vaciar, "{noop}x"));
+    }
+
+    @Test
+    void generaLosTamanosPedidosConContactosUnicosYValidos() {
+        generar(7, false);
+
+        assertEquals(EMPLEADOS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM empleados", Integer.class));
+        assertEquals(CLIENTES, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes", Integer.class));
+        assertEquals(PRODUCTOS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM productos", Integer.class));
+
+        Set<String> emails = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        for (String tabla : List.of("clientes", "empleados")) {
+            for (Map<String, Object> fila : jdbcTemplate.queryForList("SELECT email, telefono FROM " + tabla)) {
+                assertTrue(emails.add(((String) fila.get("email")).toLowerCase()), "email repetido " + fila);
+                String telefono = (String) fila.get("telefono");
+                assertTrue(telefonos.add(telefono), "telefono repetido " + fila);
+                assertNull(ValidacionCampos.errorTelefono(telefono), telefono);
+            }
+        }
+        // Los helpers dan los mismos valores que hay en BD
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes WHERE email = ? AND telefono = ?",
+                Integer.class, GeneradorDatos.emailCliente(7, 1234), GeneradorDatos.telefonoCliente(7, 1234)));
+        assertEquals("ADMIN", jdbcTemplate.queryForObject("SELECT r.nombre_rol FROM empleados e "
+                        + "JOIN roles_empleado r ON r.id_rol = e.id_rol WHERE e.email = ?",
+                String.class, GeneradorDatos.emailEmpleado(7, 0)));
+    }
+
+    @Test
+    void distribucionesSesgadasYCarterasCuadradas() {
+        generar(7, false);
+
+        int empresas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes WHERE tipo_cliente = 'EMPRESA'",
+                Integer.class);
+        assertTrue(empresas > CLIENTES * 0.17 && empresas < CLIENTES * 0.23, "empresas: " + empresas);
+
+        // Altas recientes mas frecuentes: el ultimo ano tiene mas que el primero de los diez
+        int ultimoAno = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM clientes WHERE fecha_alta >= DATEADD('DAY', -365, CURRENT_DATE)", Integer.class);
+        int primerAno = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM clientes WHERE fecha_alta < DATEADD('DAY', -3285, CURRENT_DATE)", Integer.class);
+        assertTrue(ultimoAno > 5 * primerAno, ultimoAno + " / " + primerAno);
+
+        // Zipf: el comercial con mas cartera lleva mucho mas que la media
+        List<Integer> carteras = jdbcTemplate.queryForList(
+                "SELECT num_clientes FROM empleados ORDER BY num_clientes DESC", Integer.class);
+        assertTrue(carteras.get(0) > 4 * CLIENTES / EMPLEADOS, "mayor cartera: " + carteras.get(0));
+
+        // num_clientes igual al recuento real
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM empleados e WHERE e.num_clientes <> "
+                + "(SELECT COUNT(*) FROM clientes c WHERE c.id_empleado_responsable = e.id_empleado)", Integer.class));
+
+        int categorias = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT categoria) FROM productos", Integer.class);
+        assertTrue(categorias >= 40, "categorias: " + categorias);
+        int baratos = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM productos WHERE precio < 20", Integer.class);
+        assertTrue(baratos > PRODUCTOS * 0.4 && baratos < PRODUCTOS * 0.6, "baratos: " + baratos);
+    }
+
+    @Test
+    void mismaSemillaMismosDatos() {
+        generar(99, false);
+        List<Map<String, Object>> primera = jdbcTemplate.queryForList("SELECT c.nombre, c.email, c.telefono, "
+                + "c.tipo_cliente, c.fecha_alta, e.email AS responsable FROM clientes c "
+                + "LEFT JOIN empleados e ON e.id_empleado = c.id_empleado_responsable ORDER BY c.email");
+        List<Map<String, Object>> productos = jdbcTemplate.queryForList(
+                "SELECT nombre, categoria, precio, activo FROM productos ORDER BY nombre");
+
+        generar(99, true);
+        assertEquals(primera, jdbcTemplate.queryForList("SELECT c.nombre, c.email, c.telefono, "
+                + "c.tipo_cliente, c.fecha_alta, e.email AS responsable FROM clientes c "
+                + "LEFT JOIN empleados e ON e.id_empleado = c.id_empleado_responsable ORDER BY c.email"));
+        assertEquals(productos, jdbcTemplate.queryForList(
+                "SELECT nombre, categoria, precio, activo FROM productos ORDER BY nombre"));
+    }
+
+    @Test
+    void noEscribeEnTablasConDatosSinVaciar() {
+        generar(7, false);
+        assertThrows(IllegalStateException.class, () -> generar(8, false));
+        assertEquals(CLIENTES, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes", Integer.class));
+    }
+}
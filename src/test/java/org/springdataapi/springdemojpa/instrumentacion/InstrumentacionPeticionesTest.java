@@ -0,0 +1,144 @@
+package org.springdataapi.springdemojpa.instrumentacion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Coste por peticion: lo que mide el DataSource instrumentado y los listeners de Hibernate llega por endpoint
+ * (patron de la URL) a /api/admin/metricas/peticiones y a los medidores crm.peticion.* de Micrometer.
+ * Las cifras de GET /api/clientes/{id} cuadran con ConsultasPorEndpointTest (1 sentencia)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class InstrumentacionPeticionesTest {
+
+    private static final String CLIENTE_POR_ID = "$[?(@.metodo == 'GET' && @.uri == '/api/clientes/{id}')]";
+    private static final String PATCH_CLIENTE = "$[?(@.metodo == 'PATCH' && @.uri == '/api/clientes/{id}')]";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private MetricasPeticiones metricasPeticiones;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ClientesRepository clientesRepository;
+
+    private String tokenAdmin;
+    private String tokenEmpleado;
+    private Integer idCliente;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+        Empleados ana = datos.ana("comercial");
+        Integer idAna = ana.getId();
+
+        Clientes c = new Clientes();
+        c.setNombre("Luis");
+        c.setEmail("luis@crm.es");
+        c.setTelefono("611111111");
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        c.setIdEmpleadoResponsable(ana);
+        idCliente = clientesRepository.save(c).getId();
+
+        CustomUserDetails admin = new CustomUserDetails("ana@crm.es", null, "ADMIN", idAna, "EMPLEADO");
+        tokenAdmin = datos.token(admin);
+        tokenEmpleado = datos.token(new CustomUserDetails("ana@crm.es", null, "EMPLEADO", idAna, "EMPLEADO"));
+        // Version ya cacheada (la misma para los dos tokens), como en uso normal: sin la consulta de
+        // version_credenciales en cada URL
+        datos.cachearVersion(admin);
+        metricasPeticiones.vaciar();
+    }
+
+    @Test
+    void costePorEndpointEnElEndpointDeAdmin() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/clientes/" + idCliente).header("Authorization", "Bearer " + tokenAdmin))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(patch("/api/clientes/" + idCliente)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Luis Perez\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admin/metricas/peticiones").header("Authorization", "Bearer " + tokenAdmin))
+                .andExpect(status().isOk())
+                // Las tres lecturas por id agrupadas bajo el patron, no por URL
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".peticiones", contains(3)))
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".sentencias.max", contains(1.0)))
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".filas.max", contains(1.0)))
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".entidadesCargadas.max", everyItem(greaterThanOrEqualTo(1.0))))
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".flushes.max", contains(0.0)))
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".jdbcMs.max", everyItem(greaterThan(0.0))))
+                .andExpect(jsonPath(CLIENTE_POR_ID + ".serializacionMs.max", everyItem(greaterThan(0.0))))
+                // Leer + UPDATE, con un flush al confirmar
+                .andExpect(jsonPath(PATCH_CLIENTE + ".peticiones", contains(1)))
+                .andExpect(jsonPath(PATCH_CLIENTE + ".sentencias.max", everyItem(greaterThanOrEqualTo(2.0))))
+                .andExpect(jsonPath(PATCH_CLIENTE + ".flushes.max", everyItem(greaterThanOrEqualTo(1.0))));
+
+        DistributionSummary sentencias = meterRegistry.find("crm.peticion.sentencias")
+                .tags("metodo", "GET", "uri", "/api/clientes/{id}").summary();
+        assertNotNull(sentencias);
+        assertEquals(3, sentencias.count());
+        assertEquals(3.0, sentencias.totalAmount());
+    }
+
+    @Test
+    void soloAdmin() throws Exception {
+        mockMvc.perform(get("/api/admin/metricas/peticiones").header("Authorization", "Bearer " + tokenEmpleado))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void consultasLentasMuestreadasYConColaAcotada() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConsultasLentas nunca = new ConsultasLentas(registry, 0, 0.0, 10);
+        ConsultasLentas siempre = new ConsultasLentas(registry, 50, 1.0, 10);
+        try {
+            assertEquals(true, siempre.esLenta(50_000_000L));
+            assertEquals(false, siempre.esLenta(49_999_999L));
+            for (int i = 0; i < 4; i++) nunca.registrar("select 1", 1, "GET /x");
+            siempre.registrar("select 1", 60_000_000L, null);
+            assertEquals(4.0, registry.get("crm.consultas.lentas").tag("registro", "muestreo").counter().count());
+            assertEquals(1.0, registry.get("crm.consultas.lentas").tag("registro", "log").counter().count());
+        } finally {
+            nunca.detener();
+            siempre.detener();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.springdataapi.springdemojpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.EmpleadoResumen;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.ProductoResumen;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Las consultas con filtros opcionales devuelven lo mismo que antes para cada combinacion de filtros
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConsultasFiltradasTest {
+
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+
+    private Empleados conClientes;
+    private RolesEmpleado rol;
+
+    @BeforeEach
+    void seed() {
+        clientesRepository.deleteAll();
+        empleadosRepository.deleteAll();
+        productosRepository.deleteAll();
+        rolesEmpleadoRepository.deleteAll();
+
+        rol = new RolesEmpleado();
+        rol.setNombreRol("empleado");
+        rolesEmpleadoRepository.save(rol);
+
+        conClientes = empleado("ana@crm.es", "600000001", "activo");
+        empleado("luis@crm.es", "600000002", "inactivo");
+
+        cliente("c1@crm.es", "611111111", "empresa", conClientes, LocalDate.of(2024, 1, 10));
+        cliente("c2@crm.es", "622222222", "particular", conClientes, LocalDate.of(2025, 3, 1));
+        cliente("c3@otro.es", "633333333", "empresa", null, LocalDate.of(2025, 6, 1));
+
+        // Los clientes se insertan directamente con el repositorio: el contador se repara aqui
+        empleadosRepository.reconciliarNumClientes();
+
+        producto("Portatil", "informatica", 900.0, true);
+        producto("Raton", "informatica", 20.0, true);
+        producto("Silla", "mobiliario", 150.0, false);
+    }
+
+    @Test
+    void clientesSoloAplicaLosFiltrosInformados() {
+        assertEquals(3, clientes(null, null, null, null, null).size());
+        assertEquals(3, clientes("", "", "", null, null).size());
+        assertEquals(2, clientes(null, null, "empresa", null, null).size());
+        assertEquals(2, clientes(null, "crm.es", null, null, null).size());
+        assertEquals(1, clientes("2222", null, null, null, null).size());
+        assertEquals(1, clientes(null, null, "empresa", conClientes.getId(), null).size());
+        assertEquals(2, clientes(null, null, null, null, LocalDate.of(2025, 1, 1)).size());
+    }
+
+    @Test
+    void clientesRespetaElCursor() {
+        List<ClienteResumen> primera = clientesRepository.buscarClientesFiltrados(
+                null, null, null, null, null, 0, Limit.of(2));
+        assertEquals(2, primera.size());
+        List<ClienteResumen> resto = clientesRepository.buscarClientesFiltrados(
+                null, null, null, null, null, primera.get(1).id(), Limit.of(2));
+        assertEquals(1, resto.size());
+    }
+
+    @Test
+    void empleadosFiltraPorClientesAsignados() {
+        assertEquals(2, empleados(null, null).size());
+        assertEquals(1, empleados(null, true).size());
+        assertEquals(conClientes.getId(), empleados(null, true).get(0).id());
+        assertEquals(1, empleados(null, false).size());
+        assertEquals(0, empleados("inactivo", true).size());
+    }
+
+    @Test
+    void productosCombinaRangoDePrecioYEstado() {
+        assertEquals(3, productos(null, null, null, null, null).size());
+        assertEquals(2, productos(null, "informatica", null, null, null).size());
+        assertEquals(2, productos(null, null, 100.0, null, null).size());
+        assertEquals(1, productos(null, null, 100.0, 500.0, null).size());
+        assertEquals(1, productos("Sil", null, null, null, false).size());
+    }
+
+    private List<ClienteResumen> clientes(String telefono, String email, String tipo, Integer idEmpleado, LocalDate desde) {
+        return clientesRepository.buscarClientesFiltrados(telefono, email, tipo, idEmpleado, desde, 0, Limit.of(50));
+    }
+
+    private List<EmpleadoResumen> empleados(String estado, Boolean tieneClientes) {
+        return empleadosRepository.buscarEmpleadosFiltrados(null, null, estado, rol.getId(), tieneClientes, null,
+                0, Limit.of(50));
+    }
+
+    private List<ProductoResumen> productos(String nombre, String categoria, Double min, Double max, Boolean activo) {
+        return productosRepository.buscarProductosFiltradosCompleto(nombre, categoria, min, max, activo,
+                0, Limit.of(50));
+    }
+
+    private Empleados empleado(String email, String telefono, String estado) {
+        Empleados e = new Empleados();
+        e.setNombre(email);
+        e.setEmail(email);
+        e.setTelefono(telefono);
+        e.setPassword("x");
+        e.setIdRol(rol);
+        e.setEstado(estado);
+        e.setFechaIngreso(LocalDate.of(2023, 1, 1));
+        return empleadosRepository.save(e);
+    }
+
+    private void cliente(String email, String telefono, String tipo, Empleados responsable, LocalDate alta) {
+        Clientes c = new Clientes();
+        c.setNombre(email);
+        c.setEmail(email);
+        c.setTelefono(telefono);
+        c.setTipoCliente(tipo);
+        c.setPassword("x");
+        c.setIdEmpleadoResponsable(responsable);
+        c.setFechaAlta(alta);
+        clientesRepository.save(c);
+    }
+
+    private void producto(String nombre, String categoria, double precio, boolean activo) {
+        Productos p = new Productos();
+        p.setNombre(nombre);
+        p.setCategoria(categoria);
+        p.setPrecio(precio);
+        p.setActivo(activo);
+        productosRepository.save(p);
+    }
+}
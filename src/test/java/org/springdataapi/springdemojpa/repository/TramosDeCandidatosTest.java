@@ -0,0 +1,55 @@
+package org.springdataapi.springdemojpa.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TramosDeCandidatosTest {
+
+    // La "consulta" filtra los ids multiplos de 7 (la condicion que el indice no sabe) y anota cada tramo
+    private static List<Integer> buscar(int[] candidatos, int despuesDe, int limite, List<List<Integer>> tramos) {
+        return TramosDeCandidatos.buscar(candidatos, despuesDe, limite, (tramo, restantes) -> {
+            tramos.add(tramo);
+            IntStream ids = tramo == null ? IntStream.rangeClosed(despuesDe + 1, 100_000)
+                    : tramo.stream().mapToInt(Integer::intValue);
+            return ids.filter(id -> id % 7 == 0).limit(restantes).boxed().toList();
+        });
+    }
+
+    @Test
+    void recorreLosTramosDesdeElCursorHastaElLimite() {
+        int[] candidatos = IntStream.rangeClosed(1, 2 * TramosDeCandidatos.TAMANO_TRAMO).toArray();
+        List<List<Integer>> tramos = new ArrayList<>();
+
+        // El primer tramo (995..1994) da 142 filas; la que falta sale del segundo
+        List<Integer> filas = buscar(candidatos, 994, 143, tramos);
+        assertEquals(1001, filas.get(0));
+        assertEquals(1995, filas.get(142));
+        assertEquals(2, tramos.size());
+        assertEquals(995, tramos.get(0).get(0));
+        assertEquals(TramosDeCandidatos.TAMANO_TRAMO, tramos.get(0).size());
+    }
+
+    @Test
+    void conDemasiadosCandidatosUnaSolaConsultaSinIn() {
+        int[] candidatos = IntStream.rangeClosed(1, TramosDeCandidatos.MAX_CANDIDATOS + 500).toArray();
+        List<List<Integer>> tramos = new ArrayList<>();
+
+        List<Integer> filas = buscar(candidatos, 0, 20, tramos);
+        assertEquals(1, tramos.size());
+        assertNull(tramos.get(0));
+        assertEquals(20, filas.size());
+        assertEquals(7, filas.get(0));
+
+        // Pasado el cursor ya quedan pocos: vuelve a los tramos con IN
+        tramos.clear();
+        buscar(candidatos, 1000, 20, tramos);
+        assertEquals(1001, tramos.get(0).get(0));
+        assertEquals(TramosDeCandidatos.TAMANO_TRAMO, tramos.get(0).size());
+    }
+}
@@ -0,0 +1,124 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Back-pressure del pool de hashing en los dos logins (API JSON y formulario): con la cola llena se rechaza al
+ * momento y con el pool ocupado se espera max-wait-ms; en ambos casos 503 con Retry-After, nunca un 500
+ */
+@SpringBootTest(properties = {"app.security.password-hashing.threads=1",
+        "app.security.password-hashing.queue-capacity=1", "app.security.password-hashing.max-wait-ms=1000"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class LoginConHashingSaturadoTest {
+
+    private static final long MAX_WAIT_MS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+        userDetailsCache.invalidate("ana@crm.es");
+
+        Empleados ana = datos.ana("ADMIN");
+        // Ya en BCrypt: las passwords en texto plano se comparan sin pasar por el pool
+        ana.setPassword(new BCryptPasswordEncoder(4).encode("secreto"));
+        empleadosRepository.save(ana);
+    }
+
+    @Test
+    void apiConLaColaLlenaDa503AlMomento() throws Exception {
+        try (PoolHashingBloqueado pool = PoolHashingBloqueado.ocupar(passwordEncoder)) {
+            pool.llenarCola();
+            assertOcupado(() -> loginApi(), false);
+        }
+        loginApi().andExpect(status().isOk());
+    }
+
+    @Test
+    void apiConElPoolOcupadoDa503TrasLaEspera() throws Exception {
+        try (PoolHashingBloqueado pool = PoolHashingBloqueado.ocupar(passwordEncoder)) {
+            assertOcupado(() -> loginApi(), true);
+        }
+        loginApi().andExpect(status().isOk());
+    }
+
+    @Test
+    void formularioConLaColaLlenaDa503AlMomento() throws Exception {
+        try (PoolHashingBloqueado pool = PoolHashingBloqueado.ocupar(passwordEncoder)) {
+            pool.llenarCola();
+            assertOcupado(() -> loginFormulario(), false);
+        }
+        loginFormulario().andExpect(redirectedUrl("/"));
+    }
+
+    @Test
+    void formularioConElPoolOcupadoDa503TrasLaEspera() throws Exception {
+        try (PoolHashingBloqueado pool = PoolHashingBloqueado.ocupar(passwordEncoder)) {
+            assertOcupado(() -> loginFormulario(), true);
+        }
+        loginFormulario().andExpect(redirectedUrl("/"));
+    }
+
+    // esperaAgotada: el 503 llega tras max-wait-ms (pool ocupado) o al momento (cola llena)
+    private void assertOcupado(Login login, boolean esperaAgotada) throws Exception {
+        long inicio = System.nanoTime();
+        login.enviar()
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, PasswordHashingBusyException.RETRY_AFTER_SEGUNDOS));
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(esperaAgotada ? ms >= MAX_WAIT_MS : ms < MAX_WAIT_MS, ms + " ms");
+    }
+
+    private ResultActions loginApi() throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"ana@crm.es\", \"password\": \"secreto\"}"));
+    }
+
+    private ResultActions loginFormulario() throws Exception {
+        return mockMvc.perform(post("/login").with(csrf())
+                .param("username", "ana@crm.es")
+                .param("password", "secreto"));
+    }
+
+    @FunctionalInterface
+    private interface Login {
+        ResultActions enviar() throws Exception;
+    }
+}
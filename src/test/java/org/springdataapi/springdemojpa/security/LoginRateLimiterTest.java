@@ -0,0 +1,86 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final LoginRateLimiter limiter = new LoginRateLimiter(1024, now::get);
+
+    @Test
+    void bloqueaTrasCincoFallosYDesbloqueaAlPasarElBloqueo() {
+        for (int i = 0; i < 4; i++) {
+            limiter.registerFailedAttempt("a@a.es:1.1.1.1");
+        }
+        assertFalse(limiter.isBlocked("a@a.es:1.1.1.1"));
+
+        limiter.registerFailedAttempt("a@a.es:1.1.1.1");
+        assertTrue(limiter.isBlocked("a@a.es:1.1.1.1"));
+        assertFalse(limiter.isBlocked("b@b.es:1.1.1.1"));
+
+        now.addAndGet(301_000);
+        assertFalse(limiter.isBlocked("a@a.es:1.1.1.1"));
+
+        // Tras el bloqueo el contador vuelve a empezar
+        limiter.registerFailedAttempt("a@a.es:1.1.1.1");
+        assertFalse(limiter.isBlocked("a@a.es:1.1.1.1"));
+    }
+
+    @Test
+    void loginCorrectoBorraLosFallos() {
+        for (int i = 0; i < 4; i++) {
+            limiter.registerFailedAttempt("1.1.1.1");
+        }
+        limiter.registerSuccessfulLogin("1.1.1.1");
+        limiter.registerFailedAttempt("1.1.1.1");
+        assertFalse(limiter.isBlocked("1.1.1.1"));
+    }
+
+    @Test
+    void losFallosCaducanSinLimpiezaPeriodica() {
+        for (int i = 0; i < 4; i++) {
+            limiter.registerFailedAttempt("1.1.1.1");
+        }
+        assertEquals(1, limiter.size());
+
+        now.addAndGet(601_000);
+        assertEquals(0, limiter.size());
+        limiter.registerFailedAttempt("1.1.1.1");
+        assertFalse(limiter.isBlocked("1.1.1.1"));
+    }
+
+    @Test
+    void unaRafagaDeClavesNoEchaALasBloqueadas() {
+        for (int i = 0; i < 5; i++) {
+            limiter.registerFailedAttempt("victima@a.es:9.9.9.9");
+        }
+        for (int i = 0; i < 100_000; i++) {
+            limiter.registerFailedAttempt("random" + i + "@x.es:9.9.9.9");
+        }
+        assertTrue(limiter.isBlocked("victima@a.es:9.9.9.9"));
+        assertTrue(limiter.size() <= limiter.capacity());
+    }
+
+    // La cota es estructural (tabla de tamaño fijo); lo que reserva cada intento se mide con
+    // LoginRateLimiterBenchmark y -prof gc
+    @Test
+    void millonesDeClavesDistintasNoHacenCrecerLaTabla() {
+        LoginRateLimiter grande = new LoginRateLimiter(65_536, now::get);
+        int capacidad = grande.capacity();
+        assertEquals(65_536, capacidad);
+
+        for (int i = 0; i < 3_000_000; i++) {
+            String key = "user" + i + "@x.es:10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+            grande.registerFailedAttempt(key);
+            grande.isBlocked(key);
+        }
+
+        // Ninguna ha caducado (reloj parado): la tabla esta llena y las claves nuevas reutilizan sus huecos
+        assertEquals(capacidad, grande.capacity());
+        assertEquals(capacidad, grande.size());
+    }
+}
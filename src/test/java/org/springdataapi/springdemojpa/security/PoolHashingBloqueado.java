@@ -0,0 +1,105 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deja ocupado el pool de PasswordHashingService sin depender de tiempos: un encode() en segundo plano de una
+ * password cuyo toString() (lo llama BCrypt dentro del pool) no vuelve hasta {@link #close()}. Con
+ * app.security.password-hashing.threads=1 el pool queda bloqueado y lo siguiente que llegue espera en la cola.
+ */
+public final class PoolHashingBloqueado implements AutoCloseable {
+
+    private final PasswordEncoder encoder;
+    private final CountDownLatch dentro = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final List<Thread> hilos = new CopyOnWriteArrayList<>();
+
+    private PoolHashingBloqueado(PasswordEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    public static PoolHashingBloqueado ocupar(PasswordEncoder encoder) throws InterruptedException {
+        PoolHashingBloqueado bloqueo = new PoolHashingBloqueado(encoder);
+        bloqueo.arrancar("ocupa-pool-hashing", bloqueo.new PasswordBloqueante());
+        assertTrue(bloqueo.dentro.await(5, TimeUnit.SECONDS), "el pool de hashing no llego a ejecutar la tarea");
+        return bloqueo;
+    }
+
+    /**
+     * Con queue-capacity=1, deja la cola llena: un encode() en segundo plano que queda esperando su turno
+     * (hasta max-wait-ms, luego se cancela y sale de la cola). Vuelve cuando ya esta encolado.
+     */
+    public void llenarCola() throws InterruptedException {
+        Thread t = arrancar("llena-cola-hashing", "en-cola");
+        // Esperando el resultado (Future.get con timeout) = la tarea ya esta en la cola
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (t.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(t.isAlive() && System.nanoTime() < limite, "la tarea no llego a encolarse");
+            Thread.sleep(1);
+        }
+    }
+
+    // Libera el pool y espera a que terminen los encode() lanzados: al volver la cola esta vacia
+    @Override
+    public void close() throws InterruptedException {
+        liberar.countDown();
+        for (Thread t : hilos) {
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private Thread arrancar(String nombre, CharSequence password) {
+        Thread t = new Thread(() -> {
+            try {
+                encoder.encode(password);
+            } catch (PasswordHashingBusyException e) {
+                // Quien lo pidio se cansa de esperar (max-wait-ms); la tarea del pool sigue hasta close()
+            }
+        }, nombre);
+        t.setDaemon(true);
+        hilos.add(t);
+        t.start();
+        return t;
+    }
+
+    private final class PasswordBloqueante implements CharSequence {
+
+        @Override
+        public String toString() {
+            dentro.countDown();
+            // El timeout del encode() cancela la tarea con interrupt: se ignora, el bloqueo dura hasta close()
+            boolean interrumpido = false;
+            while (liberar.getCount() > 0) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) Thread.currentThread().interrupt();
+            return "x";
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+    }
+}
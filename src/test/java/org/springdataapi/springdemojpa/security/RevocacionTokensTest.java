@@ -0,0 +1,206 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.EmpleadosParcialDTO;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springdataapi.springdemojpa.repository.UsuariosAuthRepository;
+import org.springdataapi.springdemojpa.service.ClienteService;
+import org.springdataapi.springdemojpa.service.EmpleadosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El claim "ver" del JWT frente a version_credenciales en BD: un cambio de estado/rol/password lo invalida
+ * al momento, y un registro recien creado (reinicio u otra instancia) consulta la BD en vez de aceptarlo
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class RevocacionTokensTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private UsuariosAuthRepository usuariosAuthRepository;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private Integer idAna;
+    private Integer idLuis;
+    private String tokenAna;
+    private String tokenLuis;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol("ADMIN");
+        rolesEmpleadoRepository.save(rol);
+        idAna = empleado("Ana", "ana@crm.es", "600000000", rol);
+        idLuis = empleado("Luis", "luis@crm.es", "611111111", rol);
+        tokenAna = token("ana@crm.es", idAna);
+        tokenLuis = token("luis@crm.es", idLuis);
+    }
+
+    private Integer empleado(String nombre, String email, String telefono, RolesEmpleado rol) {
+        Empleados e = new Empleados();
+        e.setNombre(nombre);
+        e.setEmail(email);
+        e.setTelefono(telefono);
+        e.setPassword("x");
+        e.setIdRol(rol);
+        e.setEstado("activo");
+        e.setFechaIngreso(LocalDate.of(2024, 1, 15));
+        return empleadosRepository.save(e).getId();
+    }
+
+    // Version 0: la de un empleado recien creado
+    private String token(String email, Integer id) {
+        return datos.token(new CustomUserDetails(email, null, "ADMIN", id, "EMPLEADO"));
+    }
+
+    @Test
+    void desactivarUnEmpleadoRevocaSuToken() throws Exception {
+        mockMvc.perform(get("/api/productos").header("Authorization", "Bearer " + tokenLuis))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/empleados/" + idLuis)
+                        .header("Authorization", "Bearer " + tokenAna)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"inactivo\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, usuariosAuthRepository.versionCredencialesEmpleado(idLuis).orElseThrow());
+        mockMvc.perform(get("/api/productos").header("Authorization", "Bearer " + tokenLuis))
+                .andExpect(status().isUnauthorized());
+        // Cambiar solo el nombre no toca las credenciales
+        mockMvc.perform(patch("/api/empleados/" + idAna)
+                        .header("Authorization", "Bearer " + tokenAna)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Ana Maria\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/productos").header("Authorization", "Bearer " + tokenAna))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unRegistroNuevoConsultaLaBd() {
+        // Cambio hecho por otra instancia (o antes del reinicio): esta nunca llamo a revoke()
+        jdbcTemplate.update("UPDATE empleados SET version_credenciales = 3 WHERE id_empleado = ?", idLuis);
+        empleadosRepository.deleteById(idAna);
+
+        TokenRevocationRegistry registro = new TokenRevocationRegistry(usuariosAuthRepository, 100, 30);
+        assertFalse(registro.isCurrent("EMPLEADO", idLuis, 0));
+        assertTrue(registro.isCurrent("EMPLEADO", idLuis, 3));
+        assertFalse(registro.isCurrent("ADMIN", idAna, 0));
+        assertFalse(registro.isCurrent("CLIENTE", idLuis, 3));
+    }
+
+    @Test
+    void elPatchDeEmpleadoInvalidaTrasElCommit() {
+        assertTrue(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 0));
+        CustomUserDetails luis = new CustomUserDetails("luis@crm.es", "x", "ADMIN", idLuis, "EMPLEADO");
+        userDetailsCache.put("luis@crm.es", luis, userDetailsCache.generation());
+
+        EmpleadosParcialDTO dto = new EmpleadosParcialDTO();
+        dto.setEstado("inactivo");
+        transactionTemplate.executeWithoutResult(status -> {
+            empleadosService.actualizarParcial(idLuis, dto, null);
+            // Sin confirmar todavia: ni la cache ni el registro se han tocado
+            assertNotNull(userDetailsCache.get("luis@crm.es"));
+            assertTrue(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 0));
+        });
+
+        assertNull(userDetailsCache.get("luis@crm.es"));
+        assertFalse(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 0));
+        assertTrue(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 1));
+    }
+
+    @Test
+    void elBorradoDeClienteRevertidoNoRevoca() {
+        Clientes c = new Clientes();
+        c.setNombre("Marta");
+        c.setEmail("marta@crm.es");
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        Integer idMarta = clientesRepository.save(c).getId();
+        assertTrue(tokenRevocationRegistry.isCurrent("CLIENTE", idMarta, 0));
+        CustomUserDetails marta = new CustomUserDetails("marta@crm.es", "x", "CLIENTE", idMarta, "CLIENTE");
+        userDetailsCache.put("marta@crm.es", marta, userDetailsCache.generation());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            clienteService.eliminar(idMarta, null);
+            status.setRollbackOnly();
+        });
+        // Sin commit: el cliente sigue ahi, con su token y su entrada en cache
+        assertNotNull(userDetailsCache.get("marta@crm.es"));
+        assertTrue(tokenRevocationRegistry.isCurrent("CLIENTE", idMarta, 0));
+
+        clienteService.eliminar(idMarta, null);
+        assertNull(userDetailsCache.get("marta@crm.es"));
+        assertFalse(tokenRevocationRegistry.isCurrent("CLIENTE", idMarta, 0));
+    }
+
+    @Test
+    void elBorradoDeEmpleadoRevertidoNoRevoca() {
+        assertTrue(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 0));
+        CustomUserDetails luis = new CustomUserDetails("luis@crm.es", "x", "ADMIN", idLuis, "EMPLEADO");
+        userDetailsCache.put("luis@crm.es", luis, userDetailsCache.generation());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            empleadosService.eliminar(idLuis, null);
+            status.setRollbackOnly();
+        });
+        assertNotNull(userDetailsCache.get("luis@crm.es"));
+        assertTrue(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 0));
+
+        empleadosService.eliminar(idLuis, null);
+        assertNull(userDetailsCache.get("luis@crm.es"));
+        assertFalse(tokenRevocationRegistry.isCurrent("EMPLEADO", idLuis, 0));
+    }
+}
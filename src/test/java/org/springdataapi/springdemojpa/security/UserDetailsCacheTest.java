@@ -0,0 +1,48 @@
+package org.springdataapi.springdemojpa.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheTest {
+
+    private final UserDetailsCache cache = new UserDetailsCache(100, 300);
+
+    @Test
+    void elBorradoPorIdSoloQuitaAlUsuarioDeEseTipo() {
+        put(new CustomUserDetails("ana@crm.es", "x", "ADMIN", 1, "EMPLEADO"));
+        put(new CustomUserDetails("luis@crm.es", "x", "CLIENTE", 1, "CLIENTE"));
+
+        cache.invalidate("CLIENTE", 1);
+        assertNull(cache.get("luis@crm.es"));
+        assertNotNull(cache.get("ana@crm.es"));
+
+        cache.invalidate("EMPLEADO", 1);
+        assertNull(cache.get("ana@crm.es"));
+    }
+
+    @Test
+    void elBorradoPorIdSigueAlEmailCacheadoAunqueCambie() {
+        put(new CustomUserDetails("ana@crm.es", "x", "ADMIN", 1, "EMPLEADO"));
+        // El email pasa a otro usuario: la entrada de Ana se sustituye y su id ya no apunta a el
+        put(new CustomUserDetails("ana@crm.es", "x", "EMPLEADO", 2, "EMPLEADO"));
+
+        cache.invalidate("EMPLEADO", 1);
+        assertEquals(2, cache.get(" ANA@crm.es ").getUserId());
+
+        cache.invalidate("EMPLEADO", 2);
+        assertNull(cache.get("ana@crm.es"));
+    }
+
+    @Test
+    void unaCargaQueEmpezoAntesDelBorradoNoSeGuarda() {
+        long generation = cache.generation();
+        cache.invalidate("EMPLEADO", 1);
+        cache.put("ana@crm.es", new CustomUserDetails("ana@crm.es", "x", "ADMIN", 1, "EMPLEADO"), generation);
+        assertNull(cache.get("ana@crm.es"));
+    }
+
+    private void put(CustomUserDetails user) {
+        cache.put(user.getUsername(), user, cache.generation());
+    }
+}
@@ -0,0 +1,88 @@
+package org.springdataapi.springdemojpa.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "9a4f2c8d3b7a1e6f45c8a0b3f267d8b1d4e6f3c8a9d2b5f8e3a9c8b5f6e4d1a2";
+
+    @Test
+    void laEntradaCaducaConElToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long expira = enUnMinuto();
+        cache.put("token", claims(expira));
+
+        assertNotNull(cache.get("token", expira - 1));
+        assertNull(cache.get("token", expira));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void noPasaDeMaxEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(50);
+        long expira = enUnMinuto();
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("token" + i, claims(expira));
+            assertTrue(cache.size() <= 50, "size " + cache.size());
+        }
+        // Lo ultimo guardado sigue en cache
+        assertNotNull(cache.get("token9999", expira - 1));
+    }
+
+    @Test
+    void conCeroNoSeCachea() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+        assertFalse(cache.isEnabled());
+        cache.put("token", claims(System.currentTimeMillis() + 60_000));
+        assertNull(cache.get("token", System.currentTimeMillis()));
+        assertEquals(0, cache.size());
+
+        // El provider sigue verificando cada vez
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, cache, null);
+        String token = token(provider);
+        assertEquals("ana@crm.es", provider.parseClaims(token).getSubject());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void unTokenManipuladoNuncaEntraEnLaCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, cache, null);
+        String token = token(provider);
+        assertNotNull(provider.parseClaims(token));
+        assertEquals(1, cache.size());
+
+        // Payload cambiado (otro subject) con la firma original, y firma cambiada con el payload original
+        String[] partes = token.split("\\.");
+        String otroPayload = partes[0] + "." + partes[1].substring(0, partes[1].length() - 2) + "AA." + partes[2];
+        String otraFirma = partes[0] + "." + partes[1] + "." + (partes[2].charAt(0) == 'A' ? 'B' : 'A') + partes[2].substring(1);
+        for (int i = 0; i < 2; i++) {
+            assertNull(provider.parseClaims(otroPayload));
+            assertNull(provider.parseClaims(otraFirma));
+            assertNull(cache.get(otroPayload, System.currentTimeMillis()));
+            assertNull(cache.get(otraFirma, System.currentTimeMillis()));
+        }
+        assertEquals(1, cache.size());
+    }
+
+    // El exp de un JWT va en segundos
+    private static long enUnMinuto() {
+        return (System.currentTimeMillis() / 1000 + 60) * 1000;
+    }
+
+    private static Claims claims(long expiraMillis) {
+        return Jwts.claims().subject("ana@crm.es").expiration(new Date(expiraMillis)).build();
+    }
+
+    private static String token(JwtTokenProvider provider) {
+        CustomUserDetails user = new CustomUserDetails("ana@crm.es", null, "ADMIN", 1, "EMPLEADO");
+        return provider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
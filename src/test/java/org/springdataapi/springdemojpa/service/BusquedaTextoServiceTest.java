@@ -0,0 +1,151 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.models.ClienteResumen;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.Pagina;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las consultas que pasan por el indice de trigramas devuelven lo mismo que el LIKE
+ * y el indice sigue las altas, cambios y bajas hechas desde los services
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BusquedaTextoServiceTest {
+
+    @Autowired
+    private BusquedaTextoService busquedaTextoService;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+
+    @BeforeEach
+    void seed() {
+        clientesRepository.deleteAll();
+        empleadosRepository.deleteAll();
+        productosRepository.deleteAll();
+        rolesEmpleadoRepository.deleteAll();
+
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol("empleado");
+        rolesEmpleadoRepository.save(rol);
+
+        for (String nombre : new String[]{"Mariano", "Rosa Maria", "Pedro"}) {
+            Empleados e = new Empleados();
+            e.setNombre(nombre);
+            e.setEmail(nombre.replace(' ', '.').toLowerCase() + "@crm.es");
+            e.setPassword("x");
+            e.setIdRol(rol);
+            e.setEstado("activo");
+            e.setFechaIngreso(LocalDate.now());
+            empleadosRepository.save(e);
+        }
+        for (String nombre : new String[]{"Portatil 15", "Monitor portatil", "Teclado"}) {
+            Productos p = new Productos();
+            p.setNombre(nombre);
+            p.setPrecio(10.0);
+            p.setActivo(true);
+            productosRepository.save(p);
+        }
+        for (int i = 0; i < 120; i++) {
+            Clientes c = new Clientes();
+            c.setNombre("Cliente " + i);
+            c.setEmail("cliente" + i + (i % 2 == 0 ? "@crm.es" : "@otro.es"));
+            c.setTelefono(String.format("6%08d", i * 7));
+            c.setPassword("x");
+            c.setFechaAlta(LocalDate.now());
+            clientesRepository.save(c);
+        }
+
+        busquedaTextoService.reconstruir();
+        assertTrue(busquedaTextoService.isListo());
+    }
+
+    @Test
+    void consultaDeClientesConIndiceIgualQueConLike() {
+        for (String[] filtro : new String[][]{{"0000", null}, {null, "@crm"}, {"000", "otro"}, {"12", null}}) {
+            List<ClienteResumen> conLike = clientesRepository.buscarClientesFiltrados(
+                    filtro[0], filtro[1], null, null, null, 0, Limit.unlimited());
+            List<Integer> esperados = conLike.stream().map(ClienteResumen::id).toList();
+            assertEquals(esperados, idsPaginados(filtro[0], filtro[1]), filtro[0] + " / " + filtro[1]);
+        }
+    }
+
+    @Test
+    void elIndiceSigueLosCambiosDeLosServices() {
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre("Nuevo");
+        dto.setEmail("nuevo@zeta.es");
+        dto.setTelefono("699888777");
+        dto.setPassword("1234");
+        clienteService.crear(dto);
+        assertEquals(1, clienteService.buscarClientesFiltrados(null, "zeta", null, null, null, null, null)
+                .contenido().size());
+
+        Clientes nuevo = clientesRepository.findByEmail("nuevo@zeta.es").orElseThrow();
+        dto.setEmail("nuevo@omega.es");
+        clienteService.actualizar(nuevo.getId(), dto, null);
+        assertTrue(clienteService.buscarClientesFiltrados(null, "zeta", null, null, null, null, null)
+                .contenido().isEmpty());
+        assertEquals(1, clienteService.buscarClientesFiltrados("9888", "omega", null, null, null, null, null)
+                .contenido().size());
+
+        clienteService.eliminar(nuevo.getId(), null);
+        assertTrue(clienteService.buscarClientesFiltrados(null, "omega", null, null, null, null, null)
+                .contenido().isEmpty());
+    }
+
+    @Test
+    void productosYEmpleadosPorNombre() {
+        // El LIKE de H2 distingue mayusculas: "portatil" solo esta en minusculas en uno de ellos
+        assertEquals(1, productosService.buscarProductosFiltrados("portatil", null, null, null, null, null, null)
+                .contenido().size());
+        assertEquals(List.of("Mariano", "Rosa Maria"),
+                empleadosService.BuscarPorLetras("MAR").stream().map(Empleados::getNombre).sorted().toList());
+        // Con menos de 3 caracteres va por el LIKE de siempre
+        assertEquals(2, empleadosService.BuscarPorLetras("ro").size());
+    }
+
+    // Recorre todas las paginas (de 7 en 7) para probar tambien el cursor sobre los candidatos
+    private List<Integer> idsPaginados(String telefono, String email) {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<ClienteResumen> pagina = clienteService.buscarClientesFiltrados(
+                    telefono, email, null, null, null, cursor, 7);
+            pagina.contenido().forEach(c -> ids.add(c.id()));
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
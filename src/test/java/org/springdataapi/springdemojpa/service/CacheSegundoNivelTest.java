@@ -0,0 +1,130 @@
+package org.springdataapi.springdemojpa.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.models.EstadisticasRegionCache;
+import org.springdataapi.springdemojpa.models.Productos;
+import org.springdataapi.springdemojpa.models.ProductosDTO;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.ProductosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Productos y roles se sirven desde la cache de segundo nivel una vez cargados,
+ * y las escrituras de ProductosService invalidan lo que corresponde
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private RolesEmpleadoService rolesEmpleadoService;
+    @Autowired
+    private CacheSegundoNivelService cacheSegundoNivelService;
+    @Autowired
+    private ProductosRepository productosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Integer idRol;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        clientesRepository.deleteAll();
+        empleadosRepository.deleteAll();
+        productosRepository.deleteAll();
+        rolesEmpleadoRepository.deleteAll();
+
+        for (String nombre : new String[]{"Raton", "Teclado", "Monitor"}) {
+            Productos p = new Productos();
+            p.setNombre(nombre);
+            p.setPrecio(10.0);
+            p.setActivo(!nombre.equals("Monitor"));
+            productosRepository.save(p);
+        }
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol("empleado");
+        idRol = rolesEmpleadoRepository.save(rol).getId();
+        cacheSegundoNivelService.vaciar();
+    }
+
+    @Test
+    void catalogoYActivosSinIrABaseDeDatosLaSegundaVez() {
+        List<Productos> catalogo = productosService.findAll();
+        assertEquals(2, productosService.findProductosActivos().size());
+
+        statistics.clear();
+        assertEquals(3, productosService.findAll().size());
+        assertEquals(2, productosService.findProductosActivos().size());
+        assertEquals("Raton", productosService.findById(catalogo.get(0).getId()).getNombre());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, region("productos-consultas").aciertos());
+        assertEquals(1, region("productos").aciertos());
+    }
+
+    @Test
+    void crearActualizarYEliminarInvalidanLasConsultas() {
+        productosService.findAll();
+
+        ProductosDTO dto = new ProductosDTO();
+        dto.setNombre("Altavoz");
+        dto.setPrecio(25.0);
+        productosService.crear(dto);
+        assertEquals(List.of("Altavoz", "Monitor", "Raton", "Teclado"), nombres());
+
+        Productos altavoz = productosRepository.findAll().stream()
+                .filter(p -> p.getNombre().equals("Altavoz")).findFirst().orElseThrow();
+        dto.setNombre("Altavoz BT");
+        dto.setActivo(false);
+        productosService.actualizar(altavoz.getId(), dto, null);
+        assertEquals("Altavoz BT", productosService.findById(altavoz.getId()).getNombre());
+        assertEquals(2, productosService.findProductosActivos().size());
+
+        productosService.eliminar(altavoz.getId(), null);
+        assertEquals(List.of("Monitor", "Raton", "Teclado"), nombres());
+    }
+
+    @Test
+    void rolesDesdeLaCacheIncluidoTrasReconciliarContadores() {
+        rolesEmpleadoService.findAll();
+        rolesEmpleadoRepository.findById(idRol);
+
+        // El UPDATE nativo declara su tabla: no vacia las regiones de roles ni productos
+        empleadosRepository.reconciliarNumClientes();
+        statistics.clear();
+        assertEquals(1, rolesEmpleadoService.findAll().size());
+        assertTrue(rolesEmpleadoRepository.findById(idRol).isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private List<String> nombres() {
+        return productosService.findAll().stream().map(Productos::getNombre).sorted().toList();
+    }
+
+    private EstadisticasRegionCache region(String nombre) {
+        return cacheSegundoNivelService.estadisticas().stream()
+                .filter(r -> r.region().equals(nombre)).findFirst().orElseThrow();
+    }
+}
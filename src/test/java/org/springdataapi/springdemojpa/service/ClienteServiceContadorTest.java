@@ -0,0 +1,132 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.Empleados;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * El contador num_clientes de cada empleado sigue a crear/actualizar/eliminar cliente
+ * y la reconciliacion repara las desviaciones
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ClienteServiceContadorTest {
+
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Empleados ana;
+    private Empleados luis;
+
+    @BeforeEach
+    void seed() {
+        clientesRepository.deleteAll();
+        empleadosRepository.deleteAll();
+        rolesEmpleadoRepository.deleteAll();
+
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol("empleado");
+        rolesEmpleadoRepository.save(rol);
+
+        ana = empleado("ana@crm.es", rol);
+        luis = empleado("luis@crm.es", rol);
+    }
+
+    @Test
+    void crearActualizarYEliminarMantienenElContador() {
+        clienteService.crear(dto("c1@crm.es", "611111111", ana.getId()));
+        clienteService.crear(dto("c2@crm.es", "622222222", ana.getId()));
+        clienteService.crear(dto("c3@crm.es", "633333333", null));
+        assertEquals(2, numClientes(ana));
+        assertEquals(0, numClientes(luis));
+
+        Clientes c1 = clientesRepository.findByEmail("c1@crm.es").orElseThrow();
+        clienteService.actualizar(c1.getId(), dto("c1@crm.es", "611111111", luis.getId()), null);
+        assertEquals(1, numClientes(ana));
+        assertEquals(1, numClientes(luis));
+
+        // Sin cambio de responsable el contador no se toca
+        clienteService.actualizar(c1.getId(), dto("c1-bis@crm.es", "611111111", luis.getId()), null);
+        assertEquals(1, numClientes(luis));
+
+        clienteService.actualizar(c1.getId(), dto("c1-bis@crm.es", "611111111", null), null);
+        assertEquals(0, numClientes(luis));
+
+        Clientes c2 = clientesRepository.findByEmail("c2@crm.es").orElseThrow();
+        clienteService.eliminar(c2.getId(), null);
+        assertEquals(0, numClientes(ana));
+    }
+
+    @Test
+    void actualizarEmpleadoNoPisaElContador() {
+        clienteService.crear(dto("c1@crm.es", "611111111", ana.getId()));
+
+        Empleados cargado = empleadosRepository.findById(ana.getId()).orElseThrow();
+        cargado.setNumClientes(99);
+        cargado.setNombre("Ana Maria");
+        empleadosRepository.save(cargado);
+
+        assertEquals(1, numClientes(ana));
+    }
+
+    @Test
+    void reconciliacionReparaDesviaciones() {
+        clienteService.crear(dto("c1@crm.es", "611111111", ana.getId()));
+        jdbcTemplate.update("UPDATE empleados SET num_clientes = 7 WHERE id_empleado = ?", ana.getId());
+        jdbcTemplate.update("UPDATE empleados SET num_clientes = 3 WHERE id_empleado = ?", luis.getId());
+
+        assertEquals(2, empleadosService.reconciliarNumClientes());
+        assertEquals(1, numClientes(ana));
+        assertEquals(0, numClientes(luis));
+        assertEquals(0, empleadosService.reconciliarNumClientes());
+    }
+
+    private int numClientes(Empleados empleado) {
+        return empleadosRepository.findById(empleado.getId()).orElseThrow().getNumClientes();
+    }
+
+    private Empleados empleado(String email, RolesEmpleado rol) {
+        Empleados e = new Empleados();
+        e.setNombre(email);
+        e.setEmail(email);
+        e.setPassword("x");
+        e.setIdRol(rol);
+        e.setEstado("activo");
+        e.setFechaIngreso(LocalDate.now());
+        return empleadosRepository.save(e);
+    }
+
+    private ClientesDTO dto(String email, String telefono, Integer idEmpleado) {
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre(email);
+        dto.setEmail(email);
+        dto.setTelefono(telefono);
+        dto.setPassword("1234");
+        dto.setId_empleadoresponsable(idEmpleado);
+        return dto;
+    }
+}
@@ -0,0 +1,36 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroBloomTest {
+
+    @Test
+    void sinFalsosNegativosYFalsosPositivosCercaDeLaProbabilidadPedida() {
+        FiltroBloom filtro = new FiltroBloom(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filtro.anadir("cliente" + i + "@crm.es");
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filtro.puedeContener("cliente" + i + "@crm.es"));
+        }
+
+        long falsos = IntStream.range(0, 100_000)
+                .filter(i -> filtro.puedeContener("otro" + i + "@crm.es")).count();
+        assertTrue(falsos < 1_500, "falsos positivos: " + falsos);
+        // ~9,6 bits por elemento para un 1%
+        assertTrue(filtro.bytes() < 130_000, "bytes: " + filtro.bytes());
+    }
+
+    @Test
+    void anadirDesdeVariosHilosNoPierdeBits() {
+        FiltroBloom filtro = new FiltroBloom(50_000, 0.01);
+        IntStream.range(0, 50_000).parallel().forEach(i -> filtro.anadir(String.format("6%08d", i)));
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filtro.puedeContener(String.format("6%08d", i)));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.springdataapi.springdemojpa.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.Clientes;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.ClientesParcialDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosParcialDTO;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.security.PasswordHashingBusyException;
+import org.springdataapi.springdemojpa.security.PoolHashingBloqueado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las escrituras con password calculan el BCrypt antes de abrir la transaccion: mientras esperan al pool de
+ * hashing saturado no retienen ninguna conexion JDBC, asi una avalancha de logins no agota el pool de conexiones
+ */
+@SpringBootTest(properties = {"app.security.password-hashing.threads=1",
+        "app.security.password-hashing.queue-capacity=1", "app.security.password-hashing.max-wait-ms=300"})
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class HashingFueraDeTransaccionTest {
+
+    private static final long MAX_WAIT_MS = 300;
+
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private DataSource dataSource;
+
+    private Integer idCliente;
+    private Integer idEmpleado;
+
+    @BeforeEach
+    void seed() {
+        datos.vaciar();
+
+        Clientes c = new Clientes();
+        c.setNombre("Marta");
+        c.setEmail("marta@crm.es");
+        c.setPassword("x");
+        c.setFechaAlta(LocalDate.now());
+        idCliente = clientesRepository.save(c).getId();
+        idEmpleado = datos.ana("ADMIN").getId();
+    }
+
+    @Test
+    void lasEscriturasDeClienteNoRetienenConexionMientrasEsperanAlHash() throws Exception {
+        try (PoolHashingBloqueado pool = PoolHashingBloqueado.ocupar(passwordEncoder)) {
+            assertEquals(0, conexionesMientrasEspera(() -> clienteService.crear(dto("nuevo@crm.es"))));
+            assertEquals(0, conexionesMientrasEspera(
+                    () -> clienteService.actualizar(idCliente, dto("marta@crm.es"), null)));
+            ClientesParcialDTO parcial = new ClientesParcialDTO();
+            parcial.setPassword("otra");
+            assertEquals(0, conexionesMientrasEspera(() -> clienteService.actualizarParcial(idCliente, parcial, null)));
+        }
+
+        // Con el pool libre la misma escritura sale adelante
+        clienteService.crear(dto("nuevo@crm.es"));
+        assertTrue(clientesRepository.existsByEmail("nuevo@crm.es"));
+    }
+
+    @Test
+    void elPatchDeEmpleadoNoRetieneConexionMientrasEsperaAlHash() throws Exception {
+        EmpleadosParcialDTO parcial = new EmpleadosParcialDTO();
+        parcial.setPassword("otra");
+        try (PoolHashingBloqueado pool = PoolHashingBloqueado.ocupar(passwordEncoder)) {
+            assertEquals(0, conexionesMientrasEspera(() -> empleadosService.actualizarParcial(idEmpleado, parcial, null)));
+        }
+
+        empleadosService.actualizarParcial(idEmpleado, parcial, null);
+        assertTrue(passwordEncoder.matches("otra", empleadosRepository.findById(idEmpleado).orElseThrow().getPassword()));
+    }
+
+    // Maximo de conexiones en uso mientras la escritura espera en la cola del pool ocupado, hasta
+    // max-wait-ms y PasswordHashingBusyException (503)
+    private int conexionesMientrasEspera(Runnable escritura) throws Exception {
+        HikariPoolMXBean conexiones = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        FutureTask<Void> tarea = new FutureTask<>(escritura, null);
+        long inicio = System.nanoTime();
+        new Thread(tarea, "escritura").start();
+        int maximo = 0;
+        while (!tarea.isDone()) {
+            maximo = Math.max(maximo, conexiones.getActiveConnections());
+            Thread.sleep(5);
+        }
+        ExecutionException e = assertThrows(ExecutionException.class, tarea::get);
+        assertInstanceOf(PasswordHashingBusyException.class, e.getCause());
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MS), "no espero al pool");
+        return maximo;
+    }
+
+    private static ClientesDTO dto(String email) {
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre("Cliente");
+        dto.setEmail(email);
+        dto.setTelefono("611111111");
+        dto.setPassword("secreto");
+        return dto;
+    }
+}
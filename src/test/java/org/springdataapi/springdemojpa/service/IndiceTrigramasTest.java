@@ -0,0 +1,110 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceTrigramasTest {
+
+    @Test
+    void devuelveLosIdsQueContienenElTexto() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.anadir(1, "ana@crm.es");
+        indice.anadir(2, "Juana@otro.es");
+        indice.anadir(3, "luis@crm.es");
+
+        assertArrayEquals(new int[]{1, 2}, indice.candidatos("ANA"));
+        assertArrayEquals(new int[]{1, 3}, indice.candidatos("@crm"));
+        assertArrayEquals(new int[0], indice.candidatos("zzz"));
+        // Menos de 3 caracteres: el indice no sirve
+        assertNull(indice.candidatos("an"));
+        assertNull(indice.candidatos(null));
+    }
+
+    // Como utf8mb4_0900_ai_ci: ni mayusculas ni tildes cuentan, en el valor ni en lo buscado
+    @Test
+    void ignoraTildesComoLaCollation() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.anadir(1, "José Núñez");
+        indice.anadir(2, "Jose Nunez");
+        indice.anadir(3, "Joaquín");
+
+        assertArrayEquals(new int[]{1, 2}, indice.candidatos("jose"));
+        assertArrayEquals(new int[]{1, 2}, indice.candidatos("JOSÉ"));
+        assertArrayEquals(new int[]{1, 2}, indice.candidatos("nuñez"));
+        assertArrayEquals(new int[]{3}, indice.candidatos("quin"));
+        assertEquals("jose nunez", IndiceTrigramas.normalizar("JOSÉ NÚÑEZ"));
+        // Sin descomposicion NFD (ß, ø...): el indice no decide, va el LIKE
+        assertNull(indice.candidatos("straße"));
+    }
+
+    @Test
+    void anadirEsIdempotenteYQuitarLimpiaLasListas() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.anadir(5, "600123123");
+        indice.anadir(5, "600123123");
+        indice.anadir(2, "600999999");
+        assertArrayEquals(new int[]{2, 5}, indice.candidatos("600"));
+
+        indice.reemplazar(5, "600123123", "611000000");
+        assertArrayEquals(new int[]{2}, indice.candidatos("600"));
+        assertArrayEquals(new int[]{5}, indice.candidatos("611"));
+
+        indice.quitar(5, "611000000");
+        indice.quitar(2, "600999999");
+        assertEquals(0, indice.trigramasDistintos());
+    }
+
+    @Test
+    void quitarPorIdFiltraYLaPurgaVaciaLasListas() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.anadir(1, "ana@crm.es");
+        indice.anadir(2, "juana@crm.es");
+        indice.quitarId(1);
+        assertArrayEquals(new int[]{2}, indice.candidatos("ana"));
+
+        // Al llegar a PURGA_BORRADOS marcas se quitan de verdad de las listas
+        for (int id = 100; id < 100 + IndiceTrigramas.PURGA_BORRADOS; id++) {
+            indice.anadir(id, "x" + id);
+        }
+        for (int id = 100; id < 100 + IndiceTrigramas.PURGA_BORRADOS - 2; id++) {
+            indice.quitarId(id);
+        }
+        indice.quitarId(2);
+        assertArrayEquals(new int[0], indice.candidatos("ana"));
+        assertArrayEquals(new int[]{1122, 1123}, indice.candidatos("x112"));
+        assertEquals(IndiceTrigramas.trigramas("x1122").length + 1, indice.trigramasDistintos());
+    }
+
+    @Test
+    void coincideConUnaBusquedaLinealSinFalsosNegativos() {
+        Random random = new Random(42);
+        String[] valores = new String[5_000];
+        IndiceTrigramas indice = new IndiceTrigramas();
+        // Ids en orden aleatorio para cubrir tambien las inserciones en medio de la lista
+        List<Integer> orden = new ArrayList<>(IntStream.range(0, valores.length).boxed().toList());
+        Collections.shuffle(orden, random);
+        for (int id : orden) {
+            valores[id] = String.format("6%08d", random.nextInt(100_000_000));
+            indice.anadir(id, valores[id]);
+        }
+
+        for (String buscado : new String[]{"123", "0000", "6123", "99", "45678"}) {
+            int[] esperado = IntStream.range(0, valores.length)
+                    .filter(i -> valores[i].contains(buscado)).toArray();
+            int[] candidatos = indice.candidatos(buscado);
+            if (candidatos == null) {
+                assertTrue(buscado.length() < IndiceTrigramas.LONGITUD_MINIMA);
+                continue;
+            }
+            int[] reales = IntStream.of(candidatos).filter(i -> valores[i].contains(buscado)).toArray();
+            assertArrayEquals(esperado, reales, buscado);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.DatosPrueba;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosDTO;
+import org.springdataapi.springdemojpa.models.RolesEmpleado;
+import org.springdataapi.springdemojpa.repository.ClientesRepository;
+import org.springdataapi.springdemojpa.repository.EmpleadosRepository;
+import org.springdataapi.springdemojpa.repository.RolesEmpleadoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unicidad de email/telefono: el filtro de Bloom se salta los exists cuando el valor es nuevo, y las
+ * restricciones UNIQUE impiden los duplicados aunque el filtro no lo sepa o haya altas simultaneas
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class UnicidadContactosTest {
+
+    private static final int HILOS = 8;
+
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EmpleadosService empleadosService;
+    @Autowired
+    private UnicidadContactos unicidadContactos;
+    @Autowired
+    private DatosPrueba datos;
+    @Autowired
+    private ClientesRepository clientesRepository;
+    @Autowired
+    private EmpleadosRepository empleadosRepository;
+    @Autowired
+    private RolesEmpleadoRepository rolesEmpleadoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Integer idRol;
+
+    @BeforeEach
+    void seed() {
+        statistics = datos.estadisticas();
+        datos.vaciar();
+
+        RolesEmpleado rol = new RolesEmpleado();
+        rol.setNombreRol("empleado");
+        idRol = rolesEmpleadoRepository.save(rol).getId();
+        clienteService.crear(cliente("ana@crm.es", "611111111"));
+        unicidadContactos.reconstruir();
+    }
+
+    @Test
+    void valorNuevoSinConsultasDeExistenciaYRepetidoConElMensajeDeSiempre() {
+        assertTrue(unicidadContactos.isListo());
+        assertFalse(unicidadContactos.emailClientePuedeExistir("luis@crm.es"));
+        // Las claves no distinguen mayusculas, como la collation de MySQL
+        assertTrue(unicidadContactos.emailClientePuedeExistir("ANA@crm.es"));
+
+        statistics.clear();
+        clienteService.crear(cliente("luis@crm.es", "622222222"));
+        // Solo el INSERT: ni existsByEmail ni existsByTelefono
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals("Email ya registrado",
+                assertThrows(RuntimeException.class, () -> clienteService.crear(cliente("luis@crm.es", "633333333")))
+                        .getMessage());
+        assertEquals("Teléfono ya registrado",
+                assertThrows(RuntimeException.class, () -> clienteService.crear(cliente("marta@crm.es", "622222222")))
+                        .getMessage());
+    }
+
+    @Test
+    void filaQueElFiltroNoConoceLaFrenaLaRestriccion() {
+        // Alta por fuera de la aplicacion (otra instancia, SQL a mano): el filtro dice "nuevo"
+        jdbcTemplate.update("INSERT INTO clientes (nombre, email, telefono, password) VALUES ('x', 'pepe@crm.es', '644444444', 'x')");
+        jdbcTemplate.update("INSERT INTO empleados (nombre, email, telefono, password, id_rol, estado, num_clientes) "
+                + "VALUES ('x', 'eva@crm.es', '655555555', 'x', ?, 'activo', 0)", idRol);
+        assertFalse(unicidadContactos.emailClientePuedeExistir("pepe@crm.es"));
+
+        assertEquals("Email ya registrado", assertThrows(RuntimeException.class,
+                () -> clienteService.crear(cliente("pepe@crm.es", "699999999"))).getMessage());
+        assertEquals("Teléfono ya registrado", assertThrows(RuntimeException.class,
+                () -> clienteService.crear(cliente("otro@crm.es", "644444444"))).getMessage());
+        Integer idAna = clientesRepository.findByEmail("ana@crm.es").orElseThrow().getId();
+        assertEquals("Email ya registrado", assertThrows(RuntimeException.class,
+                () -> clienteService.actualizar(idAna, cliente("pepe@crm.es", "611111111"), null)).getMessage());
+
+        assertEquals("Email ya registrado", assertThrows(RuntimeException.class,
+                () -> empleadosService.crear(empleado("eva@crm.es", "666666666"))).getMessage());
+        assertEquals("Teléfono ya registrado", assertThrows(RuntimeException.class,
+                () -> empleadosService.crear(empleado("juan@crm.es", "655555555"))).getMessage());
+
+        assertEquals(2, clientesRepository.count());
+        assertEquals(1, empleadosRepository.count());
+    }
+
+    @Test
+    void altasSimultaneasDelMismoEmailOTelefono() throws Exception {
+        List<String> errores = simultaneas(i -> () -> clienteService.crear(cliente("mismo@crm.es", "6000000" + (10 + i))));
+        assertEquals(HILOS - 1, errores.size());
+        assertTrue(errores.stream().allMatch("Email ya registrado"::equals), errores.toString());
+
+        errores = simultaneas(i -> () -> clienteService.crear(cliente("tel" + i + "@crm.es", "677777777")));
+        assertEquals(HILOS - 1, errores.size());
+        assertTrue(errores.stream().allMatch("Teléfono ya registrado"::equals), errores.toString());
+
+        errores = simultaneas(i -> () -> empleadosService.crear(empleado("mismo@crm.es", "6100000" + (10 + i))));
+        assertEquals(HILOS - 1, errores.size());
+        assertTrue(errores.stream().allMatch("Email ya registrado"::equals), errores.toString());
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes WHERE email = 'mismo@crm.es'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes WHERE telefono = '677777777'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM empleados WHERE email = 'mismo@crm.es'", Integer.class));
+    }
+
+    // Lanza HILOS altas a la vez (varias pasan la comprobacion previa y solo la restriccion las frena)
+    // y devuelve los mensajes de las que fallan
+    private List<String> simultaneas(IntFunction<Runnable> alta) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                Runnable r = alta.apply(i);
+                resultados.add(pool.submit(() -> {
+                    salida.await();
+                    try {
+                        r.run();
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e.getMessage();
+                    }
+                }));
+            }
+            salida.countDown();
+            List<String> errores = new ArrayList<>();
+            for (Future<String> f : resultados) {
+                String error = f.get();
+                if (error != null) errores.add(error);
+            }
+            return errores;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static ClientesDTO cliente(String email, String telefono) {
+        ClientesDTO dto = new ClientesDTO();
+        dto.setNombre(email);
+        dto.setEmail(email);
+        dto.setTelefono(telefono);
+        dto.setPassword("1234");
+        return dto;
+    }
+
+    private EmpleadosDTO empleado(String email, String telefono) {
+        EmpleadosDTO dto = new EmpleadosDTO();
+        dto.setNombre(email);
+        dto.setEmail(email);
+        dto.setTelefono(telefono);
+        dto.setPassword("1234");
+        dto.setIdRol(idRol);
+        return dto;
+    }
+}
@@ -0,0 +1,84 @@
+package org.springdataapi.springdemojpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springdataapi.springdemojpa.models.ClientesDTO;
+import org.springdataapi.springdemojpa.models.EmpleadosDTO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidacionCamposTest {
+
+    @Test
+    void telefonoComoLaVersionConRegex() {
+        String limpio = "600123123";
+        assertSame(limpio, ValidacionCampos.normalizarTelefono(limpio));
+        assertEquals("600123123", ValidacionCampos.normalizarTelefono(" 600 123\t123 "));
+        assertNull(ValidacionCampos.normalizarTelefono("   "));
+        assertNull(ValidacionCampos.normalizarTelefono(null));
+
+        assertNull(ValidacionCampos.errorTelefono(" 600 123 123"));
+        assertNull(ValidacionCampos.errorTelefono(" "));
+        assertEquals(ValidacionCampos.TELEFONO_NO_NUMERICO, ValidacionCampos.errorTelefono("600-123-123"));
+        assertEquals(ValidacionCampos.TELEFONO_NO_NUMERICO, ValidacionCampos.errorTelefono("+34600123123"));
+        assertEquals(ValidacionCampos.TELEFONO_LONGITUD, ValidacionCampos.errorTelefono("60012312"));
+        assertEquals(ValidacionCampos.TELEFONO_LONGITUD, ValidacionCampos.errorTelefono("6001231234"));
+
+        assertEquals(ValidacionCampos.TELEFONO_NO_NUMERICO,
+                assertThrows(RuntimeException.class, () -> ValidacionCampos.telefonoValido("6001x3123")).getMessage());
+    }
+
+    @Test
+    void aliasDeTipoYEstadoSinDistinguirMayusculasNiEspacios() {
+        assertEquals("PARTICULAR", ValidacionCampos.normalizarTipoCliente(" persona "));
+        assertEquals("PARTICULAR", ValidacionCampos.normalizarTipoCliente("Particular"));
+        assertEquals("EMPRESA", ValidacionCampos.normalizarTipoCliente("empresa"));
+        assertNull(ValidacionCampos.normalizarTipoCliente("autonomo"));
+        assertNull(ValidacionCampos.normalizarTipoCliente("empresas"));
+
+        assertEquals("activo", ValidacionCampos.normalizarEstado(null));
+        assertEquals("activo", ValidacionCampos.normalizarEstado(" "));
+        assertEquals("activo", ValidacionCampos.normalizarEstado("Sí"));
+        assertEquals("activo", ValidacionCampos.normalizarEstado("TRUE"));
+        assertEquals("inactivo", ValidacionCampos.normalizarEstado(" No "));
+        assertEquals("inactivo", ValidacionCampos.normalizarEstado("0"));
+        assertNull(ValidacionCampos.normalizarEstado("quizas"));
+    }
+
+    @Test
+    void dtoDevuelveElPrimerErrorYNormalizaSinExcepciones() {
+        ClientesDTO c = new ClientesDTO();
+        c.setNombre("Luis");
+        c.setPassword("1234");
+        c.setEmail("luis@crm.es");
+        assertEquals("¿Y tú teléfono olvidona?", ValidacionCampos.cliente(c));
+
+        c.setTelefono("611 111 111");
+        c.setTipo_cliente(" empresa");
+        assertNull(ValidacionCampos.cliente(c));
+        assertEquals("611111111", c.getTelefono());
+        assertEquals("EMPRESA", c.getTipo_cliente());
+
+        c.setTipo_cliente("otro");
+        assertEquals("Tipo de cliente inválido: otro. Valores válidos: PARTICULAR, EMPRESA", ValidacionCampos.cliente(c));
+
+        // En actualizar la password no hace falta y el telefono puede quitarse
+        c.setPassword(null);
+        c.setTipo_cliente(null);
+        c.setTelefono("");
+        assertNull(ValidacionCampos.clienteActualizar(c));
+        assertNull(c.getTelefono());
+        assertEquals("La password pa otro día ¿no?", ValidacionCampos.cliente(c));
+
+        EmpleadosDTO e = new EmpleadosDTO();
+        e.setNombre("Ana");
+        e.setPassword("x");
+        e.setEmail("sin-arroba");
+        assertEquals("Email obligatorio", ValidacionCampos.empleado(e));
+        e.setEmail("ana@crm.es");
+        assertEquals("Rol obligatorio", ValidacionCampos.empleado(e));
+        e.setIdRol(1);
+        e.setTelefono("600 00 00 00");
+        assertNull(ValidacionCampos.empleado(e));
+        assertEquals("600000000", e.getTelefono());
+    }
+}